@@ -0,0 +1,63 @@
+package com.mystery.accountbenchmark;
+
+import com.mystery.account.AccountServiceApplication;
+import com.mystery.accountbenchmark.config.BenchmarkConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Starts the account service on H2 and the Spring Cloud Stream test binder with the
+ * {@code benchmark} profile, once with transfers locking account rows, once with the
+ * partitioned ledger and once with netted batches, runs {@link TransferBenchmark} against each
+ * and compares them.
+ *
+ * Run with {@code mvn -Pbenchmark -pl account-benchmark -am verify -Djib.skip}; the build fails
+ * if any transfer fails or the balances do not add up.
+ */
+@Slf4j
+public final class AccountBenchmarkApplication {
+
+    private AccountBenchmarkApplication() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        TransferBenchmark.Result locking = run(args, "Row lock", false, false);
+        TransferBenchmark.Result ledger = run(args, "Ledger", true, false);
+        TransferBenchmark.Result netting = run(args, "Netting", false, true);
+        log.info("==== Account benchmark ====");
+        log.info("row locks: {} transfers/s, ledger: {} transfers/s ({}x), netting: {} transfers/s ({}x)",
+                String.format("%.1f", locking.transfersPerSecond()),
+                String.format("%.1f", ledger.transfersPerSecond()), speedup(ledger, locking),
+                String.format("%.1f", netting.transfersPerSecond()), speedup(netting, locking));
+    }
+
+    private static String speedup(TransferBenchmark.Result result, TransferBenchmark.Result baseline) {
+        return String.format("%.1f", result.transfersPerSecond() / Math.max(baseline.transfersPerSecond(), 1e-9));
+    }
+
+    private static TransferBenchmark.Result run(String[] args, String name, boolean ledger, boolean netting)
+            throws InterruptedException {
+        SpringApplication application = new SpringApplication(TestChannelBinderConfiguration.getCompleteConfiguration(
+                AccountServiceApplication.class, BenchmarkConfiguration.class));
+        application.setAdditionalProfiles("benchmark");
+
+        // Command line arguments take precedence over -D system properties
+        String[] runArgs = Stream.concat(Arrays.stream(args), Stream.of(
+                        "--account.ledger.enabled=" + ledger, "--account.netting.enabled=" + netting))
+                .toArray(String[]::new);
+        TransferBenchmark.Result result;
+        try (ConfigurableApplicationContext context = application.run(runArgs)) {
+            result = context.getBean(TransferBenchmark.class).run();
+        }
+        if (result.failed() > 0 || !result.balanced()) {
+            throw new IllegalStateException(name + " run failed " + result.failed()
+                    + " transfers, balances " + (result.balanced() ? "add up" : "do not add up"));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,167 @@
+package com.mystery.accountbenchmark;
+
+import com.mystery.account.netting.TransferNetter;
+import com.mystery.account.repository.AccountRepository;
+import com.mystery.account.service.AccountService;
+import com.mystery.accountbenchmark.config.BenchmarkProperties;
+import com.mystery.common.entity.Account;
+import com.mystery.common.money.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load driver of the account benchmark.
+ *
+ * Funds {@code benchmark.payers} accounts and makes {@code benchmark.transfers} transfers from
+ * them into {@code benchmark.hot-accounts} accounts through {@link AccountService#transferMoney},
+ * or the {@link TransferNetter} when netting is enabled, keeping {@code benchmark.concurrency} in flight on virtual threads. Reports transfers per second
+ * and checks afterwards that no money was created or lost.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferBenchmark {
+
+    private static final Money PAYER_BALANCE = Money.ofMinor(100_000_000_000L);
+
+    private final BenchmarkProperties properties;
+    private final AccountService accountService;
+    private final TransferNetter transferNetter;
+    private final AccountRepository accountRepository;
+    private final Environment environment;
+
+    /**
+     * Outcome of one measured run.
+     */
+    public record Result(long transfers, long failed, long elapsedNanos, boolean balanced) {
+
+        public double transfersPerSecond() {
+            return (transfers - failed) * 1e9 / Math.max(elapsedNanos, 1);
+        }
+    }
+
+    /**
+     * Seed the accounts, run the warm-up, then the measured run, and log the report of the latter.
+     *
+     * @return the outcome of the measured run
+     */
+    public Result run() throws InterruptedException {
+        seed();
+        long warmupFailed = 0;
+        if (properties.getWarmupTransfers() > 0) {
+            log.info("Warming up with {} transfers", properties.getWarmupTransfers());
+            warmupFailed = drive(properties.getWarmupTransfers(), 0).failed();
+        }
+        log.info("Running {} transfers into {} hot accounts, {} in flight", properties.getTransfers(),
+                properties.getHotAccounts(), properties.getConcurrency());
+        Result measured = drive(properties.getTransfers(), properties.getWarmupTransfers());
+
+        long succeeded = properties.getWarmupTransfers() + properties.getTransfers() - warmupFailed - measured.failed();
+        Result result = new Result(measured.transfers(), measured.failed(), measured.elapsedNanos(), balanced(succeeded));
+        report(result);
+        return result;
+    }
+
+    // Private helper methods
+
+    private void seed() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < properties.getPayers(); i++) {
+            accounts.add(account(payer(i), PAYER_BALANCE));
+        }
+        for (int i = 0; i < properties.getHotAccounts(); i++) {
+            accounts.add(account(hotAccount(i), Money.ZERO));
+        }
+        accountRepository.saveAll(accounts);
+    }
+
+    private Result drive(int transfers, int firstSequence) throws InterruptedException {
+        Money amount = Money.of(properties.getAmount());
+        LongAdder failed = new LongAdder();
+        Semaphore inFlight = new Semaphore(properties.getConcurrency());
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < transfers; i++) {
+                int sequence = firstSequence + i;
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        String payer = payer(sequence % properties.getPayers());
+                        String hotAccount = hotAccount(sequence % properties.getHotAccounts());
+                        if (transferNetter.isEnabled()) {
+                            transferNetter.submit(payer, hotAccount, amount).join();
+                        } else {
+                            accountService.transferMoney(payer, hotAccount, amount);
+                        }
+                    } catch (RuntimeException e) {
+                        log.warn("Benchmark transfer {} failed: {}", sequence, e.getMessage());
+                        failed.increment();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return new Result(transfers, failed.sum(), System.nanoTime() - start, true);
+    }
+
+    private boolean balanced(long succeeded) {
+        // Exact: balances are minor units, so no tolerance is needed
+        long paid = 0;
+        long received = 0;
+        for (Account account : accountRepository.findAll()) {
+            if (account.getAccountNumber().startsWith("HOT-")) {
+                received += account.getBalance().minorUnits();
+            } else {
+                paid += PAYER_BALANCE.minus(account.getBalance()).minorUnits();
+            }
+        }
+        long expected = Math.multiplyExact(succeeded, Money.of(properties.getAmount()).minorUnits());
+        return paid == expected && received == expected;
+    }
+
+    private static Account account(String accountNumber, Money balance) {
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setAccountType("CHECKING");
+        account.setUserId("benchmark");
+        account.setUserName("benchmark");
+        account.setBalance(balance);
+        account.setStatus("ACTIVE");
+        account.setCreatedTimestamp(LocalDateTime.now());
+        return account;
+    }
+
+    private static String payer(int index) {
+        return "PAYER-" + index;
+    }
+
+    private static String hotAccount(int index) {
+        return "HOT-" + index;
+    }
+
+    private void report(Result result) {
+        boolean ledger = Boolean.parseBoolean(environment.getProperty("account.ledger.enabled"));
+        boolean netting = transferNetter.isEnabled();
+        log.info("==== {} ====", ledger ? "Partitioned ledger" : netting ? "Netted batches" : "Row locks");
+        log.info("transfers={}, concurrency={}, payers={}, hot-accounts={}{}",
+                result.transfers(), properties.getConcurrency(), properties.getPayers(), properties.getHotAccounts(),
+                ledger ? ", partitions=" + environment.getProperty("account.ledger.partitions")
+                        + ", batch-size=" + environment.getProperty("account.ledger.batch-size")
+                        : netting ? ", window=" + environment.getProperty("account.netting.window")
+                        + ", batch-size=" + environment.getProperty("account.netting.batch-size") : "");
+        log.info("throughput: {} transfers/s ({} failed in {} s), balances {}",
+                String.format("%.1f", result.transfersPerSecond()), result.failed(),
+                String.format("%.2f", result.elapsedNanos() / 1e9), result.balanced() ? "add up" : "DO NOT ADD UP");
+    }
+}
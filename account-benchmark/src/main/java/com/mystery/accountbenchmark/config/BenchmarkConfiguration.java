@@ -0,0 +1,15 @@
+package com.mystery.accountbenchmark.config;
+
+import com.mystery.accountbenchmark.TransferBenchmark;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Benchmark beans added to the account service context; its component scan does not reach this package.
+ */
+@Configuration
+@Import(TransferBenchmark.class)
+@EnableConfigurationProperties(BenchmarkProperties.class)
+public class BenchmarkConfiguration {
+}
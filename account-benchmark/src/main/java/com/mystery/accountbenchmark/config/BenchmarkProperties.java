@@ -0,0 +1,34 @@
+package com.mystery.accountbenchmark.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+
+/**
+ * Configuration of the account benchmark, see {@link com.mystery.accountbenchmark.TransferBenchmark}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "benchmark")
+public class BenchmarkProperties {
+
+    /** Transfers made by the measured run. */
+    private int transfers = 20000;
+
+    /** Transfers made before the measured run to warm up the JIT, pools and caches; not reported. */
+    private int warmupTransfers = 2000;
+
+    /** Transfers in flight at any time. */
+    private int concurrency = 64;
+
+    /** Accounts paying into the hot accounts, each funded for the whole run. */
+    private int payers = 1000;
+
+    /** Accounts receiving every transfer, e.g. merchant or settlement accounts. */
+    private int hotAccounts = 1;
+
+    /** Amount of every transfer, in the base currency. */
+    private BigDecimal amount = BigDecimal.ONE;
+}
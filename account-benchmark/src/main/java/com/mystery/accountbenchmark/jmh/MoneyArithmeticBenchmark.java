@@ -0,0 +1,155 @@
+package com.mystery.accountbenchmark.jmh;
+
+import com.mystery.common.money.MinorUnits;
+import com.mystery.common.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The balance arithmetic of a transfer (sufficient-funds check, debit, credit) with each money
+ * representation the services have used: {@code double}, {@link BigDecimal}, {@link Money} and
+ * raw {@link MinorUnits}, plus parsing and formatting of JSON amounts.
+ *
+ * Every invocation applies {@link #TRANSFERS} transfers between two balances, so scores are
+ * nanoseconds per transfer. Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    private static final int TRANSFERS = 1024;
+
+    private double[] doubleAmounts;
+    private BigDecimal[] bigDecimalAmounts;
+    private Money[] moneyAmounts;
+    private long[] minorAmounts;
+    private String[] jsonAmounts;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        doubleAmounts = new double[TRANSFERS];
+        bigDecimalAmounts = new BigDecimal[TRANSFERS];
+        moneyAmounts = new Money[TRANSFERS];
+        minorAmounts = new long[TRANSFERS];
+        jsonAmounts = new String[TRANSFERS];
+        for (int i = 0; i < TRANSFERS; i++) {
+            long cents = random.nextLong(1, 1_000_000);
+            minorAmounts[i] = cents;
+            moneyAmounts[i] = Money.ofMinor(cents);
+            bigDecimalAmounts[i] = BigDecimal.valueOf(cents, 2);
+            doubleAmounts[i] = cents / 100.0;
+            jsonAmounts[i] = MinorUnits.format(cents, 2);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void transferDouble(Blackhole blackhole) {
+        double source = 1e12;
+        double destination = 0;
+        for (double amount : doubleAmounts) {
+            if (source >= amount) {
+                source -= amount;
+                destination += amount;
+            }
+        }
+        blackhole.consume(source);
+        blackhole.consume(destination);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void transferBigDecimal(Blackhole blackhole) {
+        BigDecimal source = BigDecimal.valueOf(1_000_000_000_000L, 2);
+        BigDecimal destination = BigDecimal.ZERO;
+        for (BigDecimal amount : bigDecimalAmounts) {
+            if (source.compareTo(amount) >= 0) {
+                source = source.subtract(amount);
+                destination = destination.add(amount);
+            }
+        }
+        blackhole.consume(source);
+        blackhole.consume(destination);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void transferMoney(Blackhole blackhole) {
+        Money source = Money.ofMinor(100_000_000_000_000L);
+        Money destination = Money.ZERO;
+        for (Money amount : moneyAmounts) {
+            if (source.covers(amount)) {
+                source = source.minus(amount);
+                destination = destination.plus(amount);
+            }
+        }
+        blackhole.consume(source);
+        blackhole.consume(destination);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void transferMinorUnits(Blackhole blackhole) {
+        long source = 100_000_000_000_000L;
+        long destination = 0;
+        for (long amount : minorAmounts) {
+            if (MinorUnits.covers(source, amount)) {
+                source = MinorUnits.subtract(source, amount);
+                destination = MinorUnits.add(destination, amount);
+            }
+        }
+        blackhole.consume(source);
+        blackhole.consume(destination);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void parseBigDecimal(Blackhole blackhole) {
+        for (String amount : jsonAmounts) {
+            blackhole.consume(new BigDecimal(amount).movePointRight(2).longValueExact());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void parseMinorUnits(Blackhole blackhole) {
+        for (String amount : jsonAmounts) {
+            blackhole.consume(MinorUnits.parse(amount, 2));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void formatBigDecimal(Blackhole blackhole) {
+        for (long amount : minorAmounts) {
+            blackhole.consume(BigDecimal.valueOf(amount, 2).toPlainString());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void formatMinorUnits(Blackhole blackhole) {
+        for (long amount : minorAmounts) {
+            blackhole.consume(MinorUnits.format(amount, 2));
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.mystery.account;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @ComponentScan({"com.mystery.account", "com.mystery.common.components"})
-@EntityScan({"com.mystery.common.entity"})
+@EntityScan({"com.mystery.common.entity", "com.mystery.account.model"})
 public class AccountServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AccountServiceApplication.class, args);
@@ -0,0 +1,226 @@
+package com.mystery.account.cache;
+
+import com.mystery.account.config.AccountCacheProperties;
+import com.mystery.common.entity.Account;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through near-cache of {@code accounts} rows by account number, enabled with
+ * {@code account.cache.enabled}.
+ *
+ * Every writer of account rows calls {@link #invalidate} in its transaction; the accounts are
+ * dropped once it commits and the invalidation is broadcast over the
+ * {@code account-cache-invalidation} topic, which every instance consumes without a group. A load
+ * that raced with an invalidation of the same account is returned but not cached, so a snapshot
+ * read before a commit never outlives it. Replicas may serve a snapshot for as long as the
+ * broadcast takes to arrive, and never longer than {@code account.cache.ttl}.
+ *
+ * Snapshots are copies and every hit returns a fresh copy, so callers can neither change nor
+ * persist a cached account. Lookups are counted as {@code account.cache.requests} tagged
+ * {@code result=hit|miss}, with {@code account.cache.hit.ratio} and {@code account.cache.size}.
+ */
+@Slf4j
+@Component
+public class AccountCache {
+
+    private static final String INVALIDATION_BINDING = "accountCacheInvalidation-out-0";
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final AccountCacheProperties properties;
+    private final StreamBridge streamBridge;
+    private final String instanceId = UUID.randomUUID().toString();
+    // Snapshots by account number, least recently read first; guarded by itself
+    private final Map<String, Snapshot> snapshots;
+    // Bumped by every invalidation of an account hashing to the stripe, so racing loads are not cached
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+
+    private record Snapshot(Account account, long loadedAtNanos) {
+    }
+
+    public AccountCache(AccountCacheProperties properties, StreamBridge streamBridge, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.streamBridge = streamBridge;
+        this.snapshots = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > properties.getMaxSize();
+            }
+        };
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.localInvalidations = invalidations(meterRegistry, "local");
+        this.remoteInvalidations = invalidations(meterRegistry, "remote");
+        Gauge.builder("account.cache.hit.ratio", this, AccountCache::hitRatio)
+                .description("Share of account lookups served from the near-cache")
+                .register(meterRegistry);
+        Gauge.builder("account.cache.size", this, AccountCache::size)
+                .description("Accounts held in the near-cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The account from the cache, or from {@code loader} on a miss.
+     */
+    public Optional<Account> get(String accountNumber, Function<String, Optional<Account>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.apply(accountNumber);
+        }
+        Snapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(accountNumber);
+        }
+        if (snapshot != null && System.nanoTime() - snapshot.loadedAtNanos() < properties.getTtl().toNanos()) {
+            hits.increment();
+            return Optional.of(copy(snapshot.account()));
+        }
+        misses.increment();
+        int stripe = generationStripe(accountNumber);
+        long generation = generations.get(stripe);
+        Optional<Account> loaded = loader.apply(accountNumber);
+        loaded.ifPresent(account -> {
+            Snapshot fresh = new Snapshot(copy(account), System.nanoTime());
+            synchronized (snapshots) {
+                // Checked under the lock invalidations take too, so no invalidation can slip in between
+                if (generations.get(stripe) == generation) {
+                    snapshots.put(accountNumber, fresh);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Drop the accounts here and on every other instance once the current transaction commits,
+     * or right away outside of one.
+     */
+    public void invalidate(String... accountNumbers) {
+        invalidate(Arrays.asList(accountNumbers));
+    }
+
+    public void invalidate(Collection<String> accountNumbers) {
+        if (properties.isEnabled() && !accountNumbers.isEmpty()) {
+            afterCommit(new AccountCacheInvalidation(instanceId, List.copyOf(accountNumbers), false));
+        }
+    }
+
+    /**
+     * Drop every account here and on every other instance, for writes whose account numbers are unknown.
+     */
+    public void invalidateAll() {
+        if (properties.isEnabled()) {
+            afterCommit(new AccountCacheInvalidation(instanceId, List.of(), true));
+        }
+    }
+
+    /**
+     * Apply an invalidation broadcast by another instance.
+     */
+    public void onRemoteInvalidation(AccountCacheInvalidation invalidation) {
+        if (!properties.isEnabled() || instanceId.equals(invalidation.origin())) {
+            return;
+        }
+        drop(invalidation);
+        remoteInvalidations.increment();
+    }
+
+    // Private helper methods
+
+    private void afterCommit(AccountCacheInvalidation invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(invalidation);
+            return;
+        }
+        // Dropping before the commit would let a concurrent lookup cache the row as it was before the write
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(invalidation);
+            }
+        });
+    }
+
+    private void apply(AccountCacheInvalidation invalidation) {
+        drop(invalidation);
+        localInvalidations.increment();
+        try {
+            streamBridge.send(INVALIDATION_BINDING, invalidation);
+        } catch (RuntimeException e) {
+            // The other instances still drop the accounts once their snapshots reach the TTL
+            log.warn("Failed to broadcast account cache invalidation of {}: {}",
+                    invalidation.all() ? "all accounts" : invalidation.accountNumbers(), e.getMessage());
+        }
+    }
+
+    private void drop(AccountCacheInvalidation invalidation) {
+        synchronized (snapshots) {
+            if (invalidation.all()) {
+                for (int i = 0; i < GENERATION_STRIPES; i++) {
+                    generations.incrementAndGet(i);
+                }
+                snapshots.clear();
+                return;
+            }
+            for (String accountNumber : invalidation.accountNumbers()) {
+                generations.incrementAndGet(generationStripe(accountNumber));
+                snapshots.remove(accountNumber);
+            }
+        }
+    }
+
+    private static int generationStripe(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), GENERATION_STRIPES);
+    }
+
+    private static Account copy(Account account) {
+        Account copy = new Account();
+        BeanUtils.copyProperties(account, copy);
+        return copy;
+    }
+
+    private double hitRatio() {
+        double lookups = hits.count() + misses.count();
+        return lookups == 0 ? 0 : hits.count() / lookups;
+    }
+
+    private int size() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("account.cache.requests")
+                .description("Account lookups by account number, by near-cache result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter invalidations(MeterRegistry meterRegistry, String origin) {
+        return Counter.builder("account.cache.invalidations")
+                .description("Account cache invalidations, by whether this or another instance wrote the accounts")
+                .tag("origin", origin)
+                .register(meterRegistry);
+    }
+}
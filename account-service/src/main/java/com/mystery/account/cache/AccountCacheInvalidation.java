@@ -0,0 +1,10 @@
+package com.mystery.account.cache;
+
+import java.util.List;
+
+/**
+ * Broadcast by an instance after it wrote accounts, so the other instances drop them from their
+ * {@link AccountCache}; {@code all} drops every account, e.g. after deletions by user id.
+ */
+public record AccountCacheInvalidation(String origin, List<String> accountNumbers, boolean all) {
+}
@@ -0,0 +1,25 @@
+package com.mystery.account.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the account near-cache, see {@link com.mystery.account.cache.AccountCache}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "account.cache")
+public class AccountCacheProperties {
+
+    /** Serve account lookups by account number from memory between writes. */
+    private boolean enabled = false;
+
+    /** Accounts kept, at most; the least recently read ones are dropped first. */
+    private int maxSize = 10000;
+
+    /** Age after which a snapshot is reloaded even without an invalidation, e.g. one lost on the way. */
+    private Duration ttl = Duration.ofSeconds(30);
+}
@@ -0,0 +1,34 @@
+package com.mystery.account.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the partitioned balance ledger, see {@link com.mystery.account.ledger.LedgerEngine}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "account.ledger")
+public class LedgerProperties {
+
+    /** Apply transfers in the in-memory ledger instead of locking both account rows in MySQL. */
+    private boolean enabled = false;
+
+    /** Single-writer partitions; every account belongs to exactly one of them. */
+    private int partitions = 4;
+
+    /** Operations a partition applies in memory and journals in one transaction, at most. */
+    private int batchSize = 256;
+
+    /** Accounts kept in memory per partition; the least recently used ones are reloaded on demand. */
+    private int maxAccountsPerPartition = 100000;
+
+    /** Attempts of a transfer whose journal write failed, e.g. because its balance was changed elsewhere. */
+    private int maxAttempts = 3;
+
+    /** Pause of a partition after a failed journal write. */
+    private Duration retryBackoff = Duration.ofMillis(100);
+}
@@ -0,0 +1,18 @@
+package com.mystery.account.config;
+
+import com.mystery.common.money.MinorUnitsSchemaCheck;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MoneySchemaConfig {
+    // Checked once Hibernate has created or updated the tables
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public MinorUnitsSchemaCheck minorUnitsSchemaCheck(DataSource dataSource) {
+        return new MinorUnitsSchemaCheck(dataSource, "accounts.balance", "ledger_transfer.amount");
+    }
+}
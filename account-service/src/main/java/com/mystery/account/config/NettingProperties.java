@@ -0,0 +1,28 @@
+package com.mystery.account.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of micro-batched payment netting, see {@link com.mystery.account.netting.TransferNetter}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "account.netting")
+public class NettingProperties {
+
+    /** Net the transfers of ProcessPaymentCommands in batches instead of applying them one by one. */
+    private boolean enabled = false;
+
+    /** How long a batch collects transfers after its first one arrives. */
+    private Duration window = Duration.ofMillis(5);
+
+    /** Transfers applied in one transaction, at most; a full batch is applied before its window ends. */
+    private int batchSize = 256;
+
+    /** Transfers waiting for a batch, at most; the command consumer blocks beyond that. */
+    private int maxPending = 4096;
+}
@@ -0,0 +1,37 @@
+package com.mystery.account.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of striped sub-balances for hot accounts, see {@link com.mystery.account.striping.StripedBalances}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "account.striping")
+public class StripingProperties {
+
+    /** Allow accounts to be striped; each account still has to be striped explicitly. */
+    private boolean enabled = false;
+
+    /** Stripes of a newly striped account. */
+    private int initialStripes = 4;
+
+    /** Fewest stripes an account is shrunk to. */
+    private int minStripes = 2;
+
+    /** Most stripes an account is grown to. */
+    private int maxStripes = 64;
+
+    /** Mean stripe update time above which the stripes of an account are doubled. */
+    private Duration growAbove = Duration.ofMillis(2);
+
+    /** Mean stripe update time below which the stripes of an account are halved. */
+    private Duration shrinkBelow = Duration.ofNanos(200_000);
+
+    /** How often stripe counts are adapted and striped accounts reloaded. */
+    private Duration adaptInterval = Duration.ofSeconds(10);
+}
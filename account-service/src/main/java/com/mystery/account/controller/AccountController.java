@@ -10,6 +10,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
@@ -62,4 +63,38 @@ public class AccountController {
         log.info("Completed request: getMyAccounts, found {} accounts for user {}", accounts.size(), username);
         return accounts;
     }
+
+    // Opt a hot account into striped sub-balances (account.striping.enabled must be set)
+    @PreAuthorize("hasRole(T(com.mystery.common.AppConstants).ROLE_BAAS_ADMIN)")
+    @PostMapping("/{accountNumber}/stripes")
+    public ResponseEntity<Map<String, Object>> stripeAccount(@PathVariable String accountNumber) {
+        log.info("Received request: stripeAccount, accountNumber={}", accountNumber);
+        try {
+            int stripes = accountService.stripeAccount(accountNumber);
+            log.info("Completed request: stripeAccount, accountNumber={}, stripes={}", accountNumber, stripes);
+            return ResponseEntity.ok(Map.of("accountNumber", accountNumber, "stripes", stripes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.info("Rejected request: stripeAccount, accountNumber={}: {}", accountNumber, e.getMessage());
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Fold the stripes of an account back into its balance
+    @PreAuthorize("hasRole(T(com.mystery.common.AppConstants).ROLE_BAAS_ADMIN)")
+    @DeleteMapping("/{accountNumber}/stripes")
+    public ResponseEntity<Map<String, Object>> unstripeAccount(@PathVariable String accountNumber) {
+        log.info("Received request: unstripeAccount, accountNumber={}", accountNumber);
+        try {
+            accountService.unstripeAccount(accountNumber);
+            log.info("Completed request: unstripeAccount, accountNumber={}", accountNumber);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.info("Rejected request: unstripeAccount, accountNumber={}: {}", accountNumber, e.getMessage());
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
 }
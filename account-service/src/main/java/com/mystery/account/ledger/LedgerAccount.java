@@ -0,0 +1,22 @@
+package com.mystery.account.ledger;
+
+/**
+ * In-memory balance of one account, owned by the thread of its {@link LedgerPartition}.
+ * {@code version} is the {@code accounts.version} the balance was last journaled at.
+ */
+final class LedgerAccount {
+
+    final long id;
+    final String accountNumber;
+    final boolean active;
+    long balance;
+    long version;
+
+    LedgerAccount(long id, String accountNumber, boolean active, long balance, long version) {
+        this.id = id;
+        this.accountNumber = accountNumber;
+        this.active = active;
+        this.balance = balance;
+        this.version = version;
+    }
+}
@@ -0,0 +1,157 @@
+package com.mystery.account.ledger;
+
+import com.mystery.account.config.LedgerProperties;
+import com.mystery.account.service.AccountService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Partitioned, single-writer balance ledger behind {@link AccountService#transferMoney} when
+ * {@code account.ledger.enabled} is set.
+ *
+ * Accounts are sharded by account number across {@code account.ledger.partitions}
+ * {@link LedgerPartition}s. Each partition thread owns the in-memory balances of its accounts,
+ * so transfers never wait on a row lock; they are applied in batches and journaled to
+ * {@code accounts} with one transaction per batch before the caller is answered.
+ *
+ * A transfer between two partitions is done in two phases: the source partition debits the
+ * source and journals a reservation in {@code ledger_transfer}, the destination partition then
+ * credits the destination and deletes it, or has the source partition release it if the
+ * destination cannot be credited. Reservations left by a crash are completed on startup, one
+ * starting instance at a time, before transfers are accepted.
+ *
+ * The ledger assumes it is the only writer of the balances it holds. A balance changed elsewhere
+ * fails the journal write of its batch, which is then retried on freshly loaded balances.
+ */
+@Slf4j
+@Component
+// Recovery needs the tables, which Hibernate creates or updates on startup
+@DependsOn("entityManagerFactory")
+public class LedgerEngine {
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long RECOVERY_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final LedgerProperties properties;
+    private final LedgerJournal journal;
+    private final LedgerPartition[] partitions;
+    // Operations queued or being applied, across partitions; zero once every transfer has settled
+    private final AtomicLong pending = new AtomicLong();
+    private volatile boolean accepting;
+
+    public LedgerEngine(LedgerProperties properties, LedgerJournal journal, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.journal = journal;
+        this.partitions = new LedgerPartition[properties.getPartitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new LedgerPartition(i, this, journal, properties);
+        }
+        Gauge.builder("account.ledger.pending", pending, AtomicLong::get)
+                .description("Ledger operations queued or being applied")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            log.info("Account ledger is disabled, transfers lock account rows");
+            return;
+        }
+        for (LedgerPartition partition : partitions) {
+            partition.start();
+        }
+        int recovered = journal.withRecoveryLock(this::recover);
+        accepting = true;
+        log.info("Account ledger started: partitions={}, batchSize={}, recoveredTransfers={}",
+                properties.getPartitions(), properties.getBatchSize(), recovered);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        // Let started transfers settle, including their cross-partition phase, before the threads stop
+        accepting = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+        while (pending.get() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        if (pending.get() > 0) {
+            log.warn("Stopping account ledger with {} operations pending; reservations are completed on restart", pending.get());
+        }
+        for (LedgerPartition partition : partitions) {
+            partition.stop(Math.max(deadline - System.currentTimeMillis(), 1));
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Transfer {@code amount} minor units of the base currency and wait until it is journaled.
+     *
+     * @throws IllegalArgumentException if either account does not exist
+     * @throws IllegalStateException    if either account is not active or the source balance is insufficient
+     */
+    public AccountService.TransferResult transfer(String sourceAccountNumber, String destinationAccountNumber, long amount) {
+        if (!accepting) {
+            throw new IllegalStateException("Account ledger is not accepting transfers");
+        }
+        CompletableFuture<AccountService.TransferResult> result = new CompletableFuture<>();
+        partitionFor(sourceAccountNumber).submit(LedgerOp.transfer(sourceAccountNumber, destinationAccountNumber, amount, result));
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Private helper methods
+
+    private int recover() {
+        List<LedgerOp> recovered = journal.findPendingTransfers();
+        recovered.forEach(op -> partitionFor(op.destinationAccountNumber()).submit(op));
+        // Settle them under the recovery lock; reservations of an instance that is still running are
+        // credited by whichever batch deletes them first
+        try {
+            CompletableFuture.allOf(recovered.stream().map(op -> op.result().exceptionally(error -> null))
+                    .toArray(CompletableFuture[]::new)).get(RECOVERY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Recovered ledger transfers did not all settle within {} ms, they keep being retried",
+                    RECOVERY_TIMEOUT_MILLIS);
+        }
+        return recovered.size();
+    }
+
+    LedgerPartition partitionFor(String accountNumber) {
+        return partitions[Math.floorMod(accountNumber.hashCode(), partitions.length)];
+    }
+
+    void opQueued() {
+        pending.incrementAndGet();
+    }
+
+    void opsDone(int count) {
+        pending.addAndGet(-count);
+    }
+}
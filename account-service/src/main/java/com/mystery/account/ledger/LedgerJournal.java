@@ -0,0 +1,159 @@
+package com.mystery.account.ledger;
+
+import com.mystery.account.cache.AccountCache;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * JDBC persistence of the {@link LedgerEngine}: loads account balances and writes the outcome of
+ * a partition batch in one transaction.
+ *
+ * Balances are written with the {@code accounts.version} they were loaded at, so a balance that
+ * was changed outside the ledger (or by another instance running it) fails the whole batch
+ * instead of being overwritten. Likewise a reservation is only credited or released by the batch
+ * that deletes its {@code ledger_transfer} row; a batch finding it gone fails with
+ * {@link ReservationSettledException}.
+ */
+@Component
+public class LedgerJournal {
+
+    private static final String SELECT_ACCOUNT_SQL =
+            "SELECT id, account_number, balance, COALESCE(version, 0) AS version, status " +
+            "FROM accounts WHERE account_number = ?";
+
+    private static final String UPDATE_BALANCE_SQL =
+            "UPDATE accounts SET balance = ?, version = COALESCE(version, 0) + 1 " +
+            "WHERE id = ? AND COALESCE(version, 0) = ?";
+
+    private static final String INSERT_TRANSFER_SQL =
+            "INSERT INTO ledger_transfer (id, source_account_number, destination_account_number, amount, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String DELETE_TRANSFER_SQL = "DELETE FROM ledger_transfer WHERE id = ?";
+
+    private static final String SELECT_TRANSFERS_SQL =
+            "SELECT id, source_account_number, destination_account_number, amount FROM ledger_transfer ORDER BY created_at";
+
+    private static final String RECOVERY_LOCK = "account_ledger_recovery";
+    private static final int RECOVERY_LOCK_TIMEOUT_SECONDS = 60;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountCache accountCache;
+
+    public LedgerJournal(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, AccountCache accountCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountCache = accountCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    Optional<LedgerAccount> load(String accountNumber) {
+        return jdbcTemplate.query(SELECT_ACCOUNT_SQL, (rs, rowNum) -> new LedgerAccount(
+                rs.getLong("id"),
+                rs.getString("account_number"),
+                "ACTIVE".equalsIgnoreCase(rs.getString("status")),
+                rs.getLong("balance"),
+                rs.getLong("version")), accountNumber).stream().findFirst();
+    }
+
+    /**
+     * Write the balances of {@code accounts}, the new cross-partition {@code reservations} and the
+     * deletion of {@code settledTransferIds} in one transaction. Versions are only advanced in
+     * memory once it committed.
+     */
+    void write(Collection<LedgerAccount> accounts, List<LedgerOp> reservations, List<String> settledTransferIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // First, so a batch of another instance settling the same reservation waits for this one and then fails
+            if (!settledTransferIds.isEmpty()) {
+                int[] deleted = jdbcTemplate.batchUpdate(DELETE_TRANSFER_SQL, settledTransferIds.stream()
+                        .map(id -> new Object[]{id})
+                        .toList());
+                Set<String> settledElsewhere = new LinkedHashSet<>();
+                for (int i = 0; i < deleted.length; i++) {
+                    if (deleted[i] == 0) {
+                        settledElsewhere.add(settledTransferIds.get(i));
+                    }
+                }
+                if (!settledElsewhere.isEmpty()) {
+                    throw new ReservationSettledException(settledElsewhere);
+                }
+            }
+            if (!accounts.isEmpty()) {
+                int[] updated = jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, accounts.stream()
+                        .map(account -> new Object[]{account.balance, account.id, account.version})
+                        .toList());
+                for (int count : updated) {
+                    if (count == 0) {
+                        throw new OptimisticLockingFailureException("Account balance was changed outside the ledger");
+                    }
+                }
+                accountCache.invalidate(accounts.stream().map(account -> account.accountNumber).toList());
+            }
+            if (!reservations.isEmpty()) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                jdbcTemplate.batchUpdate(INSERT_TRANSFER_SQL, reservations.stream()
+                        .map(op -> new Object[]{op.transferId(), op.sourceAccountNumber(),
+                                op.destinationAccountNumber(), op.amount(), now})
+                        .toList());
+            }
+        });
+        accounts.forEach(account -> account.version++);
+    }
+
+    /**
+     * Run {@code recovery} holding a database-wide named lock, so instances starting together do
+     * not recover the same reservations at the same time.
+     */
+    <T> T withRecoveryLock(Supplier<T> recovery) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            if (!"MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                // Named locks are MySQL's; other databases, like the benchmark's in-memory H2, serve one instance
+                return recovery.get();
+            }
+            try (PreparedStatement lock = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+                lock.setString(1, RECOVERY_LOCK);
+                lock.setInt(2, RECOVERY_LOCK_TIMEOUT_SECONDS);
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next() || rs.getInt(1) != 1) {
+                        throw new IllegalStateException("Timed out waiting for the account ledger recovery lock");
+                    }
+                }
+            }
+            try {
+                return recovery.get();
+            } finally {
+                try (PreparedStatement unlock = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    unlock.setString(1, RECOVERY_LOCK);
+                    unlock.execute();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return reservations whose credit or release was not journaled before the last shutdown
+     */
+    List<LedgerOp> findPendingTransfers() {
+        return jdbcTemplate.query(SELECT_TRANSFERS_SQL, (rs, rowNum) -> LedgerOp.recovered(
+                rs.getString("id"),
+                rs.getString("source_account_number"),
+                rs.getString("destination_account_number"),
+                rs.getLong("amount"),
+                new CompletableFuture<>()));
+    }
+}
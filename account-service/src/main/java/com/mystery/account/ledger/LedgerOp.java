@@ -0,0 +1,58 @@
+package com.mystery.account.ledger;
+
+import com.mystery.account.service.AccountService;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An operation queued on a {@link LedgerPartition}.
+ *
+ * A TRANSFER arrives at the partition of its source account. When the destination belongs to
+ * another partition the source is debited and the reservation journaled, then a CREDIT is sent to
+ * the destination's partition; if the destination cannot be credited, a RELEASE returns the
+ * amount to the source. For reservations recovered on startup {@code result} only signals that
+ * they settled.
+ *
+ * Amounts and balances are minor units of the base currency, see {@link com.mystery.common.money.Money}.
+ */
+record LedgerOp(Kind kind,
+                String transferId,
+                String sourceAccountNumber,
+                String destinationAccountNumber,
+                long amount,
+                long sourceBalance,
+                RuntimeException error,
+                int attempt,
+                CompletableFuture<AccountService.TransferResult> result) {
+
+    enum Kind {
+        TRANSFER,
+        CREDIT,
+        RELEASE
+    }
+
+    static LedgerOp transfer(String sourceAccountNumber, String destinationAccountNumber, long amount,
+                             CompletableFuture<AccountService.TransferResult> result) {
+        return new LedgerOp(Kind.TRANSFER, null, sourceAccountNumber, destinationAccountNumber, amount, 0, null, 0, result);
+    }
+
+    static LedgerOp recovered(String transferId, String sourceAccountNumber, String destinationAccountNumber, long amount,
+                              CompletableFuture<AccountService.TransferResult> result) {
+        return new LedgerOp(Kind.CREDIT, transferId, sourceAccountNumber, destinationAccountNumber, amount, 0, null, 0, result);
+    }
+
+    LedgerOp credit(String reservedTransferId, long reservedSourceBalance) {
+        return new LedgerOp(Kind.CREDIT, reservedTransferId, sourceAccountNumber, destinationAccountNumber, amount,
+                reservedSourceBalance, null, 0, result);
+    }
+
+    LedgerOp release(RuntimeException reason) {
+        return new LedgerOp(Kind.RELEASE, transferId, sourceAccountNumber, destinationAccountNumber, amount,
+                sourceBalance, reason, 0, result);
+    }
+
+    LedgerOp retry() {
+        return new LedgerOp(kind, transferId, sourceAccountNumber, destinationAccountNumber, amount,
+                sourceBalance, error, attempt + 1, result);
+    }
+}
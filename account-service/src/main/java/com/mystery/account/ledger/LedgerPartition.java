@@ -0,0 +1,281 @@
+package com.mystery.account.ledger;
+
+import com.mystery.account.config.LedgerProperties;
+import com.mystery.account.service.AccountService;
+import com.mystery.common.money.MinorUnits;
+import com.mystery.common.money.Money;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One single-writer shard of the {@link LedgerEngine}.
+ *
+ * Producers append to a lock-free queue and wake the partition thread, which alone reads and
+ * writes the balances of its accounts. The thread drains up to {@code account.ledger.batch-size}
+ * operations, applies them in memory, journals the result in one transaction and only then
+ * completes their callers and forwards cross-partition credits and releases. If the journal write
+ * fails, the touched accounts are reloaded and the operations queued again, except credits and
+ * releases of reservations another instance settled in the meantime.
+ */
+@Slf4j
+final class LedgerPartition implements Runnable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int index;
+    private final LedgerEngine engine;
+    private final LedgerJournal journal;
+    private final LedgerProperties properties;
+    private final ConcurrentLinkedQueue<LedgerOp> queue = new ConcurrentLinkedQueue<>();
+    // Accounts owned by this partition, least recently used first; only touched by the partition thread
+    private final LinkedHashMap<String, LedgerAccount> accounts = new LinkedHashMap<>(1024, 0.75f, true);
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * Outcome of one batch, written by {@link LedgerJournal#write} before any of it is acted upon.
+     */
+    private static final class Batch {
+
+        private final Set<LedgerAccount> dirty = new LinkedHashSet<>();
+        private final List<LedgerOp> reservations = new ArrayList<>();
+        private final List<String> settledTransferIds = new ArrayList<>();
+        private final List<Runnable> afterCommit = new ArrayList<>();
+    }
+
+    LedgerPartition(int index, LedgerEngine engine, LedgerJournal journal, LedgerProperties properties) {
+        this.index = index;
+        this.engine = engine;
+        this.journal = journal;
+        this.properties = properties;
+        this.thread = new Thread(this, "ledger-partition-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void submit(LedgerOp op) {
+        engine.opQueued();
+        queue.offer(op);
+        LockSupport.unpark(thread);
+    }
+
+    void stop(long timeoutMillis) throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(timeoutMillis);
+    }
+
+    @Override
+    public void run() {
+        List<LedgerOp> ops = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            LedgerOp op;
+            while (ops.size() < properties.getBatchSize() && (op = queue.poll()) != null) {
+                ops.add(op);
+            }
+            if (ops.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                process(ops);
+            } catch (RuntimeException e) {
+                // Never let an exception stop the partition; its accounts would be frozen. Journal and load
+                // failures are retried by process(), so this only guards the completions of a committed batch
+                log.error("Ledger partition {} failed to process {} operations: {}", index, ops.size(), e.getMessage(), e);
+            } finally {
+                engine.opsDone(ops.size());
+                ops.clear();
+            }
+        }
+    }
+
+    // Private helper methods
+
+    private void process(List<LedgerOp> ops) {
+        Batch batch = new Batch();
+        try {
+            for (LedgerOp op : ops) {
+                switch (op.kind()) {
+                    case TRANSFER -> transfer(op, batch);
+                    case CREDIT -> credit(op, batch);
+                    case RELEASE -> release(op, batch);
+                }
+            }
+            journal.write(batch.dirty, batch.reservations, batch.settledTransferIds);
+        } catch (RuntimeException e) {
+            retry(ops, batch, e);
+            return;
+        }
+        batch.afterCommit.forEach(Runnable::run);
+        trim();
+    }
+
+    private void transfer(LedgerOp op, Batch batch) {
+        LedgerAccount source = account(op.sourceAccountNumber());
+        if (source == null) {
+            reject(op, batch, new IllegalArgumentException("Source account not found: " + op.sourceAccountNumber()));
+            return;
+        }
+        if (!source.active) {
+            reject(op, batch, new IllegalStateException("Source account is not active: " + op.sourceAccountNumber()));
+            return;
+        }
+        LedgerPartition destinationPartition = engine.partitionFor(op.destinationAccountNumber());
+        LedgerAccount destination = null;
+        if (destinationPartition == this) {
+            destination = account(op.destinationAccountNumber());
+            if (destination == null) {
+                reject(op, batch, new IllegalArgumentException("Destination account not found: " + op.destinationAccountNumber()));
+                return;
+            }
+            if (!destination.active) {
+                reject(op, batch, new IllegalStateException("Destination account is not active: " + op.destinationAccountNumber()));
+                return;
+            }
+        }
+        if (!MinorUnits.covers(source.balance, op.amount())) {
+            reject(op, batch, new IllegalStateException(
+                    "Insufficient balance. Available: " + Money.ofMinor(source.balance) + ", Required: " + Money.ofMinor(op.amount())));
+            return;
+        }
+
+        source.balance = MinorUnits.subtract(source.balance, op.amount());
+        batch.dirty.add(source);
+        if (destination != null) {
+            destination.balance = MinorUnits.add(destination.balance, op.amount());
+            batch.dirty.add(destination);
+            AccountService.TransferResult result = new AccountService.TransferResult(true, source.balance, destination.balance);
+            batch.afterCommit.add(() -> op.result().complete(result));
+            return;
+        }
+        // Two-phase: the debit and its reservation are durable before the other partition credits
+        LedgerOp credit = op.credit(UUID.randomUUID().toString(), source.balance);
+        batch.reservations.add(credit);
+        batch.afterCommit.add(() -> destinationPartition.submit(credit));
+    }
+
+    private void credit(LedgerOp op, Batch batch) {
+        LedgerAccount destination = account(op.destinationAccountNumber());
+        RuntimeException error = null;
+        if (destination == null) {
+            error = new IllegalArgumentException("Destination account not found: " + op.destinationAccountNumber());
+        } else if (!destination.active) {
+            error = new IllegalStateException("Destination account is not active: " + op.destinationAccountNumber());
+        }
+        if (error != null) {
+            LedgerOp release = op.release(error);
+            batch.afterCommit.add(() -> engine.partitionFor(op.sourceAccountNumber()).submit(release));
+            return;
+        }
+
+        destination.balance = MinorUnits.add(destination.balance, op.amount());
+        batch.dirty.add(destination);
+        batch.settledTransferIds.add(op.transferId());
+        if (op.result() != null) {
+            AccountService.TransferResult result = new AccountService.TransferResult(true, op.sourceBalance(), destination.balance);
+            batch.afterCommit.add(() -> op.result().complete(result));
+        }
+    }
+
+    private void release(LedgerOp op, Batch batch) {
+        LedgerAccount source = account(op.sourceAccountNumber());
+        if (source == null) {
+            // The reservation stays in ledger_transfer for manual resolution
+            log.error("Cannot release transfer {} of {} to missing source account {}",
+                    op.transferId(), Money.ofMinor(op.amount()), op.sourceAccountNumber());
+            reject(op, batch, op.error());
+            return;
+        }
+        source.balance = MinorUnits.add(source.balance, op.amount());
+        batch.dirty.add(source);
+        batch.settledTransferIds.add(op.transferId());
+        reject(op, batch, op.error());
+    }
+
+    private static void reject(LedgerOp op, Batch batch, RuntimeException error) {
+        // Completed after the journal write: the check may have depended on balances changed earlier in the batch
+        if (op.result() != null) {
+            batch.afterCommit.add(() -> op.result().completeExceptionally(error));
+        }
+    }
+
+    private void retry(List<LedgerOp> ops, Batch batch, RuntimeException error) {
+        log.warn("Ledger partition {} failed to apply {} operations, reloading {} accounts: {}",
+                index, ops.size(), batch.dirty.size(), error.getMessage());
+        batch.dirty.forEach(account -> accounts.remove(account.accountNumber));
+        Set<String> settledElsewhere = error instanceof ReservationSettledException settled
+                ? settled.transferIds() : Set.of();
+        for (LedgerOp op : ops) {
+            if (op.kind() != LedgerOp.Kind.TRANSFER && settledElsewhere.contains(op.transferId())) {
+                settledElsewhere(op);
+                continue;
+            }
+            if (!settledElsewhere.isEmpty()) {
+                // Not their failure, so it does not count towards their attempts
+                submit(op);
+                continue;
+            }
+            // Credits and releases settle journaled reservations, so they are retried until they succeed
+            if (op.kind() == LedgerOp.Kind.TRANSFER && op.attempt() + 1 >= properties.getMaxAttempts()) {
+                op.result().completeExceptionally(error);
+            } else {
+                submit(op.retry());
+            }
+        }
+        LockSupport.parkNanos(this, properties.getRetryBackoff().toNanos());
+    }
+
+    private void settledElsewhere(LedgerOp op) {
+        // Applying it here as well would credit the destination or refund the source a second time
+        log.info("Dropping {} of transfer {}, settled by another instance", op.kind(), op.transferId());
+        if (op.result() == null) {
+            return;
+        }
+        if (op.kind() == LedgerOp.Kind.RELEASE) {
+            // The destination could not be credited here, so the other instance most likely released it as well
+            op.result().completeExceptionally(op.error());
+            return;
+        }
+        LedgerAccount destination = account(op.destinationAccountNumber());
+        op.result().complete(new AccountService.TransferResult(true, op.sourceBalance(),
+                destination != null ? destination.balance : 0));
+    }
+
+    private LedgerAccount account(String accountNumber) {
+        LedgerAccount account = accounts.get(accountNumber);
+        if (account == null) {
+            Optional<LedgerAccount> loaded = journal.load(accountNumber);
+            if (loaded.isEmpty()) {
+                return null;
+            }
+            account = loaded.get();
+            accounts.put(accountNumber, account);
+        }
+        return account;
+    }
+
+    private void trim() {
+        // Only between batches, so no account with an unjournaled balance is dropped
+        Iterator<Map.Entry<String, LedgerAccount>> eldest = accounts.entrySet().iterator();
+        while (accounts.size() > properties.getMaxAccountsPerPartition() && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+}
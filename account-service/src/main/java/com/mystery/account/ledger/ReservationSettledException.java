@@ -0,0 +1,21 @@
+package com.mystery.account.ledger;
+
+import java.util.Set;
+
+/**
+ * Rolls back a journal write that would settle reservations already credited or released by
+ * another instance, so their credit or release is not applied a second time.
+ */
+final class ReservationSettledException extends RuntimeException {
+
+    private final Set<String> transferIds;
+
+    ReservationSettledException(Set<String> transferIds) {
+        super("Reservations already settled by another instance: " + transferIds);
+        this.transferIds = transferIds;
+    }
+
+    Set<String> transferIds() {
+        return transferIds;
+    }
+}
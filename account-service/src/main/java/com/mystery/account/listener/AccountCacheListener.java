@@ -0,0 +1,21 @@
+package com.mystery.account.listener;
+
+import com.mystery.account.cache.AccountCache;
+import com.mystery.account.cache.AccountCacheInvalidation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+public class AccountCacheListener {
+
+    private final AccountCache accountCache;
+
+    @Bean
+    public Consumer<AccountCacheInvalidation> accountCacheInvalidation() {
+        return accountCache::onRemoteInvalidation;
+    }
+}
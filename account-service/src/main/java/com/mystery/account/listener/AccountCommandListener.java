@@ -1,9 +1,11 @@
 package com.mystery.account.listener;
 
+import com.mystery.account.netting.TransferNetter;
 import com.mystery.account.service.AccountService;
 import com.mystery.common.entity.Account;
 import com.mystery.common.entity.Payment;
 import com.mystery.common.entity.User;
+import com.mystery.common.money.Money;
 import com.mystery.common.saga.payment.commands.ProcessPaymentCommand;
 import com.mystery.common.saga.payment.events.PaymentFailedEvent;
 import com.mystery.common.saga.payment.events.PaymentProcessedEvent;
@@ -18,6 +20,10 @@ import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -27,6 +33,7 @@ import java.util.function.Consumer;
 public class AccountCommandListener {
 
     private final AccountService accountService;
+    private final TransferNetter transferNetter;
     private final StreamBridge streamBridge;
     private static final AtomicInteger accountNumberSequence = new AtomicInteger(10001);
 
@@ -45,7 +52,7 @@ public class AccountCommandListener {
                 account.setAccountType(command.getAccountType());
                 account.setUserId(String.valueOf(user.getUserId()));
                 account.setUserName(user.getUsername());
-                account.setBalance(500.0); // Initial balance
+                account.setBalance(Money.ofMinor(50_000)); // Initial balance of 500.00
                 account.setStatus("ACTIVE");
                 account.setCreatedTimestamp(LocalDateTime.now());
                 
@@ -83,24 +90,77 @@ public class AccountCommandListener {
     }
 
     /**
-     * Consumes ProcessPaymentCommand, validates accounts, and processes payment atomically.
-     * Uses transactional money transfer to ensure data consistency.
+     * Consumes batches of ProcessPaymentCommand, validates accounts, and processes payments atomically.
+     * Uses transactional money transfers to ensure data consistency. With payment netting enabled the
+     * whole batch is queued for netting. Either way the batch returns, and its offsets are committed,
+     * only once every transfer has committed and its outcome has been published from this thread.
      */
     @Bean
-    public Consumer<Message<ProcessPaymentCommand>> processPaymentCommand() {
+    public Consumer<Message<List<ProcessPaymentCommand>>> processPaymentCommand() {
         return message -> {
-            ProcessPaymentCommand cmd = message.getPayload();
-            Payment payment = cmd.getPayment();
-            log.info("[Account] Received ProcessPaymentCommand for saga {} and payment: {}", cmd.getSagaId(), payment);
+            List<ProcessPaymentCommand> commands = message.getPayload();
+            if (!transferNetter.isEnabled()) {
+                commands.forEach(this::processPayment);
+                return;
+            }
+            List<CompletableFuture<AccountService.TransferResult>> transfers = new ArrayList<>(commands.size());
+            for (ProcessPaymentCommand cmd : commands) {
+                transfers.add(submitPayment(cmd));
+            }
+            // Waiting here keeps the netting thread free for the next batch and holds the offsets until the commit
+            for (int i = 0; i < commands.size(); i++) {
+                awaitPayment(commands.get(i), transfers.get(i));
+            }
+        };
+    }
 
+    private void processPayment(ProcessPaymentCommand cmd) {
+        Payment payment = cmd.getPayment();
+        log.info("[Account] Received ProcessPaymentCommand for saga {} and payment: {}", cmd.getSagaId(), payment);
+
+        try {
+            // Perform atomic money transfer
+            AccountService.TransferResult result = accountService.transferMoney(
+                payment.getSourceAccountNumber(),
+                payment.getDestinationAccountNumber(),
+                payment.getAmount()
+            );
+            completePayment(cmd, payment, result, null);
+        } catch (Exception e) {
+            completePayment(cmd, payment, null, e);
+        }
+    }
+
+    private CompletableFuture<AccountService.TransferResult> submitPayment(ProcessPaymentCommand cmd) {
+        Payment payment = cmd.getPayment();
+        log.info("[Account] Received ProcessPaymentCommand for saga {} and payment: {}", cmd.getSagaId(), payment);
+
+        try {
+            return transferNetter.submit(
+                payment.getSourceAccountNumber(),
+                payment.getDestinationAccountNumber(),
+                payment.getAmount()
+            );
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void awaitPayment(ProcessPaymentCommand cmd, CompletableFuture<AccountService.TransferResult> transfer) {
+        AccountService.TransferResult result;
+        try {
+            result = transfer.join();
+        } catch (CompletionException e) {
+            completePayment(cmd, cmd.getPayment(), null, e.getCause());
+            return;
+        }
+        completePayment(cmd, cmd.getPayment(), result, null);
+    }
+
+    private void completePayment(ProcessPaymentCommand cmd, Payment payment,
+                                 AccountService.TransferResult result, Throwable error) {
+        if (error == null) {
             try {
-                // Perform atomic money transfer
-                AccountService.TransferResult result = accountService.transferMoney(
-                    payment.getSourceAccountNumber(),
-                    payment.getDestinationAccountNumber(), 
-                    payment.getAmount()
-                );
-                
                 // Get destination account user name for the payment
                 var destOpt = accountService.getAccountByAccountNumber(payment.getDestinationAccountNumber());
                 if (destOpt.isPresent()) {
@@ -119,20 +179,23 @@ public class AccountCommandListener {
                     cmd.getSagaId(), payment
                 ));
                 log.info("[Account] Published PaymentProcessedEvent for saga {} and payment: {}", cmd.getSagaId(), payment.getId());
-                
-            } catch (IllegalArgumentException | IllegalStateException e) {
-                // Business logic errors (account not found, insufficient balance, etc.)
-                log.warn("[Account] Payment validation failed for saga {} and payment {}: {}", 
-                    cmd.getSagaId(), payment.getId(), e.getMessage());
-                publishFailed(cmd, e.getMessage(), payment);
-                
+                return;
             } catch (Exception e) {
-                // Unexpected errors (database failures, etc.)
-                log.error("[Account] Unexpected error processing payment for saga {} and payment {}: {}", 
-                    cmd.getSagaId(), payment.getId(), e.getMessage(), e);
-                publishFailed(cmd, "Failed to process payment: " + e.getMessage(), payment);
+                error = e;
             }
-        };
+        }
+
+        if (error instanceof IllegalArgumentException || error instanceof IllegalStateException) {
+            // Business logic errors (account not found, insufficient balance, etc.)
+            log.warn("[Account] Payment validation failed for saga {} and payment {}: {}", 
+                cmd.getSagaId(), payment.getId(), error.getMessage());
+            publishFailed(cmd, error.getMessage(), payment);
+        } else {
+            // Unexpected errors (database failures, etc.)
+            log.error("[Account] Unexpected error processing payment for saga {} and payment {}: {}", 
+                cmd.getSagaId(), payment.getId(), error.getMessage(), error);
+            publishFailed(cmd, "Failed to process payment: " + error.getMessage(), payment);
+        }
     }
 
     private void publishFailed(ProcessPaymentCommand cmd, String reason, Payment payment) {
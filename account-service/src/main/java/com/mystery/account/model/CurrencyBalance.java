@@ -6,12 +6,17 @@ import jakarta.persistence.Id;
 import jakarta.persistence.IdClass;
 import jakarta.persistence.Table;
 import java.io.Serializable;
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.Objects;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * One stripe of the balance of an account in a currency, see
+ * {@link com.mystery.account.striping.StripedBalances}; the entity only declares the table.
+ * {@code balance} is in minor units of {@code currency}.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,8 +33,12 @@ public class CurrencyBalance {
     @Column(name = "currency", length = 3)
     private String currency;
 
-    @Column(name = "balance", precision = 19, scale = 4)
-    private BigDecimal balance;
+    @Id
+    @Column(name = "stripe")
+    private Integer stripe;
+
+    @Column(name = "balance", nullable = false)
+    private long balance;
 
     @Column(name = "last_updated")
     private OffsetDateTime lastUpdated;
@@ -37,15 +46,26 @@ public class CurrencyBalance {
     public static class CurrencyBalanceId implements Serializable {
         private Long accountId;
         private String currency;
+        private Integer stripe;
 
         public CurrencyBalanceId() {}
 
-        public CurrencyBalanceId(Long accountId, String currency) {
+        public CurrencyBalanceId(Long accountId, String currency, Integer stripe) {
             this.accountId = accountId;
             this.currency = currency;
+            this.stripe = stripe;
         }
 
-        // equals/hashCode omitted for brevity; JPA providers may require them
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CurrencyBalanceId other && Objects.equals(accountId, other.accountId)
+                    && Objects.equals(currency, other.currency) && Objects.equals(stripe, other.stripe);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, currency, stripe);
+        }
     }
 }
 
@@ -0,0 +1,41 @@
+package com.mystery.account.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A cross-partition transfer whose source was debited by the ledger but whose destination has
+ * not been credited (or the source refunded) yet.
+ *
+ * Rows are written and read through {@link com.mystery.account.ledger.LedgerJournal}; the entity
+ * only declares the table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ledger_transfer")
+public class LedgerTransfer {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "source_account_number", nullable = false)
+    private String sourceAccountNumber;
+
+    @Column(name = "destination_account_number", nullable = false)
+    private String destinationAccountNumber;
+
+    @Column(name = "amount", nullable = false)
+    private long amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
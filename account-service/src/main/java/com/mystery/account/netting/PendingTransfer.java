@@ -0,0 +1,15 @@
+package com.mystery.account.netting;
+
+import com.mystery.account.service.AccountService;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A transfer waiting in the {@link TransferNetter} for its batch; {@code amount} is in minor
+ * units of the base currency, see {@link com.mystery.common.money.Money}.
+ */
+record PendingTransfer(String sourceAccountNumber,
+                       String destinationAccountNumber,
+                       long amount,
+                       CompletableFuture<AccountService.TransferResult> result) {
+}
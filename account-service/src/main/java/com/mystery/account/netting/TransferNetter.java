@@ -0,0 +1,319 @@
+package com.mystery.account.netting;
+
+import com.mystery.account.cache.AccountCache;
+import com.mystery.account.config.NettingProperties;
+import com.mystery.account.ledger.LedgerEngine;
+import com.mystery.account.repository.AccountRepository;
+import com.mystery.account.service.AccountService;
+import com.mystery.account.striping.StripedBalances;
+import com.mystery.common.entity.Account;
+import com.mystery.common.money.MinorUnits;
+import com.mystery.common.money.Money;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-batched netting of payment transfers, enabled with {@code account.netting.enabled}.
+ *
+ * Hot merchant and settlement accounts take part in most payments, so applying each transfer on
+ * its own serializes them all on the row lock of the hot account. Instead, transfers are queued
+ * and a single thread collects them for {@code account.netting.window} after the first one, or
+ * until {@code account.netting.batch-size} are waiting. A batch locks all of its accounts at once
+ * in account number order, replays its transfers in arrival order on in-memory balances and
+ * writes only the net change of each account, in one transaction.
+ *
+ * The replay checks status and funds per transfer against the running balance, so every transfer
+ * gets exactly the outcome and post-balances it would have had when applied alone in that order.
+ * Callers are completed after the commit. If the batch transaction fails, nothing was applied
+ * and its transfers are applied one by one instead.
+ *
+ * Transfers touching a striped account, see {@link StripedBalances}, take no row lock on it and
+ * gain nothing from a batch, so they are applied right away on the caller's thread, or after the
+ * batch commits when the account turned out to be striped elsewhere. Netting
+ * writes balances directly, so it stays off while the {@link LedgerEngine} owns them.
+ */
+@Slf4j
+@Component
+public class TransferNetter implements Runnable {
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final NettingProperties properties;
+    private final LedgerEngine ledgerEngine;
+    private final AccountRepository accountRepository;
+    private final AccountService accountService;
+    private final StripedBalances stripedBalances;
+    private final AccountCache accountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingTransfer> queue;
+    private final DistributionSummary batchSizes;
+    private final DistributionSummary accountWrites;
+    private final Thread thread;
+    private volatile boolean accepting;
+    private volatile boolean running = true;
+
+    /**
+     * An account locked by a batch: its balance before the batch and while the batch is replayed.
+     */
+    private static final class NettedAccount {
+
+        private final Account account;
+        private final long openingBalance;
+        private long balance;
+
+        private NettedAccount(Account account) {
+            this.account = account;
+            this.openingBalance = account.getBalance().minorUnits();
+            this.balance = openingBalance;
+        }
+    }
+
+    public TransferNetter(NettingProperties properties,
+                          LedgerEngine ledgerEngine,
+                          AccountRepository accountRepository,
+                          AccountService accountService,
+                          StripedBalances stripedBalances,
+                          AccountCache accountCache,
+                          TransactionTemplate transactionTemplate,
+                          MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.ledgerEngine = ledgerEngine;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+        this.stripedBalances = stripedBalances;
+        this.accountCache = accountCache;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(properties.getMaxPending());
+        this.batchSizes = DistributionSummary.builder("account.netting.batch.size")
+                .description("Transfers applied per netted batch")
+                .register(meterRegistry);
+        this.accountWrites = DistributionSummary.builder("account.netting.account.writes")
+                .description("Account rows written per netted batch")
+                .register(meterRegistry);
+        this.thread = new Thread(this, "account-netting");
+        this.thread.setDaemon(true);
+        Gauge.builder("account.netting.pending", queue, BlockingQueue::size)
+                .description("Transfers waiting for a netted batch")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            log.info("Payment netting is disabled, payments are transferred one by one");
+            return;
+        }
+        if (ledgerEngine.isEnabled()) {
+            log.warn("Payment netting is ignored: the account ledger is enabled and owns the balances");
+            return;
+        }
+        thread.start();
+        accepting = true;
+        log.info("Payment netting started: window={}, batchSize={}", properties.getWindow(), properties.getBatchSize());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!accepting) {
+            return;
+        }
+        // Queued transfers are still applied; the thread exits once the queue is empty
+        accepting = false;
+        running = false;
+        thread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        if (!queue.isEmpty()) {
+            // Their commands were never acknowledged, so they are redelivered after the restart
+            log.warn("Stopping payment netting with {} transfers not applied", queue.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return accepting;
+    }
+
+    /**
+     * Queue a transfer for the next batch, blocking while {@code account.netting.max-pending} are waiting.
+     *
+     * @return completed with the post-balances once the batch is committed, or exceptionally with the
+     *         {@link IllegalArgumentException} or {@link IllegalStateException} {@link AccountService#transferMoney} would throw
+     */
+    public CompletableFuture<AccountService.TransferResult> submit(String sourceAccountNumber,
+                                                                   String destinationAccountNumber,
+                                                                   Money amount) {
+        if (!accepting) {
+            throw new IllegalStateException("Payment netting is not accepting transfers");
+        }
+        CompletableFuture<AccountService.TransferResult> result = new CompletableFuture<>();
+        if (stripedBalances.involves(sourceAccountNumber, destinationAccountNumber)) {
+            applyAlone(new PendingTransfer(sourceAccountNumber, destinationAccountNumber, amount.minorUnits(), result));
+            return result;
+        }
+        try {
+            queue.put(new PendingTransfer(sourceAccountNumber, destinationAccountNumber, amount.minorUnits(), result));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queuing transfer", e);
+        }
+        return result;
+    }
+
+    @Override
+    public void run() {
+        List<PendingTransfer> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+                if (!batch.isEmpty()) {
+                    apply(batch);
+                }
+            } catch (InterruptedException e) {
+                // Only stop() ends the loop, and it never interrupts
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Never let an exception stop the thread; every later payment would hang. Batch failures are
+                // handled by apply(), so this only guards the completions of a committed batch
+                log.error("Payment netting failed to complete {} transfers: {}", batch.size(), e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Private helper methods
+
+    private void collect(List<PendingTransfer> batch) throws InterruptedException {
+        PendingTransfer first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + properties.getWindow().toNanos();
+        while (batch.size() < properties.getBatchSize()) {
+            queue.drainTo(batch, properties.getBatchSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= properties.getBatchSize() || remaining <= 0 || !running) {
+                return;
+            }
+            PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void apply(List<PendingTransfer> batch) {
+        batchSizes.record(batch.size());
+        List<Runnable> completions;
+        try {
+            completions = transactionTemplate.execute(status -> net(batch));
+        } catch (RuntimeException e) {
+            // Lock timeout, deadlock or failed write: the batch was rolled back as a whole
+            log.warn("Netted batch of {} transfers failed, applying them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::applyAlone);
+            return;
+        }
+        completions.forEach(Runnable::run);
+    }
+
+    private List<Runnable> net(List<PendingTransfer> batch) {
+        Set<String> accountNumbers = new HashSet<>();
+        for (PendingTransfer transfer : batch) {
+            accountNumbers.add(transfer.sourceAccountNumber());
+            accountNumbers.add(transfer.destinationAccountNumber());
+        }
+        Map<String, NettedAccount> accounts = new HashMap<>();
+        for (Account account : accountRepository.findAllByAccountNumberWithLock(accountNumbers)) {
+            accounts.put(account.getAccountNumber(), new NettedAccount(account));
+        }
+        // Accounts striped elsewhere since submit() looked; checked under the row locks, so it stays true
+        Set<Long> striped = stripedBalances.stripedAmong(
+                accounts.values().stream().map(netted -> netted.account.getId()).toList());
+
+        List<Runnable> completions = new ArrayList<>(batch.size());
+        for (PendingTransfer transfer : batch) {
+            NettedAccount source = accounts.get(transfer.sourceAccountNumber());
+            NettedAccount destination = accounts.get(transfer.destinationAccountNumber());
+            if (isStriped(source, striped) || isStriped(destination, striped)) {
+                // Applied alone once the batch has committed, with the stripes in its balance
+                completions.add(() -> applyAlone(transfer));
+                continue;
+            }
+            RuntimeException error = check(transfer, source, destination);
+            if (error != null) {
+                completions.add(() -> transfer.result().completeExceptionally(error));
+                continue;
+            }
+            source.balance = MinorUnits.subtract(source.balance, transfer.amount());
+            destination.balance = MinorUnits.add(destination.balance, transfer.amount());
+            AccountService.TransferResult result = new AccountService.TransferResult(true, source.balance, destination.balance);
+            completions.add(() -> transfer.result().complete(result));
+        }
+
+        // One row write per account with a net change, however many transfers touched it
+        List<String> written = new ArrayList<>();
+        for (NettedAccount netted : accounts.values()) {
+            if (netted.balance != netted.openingBalance) {
+                netted.account.setBalance(Money.ofMinor(netted.balance));
+                accountRepository.save(netted.account);
+                written.add(netted.account.getAccountNumber());
+            }
+        }
+        accountCache.invalidate(written);
+        accountWrites.record(written.size());
+        return completions;
+    }
+
+    private static boolean isStriped(NettedAccount netted, Set<Long> striped) {
+        return netted != null && striped.contains(netted.account.getId());
+    }
+
+    private static RuntimeException check(PendingTransfer transfer, NettedAccount source, NettedAccount destination) {
+        // Same checks, in the same order and with the same messages, as AccountService#transferMoney
+        if (source == null) {
+            return new IllegalArgumentException("Source account not found: " + transfer.sourceAccountNumber());
+        }
+        if (destination == null) {
+            return new IllegalArgumentException("Destination account not found: " + transfer.destinationAccountNumber());
+        }
+        if (!"ACTIVE".equalsIgnoreCase(source.account.getStatus())) {
+            return new IllegalStateException("Source account is not active: " + transfer.sourceAccountNumber());
+        }
+        if (!"ACTIVE".equalsIgnoreCase(destination.account.getStatus())) {
+            return new IllegalStateException("Destination account is not active: " + transfer.destinationAccountNumber());
+        }
+        if (!MinorUnits.covers(source.balance, transfer.amount())) {
+            return new IllegalStateException("Insufficient balance. Available: " + Money.ofMinor(source.balance)
+                    + ", Required: " + Money.ofMinor(transfer.amount()));
+        }
+        return null;
+    }
+
+    private void applyAlone(PendingTransfer transfer) {
+        try {
+            transfer.result().complete(accountService.transferMoney(transfer.sourceAccountNumber(),
+                    transfer.destinationAccountNumber(), Money.ofMinor(transfer.amount())));
+        } catch (RuntimeException e) {
+            transfer.result().completeExceptionally(e);
+        }
+    }
+}
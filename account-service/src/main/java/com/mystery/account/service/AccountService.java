@@ -1,10 +1,15 @@
 package com.mystery.account.service;
 
+import com.mystery.account.cache.AccountCache;
+import com.mystery.account.ledger.LedgerEngine;
 import com.mystery.account.repository.AccountRepository;
+import com.mystery.account.striping.StripedBalances;
 import com.mystery.common.entity.Account;
+import com.mystery.common.money.Money;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,15 +19,19 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class AccountService {
     private final AccountRepository accountRepository;
+    private final LedgerEngine ledgerEngine;
+    private final StripedBalances stripedBalances;
+    private final AccountCache accountCache;
+    private final TransactionTemplate transactionTemplate;
 
     public List<Account> getAllAccounts() {
-        return accountRepository.findAll();
+        return stripedBalances.withBalances(accountRepository.findAll());
     }
 
 
-    //Get account by account number
+    //Get account by account number, with the full balance of striped accounts; read through the AccountCache
     public Optional<Account> getAccountByAccountNumber(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber);
+        return accountCache.get(accountNumber, accountRepository::findByAccountNumber).map(stripedBalances::withBalance);
     }
 
     public Account createAccount(Account account) {
@@ -30,31 +39,36 @@ public class AccountService {
         if (account.getCreatedTimestamp() == null) {
             account.setCreatedTimestamp(LocalDateTime.now());
         }
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        accountCache.invalidate(saved.getAccountNumber());
+        return saved;
     }
 
     public void deleteAccount(String id) {
         accountRepository.deleteById(id);
+        // Deleted by id, so the account number is not at hand
+        accountCache.invalidateAll();
     }
 
     // Validate if account exists and has sufficient balance
-    public boolean validateSourceAccount(String accountNumber, double amount) {
+    public boolean validateSourceAccount(String accountNumber, Money amount) {
         Optional<Account> accountOpt = getAccountByAccountNumber(accountNumber);
         if (accountOpt.isPresent()) {
             Account account = accountOpt.get();
-            return account.getBalance() >= amount;
+            return account.getBalance().covers(amount);
         }
         return false;
     }
 
     // Deduct amount from account balance
-    public boolean deductFromAccount(String accountNumber, double amount) {
-        Optional<Account> accountOpt = getAccountByAccountNumber(accountNumber);
+    public boolean deductFromAccount(String accountNumber, Money amount) {
+        Optional<Account> accountOpt = accountRepository.findByAccountNumber(accountNumber);
         if (accountOpt.isPresent()) {
             Account account = accountOpt.get();
-            if (account.getBalance() >= amount) {
-                account.setBalance(account.getBalance() - amount);
+            if (account.getBalance().covers(amount)) {
+                account.setBalance(account.getBalance().minus(amount));
                 accountRepository.save(account);
+                accountCache.invalidate(accountNumber);
                 return true;
             }
         }
@@ -62,12 +76,13 @@ public class AccountService {
     }
 
     // Add amount to account balance
-    public boolean addToAccount(String accountNumber, double amount) {
-        Optional<Account> accountOpt = getAccountByAccountNumber(accountNumber);
+    public boolean addToAccount(String accountNumber, Money amount) {
+        Optional<Account> accountOpt = accountRepository.findByAccountNumber(accountNumber);
         if (accountOpt.isPresent()) {
             Account account = accountOpt.get();
-            account.setBalance(account.getBalance() + amount);
+            account.setBalance(account.getBalance().plus(amount));
             accountRepository.save(account);
+            accountCache.invalidate(accountNumber);
             return true;
         }
         return false;
@@ -75,12 +90,12 @@ public class AccountService {
 
     // Get accounts by user ID
     public List<Account> getAccountsByUserId(String userId) {
-        return accountRepository.findByUserId(userId);
+        return stripedBalances.withBalances(accountRepository.findByUserId(userId));
     }
 
     // Get accounts by user name
     public List<Account> getAccountsByUserName(String userName) {
-        return accountRepository.findByUserName(userName);
+        return stripedBalances.withBalances(accountRepository.findByUserName(userName));
     }
 
     // Validate if account belongs to the specified user
@@ -96,20 +111,48 @@ public class AccountService {
     @Transactional
     public void closeAccountByUserId(String userId) {
         accountRepository.deleteByUserId(userId);
+        accountCache.invalidateAll();
+    }
+
+    // Split the balance of a hot account across striped sub-balances, see StripedBalances
+    public int stripeAccount(String accountNumber) {
+        return stripedBalances.stripe(accountNumber);
+    }
+
+    // Fold the striped sub-balances of an account back into its balance
+    public void unstripeAccount(String accountNumber) {
+        stripedBalances.unstripe(accountNumber);
     }
 
     /**
-     * Atomically transfers money between two accounts with pessimistic locking.
-     * This method ensures that both debit and credit operations happen within a single transaction
-     * with proper locking to prevent concurrent access issues.
+     * Atomically transfers money between two accounts.
+     * With account.ledger.enabled the transfer is applied by the partitioned {@link LedgerEngine}
+     * without row locks; transfers touching a striped account go through {@link StripedBalances};
+     * otherwise both accounts are locked within a single transaction.
      * 
      * @param sourceAccountNumber the source account number
      * @param destinationAccountNumber the destination account number
      * @param amount the amount to transfer
      * @return TransferResult containing success status and updated balances
      */
-    @Transactional
-    public TransferResult transferMoney(String sourceAccountNumber, String destinationAccountNumber, double amount) {
+    public TransferResult transferMoney(String sourceAccountNumber, String destinationAccountNumber, Money amount) {
+        if (ledgerEngine.isEnabled()) {
+            // No transaction here: it would hold a connection while the ledger journals the transfer
+            return ledgerEngine.transfer(sourceAccountNumber, destinationAccountNumber, amount.minorUnits());
+        }
+        if (stripedBalances.involves(sourceAccountNumber, destinationAccountNumber)) {
+            return stripedBalances.transfer(sourceAccountNumber, destinationAccountNumber, amount);
+        }
+        return transactionTemplate.execute(status ->
+                transferWithLock(sourceAccountNumber, destinationAccountNumber, amount));
+    }
+
+    /**
+     * Transfers money with pessimistic locking.
+     * This method ensures that both debit and credit operations happen within a single transaction
+     * with proper locking to prevent concurrent access issues.
+     */
+    private TransferResult transferWithLock(String sourceAccountNumber, String destinationAccountNumber, Money amount) {
         // Fetch both accounts within the transaction with pessimistic locking
         // Lock accounts in a consistent order to prevent deadlocks (alphabetical order)
         String firstAccount = sourceAccountNumber.compareTo(destinationAccountNumber) < 0 ? 
@@ -134,6 +177,12 @@ public class AccountService {
         
         Account sourceAccount = sourceOpt.get();
         Account destAccount = destOpt.get();
+
+        // Striped elsewhere since this instance last looked: part of the balance is on the stripes
+        if (stripedBalances.isEnabled()
+                && !stripedBalances.stripedAmong(List.of(sourceAccount.getId(), destAccount.getId())).isEmpty()) {
+            return stripedBalances.transferLocked(sourceAccountNumber, destinationAccountNumber, amount.minorUnits());
+        }
         
         // Validate account status
         if (!"ACTIVE".equalsIgnoreCase(sourceAccount.getStatus())) {
@@ -144,19 +193,20 @@ public class AccountService {
         }
         
         // Check sufficient balance (now with locked balance)
-        if (sourceAccount.getBalance() < amount) {
+        if (!sourceAccount.getBalance().covers(amount)) {
             throw new IllegalStateException("Insufficient balance. Available: " + sourceAccount.getBalance() + ", Required: " + amount);
         }
         
         // Perform the transfer atomically
-        sourceAccount.setBalance(sourceAccount.getBalance() - amount);
-        destAccount.setBalance(destAccount.getBalance() + amount);
+        sourceAccount.setBalance(sourceAccount.getBalance().minus(amount));
+        destAccount.setBalance(destAccount.getBalance().plus(amount));
         
         // Save both accounts - if either fails, entire transaction rolls back
         accountRepository.save(sourceAccount);
         accountRepository.save(destAccount);
+        accountCache.invalidate(sourceAccountNumber, destinationAccountNumber);
         
-        return new TransferResult(true, sourceAccount.getBalance(), destAccount.getBalance());
+        return new TransferResult(true, sourceAccount.getBalance().minorUnits(), destAccount.getBalance().minorUnits());
     }
 
     /**
@@ -171,14 +221,14 @@ public class AccountService {
      */
     @Transactional
     public TransferResult transferMoneyOptimistic(String sourceAccountNumber, String destinationAccountNumber, 
-                                                 double amount, int maxRetries) {
+                                                 Money amount, int maxRetries) {
         int attempts = 0;
         
         while (attempts <= maxRetries) {
             try {
                 // Fetch both accounts (optimistic locking via @Version)
-                Optional<Account> sourceOpt = getAccountByAccountNumber(sourceAccountNumber);
-                Optional<Account> destOpt = getAccountByAccountNumber(destinationAccountNumber);
+                Optional<Account> sourceOpt = accountRepository.findByAccountNumber(sourceAccountNumber);
+                Optional<Account> destOpt = accountRepository.findByAccountNumber(destinationAccountNumber);
                 
                 if (sourceOpt.isEmpty()) {
                     throw new IllegalArgumentException("Source account not found: " + sourceAccountNumber);
@@ -199,19 +249,20 @@ public class AccountService {
                 }
                 
                 // Check sufficient balance
-                if (sourceAccount.getBalance() < amount) {
+                if (!sourceAccount.getBalance().covers(amount)) {
                     throw new IllegalStateException("Insufficient balance. Available: " + sourceAccount.getBalance() + ", Required: " + amount);
                 }
                 
                 // Perform the transfer
-                sourceAccount.setBalance(sourceAccount.getBalance() - amount);
-                destAccount.setBalance(destAccount.getBalance() + amount);
+                sourceAccount.setBalance(sourceAccount.getBalance().minus(amount));
+                destAccount.setBalance(destAccount.getBalance().plus(amount));
                 
                 // Save both accounts - @Version will handle optimistic locking
                 accountRepository.save(sourceAccount);
                 accountRepository.save(destAccount);
+                accountCache.invalidate(sourceAccountNumber, destinationAccountNumber);
                 
-                return new TransferResult(true, sourceAccount.getBalance(), destAccount.getBalance());
+                return new TransferResult(true, sourceAccount.getBalance().minorUnits(), destAccount.getBalance().minorUnits());
                 
             } catch (org.springframework.orm.ObjectOptimisticLockingFailureException e) {
                 attempts++;
@@ -233,20 +284,21 @@ public class AccountService {
 
     /**
      * Result object for money transfer operations.
+     * Balances are kept as minor units of the base currency, see {@link Money}.
      */
     public static class TransferResult {
         private final boolean success;
-        private final double sourceBalance;
-        private final double destinationBalance;
+        private final long sourceBalance;
+        private final long destinationBalance;
         
-        public TransferResult(boolean success, double sourceBalance, double destinationBalance) {
+        public TransferResult(boolean success, long sourceBalance, long destinationBalance) {
             this.success = success;
             this.sourceBalance = sourceBalance;
             this.destinationBalance = destinationBalance;
         }
         
         public boolean isSuccess() { return success; }
-        public double getSourceBalance() { return sourceBalance; }
-        public double getDestinationBalance() { return destinationBalance; }
+        public Money getSourceBalance() { return Money.ofMinor(sourceBalance); }
+        public Money getDestinationBalance() { return Money.ofMinor(destinationBalance); }
     }
 }
@@ -0,0 +1,44 @@
+package com.mystery.account.striping;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A striped account as known to this instance: its {@code accounts.id}, its stripe count and the
+ * stripe update times observed since the stripes were last adapted.
+ */
+final class StripedAccount {
+
+    final long id;
+    final String accountNumber;
+    volatile int stripes;
+    private final LongAdder lockWaitNanos = new LongAdder();
+    private final LongAdder lockWaits = new LongAdder();
+
+    StripedAccount(long id, String accountNumber, int stripes) {
+        this.id = id;
+        this.accountNumber = accountNumber;
+        this.stripes = stripes;
+    }
+
+    /**
+     * A random stripe, so concurrent credits rarely meet on the same row.
+     */
+    int pickStripe() {
+        return ThreadLocalRandom.current().nextInt(stripes);
+    }
+
+    void recordLockWait(long nanos) {
+        lockWaitNanos.add(nanos);
+        lockWaits.increment();
+    }
+
+    /**
+     * @return the mean stripe update time since the last call, in nanoseconds, or 0 without updates
+     */
+    long drainMeanLockWait() {
+        long count = lockWaits.sumThenReset();
+        long nanos = lockWaitNanos.sumThenReset();
+        return count == 0 ? 0 : nanos / count;
+    }
+}
@@ -0,0 +1,166 @@
+package com.mystery.account.striping;
+
+import com.mystery.common.AppConstants;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * JDBC access to the stripe rows of {@code account_balances} used by {@link StripedBalances}.
+ *
+ * Striped balances are always in the base currency, like {@code accounts.balance}. Stripes of
+ * an account are numbered from 0 without gaps; locking several of them always goes in stripe
+ * order. Callers provide the transaction.
+ */
+@Component
+public class StripedBalanceStore {
+
+    private static final String CURRENCY = AppConstants.BASE_CURRENCY;
+
+    private static final String CREDIT_SQL =
+            "UPDATE account_balances SET balance = balance + ?, last_updated = ? " +
+            "WHERE account_id = ? AND currency = ? AND stripe = ?";
+
+    private static final String DEBIT_SQL =
+            "UPDATE account_balances SET balance = balance - ?, last_updated = ? " +
+            "WHERE account_id = ? AND currency = ? AND stripe = ? AND balance >= ?";
+
+    private static final String SET_SQL =
+            "UPDATE account_balances SET balance = ?, last_updated = ? " +
+            "WHERE account_id = ? AND currency = ? AND stripe = ?";
+
+    private static final String SUM_SQL =
+            "SELECT COALESCE(SUM(balance), 0) FROM account_balances WHERE account_id = ? AND currency = ?";
+
+    private static final String LOCK_ALL_SQL =
+            "SELECT balance FROM account_balances WHERE account_id = ? AND currency = ? ORDER BY stripe FOR UPDATE";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO account_balances (account_id, currency, stripe, balance, last_updated) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String DELETE_FROM_SQL =
+            "DELETE FROM account_balances WHERE account_id = ? AND currency = ? AND stripe >= ?";
+
+    private static final String SELECT_STRIPED_AMONG_SQL =
+            "SELECT account_id FROM account_balances WHERE currency = ? AND stripe = 0 AND account_id IN (%s)";
+
+    private static final String SUM_ALL_SQL =
+            "SELECT account_id, SUM(balance) AS balance FROM account_balances WHERE currency = ? GROUP BY account_id";
+
+    private static final String SELECT_STRIPED_SQL =
+            "SELECT b.account_id, a.account_number, COUNT(*) AS stripes " +
+            "FROM account_balances b JOIN accounts a ON a.id = b.account_id " +
+            "WHERE b.currency = ? GROUP BY b.account_id, a.account_number";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StripedBalanceStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return {@code false} if the stripe no longer exists
+     */
+    boolean credit(long accountId, int stripe, long amount) {
+        return jdbcTemplate.update(CREDIT_SQL, amount, now(), accountId, CURRENCY, stripe) == 1;
+    }
+
+    /**
+     * @return {@code false} if the stripe does not cover {@code amount} or no longer exists
+     */
+    boolean debit(long accountId, int stripe, long amount) {
+        return jdbcTemplate.update(DEBIT_SQL, amount, now(), accountId, CURRENCY, stripe, amount) == 1;
+    }
+
+    long sum(long accountId) {
+        Long sum = jdbcTemplate.queryForObject(SUM_SQL, Long.class, accountId, CURRENCY);
+        return sum != null ? sum : 0;
+    }
+
+    /**
+     * Lock every stripe of the account.
+     *
+     * @return the stripe balances by stripe number, empty if the account is not striped
+     */
+    long[] lockAll(long accountId) {
+        return jdbcTemplate.queryForList(LOCK_ALL_SQL, Long.class, accountId, CURRENCY).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    /**
+     * Overwrite the balances of stripes 0 to {@code balances.length - 1}, which must be locked.
+     */
+    void setAll(long accountId, long[] balances) {
+        Timestamp now = now();
+        jdbcTemplate.batchUpdate(SET_SQL, IntStream.range(0, balances.length)
+                .mapToObj(stripe -> new Object[]{balances[stripe], now, accountId, CURRENCY, stripe})
+                .toList());
+    }
+
+    /**
+     * Add stripes {@code from} to {@code from + balances.length - 1}.
+     */
+    void insert(long accountId, int from, long[] balances) {
+        Timestamp now = now();
+        jdbcTemplate.batchUpdate(INSERT_SQL, IntStream.range(0, balances.length)
+                .mapToObj(i -> new Object[]{accountId, CURRENCY, from + i, balances[i], now})
+                .toList());
+    }
+
+    /**
+     * Delete stripes {@code from} and above.
+     */
+    void deleteFrom(long accountId, int from) {
+        jdbcTemplate.update(DELETE_FROM_SQL, accountId, CURRENCY, from);
+    }
+
+    /**
+     * @return the accounts among {@code accountIds} that have stripes
+     */
+    Set<Long> findStriped(Collection<Long> accountIds) {
+        if (accountIds.isEmpty()) {
+            return Set.of();
+        }
+        List<Object> args = new ArrayList<>(accountIds.size() + 1);
+        args.add(CURRENCY);
+        args.addAll(accountIds);
+        String placeholders = String.join(", ", Collections.nCopies(accountIds.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(SELECT_STRIPED_AMONG_SQL.formatted(placeholders), Long.class,
+                args.toArray()));
+    }
+
+    /**
+     * @return the stripe total of every striped account by account id
+     */
+    Map<Long, Long> sumAll() {
+        Map<Long, Long> sums = new HashMap<>();
+        jdbcTemplate.query(SUM_ALL_SQL, rs -> {
+            sums.put(rs.getLong("account_id"), rs.getLong("balance"));
+        }, CURRENCY);
+        return sums;
+    }
+
+    List<StripedAccount> findStripedAccounts() {
+        return jdbcTemplate.query(SELECT_STRIPED_SQL, (rs, rowNum) -> new StripedAccount(
+                rs.getLong("account_id"),
+                rs.getString("account_number"),
+                rs.getInt("stripes")), CURRENCY);
+    }
+
+    // Private helper methods
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,557 @@
+package com.mystery.account.striping;
+
+import com.mystery.account.cache.AccountCache;
+import com.mystery.account.config.StripingProperties;
+import com.mystery.account.ledger.LedgerEngine;
+import com.mystery.account.repository.AccountRepository;
+import com.mystery.account.service.AccountService;
+import com.mystery.common.entity.Account;
+import com.mystery.common.money.MinorUnits;
+import com.mystery.common.money.Money;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Striped sub-balances for the hottest accounts, enabled with {@code account.striping.enabled}
+ * and opted into per account.
+ *
+ * The balance of a striped account is its {@code accounts.balance} plus the sum of its stripe
+ * rows in {@code account_balances}, and transfers touching it never lock its {@code accounts}
+ * row on the common path: a credit adds to one random stripe, a debit subtracts from one random
+ * stripe that covers it. When that stripe runs low the transfer is rolled back and retried with
+ * the account row and every stripe locked; the retry checks the exact total, debits it and
+ * spreads the rest evenly over the stripes again.
+ *
+ * Row locks are taken before stripe locks, each in account number order, and stripes of one
+ * account in stripe order, so striped transfers cannot deadlock with each other or with
+ * {@link AccountService#transferMoney} on unstriped accounts.
+ *
+ * Which accounts are striped is decided in the database: striping and unstriping hold the account
+ * row lock, and every path that locks an account row checks for its stripes under that lock. The
+ * striped accounts known to this instance only select the lock-free path; a transfer that finds
+ * them out of date is rolled back and retried with everything locked.
+ *
+ * Every {@code account.striping.adapt-interval} the striped accounts are reloaded, so stripes
+ * added elsewhere are picked up, and the stripe count of each account is doubled or halved
+ * when its mean stripe update time, which is dominated by lock waits under contention, is above
+ * {@code grow-above} or below {@code shrink-below}.
+ *
+ * Striping writes balances directly, so it stays off while the {@link LedgerEngine} owns them.
+ */
+@Slf4j
+@Component
+// Loading the striped accounts needs the tables, which Hibernate creates or updates on startup
+@DependsOn("entityManagerFactory")
+public class StripedBalances {
+
+    private final StripingProperties properties;
+    private final LedgerEngine ledgerEngine;
+    private final StripedBalanceStore store;
+    private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer lockWaitTimer;
+    // Striped accounts by account number
+    private final Map<String, StripedAccount> accounts = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService adapter;
+    private volatile boolean active;
+
+    /**
+     * Rolls back a transfer whose stripe could not take the debit or no longer exists, or that found
+     * an account striped elsewhere, so it is retried with every stripe of both accounts locked.
+     */
+    private static final class StripeExhaustedException extends RuntimeException {
+
+        private StripeExhaustedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    public StripedBalances(StripingProperties properties,
+                           LedgerEngine ledgerEngine,
+                           StripedBalanceStore store,
+                           AccountRepository accountRepository,
+                           AccountCache accountCache,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.ledgerEngine = ledgerEngine;
+        this.store = store;
+        this.accountRepository = accountRepository;
+        this.accountCache = accountCache;
+        this.transactionTemplate = transactionTemplate;
+        this.lockWaitTimer = Timer.builder("account.striping.lock.wait")
+                .description("Time of single stripe updates, dominated by lock waits under contention")
+                .register(meterRegistry);
+        this.adapter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "account-striping-adapter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("account.striping.stripes", accounts,
+                        striped -> striped.values().stream().mapToInt(account -> account.stripes).sum())
+                .description("Stripes of all striped accounts")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            log.info("Account striping is disabled");
+            return;
+        }
+        if (ledgerEngine.isEnabled()) {
+            log.warn("Account striping is ignored: the account ledger is enabled and owns the balances");
+            return;
+        }
+        refresh();
+        long intervalMillis = properties.getAdaptInterval().toMillis();
+        adapter.scheduleAtFixedRate(this::adapt, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        active = true;
+        log.info("Account striping started: stripedAccounts={}, stripes={}..{}",
+                accounts.size(), properties.getMinStripes(), properties.getMaxStripes());
+    }
+
+    @PreDestroy
+    void stop() {
+        adapter.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return active;
+    }
+
+    /**
+     * Whether this instance knows the account as striped. Only a hint for the lock-free path:
+     * stripes added or removed elsewhere since the last refresh are detected under the row lock.
+     */
+    public boolean isStriped(String accountNumber) {
+        return active && accounts.containsKey(accountNumber);
+    }
+
+    public boolean involves(String sourceAccountNumber, String destinationAccountNumber) {
+        return isStriped(sourceAccountNumber) || isStriped(destinationAccountNumber);
+    }
+
+    /**
+     * The accounts among {@code accountIds} that have stripes. Striping and unstriping hold the
+     * account row lock, so for a caller holding the rows locked the answer holds until it commits.
+     */
+    public Set<Long> stripedAmong(Collection<Long> accountIds) {
+        return active ? store.findStriped(accountIds) : Set.of();
+    }
+
+    /**
+     * @return {@code account} itself, or for a striped account a copy carrying the sum of its row and stripes
+     */
+    public Account withBalance(Account account) {
+        return active ? withStripes(account, store.sum(account.getId())) : account;
+    }
+
+    /**
+     * {@link #withBalance} for several accounts, reading the stripe totals at once.
+     */
+    public List<Account> withBalances(List<Account> accounts) {
+        if (!active) {
+            return accounts;
+        }
+        Map<Long, Long> sums = store.sumAll();
+        return accounts.stream().map(account -> withStripes(account, sums.getOrDefault(account.getId(), 0L))).toList();
+    }
+
+    /**
+     * Transfer between two accounts of which at least one is striped, in its own transaction.
+     *
+     * @throws IllegalArgumentException if either account does not exist
+     * @throws IllegalStateException    if either account is not active or the source balance is insufficient
+     */
+    public AccountService.TransferResult transfer(String sourceAccountNumber, String destinationAccountNumber, Money amount) {
+        if (!sourceAccountNumber.equals(destinationAccountNumber)) {
+            try {
+                return transactionTemplate.execute(status ->
+                        transferOnStripes(sourceAccountNumber, destinationAccountNumber, amount.minorUnits()));
+            } catch (StripeExhaustedException e) {
+                // The stripes may also have been resized, added or removed elsewhere
+                refresh();
+            }
+        }
+        return transactionTemplate.execute(status ->
+                transferLocked(sourceAccountNumber, destinationAccountNumber, amount.minorUnits()));
+    }
+
+    /**
+     * Transfer with the rows and every stripe of both accounts locked, in the caller's transaction.
+     * Which accounts are striped is read under these locks, whatever this instance knows about them,
+     * so the funds check is exact; the rest of a striped source is spread evenly over its stripes again.
+     *
+     * @throws IllegalArgumentException if either account does not exist
+     * @throws IllegalStateException    if either account is not active or the source balance is insufficient
+     */
+    public AccountService.TransferResult transferLocked(String sourceAccountNumber, String destinationAccountNumber,
+                                                        long amount) {
+        boolean sourceFirst = sourceAccountNumber.compareTo(destinationAccountNumber) <= 0;
+        Account[] locked = loadBoth(sourceAccountNumber, destinationAccountNumber, true, true);
+        Account sourceAccount = locked[0];
+        Account destAccount = locked[1];
+
+        // Stripes after the rows, in account number order
+        long[] sourceStripes;
+        long[] destinationStripes;
+        if (sourceAccount == destAccount) {
+            sourceStripes = store.lockAll(sourceAccount.getId());
+            long balance = MinorUnits.add(sourceAccount.getBalance().minorUnits(), total(sourceStripes));
+            if (!MinorUnits.covers(balance, amount)) {
+                throw insufficient(balance, amount);
+            }
+            return new AccountService.TransferResult(true, balance, balance);
+        } else if (sourceFirst) {
+            sourceStripes = store.lockAll(sourceAccount.getId());
+            destinationStripes = store.lockAll(destAccount.getId());
+        } else {
+            destinationStripes = store.lockAll(destAccount.getId());
+            sourceStripes = store.lockAll(sourceAccount.getId());
+        }
+
+        long sourceRow = sourceAccount.getBalance().minorUnits();
+        long sourceBalance = MinorUnits.add(sourceRow, total(sourceStripes));
+        if (!MinorUnits.covers(sourceBalance, amount)) {
+            throw insufficient(sourceBalance, amount);
+        }
+        long remaining = MinorUnits.subtract(sourceBalance, amount);
+        if (sourceStripes.length == 0) {
+            setRow(sourceAccount, remaining);
+        } else {
+            // Rebalanced, so the next debits find funds on any stripe
+            store.setAll(sourceAccount.getId(), spread(remaining, sourceStripes.length));
+            if (sourceRow != 0) {
+                setRow(sourceAccount, 0);
+            }
+        }
+
+        long destinationRow = destAccount.getBalance().minorUnits();
+        long destinationBalance = MinorUnits.add(MinorUnits.add(destinationRow, total(destinationStripes)), amount);
+        if (destinationStripes.length == 0) {
+            setRow(destAccount, destinationBalance);
+        } else {
+            store.credit(destAccount.getId(), 0, amount);
+        }
+        return new AccountService.TransferResult(true, remaining, destinationBalance);
+    }
+
+    /**
+     * Opt an account into striping: its balance is moved evenly onto {@code account.striping.initial-stripes} stripes.
+     *
+     * @return the stripe count
+     * @throws IllegalArgumentException if the account does not exist
+     * @throws IllegalStateException    if striping is off or the account is already striped
+     */
+    public int stripe(String accountNumber) {
+        if (!active) {
+            throw new IllegalStateException("Account striping is not enabled");
+        }
+        StripedAccount striped = transactionTemplate.execute(status -> {
+            Account account = accountRepository.findByAccountNumberWithLock(accountNumber)
+                    .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountNumber));
+            if (store.lockAll(account.getId()).length > 0) {
+                throw new IllegalStateException("Account is already striped: " + accountNumber);
+            }
+            store.insert(account.getId(), 0, spread(account.getBalance().minorUnits(), properties.getInitialStripes()));
+            account.setBalance(Money.ZERO);
+            accountRepository.save(account);
+            accountCache.invalidate(account.getAccountNumber());
+            return new StripedAccount(account.getId(), accountNumber, properties.getInitialStripes());
+        });
+        accounts.put(accountNumber, striped);
+        log.info("Striped account {} into {} stripes", accountNumber, striped.stripes);
+        return striped.stripes;
+    }
+
+    /**
+     * Fold the stripes of an account back into its {@code accounts} row.
+     *
+     * @throws IllegalArgumentException if the account does not exist
+     * @throws IllegalStateException    if striping is off or the account is not striped
+     */
+    public void unstripe(String accountNumber) {
+        if (!active) {
+            throw new IllegalStateException("Account striping is not enabled");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = accountRepository.findByAccountNumberWithLock(accountNumber)
+                    .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountNumber));
+            long[] stripes = store.lockAll(account.getId());
+            if (stripes.length == 0) {
+                throw new IllegalStateException("Account is not striped: " + accountNumber);
+            }
+            account.setBalance(Money.ofMinor(MinorUnits.add(account.getBalance().minorUnits(), total(stripes))));
+            store.deleteFrom(account.getId(), 0);
+            accountRepository.save(account);
+            accountCache.invalidate(account.getAccountNumber());
+        });
+        accounts.remove(accountNumber);
+        log.info("Unstriped account {}", accountNumber);
+    }
+
+    // Private helper methods
+
+    /**
+     * The lock-free path: striped accounts as known here are debited or credited on one stripe, the
+     * others under their row lock. Any doubt about the stripes rolls back into {@link #transferLocked}.
+     */
+    private AccountService.TransferResult transferOnStripes(String sourceAccountNumber, String destinationAccountNumber,
+                                                            long amount) {
+        StripedAccount stripedSource = accounts.get(sourceAccountNumber);
+        StripedAccount stripedDestination = accounts.get(destinationAccountNumber);
+        Account[] loaded = loadBoth(sourceAccountNumber, destinationAccountNumber,
+                stripedSource == null, stripedDestination == null);
+        Account sourceAccount = loaded[0];
+        Account destAccount = loaded[1];
+
+        // An account locked as unstriped may have been striped elsewhere, its balance is then on the stripes
+        List<Long> lockedIds = new ArrayList<>(2);
+        if (stripedSource == null) {
+            lockedIds.add(sourceAccount.getId());
+        }
+        if (stripedDestination == null) {
+            lockedIds.add(destAccount.getId());
+        }
+        if (!store.findStriped(lockedIds).isEmpty()) {
+            throw new StripeExhaustedException();
+        }
+
+        // Then stripes, again in account number order
+        long sourceBalance;
+        long destinationBalance;
+        if (sourceAccountNumber.compareTo(destinationAccountNumber) <= 0) {
+            sourceBalance = debit(sourceAccount, stripedSource, amount);
+            destinationBalance = credit(destAccount, stripedDestination, amount);
+        } else {
+            destinationBalance = credit(destAccount, stripedDestination, amount);
+            sourceBalance = debit(sourceAccount, stripedSource, amount);
+        }
+        return new AccountService.TransferResult(true, sourceBalance, destinationBalance);
+    }
+
+    /**
+     * Load and check both accounts, rows in account number order.
+     *
+     * @return the source and the destination account, the same instance for a transfer to itself
+     */
+    private Account[] loadBoth(String sourceAccountNumber, String destinationAccountNumber,
+                               boolean lockSource, boolean lockDestination) {
+        Optional<Account> sourceOpt;
+        Optional<Account> destOpt;
+        if (sourceAccountNumber.equals(destinationAccountNumber)) {
+            sourceOpt = load(sourceAccountNumber, lockSource || lockDestination);
+            destOpt = sourceOpt;
+        } else if (sourceAccountNumber.compareTo(destinationAccountNumber) < 0) {
+            sourceOpt = load(sourceAccountNumber, lockSource);
+            destOpt = load(destinationAccountNumber, lockDestination);
+        } else {
+            destOpt = load(destinationAccountNumber, lockDestination);
+            sourceOpt = load(sourceAccountNumber, lockSource);
+        }
+
+        if (sourceOpt.isEmpty()) {
+            throw new IllegalArgumentException("Source account not found: " + sourceAccountNumber);
+        }
+        if (destOpt.isEmpty()) {
+            throw new IllegalArgumentException("Destination account not found: " + destinationAccountNumber);
+        }
+        Account sourceAccount = sourceOpt.get();
+        Account destAccount = destOpt.get();
+        if (!"ACTIVE".equalsIgnoreCase(sourceAccount.getStatus())) {
+            throw new IllegalStateException("Source account is not active: " + sourceAccountNumber);
+        }
+        if (!"ACTIVE".equalsIgnoreCase(destAccount.getStatus())) {
+            throw new IllegalStateException("Destination account is not active: " + destinationAccountNumber);
+        }
+        return new Account[]{sourceAccount, destAccount};
+    }
+
+    private Optional<Account> load(String accountNumber, boolean lock) {
+        return lock ? accountRepository.findByAccountNumberWithLock(accountNumber)
+                : accountRepository.findByAccountNumber(accountNumber);
+    }
+
+    /**
+     * @return the balance of the source after the debit
+     */
+    private long debit(Account account, StripedAccount striped, long amount) {
+        long row = account.getBalance().minorUnits();
+        if (striped == null) {
+            if (!MinorUnits.covers(row, amount)) {
+                throw insufficient(row, amount);
+            }
+            setRow(account, MinorUnits.subtract(row, amount));
+            return account.getBalance().minorUnits();
+        }
+        long start = System.nanoTime();
+        boolean debited = store.debit(striped.id, striped.pickStripe(), amount);
+        recordLockWait(striped, System.nanoTime() - start);
+        if (!debited) {
+            throw new StripeExhaustedException();
+        }
+        return MinorUnits.add(row, store.sum(striped.id));
+    }
+
+    /**
+     * @return the balance of the destination after the credit
+     */
+    private long credit(Account account, StripedAccount striped, long amount) {
+        long row = account.getBalance().minorUnits();
+        if (striped == null) {
+            setRow(account, MinorUnits.add(row, amount));
+            return account.getBalance().minorUnits();
+        }
+        long start = System.nanoTime();
+        boolean credited = store.credit(striped.id, striped.pickStripe(), amount);
+        recordLockWait(striped, System.nanoTime() - start);
+        if (!credited) {
+            throw new StripeExhaustedException();
+        }
+        return MinorUnits.add(row, store.sum(striped.id));
+    }
+
+    private void setRow(Account account, long balance) {
+        account.setBalance(Money.ofMinor(balance));
+        accountRepository.save(account);
+        accountCache.invalidate(account.getAccountNumber());
+    }
+
+    private static Account withStripes(Account account, long stripes) {
+        if (stripes == 0) {
+            return account;
+        }
+        // A copy, so the summed balance is never flushed into the row
+        Account copy = new Account();
+        BeanUtils.copyProperties(account, copy);
+        copy.setBalance(Money.ofMinor(MinorUnits.add(account.getBalance().minorUnits(), stripes)));
+        return copy;
+    }
+
+    private void recordLockWait(StripedAccount striped, long nanos) {
+        striped.recordLockWait(nanos);
+        lockWaitTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void refresh() {
+        Map<String, StripedAccount> loaded = store.findStripedAccounts().stream()
+                .collect(Collectors.toMap(account -> account.accountNumber, Function.identity()));
+        accounts.keySet().retainAll(loaded.keySet());
+        loaded.forEach((accountNumber, account) -> {
+            // Keep the known instance, so the lock waits observed since the last adaptation are not lost
+            StripedAccount known = accounts.putIfAbsent(accountNumber, account);
+            if (known != null) {
+                known.stripes = account.stripes;
+            }
+        });
+    }
+
+    private void adapt() {
+        try {
+            refresh();
+            long growNanos = properties.getGrowAbove().toNanos();
+            long shrinkNanos = properties.getShrinkBelow().toNanos();
+            for (StripedAccount account : accounts.values()) {
+                long meanWait = account.drainMeanLockWait();
+                int stripes = account.stripes;
+                if (meanWait > growNanos && stripes < properties.getMaxStripes()) {
+                    grow(account, Math.min(stripes * 2, properties.getMaxStripes()), meanWait);
+                } else if (meanWait < shrinkNanos && stripes > properties.getMinStripes()) {
+                    shrink(account, Math.max(stripes / 2, properties.getMinStripes()), meanWait);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic task; stripe counts are adapted again on the next run
+            log.error("Adapting account stripes failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void grow(StripedAccount account, int stripes, long meanWait) {
+        try {
+            // The existing stripes are locked, so an account unstriped or resized meanwhile is left alone
+            boolean grown = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (store.lockAll(account.id).length != account.stripes) {
+                    return false;
+                }
+                store.insert(account.id, account.stripes, new long[stripes - account.stripes]);
+                return true;
+            }));
+            if (!grown) {
+                log.debug("Stripes of account {} changed elsewhere, not growing them", account.accountNumber);
+                return;
+            }
+        } catch (DuplicateKeyException e) {
+            log.debug("Stripes of account {} were grown elsewhere", account.accountNumber);
+            return;
+        }
+        account.stripes = stripes;
+        log.info("Grew account {} to {} stripes, mean stripe update {} µs",
+                account.accountNumber, stripes, TimeUnit.NANOSECONDS.toMicros(meanWait));
+    }
+
+    private void shrink(StripedAccount account, int stripes, long meanWait) {
+        // Stop picking the dropped stripes first; transfers already on them are retried once they are gone
+        account.stripes = stripes;
+        transactionTemplate.executeWithoutResult(status -> {
+            long[] balances = store.lockAll(account.id);
+            if (balances.length <= stripes) {
+                return;
+            }
+            long[] kept = Arrays.copyOf(balances, stripes);
+            kept[0] = MinorUnits.add(kept[0], total(Arrays.copyOfRange(balances, stripes, balances.length)));
+            store.deleteFrom(account.id, stripes);
+            store.setAll(account.id, kept);
+        });
+        log.info("Shrank account {} to {} stripes, mean stripe update {} µs",
+                account.accountNumber, stripes, TimeUnit.NANOSECONDS.toMicros(meanWait));
+    }
+
+    private static long total(long[] stripes) {
+        long total = 0;
+        for (long stripe : stripes) {
+            total = MinorUnits.add(total, stripe);
+        }
+        return total;
+    }
+
+    /**
+     * Split {@code balance} evenly over {@code stripes}, the remainder going to stripe 0.
+     */
+    private static long[] spread(long balance, int stripes) {
+        long[] balances = new long[stripes];
+        long share = balance / stripes;
+        Arrays.fill(balances, share);
+        balances[0] = balance - share * (stripes - 1);
+        return balances;
+    }
+
+    private static IllegalStateException insufficient(long balance, long amount) {
+        return new IllegalStateException("Insufficient balance. Available: " + Money.ofMinor(balance)
+                + ", Required: " + Money.ofMinor(amount));
+    }
+}
@@ -0,0 +1,181 @@
+package com.mystery.account.netting;
+
+import com.mystery.account.cache.AccountCache;
+import com.mystery.account.config.NettingProperties;
+import com.mystery.account.ledger.LedgerEngine;
+import com.mystery.account.repository.AccountRepository;
+import com.mystery.account.service.AccountService;
+import com.mystery.account.striping.StripedBalances;
+import com.mystery.common.entity.Account;
+import com.mystery.common.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransferNetterTest {
+
+    private static final long MERCHANT_ID = 1L;
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final AccountService accountService = mock(AccountService.class);
+    private final StripedBalances stripedBalances = mock(StripedBalances.class);
+    private final AccountCache accountCache = mock(AccountCache.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final Map<String, Account> rows = new LinkedHashMap<>();
+    private TransferNetter netter;
+
+    @BeforeEach
+    void setUp() {
+        rows.put("MERCHANT", account(MERCHANT_ID, "MERCHANT", 0, "ACTIVE"));
+        rows.put("ALICE", account(2L, "ALICE", 10_000, "ACTIVE"));
+        rows.put("BOB", account(3L, "BOB", 500, "ACTIVE"));
+        rows.put("CLOSED", account(4L, "CLOSED", 1_000, "CLOSED"));
+        when(accountRepository.findAllByAccountNumberWithLock(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> accountNumbers = invocation.getArgument(0);
+            return accountNumbers.stream().filter(rows::containsKey).map(rows::get).toList();
+        });
+        when(stripedBalances.stripedAmong(anyCollection())).thenReturn(Set.of());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (netter != null) {
+            netter.stop();
+        }
+    }
+
+    @Test
+    void givesEveryTransferTheOutcomeItWouldHaveAlone() throws Exception {
+        start(8);
+
+        CompletableFuture<AccountService.TransferResult> bobShort = submit("BOB", "MERCHANT", 800);
+        CompletableFuture<AccountService.TransferResult> aliceToBob = submit("ALICE", "BOB", 400);
+        CompletableFuture<AccountService.TransferResult> bobFunded = submit("BOB", "MERCHANT", 800);
+        CompletableFuture<AccountService.TransferResult> aliceAll = submit("ALICE", "MERCHANT", 9_600);
+        CompletableFuture<AccountService.TransferResult> aliceEmpty = submit("ALICE", "MERCHANT", 1);
+        CompletableFuture<AccountService.TransferResult> toClosed = submit("MERCHANT", "CLOSED", 100);
+        CompletableFuture<AccountService.TransferResult> toMissing = submit("ALICE", "NOBODY", 1);
+        CompletableFuture<AccountService.TransferResult> merchantOut = submit("MERCHANT", "BOB", 10_400);
+
+        assertFailed(bobShort, IllegalStateException.class, "Insufficient balance. Available: 5.00 USD, Required: 8.00 USD");
+        assertBalances(aliceToBob, 9_600, 900);
+        assertBalances(bobFunded, 100, 800);
+        assertBalances(aliceAll, 0, 10_400);
+        assertFailed(aliceEmpty, IllegalStateException.class, "Insufficient balance. Available: 0.00 USD, Required: 0.01 USD");
+        assertFailed(toClosed, IllegalStateException.class, "Destination account is not active: CLOSED");
+        assertFailed(toMissing, IllegalArgumentException.class, "Destination account not found: NOBODY");
+        assertBalances(merchantOut, 0, 10_500);
+
+        // One transaction for the batch, and one write per account whose balance changed overall
+        verify(transactionTemplate, times(1)).execute(any());
+        ArgumentCaptor<Account> saved = ArgumentCaptor.forClass(Account.class);
+        verify(accountRepository, times(2)).save(saved.capture());
+        assertThat(saved.getAllValues()).extracting(Account::getAccountNumber).containsExactlyInAnyOrder("ALICE", "BOB");
+        assertThat(rows.get("ALICE").getBalance()).isEqualTo(Money.ofMinor(0));
+        assertThat(rows.get("BOB").getBalance()).isEqualTo(Money.ofMinor(10_500));
+        assertThat(rows.get("MERCHANT").getBalance()).isEqualTo(Money.ofMinor(0));
+        verify(accountService, never()).transferMoney(any(), any(), any());
+    }
+
+    @Test
+    void appliesTransfersOfAccountsStripedSinceSubmitAloneAfterTheCommit() throws Exception {
+        when(stripedBalances.stripedAmong(anyCollection())).thenReturn(Set.of(MERCHANT_ID));
+        AccountService.TransferResult alone = new AccountService.TransferResult(true, 9_000, 1_000);
+        when(accountService.transferMoney("ALICE", "MERCHANT", Money.ofMinor(1_000))).thenReturn(alone);
+        start(2);
+
+        CompletableFuture<AccountService.TransferResult> toMerchant = submit("ALICE", "MERCHANT", 1_000);
+        CompletableFuture<AccountService.TransferResult> toBob = submit("ALICE", "BOB", 2_000);
+
+        assertThat(toMerchant.get(5, TimeUnit.SECONDS)).isSameAs(alone);
+        // Netted as if the striped transfer had not been in the batch
+        assertBalances(toBob, 8_000, 2_500);
+        InOrder order = inOrder(transactionTemplate, accountService);
+        order.verify(transactionTemplate).execute(any());
+        order.verify(accountService).transferMoney("ALICE", "MERCHANT", Money.ofMinor(1_000));
+    }
+
+    @Test
+    void appliesTransfersOneByOneWhenTheBatchFails() throws Exception {
+        doThrow(new IllegalStateException("Lock wait timeout exceeded")).when(transactionTemplate).execute(any());
+        AccountService.TransferResult first = new AccountService.TransferResult(true, 9_900, 600);
+        IllegalStateException second = new IllegalStateException("Insufficient balance");
+        when(accountService.transferMoney("ALICE", "BOB", Money.ofMinor(100))).thenReturn(first);
+        when(accountService.transferMoney("BOB", "ALICE", Money.ofMinor(5_000))).thenThrow(second);
+        start(2);
+
+        CompletableFuture<AccountService.TransferResult> aliceToBob = submit("ALICE", "BOB", 100);
+        CompletableFuture<AccountService.TransferResult> bobToAlice = submit("BOB", "ALICE", 5_000);
+
+        assertThat(aliceToBob.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        assertThat(bobToAlice).failsWithin(Duration.ofSeconds(5)).withThrowableThat().withCause(second);
+        verify(accountRepository, never()).save(any());
+    }
+
+    // Private helper methods
+
+    private void start(int batchSize) {
+        NettingProperties properties = new NettingProperties();
+        properties.setEnabled(true);
+        properties.setBatchSize(batchSize);
+        // Long enough that every test batch is closed by its size, never by the window
+        properties.setWindow(Duration.ofSeconds(10));
+        netter = new TransferNetter(properties, mock(LedgerEngine.class), accountRepository, accountService,
+                stripedBalances, accountCache, transactionTemplate, new SimpleMeterRegistry());
+        netter.start();
+    }
+
+    private CompletableFuture<AccountService.TransferResult> submit(String source, String destination, long amount) {
+        return netter.submit(source, destination, Money.ofMinor(amount));
+    }
+
+    private static void assertBalances(CompletableFuture<AccountService.TransferResult> transfer,
+                                       long sourceBalance, long destinationBalance) throws Exception {
+        AccountService.TransferResult result = transfer.get(5, TimeUnit.SECONDS);
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getSourceBalance()).isEqualTo(Money.ofMinor(sourceBalance));
+        assertThat(result.getDestinationBalance()).isEqualTo(Money.ofMinor(destinationBalance));
+    }
+
+    private static void assertFailed(CompletableFuture<AccountService.TransferResult> transfer,
+                                     Class<? extends RuntimeException> type, String message) {
+        assertThat(transfer).failsWithin(Duration.ofSeconds(5)).withThrowableThat().havingCause()
+                .isInstanceOf(type)
+                .withMessage(message);
+    }
+
+    private static Account account(Long id, String accountNumber, long balance, String status) {
+        Account account = new Account();
+        account.setId(id);
+        account.setAccountNumber(accountNumber);
+        account.setBalance(Money.ofMinor(balance));
+        account.setStatus(status);
+        return account;
+    }
+}
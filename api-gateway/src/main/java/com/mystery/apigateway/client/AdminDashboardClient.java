@@ -22,6 +22,6 @@ public interface AdminDashboardClient {
     @GetExchange(value = "/api/notifications", accept = "application/json")
     Mono<ResponseEntity<Object>> fetchNotifications(@RequestHeader("Authorization") String authHeader);
 
-    @GetExchange(value = "/api/saga/instances", accept = "application/json")
+    @GetExchange(value = "/api/saga/instances?limit=50&includeSteps=true", accept = "application/json")
     Mono<ResponseEntity<Object>> fetchSagaInstances(@RequestHeader("Authorization") String authHeader);
 }
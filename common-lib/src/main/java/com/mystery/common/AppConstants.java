@@ -10,9 +10,18 @@ public final class AppConstants {
     // Header Constants for distributed tracing
     public static final String CORRELATION_ID_HEADER = "X-Correlation-Id";
     
+    // Kafka record key of outgoing saga messages (same name as KafkaHeaders.KEY)
+    public static final String MESSAGE_KEY_HEADER = "kafka_messageKey";
+    
+    // Event type of outgoing saga events, used to route events sharing one saga topic
+    public static final String EVENT_TYPE_HEADER = "saga_eventType";
+    
     // MDC Keys for structured logging
     public static final String CORRELATION_ID_MDC_KEY = "correlationId";
     
+    // Currency of amounts and balances that carry none (accounts, payments, transactions)
+    public static final String BASE_CURRENCY = "USD";
+    
     // Security Roles
     public static final String ROLE_BAAS_ADMIN = "ROLE_BAAS_ADMIN";
     public static final String ROLE_ACCOUNT_HOLDER = "ROLE_ACCOUNT_HOLDER";
@@ -0,0 +1,33 @@
+package com.mystery.common.config;
+
+import com.mystery.common.messaging.SagaMessageKeyChannelInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.integration.config.GlobalChannelInterceptor;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+/**
+ * Auto-configuration for saga message keys in Spring Cloud Stream.
+ * Registers the saga message key interceptor on every output binding.
+ */
+@Slf4j
+@AutoConfiguration
+@ConditionalOnClass(ChannelInterceptor.class)
+public class SagaMessagingAutoConfiguration {
+
+    /**
+     * Creates and registers the saga message key interceptor for output bindings ({@code *-out-*}).
+     *
+     * @return the saga message key interceptor
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @GlobalChannelInterceptor(patterns = "*-out-*")
+    public SagaMessageKeyChannelInterceptor sagaMessageKeyChannelInterceptor() {
+        log.info("Registering SagaMessageKeyChannelInterceptor to key saga messages by saga ID");
+        return new SagaMessageKeyChannelInterceptor();
+    }
+}
@@ -2,6 +2,9 @@ package com.mystery.common.entity;
 
 import java.time.LocalDateTime;
 
+import com.mystery.common.money.Money;
+import com.mystery.common.money.MoneyConverter;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -29,7 +32,8 @@ public class Account {
     private String accountType;
     private String userId;
     private String userName;
-    private double balance;
+    @Convert(converter = MoneyConverter.class)
+    private Money balance = Money.ZERO;
     private String status;
     private LocalDateTime createdTimestamp;
 }
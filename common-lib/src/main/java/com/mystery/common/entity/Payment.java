@@ -2,6 +2,9 @@ package com.mystery.common.entity;
 
 import java.time.LocalDateTime;
 
+import com.mystery.common.money.Money;
+import com.mystery.common.money.MoneyConverter;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -22,12 +25,15 @@ public class Payment {
     private Long id;
     private String sourceAccountNumber;
     private String destinationAccountNumber;
-    private double amount;
+    @Convert(converter = MoneyConverter.class)
+    private Money amount = Money.ZERO;
     private String status;
     private String description;
     private LocalDateTime timestamp;
     private String createdBy;
     private String destinationAccountUserName;
-    private double sourceAccountBalance;
-    private double destinationAccountBalance;
+    @Convert(converter = MoneyConverter.class)
+    private Money sourceAccountBalance = Money.ZERO;
+    @Convert(converter = MoneyConverter.class)
+    private Money destinationAccountBalance = Money.ZERO;
 }
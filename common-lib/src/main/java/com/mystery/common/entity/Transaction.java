@@ -2,6 +2,9 @@ package com.mystery.common.entity;
 
 import java.time.LocalDateTime;
 
+import com.mystery.common.money.Money;
+import com.mystery.common.money.MoneyConverter;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -21,12 +24,14 @@ public class Transaction {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
     private String accountNumber;
-    private double amount;
+    @Convert(converter = MoneyConverter.class)
+    private Money amount = Money.ZERO;
     private String type;
     private String description;
     private String status;
     private String reference;
     private LocalDateTime timestamp;
     private String username; // Added field to track which user owns this transaction
-    private double balance; // Renamed from balanceAfterTransaction to balance
+    @Convert(converter = MoneyConverter.class)
+    private Money balance = Money.ZERO; // Renamed from balanceAfterTransaction to balance
 }
@@ -0,0 +1,48 @@
+package com.mystery.common.messaging;
+
+import com.mystery.common.AppConstants;
+import com.mystery.common.saga.command.BaseCommand;
+import com.mystery.common.saga.event.BaseEvent;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Channel interceptor that keys every outgoing saga command and event by its saga ID.
+ * All messages of one saga land on the same partition number of every topic, so a saga is
+ * always handled by one consumer in order. Messages that already carry a key are left untouched.
+ * Events are also tagged with their {@link BaseEvent#getEventType() type}, so the events of a saga
+ * can share one topic and be routed on the header without decoding the payload first.
+ */
+public class SagaMessageKeyChannelInterceptor implements ChannelInterceptor {
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        Long sagaId = sagaIdOf(message.getPayload());
+        if (sagaId == null) {
+            return message;
+        }
+        MessageBuilder<?> builder = MessageBuilder.fromMessage(message);
+        if (!message.getHeaders().containsKey(AppConstants.MESSAGE_KEY_HEADER)) {
+            builder.setHeader(AppConstants.MESSAGE_KEY_HEADER, sagaId.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        if (message.getPayload() instanceof BaseEvent event) {
+            builder.setHeaderIfAbsent(AppConstants.EVENT_TYPE_HEADER, event.getEventType());
+        }
+        return builder.build();
+    }
+
+    private static Long sagaIdOf(Object payload) {
+        if (payload instanceof BaseCommand command) {
+            return command.getSagaId();
+        }
+        if (payload instanceof BaseEvent event) {
+            return event.getSagaId();
+        }
+        return null;
+    }
+}
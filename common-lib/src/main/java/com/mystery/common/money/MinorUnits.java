@@ -0,0 +1,144 @@
+package com.mystery.common.money;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+/**
+ * Allocation-free arithmetic on amounts held as {@code long} minor units (cents for USD).
+ *
+ * Hot paths such as transfers, balance checks and the account ledger work on primitives
+ * through these methods and only wrap results in {@link Money} at their edges. Every operation
+ * that could overflow throws {@link ArithmeticException} instead of wrapping around.
+ */
+public final class MinorUnits {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private MinorUnits() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * @return the number of decimals of {@code currency}, e.g. 2 for USD and 0 for JPY
+     */
+    public static int scale(Currency currency) {
+        return Math.max(currency.getDefaultFractionDigits(), 0);
+    }
+
+    public static long add(long a, long b) {
+        long sum = a + b;
+        // Overflow iff both operands have the sign opposite to the result
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            throw new ArithmeticException("Money overflow: " + a + " + " + b);
+        }
+        return sum;
+    }
+
+    public static long subtract(long a, long b) {
+        long difference = a - b;
+        // Overflow iff the operands have different signs and the result has the sign of b
+        if (((a ^ b) & (a ^ difference)) < 0) {
+            throw new ArithmeticException("Money overflow: " + a + " - " + b);
+        }
+        return difference;
+    }
+
+    /**
+     * @return {@code true} if {@code balance} covers a debit of {@code amount}
+     */
+    public static boolean covers(long balance, long amount) {
+        return balance >= amount;
+    }
+
+    /**
+     * Convert a major-unit amount exactly.
+     *
+     * @throws ArithmeticException if {@code amount} has more decimals than {@code scale} or does not fit a {@code long}
+     */
+    public static long fromMajor(BigDecimal amount, int scale) {
+        return amount.movePointRight(scale).longValueExact();
+    }
+
+    /**
+     * Parse a plain decimal such as {@code -12.5} without creating a {@link BigDecimal}; exponent
+     * notation falls back to {@link #fromMajor(BigDecimal, int)}.
+     *
+     * @throws NumberFormatException if {@code text} is not a decimal number
+     * @throws ArithmeticException   if it has more non-zero decimals than {@code scale} or does not fit a {@code long}
+     */
+    public static long parse(CharSequence text, int scale) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        if (i == length) {
+            throw new NumberFormatException("Not a decimal amount: " + text);
+        }
+        // Accumulated negated, so that Long.MIN_VALUE, which has no positive counterpart, parses too
+        long units = 0;
+        int decimals = -1;
+        boolean digits = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                digits = true;
+                if (decimals >= scale) {
+                    if (c != '0') {
+                        throw new ArithmeticException("More decimals than the currency allows: " + text);
+                    }
+                    continue;
+                }
+                units = subtract(Math.multiplyExact(units, 10L), c - '0');
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else if (c == 'e' || c == 'E') {
+                return fromMajor(new BigDecimal(text.toString()), scale);
+            } else {
+                throw new NumberFormatException("Not a decimal amount: " + text);
+            }
+        }
+        if (!digits) {
+            throw new NumberFormatException("Not a decimal amount: " + text);
+        }
+        units = Math.multiplyExact(units, POWERS_OF_TEN[scale - Math.max(decimals, 0)]);
+        return negative ? units : Math.negateExact(units);
+    }
+
+    /**
+     * Format {@code units} as a plain decimal with exactly {@code scale} decimals, e.g. {@code 1250} as {@code 12.50}.
+     */
+    public static String format(long units, int scale) {
+        if (scale == 0) {
+            return Long.toString(units);
+        }
+        StringBuilder text = new StringBuilder(24);
+        if (units < 0) {
+            text.append('-');
+        }
+        // Read as unsigned, so that Long.MIN_VALUE, which has no positive counterpart, is formatted too
+        long magnitude = units < 0 ? -units : units;
+        long factor = POWERS_OF_TEN[scale];
+        text.append(Long.toUnsignedString(Long.divideUnsigned(magnitude, factor))).append('.');
+        long fraction = Long.remainderUnsigned(magnitude, factor);
+        String digits = Long.toString(fraction);
+        for (int padding = scale - digits.length(); padding > 0; padding--) {
+            text.append('0');
+        }
+        return text.append(digits).toString();
+    }
+
+    /**
+     * Approximate major-unit value, for logging and legacy {@code double} consumers only.
+     */
+    public static double toDouble(long units, int scale) {
+        return (double) units / POWERS_OF_TEN[scale];
+    }
+}
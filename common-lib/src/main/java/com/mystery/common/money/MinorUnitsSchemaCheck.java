@@ -0,0 +1,59 @@
+package com.mystery.common.money;
+
+import org.springframework.beans.factory.InitializingBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Refuses to start a service whose money columns are not {@code BIGINT} minor units yet.
+ *
+ * Hibernate's {@code ddl-auto=update} never changes column types, so without the
+ * {@code store_*_money_as_minor_units} scripts of {@code config/db/migration} a service would read
+ * the old decimal amounts as cents. Columns of tables that do not exist yet are skipped; Hibernate
+ * creates them as {@code BIGINT}. Register it depending on the entity manager factory, so it runs
+ * after the schema update.
+ */
+public class MinorUnitsSchemaCheck implements InitializingBean {
+
+    private final DataSource dataSource;
+    private final List<String> columns;
+
+    /**
+     * @param columns the money columns to check, as {@code table.column}
+     */
+    public MinorUnitsSchemaCheck(DataSource dataSource, String... columns) {
+        this.dataSource = dataSource;
+        this.columns = List.of(columns);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String column : columns) {
+                int dot = column.indexOf('.');
+                try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null,
+                        identifier(metaData, column.substring(0, dot)), identifier(metaData, column.substring(dot + 1)))) {
+                    if (rs.next() && rs.getInt("DATA_TYPE") != Types.BIGINT) {
+                        throw new IllegalStateException(column + " is " + rs.getString("TYPE_NAME")
+                                + ", not BIGINT minor units: apply the store_*_money_as_minor_units scripts"
+                                + " of config/db/migration before starting the service");
+                    }
+                }
+            }
+        }
+    }
+
+    // Private helper methods
+
+    private static String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+        return metaData.storesUpperCaseIdentifiers() ? name.toUpperCase(Locale.ROOT) : name;
+    }
+}
@@ -0,0 +1,116 @@
+package com.mystery.common.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.mystery.common.AppConstants;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * An amount of money as {@code long} minor units of a currency, e.g. {@code 1250} USD cents for
+ * 12.50 USD. Unlike {@code double} it never drifts, and unlike {@link BigDecimal} its arithmetic
+ * does not allocate beyond the result; overflow throws {@link ArithmeticException}.
+ *
+ * Entity columns store the minor units of {@link #BASE_CURRENCY} through {@link MoneyConverter};
+ * JSON carries the plain decimal amount, e.g. {@code 12.50}, so messages and API payloads keep
+ * their shape. Loops over many amounts should use {@link MinorUnits} on primitives directly.
+ *
+ * @since 1.0.0
+ */
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+public record Money(long minorUnits, Currency currency) implements Comparable<Money> {
+
+    public static final Currency BASE_CURRENCY = Currency.getInstance(AppConstants.BASE_CURRENCY);
+
+    public static final Money ZERO = new Money(0, BASE_CURRENCY);
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits, BASE_CURRENCY);
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * @throws ArithmeticException if {@code amount} has more decimals than the base currency allows
+     */
+    public static Money of(BigDecimal amount) {
+        return of(amount, BASE_CURRENCY);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(MinorUnits.fromMajor(amount, MinorUnits.scale(currency)), currency);
+    }
+
+    /**
+     * Parse a plain decimal amount in the base currency, e.g. {@code "12.50"}.
+     */
+    public static Money parse(CharSequence amount) {
+        return ofMinor(MinorUnits.parse(amount, MinorUnits.scale(BASE_CURRENCY)));
+    }
+
+    public int scale() {
+        return MinorUnits.scale(currency);
+    }
+
+    public Money plus(Money other) {
+        return new Money(MinorUnits.add(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        return new Money(MinorUnits.subtract(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    /**
+     * @return {@code true} if this balance covers a debit of {@code amount}
+     */
+    public boolean covers(Money amount) {
+        return MinorUnits.covers(minorUnits, sameCurrency(amount).minorUnits);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, sameCurrency(other).minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale());
+    }
+
+    /**
+     * @return the plain decimal amount without currency, e.g. {@code 12.50}
+     */
+    public String toPlainString() {
+        return MinorUnits.format(minorUnits, scale());
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString() + " " + currency.getCurrencyCode();
+    }
+
+    // Private helper methods
+
+    private Money sameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+        return other;
+    }
+}
@@ -0,0 +1,27 @@
+package com.mystery.common.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link Money} as a {@code BIGINT} of minor units of {@link Money#BASE_CURRENCY}.
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        if (money == null) {
+            return null;
+        }
+        if (!Money.BASE_CURRENCY.equals(money.currency())) {
+            throw new IllegalArgumentException("Only " + Money.BASE_CURRENCY + " amounts can be stored, got " + money);
+        }
+        return money.minorUnits();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long minorUnits) {
+        return minorUnits != null ? Money.ofMinor(minorUnits) : null;
+    }
+}
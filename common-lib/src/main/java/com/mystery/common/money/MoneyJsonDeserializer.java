@@ -0,0 +1,33 @@
+package com.mystery.common.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads {@link Money} in the base currency from a JSON number or string such as {@code 12.5} or
+ * {@code "12.50"}, parsing the token text directly rather than through {@code double}.
+ * Amounts with more decimals than the currency allows are rejected.
+ */
+public class MoneyJsonDeserializer extends StdDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+        try {
+            return Money.parse(parser.getText().trim());
+        } catch (NumberFormatException | ArithmeticException e) {
+            return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), e.getMessage());
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package com.mystery.common.saga.payment.commands;
 
+import com.mystery.common.money.Money;
 import com.mystery.common.saga.command.BaseCommand;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -30,8 +31,8 @@ public class ReversePaymentCommand extends BaseCommand {
     @NotBlank
     private String destinationAccountNumber;
 
-    @Positive
-    private double amount;
+    @NotNull
+    private Money amount;
 
     private String reason;
 
@@ -39,7 +40,7 @@ public class ReversePaymentCommand extends BaseCommand {
 
     public ReversePaymentCommand(String commandId, Long sagaId, Instant timestamp,
                                 String paymentId, String sourceAccountNumber, String destinationAccountNumber,
-                                double amount, String reason, String username) {
+                                Money amount, String reason, String username) {
         super(commandId, sagaId, timestamp);
         this.paymentId = paymentId;
         this.sourceAccountNumber = sourceAccountNumber;
@@ -51,7 +52,7 @@ public class ReversePaymentCommand extends BaseCommand {
 
     public static ReversePaymentCommand create(long sagaId, String paymentId,
                                               String sourceAccountNumber, String destinationAccountNumber,
-                                              double amount, String reason, String username) {
+                                              Money amount, String reason, String username) {
         return new ReversePaymentCommand(
             java.util.UUID.randomUUID().toString(),
             sagaId,
@@ -1,8 +1,9 @@
 package com.mystery.common.saga.payment.commands;
 
+import com.mystery.common.money.Money;
 import com.mystery.common.saga.command.BaseCommand;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -30,14 +31,14 @@ public class UpdateAccountBalanceCommand extends BaseCommand {
     @NotBlank
     private String destinationAccountNumber;
 
-    @Positive
-    private double amount;
+    @NotNull
+    private Money amount;
 
     private String description;
 
     public UpdateAccountBalanceCommand(String commandId, Long sagaId, Instant timestamp,
                                       String paymentId, String sourceAccountNumber, String destinationAccountNumber,
-                                      double amount, String description) {
+                                      Money amount, String description) {
         super(commandId, sagaId, timestamp);
         this.paymentId = paymentId;
         this.sourceAccountNumber = sourceAccountNumber;
@@ -48,7 +49,7 @@ public class UpdateAccountBalanceCommand extends BaseCommand {
 
     public static UpdateAccountBalanceCommand create(long sagaId, String paymentId,
                                                     String sourceAccountNumber, String destinationAccountNumber,
-                                                    double amount, String description) {
+                                                    Money amount, String description) {
         return new UpdateAccountBalanceCommand(
             java.util.UUID.randomUUID().toString(),
             sagaId,
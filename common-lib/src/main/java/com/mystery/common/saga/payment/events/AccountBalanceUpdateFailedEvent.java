@@ -1,5 +1,6 @@
 package com.mystery.common.saga.payment.events;
 
+import com.mystery.common.money.Money;
 import com.mystery.common.saga.event.BaseEvent;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -27,13 +28,13 @@ public class AccountBalanceUpdateFailedEvent extends BaseEvent {
     @NotBlank
     private String destinationAccountNumber;
 
-    private double amount;
+    private Money amount;
 
     private String reason;
 
     public static AccountBalanceUpdateFailedEvent create(Long sagaId, String paymentId,
                                                         String sourceAccountNumber, String destinationAccountNumber,
-                                                        double amount, String reason) {
+                                                        Money amount, String reason) {
         return AccountBalanceUpdateFailedEvent.builder()
             .eventId(java.util.UUID.randomUUID().toString())
             .sagaId(sagaId)
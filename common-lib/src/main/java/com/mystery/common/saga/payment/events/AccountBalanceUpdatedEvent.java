@@ -1,8 +1,9 @@
 package com.mystery.common.saga.payment.events;
 
+import com.mystery.common.money.Money;
 import com.mystery.common.saga.event.BaseEvent;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -28,14 +29,14 @@ public class AccountBalanceUpdatedEvent extends BaseEvent {
     @NotBlank
     private String destinationAccountNumber;
 
-    @Positive
-    private double amount;
+    @NotNull
+    private Money amount;
 
     private String description;
 
     public static AccountBalanceUpdatedEvent create(long sagaId, String paymentId,
                                                    String sourceAccountNumber, String destinationAccountNumber,
-                                                   double amount, String description) {
+                                                   Money amount, String description) {
         return AccountBalanceUpdatedEvent.builder()
             .eventId(java.util.UUID.randomUUID().toString())
             .sagaId(sagaId)
@@ -1,8 +1,9 @@
 package com.mystery.common.saga.payment.events;
 
+import com.mystery.common.money.Money;
 import com.mystery.common.saga.event.BaseEvent;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -28,8 +29,8 @@ public class PaymentReversedEvent extends BaseEvent {
     @NotBlank
     private String destinationAccountNumber;
 
-    @Positive
-    private double amount;
+    @NotNull
+    private Money amount;
 
     private String reason;
 
@@ -37,7 +38,7 @@ public class PaymentReversedEvent extends BaseEvent {
 
     public static PaymentReversedEvent create(Long sagaId, String paymentId,
                                              String sourceAccountNumber, String destinationAccountNumber,
-                                             double amount, String reason, String username) {
+                                             Money amount, String reason, String username) {
         return PaymentReversedEvent.builder()
             .eventId(java.util.UUID.randomUUID().toString())
             .sagaId(sagaId)
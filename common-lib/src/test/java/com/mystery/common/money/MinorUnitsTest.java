@@ -0,0 +1,98 @@
+package com.mystery.common.money;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MinorUnitsTest {
+
+    @Test
+    void parsesSignedPlainDecimals() {
+        assertThat(MinorUnits.parse("12.50", 2)).isEqualTo(1250);
+        assertThat(MinorUnits.parse("-12.5", 2)).isEqualTo(-1250);
+        assertThat(MinorUnits.parse("+7", 2)).isEqualTo(700);
+        assertThat(MinorUnits.parse("0.07", 2)).isEqualTo(7);
+        assertThat(MinorUnits.parse(".5", 2)).isEqualTo(50);
+        assertThat(MinorUnits.parse("3.", 2)).isEqualTo(300);
+        assertThat(MinorUnits.parse("-0", 2)).isZero();
+        assertThat(MinorUnits.parse("1500", 0)).isEqualTo(1500);
+    }
+
+    @Test
+    void acceptsTrailingZerosBeyondTheScale() {
+        assertThat(MinorUnits.parse("1.2500", 2)).isEqualTo(125);
+        assertThat(MinorUnits.parse("10.000", 0)).isEqualTo(10);
+    }
+
+    @Test
+    void rejectsExcessDecimals() {
+        assertThatThrownBy(() -> MinorUnits.parse("1.005", 2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> MinorUnits.parse("0.5", 0)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void rejectsMalformedText() {
+        for (String text : new String[]{"", "-", "+", ".", "1.2.3", "12a", "1,5", " 1"}) {
+            assertThatThrownBy(() -> MinorUnits.parse(text, 2))
+                    .as(text)
+                    .isInstanceOf(NumberFormatException.class);
+        }
+    }
+
+    @Test
+    void fallsBackToBigDecimalForExponents() {
+        assertThat(MinorUnits.parse("1.25e2", 2)).isEqualTo(12500);
+        assertThat(MinorUnits.parse("-5E-2", 2)).isEqualTo(-5);
+        assertThatThrownBy(() -> MinorUnits.parse("1e-3", 2)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void parsesTheLongRangeExactly() {
+        assertThat(MinorUnits.parse("92233720368547758.07", 2)).isEqualTo(Long.MAX_VALUE);
+        assertThat(MinorUnits.parse("-92233720368547758.08", 2)).isEqualTo(Long.MIN_VALUE);
+        assertThatThrownBy(() -> MinorUnits.parse("92233720368547758.08", 2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> MinorUnits.parse("-92233720368547758.09", 2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> MinorUnits.parse("100000000000000000", 2)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void formatsWithPaddedDecimals() {
+        assertThat(MinorUnits.format(1250, 2)).isEqualTo("12.50");
+        assertThat(MinorUnits.format(7, 2)).isEqualTo("0.07");
+        assertThat(MinorUnits.format(-7, 2)).isEqualTo("-0.07");
+        assertThat(MinorUnits.format(0, 2)).isEqualTo("0.00");
+        assertThat(MinorUnits.format(-1500, 0)).isEqualTo("-1500");
+        assertThat(MinorUnits.format(5, 3)).isEqualTo("0.005");
+    }
+
+    @Test
+    void formatsTheLongRange() {
+        assertThat(MinorUnits.format(Long.MAX_VALUE, 2)).isEqualTo("92233720368547758.07");
+        assertThat(MinorUnits.format(Long.MIN_VALUE, 2)).isEqualTo("-92233720368547758.08");
+        assertThat(MinorUnits.format(Long.MIN_VALUE, 0)).isEqualTo("-9223372036854775808");
+    }
+
+    @Test
+    void formatAndParseRoundTrip() {
+        long[] values = {0, 1, -1, 99, -100, 123_456_789, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+        for (int scale = 0; scale <= 3; scale++) {
+            for (long value : values) {
+                assertThat(MinorUnits.parse(MinorUnits.format(value, scale), scale)).as("%d at scale %d", value, scale)
+                        .isEqualTo(value);
+            }
+        }
+    }
+
+    @Test
+    void addsAndSubtractsWithoutWrapping() {
+        assertThat(MinorUnits.add(1250, -250)).isEqualTo(1000);
+        assertThat(MinorUnits.subtract(-1, Long.MAX_VALUE)).isEqualTo(Long.MIN_VALUE);
+        assertThat(MinorUnits.add(Long.MIN_VALUE, Long.MAX_VALUE)).isEqualTo(-1);
+
+        assertThatThrownBy(() -> MinorUnits.add(Long.MAX_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> MinorUnits.add(Long.MIN_VALUE, -1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> MinorUnits.subtract(Long.MIN_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> MinorUnits.subtract(0, Long.MIN_VALUE)).isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mystery.common.money;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.mystery.common.saga.payment.commands.ReversePaymentCommand;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    record Payment(Money amount) {
+    }
+
+    @Test
+    void writesPlainDecimals() throws Exception {
+        assertThat(objectMapper.writeValueAsString(new Payment(Money.ofMinor(1250)))).isEqualTo("{\"amount\":12.50}");
+        assertThat(objectMapper.writeValueAsString(new Payment(Money.ofMinor(-7)))).isEqualTo("{\"amount\":-0.07}");
+    }
+
+    @Test
+    void readsNumbersAndStrings() throws Exception {
+        assertThat(objectMapper.readValue("{\"amount\":12.5}", Payment.class).amount()).isEqualTo(Money.ofMinor(1250));
+        assertThat(objectMapper.readValue("{\"amount\":12}", Payment.class).amount()).isEqualTo(Money.ofMinor(1200));
+        assertThat(objectMapper.readValue("{\"amount\":\" 0.05 \"}", Payment.class).amount()).isEqualTo(Money.ofMinor(5));
+        assertThat(objectMapper.readValue("{\"amount\":1.5E1}", Payment.class).amount()).isEqualTo(Money.ofMinor(1500));
+    }
+
+    @Test
+    void roundTripsExactly() throws Exception {
+        for (long units : new long[]{0, 1, -1, 10, 123_456_789, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            Payment payment = new Payment(Money.ofMinor(units));
+            assertThat(objectMapper.readValue(objectMapper.writeValueAsString(payment), Payment.class)).isEqualTo(payment);
+        }
+    }
+
+    @Test
+    void keepsTheDecimalShapeOfSagaMessages() throws Exception {
+        // As configured by Spring Boot, which ignores derived properties such as commandType on read
+        ObjectMapper messageMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        ReversePaymentCommand command = ReversePaymentCommand.create(7L, "42", "10001", "10002",
+                Money.ofMinor(1250), "Compensation", "alice");
+
+        String json = messageMapper.writeValueAsString(command);
+        assertThat(json).contains("\"amount\":12.50");
+        ReversePaymentCommand read = messageMapper.readValue(json.replace("12.50", "12.5"), ReversePaymentCommand.class);
+        assertThat(read.getAmount()).isEqualTo(Money.ofMinor(1250));
+    }
+
+    @Test
+    void rejectsAmountsThatAreNotExactCents() {
+        assertThatThrownBy(() -> objectMapper.readValue("{\"amount\":1.005}", Payment.class))
+                .isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> objectMapper.readValue("{\"amount\":\"abc\"}", Payment.class))
+                .isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> objectMapper.readValue("{\"amount\":true}", Payment.class))
+                .isInstanceOf(MismatchedInputException.class);
+    }
+}
@@ -0,0 +1,6 @@
+-- Saga step payloads move from the toString() TEXT column to an encoded binary column.
+-- Existing rows keep their TEXT payload until the orchestrator re-encodes them
+-- (start it once with SAGA_PAYLOAD_MIGRATE_LEGACY=true), after which `payload` is NULL.
+
+ALTER TABLE saga_step_instance ADD COLUMN payload_data MEDIUMBLOB NULL AFTER status;
+ALTER TABLE saga_step_instance MODIFY COLUMN payload TEXT NULL;
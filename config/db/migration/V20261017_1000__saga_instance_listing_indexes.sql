@@ -0,0 +1,5 @@
+-- Keyset pagination of /api/saga/instances orders by (created_at DESC, id DESC),
+-- optionally restricted to one status; both shapes are served by an index range scan.
+
+CREATE INDEX idx_saga_instance_created ON saga_instance (created_at, id);
+CREATE INDEX idx_saga_instance_status_created ON saga_instance (status, created_at, id);
@@ -0,0 +1,11 @@
+-- Persisted index of saga step deadlines for the stuck-saga detector.
+-- One row per STARTED step awaiting a reply; deleted when the step completes, fails or times out.
+
+CREATE TABLE IF NOT EXISTS saga_step_deadline (
+    saga_id     BIGINT       NOT NULL,
+    step_name   VARCHAR(255) NOT NULL,
+    saga_name   VARCHAR(255) NOT NULL,
+    deadline_at DATETIME(3)  NOT NULL,
+    attempt     INT          NOT NULL,
+    PRIMARY KEY (saga_id, step_name)
+);
@@ -0,0 +1,12 @@
+-- Transactional outbox of saga commands.
+-- Rows are written with their STARTED step and deleted by the relay once Kafka acknowledged them.
+
+CREATE TABLE IF NOT EXISTS saga_outbox (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    saga_id        BIGINT       NOT NULL,
+    binding_name   VARCHAR(255) NOT NULL,
+    payload        MEDIUMBLOB   NOT NULL,
+    correlation_id VARCHAR(255),
+    created_at     DATETIME(3)  NOT NULL,
+    PRIMARY KEY (id)
+);
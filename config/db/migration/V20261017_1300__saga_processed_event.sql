@@ -0,0 +1,12 @@
+-- Ids of saga events already handled by the orchestrator, used to drop Kafka redeliveries.
+-- Rows older than saga.dedupe.ttl are deleted by the orchestrator.
+
+CREATE TABLE IF NOT EXISTS saga_processed_event (
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    event_id     VARCHAR(64) NOT NULL,
+    saga_id      BIGINT      NOT NULL,
+    processed_at DATETIME(3) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_saga_processed_event_event_id (event_id),
+    KEY idx_saga_processed_event_processed (processed_at)
+);
@@ -0,0 +1,28 @@
+-- Finished sagas (COMPLETED / ROLLED_BACK) older than saga.archive.min-age are moved here by the
+-- orchestrator in chunks, keeping their ids, so the hot tables only hold in-flight and recent sagas.
+-- The archive has no foreign keys; steps are looked up by saga_instance_id.
+
+CREATE TABLE IF NOT EXISTS saga_instance_archive (
+    id           BIGINT       NOT NULL,
+    saga_name    VARCHAR(255) NOT NULL,
+    current_step INT          NOT NULL,
+    status       VARCHAR(255) NOT NULL,
+    created_at   DATETIME(6)  NULL,
+    updated_at   DATETIME(6)  NULL,
+    archived_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_saga_instance_archive_created (created_at, id)
+);
+
+CREATE TABLE IF NOT EXISTS saga_step_instance_archive (
+    id               BIGINT       NOT NULL,
+    saga_instance_id BIGINT       NOT NULL,
+    step_name        VARCHAR(255) NOT NULL,
+    status           VARCHAR(255) NOT NULL,
+    payload_data     MEDIUMBLOB   NULL,
+    payload          TEXT         NULL,
+    created_at       DATETIME(6)  NULL,
+    updated_at       DATETIME(6)  NULL,
+    PRIMARY KEY (id),
+    KEY idx_saga_step_instance_archive_saga (saga_instance_id, id)
+);
@@ -0,0 +1,8 @@
+-- Sagas started through a bulk endpoint carry the id of their batch, so the batch status endpoint
+-- can aggregate them with one indexed GROUP BY over the hot and archive tables.
+
+ALTER TABLE saga_instance ADD COLUMN batch_id VARCHAR(36) NULL AFTER status;
+CREATE INDEX idx_saga_instance_batch ON saga_instance (batch_id);
+
+ALTER TABLE saga_instance_archive ADD COLUMN batch_id VARCHAR(36) NULL AFTER status;
+CREATE INDEX idx_saga_instance_archive_batch ON saga_instance_archive (batch_id);
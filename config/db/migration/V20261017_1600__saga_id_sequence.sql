@@ -0,0 +1,19 @@
+-- Saga and step ids are reserved in blocks from this table (Hibernate pooled-lo table generators and
+-- SagaIdAllocator) instead of AUTO_INCREMENT, which lets inserts be batched. next_val is the next free id.
+-- The orchestrator also creates missing rows on startup the same way.
+
+CREATE TABLE IF NOT EXISTS saga_id_sequence (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT       NULL,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT IGNORE INTO saga_id_sequence (sequence_name, next_val)
+SELECT 'saga_instance', GREATEST(
+    (SELECT COALESCE(MAX(id), 0) FROM saga_instance),
+    (SELECT COALESCE(MAX(id), 0) FROM saga_instance_archive)) + 1;
+
+INSERT IGNORE INTO saga_id_sequence (sequence_name, next_val)
+SELECT 'saga_step_instance', GREATEST(
+    (SELECT COALESCE(MAX(id), 0) FROM saga_step_instance),
+    (SELECT COALESCE(MAX(id), 0) FROM saga_step_instance_archive)) + 1;
@@ -0,0 +1,3 @@
+-- Startup recovery checks per saga whether its command is still waiting in the outbox.
+
+CREATE INDEX idx_saga_outbox_saga ON saga_outbox (saga_id);
@@ -0,0 +1,10 @@
+-- Checkpointed totals behind /api/saga/stats, incremented by every orchestrator instance.
+-- step_name is empty for saga-level counters (STARTED and each final status).
+
+CREATE TABLE IF NOT EXISTS saga_stats_counter (
+    saga_name VARCHAR(100) NOT NULL,
+    step_name VARCHAR(100) NOT NULL,
+    counter   VARCHAR(32)  NOT NULL,
+    total     BIGINT       NOT NULL,
+    PRIMARY KEY (saga_name, step_name, counter)
+);
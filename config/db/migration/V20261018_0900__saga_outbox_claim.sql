@@ -0,0 +1,4 @@
+-- Outbox rows are claimed by a relay for saga.outbox.claim-timeout instead of staying locked while
+-- Kafka acknowledges them; rows whose claim expired are sent again by any relay.
+
+ALTER TABLE saga_outbox ADD COLUMN claimed_until DATETIME(3) NULL;
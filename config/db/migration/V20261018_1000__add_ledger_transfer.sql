@@ -0,0 +1,11 @@
+-- Adds ledger_transfer for the partitioned account ledger (account.ledger.enabled).
+-- One row per cross-partition transfer between the debit of its source and the credit of its destination.
+
+CREATE TABLE IF NOT EXISTS ledger_transfer (
+    id VARCHAR(36) NOT NULL,
+    source_account_number VARCHAR(255) NOT NULL,
+    destination_account_number VARCHAR(255) NOT NULL,
+    amount DOUBLE NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,17 @@
+-- Account balances and ledger amounts move to BIGINT minor units (cents) of the base currency.
+-- Apply before account-service starts on the new code: ddl-auto=update never changes column types,
+-- and the service refuses to start while accounts.balance is not BIGINT.
+-- Columns already BIGINT are not scaled again, so the script can be re-run once it succeeded.
+-- ALTER TABLE commits implicitly, so it follows the transaction; if it fails, re-run only the ALTERs.
+
+BEGIN;
+SET @accounts_to_minor = (SELECT COUNT(*) = 0 FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'accounts' AND COLUMN_NAME = 'balance' AND DATA_TYPE = 'bigint');
+SET @ledger_to_minor = (SELECT COUNT(*) = 0 FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ledger_transfer' AND COLUMN_NAME = 'amount' AND DATA_TYPE = 'bigint');
+UPDATE accounts SET balance = ROUND(balance * 100) WHERE @accounts_to_minor;
+UPDATE ledger_transfer SET amount = ROUND(amount * 100) WHERE @ledger_to_minor;
+COMMIT;
+
+ALTER TABLE accounts MODIFY balance BIGINT NOT NULL;
+ALTER TABLE ledger_transfer MODIFY amount BIGINT NOT NULL;
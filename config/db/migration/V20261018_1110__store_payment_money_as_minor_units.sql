@@ -0,0 +1,20 @@
+-- Payment amounts and balances move to BIGINT minor units (cents) of the base currency.
+-- Apply before payment-service starts on the new code: ddl-auto=update never changes column types,
+-- and the service refuses to start while payments.amount is not BIGINT.
+-- A table already BIGINT is not scaled again, so the script can be re-run once it succeeded.
+-- ALTER TABLE commits implicitly, so it follows the transaction; if it fails, re-run only the ALTER.
+
+BEGIN;
+SET @payments_to_minor = (SELECT COUNT(*) = 0 FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'payments' AND COLUMN_NAME = 'amount' AND DATA_TYPE = 'bigint');
+UPDATE payments
+SET amount = ROUND(amount * 100),
+    source_account_balance = ROUND(source_account_balance * 100),
+    destination_account_balance = ROUND(destination_account_balance * 100)
+WHERE @payments_to_minor;
+COMMIT;
+
+ALTER TABLE payments
+    MODIFY amount BIGINT NOT NULL,
+    MODIFY source_account_balance BIGINT NOT NULL,
+    MODIFY destination_account_balance BIGINT NOT NULL;
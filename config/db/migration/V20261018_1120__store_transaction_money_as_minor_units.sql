@@ -0,0 +1,18 @@
+-- Transaction amounts and balances move to BIGINT minor units (cents) of the base currency.
+-- Apply before transaction-service starts on the new code: ddl-auto=update never changes column types,
+-- and the service refuses to start while transactions.amount is not BIGINT.
+-- A table already BIGINT is not scaled again, so the script can be re-run once it succeeded.
+-- ALTER TABLE commits implicitly, so it follows the transaction; if it fails, re-run only the ALTER.
+
+BEGIN;
+SET @transactions_to_minor = (SELECT COUNT(*) = 0 FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'transactions' AND COLUMN_NAME = 'amount' AND DATA_TYPE = 'bigint');
+UPDATE transactions
+SET amount = ROUND(amount * 100),
+    balance = ROUND(balance * 100)
+WHERE @transactions_to_minor;
+COMMIT;
+
+ALTER TABLE transactions
+    MODIFY amount BIGINT NOT NULL,
+    MODIFY balance BIGINT NOT NULL;
@@ -0,0 +1,8 @@
+-- account_balances becomes the striped sub-balances of hot accounts (account.striping.enabled):
+-- each account and currency may have several stripe rows whose sum is part of its balance, and
+-- balances become BIGINT minor units. The table had no writers so far, so no rows are converted.
+-- ALTER TABLE commits implicitly, so the statements are not wrapped in a transaction.
+
+ALTER TABLE account_balances ADD COLUMN stripe INT NOT NULL DEFAULT 0;
+ALTER TABLE account_balances DROP PRIMARY KEY, ADD PRIMARY KEY (account_id, currency, stripe);
+ALTER TABLE account_balances MODIFY balance BIGINT NOT NULL DEFAULT 0;
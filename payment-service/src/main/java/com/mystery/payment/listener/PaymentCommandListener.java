@@ -37,7 +37,7 @@ public class PaymentCommandListener {
             log.info("Received ValidatePaymentCommand for saga {} and payment: {}", command.getSagaId(), payment);
 
             // Basic validation placeholder (always succeeds for now)
-            boolean valid = payment.getAmount() > 0 && payment.getSourceAccountNumber() != null && payment.getDestinationAccountNumber() != null;
+            boolean valid = payment.getAmount() != null && payment.getAmount().isPositive() && payment.getSourceAccountNumber() != null && payment.getDestinationAccountNumber() != null;
 
             if (valid) {
                 PaymentValidatedEvent event = PaymentValidatedEvent.create(
@@ -0,0 +1,232 @@
+package com.mystery.sagabenchmark;
+
+import com.mystery.common.entity.Payment;
+import com.mystery.common.entity.User;
+import com.mystery.common.money.Money;
+import com.mystery.sagabenchmark.config.BenchmarkProperties;
+import com.mystery.sagabenchmark.jdbc.StatementCounter;
+import com.mystery.sagabenchmark.messaging.SimulatedResponders;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.saga.payment.PaymentProcessingSaga;
+import com.mystery.sagaorchestrator.saga.useronboarding.UserOnboardingSaga;
+import com.mystery.sagaorchestrator.service.SagaStateManager;
+import com.mystery.sagaorchestrator.service.await.SagaCompletionWaiters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load driver of the saga benchmark.
+ *
+ * Starts {@code benchmark.sagas} payment and/or onboarding sagas, keeping
+ * {@code benchmark.concurrency} of them in flight, each on its own virtual thread that waits for
+ * the saga to finish through {@link SagaCompletionWaiters}. Reports sagas per second, the
+ * statements sent to the database per saga and the p50/p99 of {@code saga.step.duration} and
+ * {@code saga.duration}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SagaBenchmark {
+
+    private static final long STATUS_POLL_MILLIS = 10;
+
+    private final BenchmarkProperties properties;
+    private final PaymentProcessingSaga paymentProcessingSaga;
+    private final UserOnboardingSaga userOnboardingSaga;
+    private final SagaStateManager sagaStateManager;
+    private final SagaCompletionWaiters completionWaiters;
+    private final SimulatedResponders simulatedResponders;
+    private final StatementCounter statementCounter;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    /**
+     * Outcome of one run.
+     */
+    public record Result(long started, long completed, long failed, long timedOut, long elapsedNanos) {
+
+        public double sagasPerSecond() {
+            return completed * 1e9 / Math.max(elapsedNanos, 1);
+        }
+    }
+
+    /**
+     * Run the warm-up, then the measured run, and log the report of the latter.
+     *
+     * @return the outcome of the measured run
+     */
+    public Result run() throws InterruptedException {
+        if (properties.getWarmupSagas() > 0) {
+            log.info("Warming up with {} sagas", properties.getWarmupSagas());
+            drive(properties.getWarmupSagas(), 0);
+        }
+        log.info("Running {} {} sagas, {} in flight", properties.getSagas(),
+                properties.getWorkload().name().toLowerCase(), properties.getConcurrency());
+        long roundTrips = statementCounter.getRoundTrips();
+        long batchedStatements = statementCounter.getBatchedStatements();
+        long replies = simulatedResponders.getReplies();
+
+        Result result = drive(properties.getSagas(), properties.getWarmupSagas());
+
+        report(result,
+                statementCounter.getRoundTrips() - roundTrips,
+                statementCounter.getBatchedStatements() - batchedStatements,
+                simulatedResponders.getReplies() - replies);
+        return result;
+    }
+
+    // Private helper methods
+
+    private Result drive(int sagas, int firstSequence) throws InterruptedException {
+        LongAdder completed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LongAdder timedOut = new LongAdder();
+        Semaphore inFlight = new Semaphore(properties.getConcurrency());
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sagas; i++) {
+                int sequence = firstSequence + i;
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        SagaConstants.SagaStatus status = runSaga(sequence);
+                        if (status == null) {
+                            timedOut.increment();
+                        } else if (status == SagaConstants.SagaStatus.COMPLETED) {
+                            completed.increment();
+                        } else {
+                            failed.increment();
+                        }
+                    } catch (RuntimeException e) {
+                        log.warn("Benchmark saga {} failed: {}", sequence, e.getMessage(), e);
+                        failed.increment();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return new Result(sagas, completed.sum(), failed.sum(), timedOut.sum(), System.nanoTime() - start);
+    }
+
+    /**
+     * @return the final status of the saga, or {@code null} if it did not finish within {@code benchmark.saga-timeout}
+     */
+    private SagaConstants.SagaStatus runSaga(int sequence) {
+        Long sagaId = startSaga(sequence);
+        CompletableFuture<SagaConstants.SagaStatus> waiter = completionWaiters.await(sagaId, properties.getSagaTimeout());
+        if (waiter == null) {
+            return pollStatus(sagaId);
+        }
+        // The saga may have finished before the waiter was registered
+        finishedStatus(sagaId).ifPresent(waiter::complete);
+        return waiter.join();
+    }
+
+    private Long startSaga(int sequence) {
+        boolean payment = switch (properties.getWorkload()) {
+            case PAYMENT -> true;
+            case ONBOARDING -> false;
+            case MIXED -> sequence % 2 == 0;
+        };
+        return payment
+                ? paymentProcessingSaga.startSaga(payment(sequence)).getId()
+                : userOnboardingSaga.startSaga(user(sequence)).getId();
+    }
+
+    private Optional<SagaConstants.SagaStatus> finishedStatus(Long sagaId) {
+        return sagaStateManager.getSagaStatus(sagaId).filter(status -> status != SagaConstants.SagaStatus.IN_PROGRESS);
+    }
+
+    private SagaConstants.SagaStatus pollStatus(Long sagaId) {
+        long deadline = System.nanoTime() + properties.getSagaTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            Optional<SagaConstants.SagaStatus> finished = finishedStatus(sagaId);
+            if (finished.isPresent()) {
+                return finished.get();
+            }
+            try {
+                Thread.sleep(STATUS_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Payment payment(int sequence) {
+        Payment payment = new Payment();
+        payment.setSourceAccountNumber("BENCH-SRC-" + sequence % 1000);
+        payment.setDestinationAccountNumber("BENCH-DST-" + sequence % 997);
+        payment.setAmount(Money.ofMinor(1_000 + sequence % 100 * 100L));
+        payment.setDescription("Benchmark payment " + sequence);
+        payment.setTimestamp(LocalDateTime.now());
+        payment.setCreatedBy("benchmark");
+        return payment;
+    }
+
+    private static User user(int sequence) {
+        return User.builder()
+                .username("benchmark-user-" + sequence)
+                .email("benchmark-user-" + sequence + "@example.com")
+                .fullName("Benchmark User " + sequence)
+                .build();
+    }
+
+    private void report(Result result, long roundTrips, long batchedStatements, long replies) {
+        double perSaga = Math.max(result.started(), 1);
+        log.info("==== Saga benchmark ====");
+        log.info("workload={}, sagas={}, concurrency={}, responder-latency={}, journal={}, outbox={}",
+                properties.getWorkload().name().toLowerCase(), result.started(), properties.getConcurrency(),
+                properties.getResponderLatency(), environment.getProperty("saga.journal.mode"),
+                environment.getProperty("saga.outbox.enabled"));
+        log.info("throughput: {} sagas/s ({} completed, {} failed, {} timed out in {} s)",
+                String.format("%.1f", result.sagasPerSecond()), result.completed(), result.failed(), result.timedOut(),
+                String.format("%.2f", result.elapsedNanos() / 1e9));
+        log.info("database:   {} statements/saga, {} batched statements/saga",
+                String.format("%.2f", roundTrips / perSaga), String.format("%.2f", batchedStatements / perSaga));
+        log.info("messaging:  {} replies/saga", String.format("%.2f", replies / perSaga));
+        log.info("latency (ms, warm-up included):");
+        log.info(String.format("  %-60s %10s %10s %10s", "timer", "count", "p50", "p99"));
+        logTimers("saga.step.duration", "step", "outcome");
+        logTimers("saga.duration", "status", null);
+    }
+
+    private void logTimers(String name, String detailTag, String outcomeTag) {
+        meterRegistry.find(name).timers().stream()
+                .sorted(Comparator.comparing((Timer timer) -> timer.getId().getTag("saga"))
+                        .thenComparing(timer -> timer.getId().getTag(detailTag))
+                        .thenComparing(timer -> outcomeTag != null ? timer.getId().getTag(outcomeTag) : ""))
+                .forEach(timer -> {
+                    String label = timer.getId().getTag("saga") + " / " + timer.getId().getTag(detailTag)
+                            + (outcomeTag != null ? " [" + timer.getId().getTag(outcomeTag) + "]" : "");
+                    log.info(String.format("  %-60s %10d %10.2f %10.2f", label, timer.count(),
+                            percentile(timer, 0.5), percentile(timer, 0.99)));
+                });
+    }
+
+    private static double percentile(Timer timer, double percentile) {
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,33 @@
+package com.mystery.sagabenchmark;
+
+import com.mystery.SagaOrchestratorServiceApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the saga orchestrator on H2 and the Spring Cloud Stream test binder with the
+ * {@code benchmark} profile, runs {@link SagaBenchmark} and shuts down.
+ *
+ * Run with {@code mvn -Pbenchmark -pl saga-benchmark -am verify -Djib.skip}; the build fails if
+ * any saga does not complete.
+ */
+public final class SagaBenchmarkApplication {
+
+    private SagaBenchmarkApplication() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        SpringApplication application = new SpringApplication(
+                TestChannelBinderConfiguration.getCompleteConfiguration(SagaOrchestratorServiceApplication.class));
+        application.setAdditionalProfiles("benchmark");
+
+        SagaBenchmark.Result result;
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            result = context.getBean(SagaBenchmark.class).run();
+        }
+        if (result.completed() != result.started()) {
+            throw new IllegalStateException("Only " + result.completed() + " of " + result.started() + " sagas completed");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.mystery.sagabenchmark.config;
+
+import com.mystery.sagabenchmark.jdbc.StatementCounter;
+import com.mystery.sagabenchmark.messaging.BinderKafkaTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the orchestrator's external dependencies for the benchmark: the outbox relay publishes
+ * to the test binder instead of Kafka, and every statement sent to the database is counted.
+ */
+@Configuration
+public class BenchmarkConfiguration {
+
+    @Bean
+    public KafkaTemplate<byte[], byte[]> kafkaTemplate(StreamBridge streamBridge) {
+        return new BinderKafkaTemplate(streamBridge);
+    }
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSource(ObjectProvider<StatementCounter> statementCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? statementCounter.getObject().wrap(dataSource) : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.mystery.sagabenchmark.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the saga benchmark, see {@link com.mystery.sagabenchmark.SagaBenchmark}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "benchmark")
+public class BenchmarkProperties {
+
+    /** Sagas started by the measured run. */
+    private int sagas = 20000;
+
+    /** Sagas run before the measured run to warm up the JIT, pools and caches; not reported. */
+    private int warmupSagas = 2000;
+
+    /** Sagas in flight at any time. */
+    private int concurrency = 200;
+
+    /** Which sagas are started: payment, onboarding or mixed (alternating). */
+    private Workload workload = Workload.MIXED;
+
+    /** Simulated processing time of a downstream service before it replies. */
+    private Duration responderLatency = Duration.ZERO;
+
+    /** How long one saga may take before it is counted as timed out. */
+    private Duration sagaTimeout = Duration.ofSeconds(30);
+
+    public enum Workload {
+        PAYMENT,
+        ONBOARDING,
+        MIXED
+    }
+}
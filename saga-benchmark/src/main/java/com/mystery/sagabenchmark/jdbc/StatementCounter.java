@@ -0,0 +1,80 @@
+package com.mystery.sagabenchmark.jdbc;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the JDBC statements executed through a wrapped {@link DataSource}.
+ *
+ * Every {@code execute*} call is one round trip; {@code executeBatch} counts as one round trip
+ * and each statement added to the batch is counted separately as a batched statement.
+ */
+public class StatementCounter {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final LongAdder roundTrips = new LongAdder();
+    private final LongAdder batchedStatements = new LongAdder();
+
+    /**
+     * @return {@code dataSource} with every connection and statement it hands out counted
+     */
+    public DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, result) ->
+                result instanceof Connection connection && "getConnection".equals(method.getName())
+                        ? wrap(connection)
+                        : result);
+    }
+
+    public long getRoundTrips() {
+        return roundTrips.sum();
+    }
+
+    public long getBatchedStatements() {
+        return batchedStatements.sum();
+    }
+
+    // Private helper methods
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (method, result) ->
+                result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())
+                        ? wrap(statement, method.getReturnType())
+                        : result);
+    }
+
+    private Object wrap(Statement statement, Class<?> statementType) {
+        return proxy(statementType, statement, (method, result) -> {
+            if (EXECUTE_METHODS.contains(method.getName())) {
+                roundTrips.increment();
+            } else if ("addBatch".equals(method.getName())) {
+                batchedStatements.increment();
+            }
+            return result;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, ResultWrapper wrapper) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return wrapper.apply(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    @FunctionalInterface
+    private interface ResultWrapper {
+        Object apply(Method method, Object result);
+    }
+}
@@ -0,0 +1,53 @@
+package com.mystery.sagabenchmark.messaging;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.messaging.Message;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stands in for the Kafka producer of the saga outbox relay.
+ *
+ * Each relayed message is handed to the test binder through {@link StreamBridge} on the topic the
+ * relay addressed, where {@link SimulatedResponders} pick it up like commands sent directly, and is
+ * acknowledged at once. The relay itself (locking, batching, deleting rows) runs unchanged.
+ */
+public class BinderKafkaTemplate extends KafkaTemplate<byte[], byte[]> {
+
+    private final StreamBridge streamBridge;
+    private final AtomicLong offset = new AtomicLong();
+
+    public BinderKafkaTemplate(StreamBridge streamBridge) {
+        // Never asked for a producer: send and flush are overridden
+        super(new DefaultKafkaProducerFactory<>(Map.of()));
+        this.streamBridge = streamBridge;
+    }
+
+    @Override
+    public CompletableFuture<SendResult<byte[], byte[]>> send(Message<?> message) {
+        String topic = message.getHeaders().get(KafkaHeaders.TOPIC, String.class);
+        byte[] key = message.getHeaders().get(KafkaHeaders.KEY, byte[].class);
+        byte[] payload = (byte[]) message.getPayload();
+        if (topic == null || !streamBridge.send(topic, message)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Cannot relay message to " + topic));
+        }
+        ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(topic, key, payload);
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(topic, 0), offset.getAndIncrement(), 0,
+                System.currentTimeMillis(), key != null ? key.length : 0, payload.length);
+        return CompletableFuture.completedFuture(new SendResult<>(record, metadata));
+    }
+
+    @Override
+    public void flush() {
+        // Every send above has already been delivered
+    }
+}
@@ -0,0 +1,228 @@
+package com.mystery.sagabenchmark.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mystery.common.AppConstants;
+import com.mystery.common.entity.Account;
+import com.mystery.common.entity.User;
+import com.mystery.common.saga.command.BaseCommand;
+import com.mystery.common.saga.event.BaseEvent;
+import com.mystery.common.saga.notification.commands.SendNotificationCommand;
+import com.mystery.common.saga.payment.commands.ProcessPaymentCommand;
+import com.mystery.common.saga.payment.commands.RecordTransactionCommand;
+import com.mystery.common.saga.payment.commands.UpdatePaymentStatusCommand;
+import com.mystery.common.saga.payment.commands.ValidatePaymentCommand;
+import com.mystery.common.saga.payment.events.PaymentProcessedEvent;
+import com.mystery.common.saga.payment.events.PaymentStatusUpdatedEvent;
+import com.mystery.common.saga.payment.events.PaymentValidatedEvent;
+import com.mystery.common.saga.payment.events.TransactionRecordedEvent;
+import com.mystery.common.saga.useronboarding.commands.CreateUserCommand;
+import com.mystery.common.saga.useronboarding.commands.DeleteUserCommand;
+import com.mystery.common.saga.useronboarding.commands.OpenAccountCommand;
+import com.mystery.common.saga.useronboarding.events.AccountOpenedEvent;
+import com.mystery.common.saga.useronboarding.events.UserCreatedEvent;
+import com.mystery.common.saga.useronboarding.events.UserDeletedEvent;
+import com.mystery.sagabenchmark.config.BenchmarkProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Simulated downstream services.
+ *
+ * One virtual thread per command destination polls the test binder's {@link OutputDestination},
+ * answers every command with the success event its real service would send and feeds it to the
+ * saga topic through the {@link InputDestination}, after {@code benchmark.responder-latency} if set.
+ * Notifications are fire-and-forget and only counted.
+ */
+@Slf4j
+@Component
+public class SimulatedResponders {
+
+    private static final String PAYMENT_EVENTS_BINDING = "paymentProcessingSagaEvents-in-0";
+    private static final String ONBOARDING_EVENTS_BINDING = "userOnboardingSagaEvents-in-0";
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final InputDestination inputDestination;
+    private final OutputDestination outputDestination;
+    private final BindingServiceProperties bindingServiceProperties;
+    private final ObjectMapper objectMapper;
+    private final BenchmarkProperties properties;
+    // Responders by command destination
+    private final Map<String, Responder<?>> responders = new LinkedHashMap<>();
+    private final List<Thread> pollers = new ArrayList<>();
+    private final ScheduledExecutorService delayedReplies;
+    private final LongAdder replies = new LongAdder();
+    private final LongAdder notifications = new LongAdder();
+    private volatile boolean running;
+
+    private record Responder<C extends BaseCommand>(Class<C> commandType, String eventsDestination,
+                                                    Function<C, BaseEvent> reply) {
+    }
+
+    public SimulatedResponders(InputDestination inputDestination,
+                               OutputDestination outputDestination,
+                               BindingServiceProperties bindingServiceProperties,
+                               ObjectMapper objectMapper,
+                               BenchmarkProperties properties) {
+        this.inputDestination = inputDestination;
+        this.outputDestination = outputDestination;
+        this.bindingServiceProperties = bindingServiceProperties;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.delayedReplies = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "benchmark-delayed-replies");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // payment-service, account-service, transaction-service
+        respond("validatePaymentCommand-out-0", ValidatePaymentCommand.class, PAYMENT_EVENTS_BINDING,
+                command -> PaymentValidatedEvent.create(command.getSagaId(), command.getPayment()));
+        respond("processPaymentCommand-out-0", ProcessPaymentCommand.class, PAYMENT_EVENTS_BINDING,
+                command -> PaymentProcessedEvent.create(command.getSagaId(), command.getPayment()));
+        respond("recordTransactionCommand-out-0", RecordTransactionCommand.class, PAYMENT_EVENTS_BINDING,
+                command -> TransactionRecordedEvent.create(command.getSagaId(), command.getPayment()));
+        respond("updatePaymentStatusCommand-out-0", UpdatePaymentStatusCommand.class, PAYMENT_EVENTS_BINDING,
+                command -> PaymentStatusUpdatedEvent.create(command.getSagaId(), command.getPayment()));
+
+        // user-service, account-service
+        respond("createUserCommand-out-0", CreateUserCommand.class, ONBOARDING_EVENTS_BINDING,
+                command -> UserCreatedEvent.create(command.getSagaId(), createdUser(command)));
+        respond("accountOpenCommand-out-0", OpenAccountCommand.class, ONBOARDING_EVENTS_BINDING,
+                command -> AccountOpenedEvent.create(command.getSagaId(), openedAccount(command), command.getUser()));
+        respond("deleteUserCommand-out-0", DeleteUserCommand.class, ONBOARDING_EVENTS_BINDING,
+                command -> UserDeletedEvent.create(command.getSagaId(), command.getUsername()));
+
+        // notification-service
+        respond("sendNotificationCommand-out-0", SendNotificationCommand.class, null, null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        running = true;
+        responders.forEach((destination, responder) -> pollers.add(Thread.ofVirtual()
+                .name("benchmark-responder-" + destination)
+                .start(() -> poll(destination, responder))));
+        log.info("Simulated responders started on {}", responders.keySet());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread poller : pollers) {
+            poller.join(POLL_TIMEOUT_MILLIS * 10);
+        }
+        delayedReplies.shutdownNow();
+    }
+
+    /**
+     * @return replies sent to the saga topics so far
+     */
+    public long getReplies() {
+        return replies.sum();
+    }
+
+    /**
+     * @return notification commands received so far
+     */
+    public long getNotifications() {
+        return notifications.sum();
+    }
+
+    // Private helper methods
+
+    private <C extends BaseCommand> void respond(String bindingName, Class<C> commandType, String eventsBinding,
+                                                 Function<C, BaseEvent> reply) {
+        String eventsDestination = eventsBinding != null ? bindingServiceProperties.getBindingDestination(eventsBinding) : null;
+        responders.put(bindingServiceProperties.getBindingDestination(bindingName),
+                new Responder<>(commandType, eventsDestination, reply));
+    }
+
+    private void poll(String destination, Responder<?> responder) {
+        while (running) {
+            Message<byte[]> command;
+            try {
+                command = outputDestination.receive(POLL_TIMEOUT_MILLIS, destination);
+            } catch (RuntimeException e) {
+                // The destination is only bound once the first command is sent to it
+                sleepQuietly();
+                continue;
+            }
+            if (command != null) {
+                handle(responder, command.getPayload());
+            }
+        }
+    }
+
+    private <C extends BaseCommand> void handle(Responder<C> responder, byte[] payload) {
+        if (responder.reply() == null) {
+            notifications.increment();
+            return;
+        }
+        try {
+            BaseEvent event = responder.reply().apply(objectMapper.readValue(payload, responder.commandType()));
+            Message<byte[]> message = MessageBuilder.withPayload(objectMapper.writeValueAsBytes(event))
+                    .setHeader(AppConstants.EVENT_TYPE_HEADER, event.getEventType())
+                    .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE)
+                    .build();
+            long latencyNanos = properties.getResponderLatency().toNanos();
+            if (latencyNanos > 0) {
+                delayedReplies.schedule(() -> reply(message, responder.eventsDestination()), latencyNanos, TimeUnit.NANOSECONDS);
+            } else {
+                reply(message, responder.eventsDestination());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Simulated {} responder failed: {}", responder.commandType().getSimpleName(), e.getMessage(), e);
+        }
+    }
+
+    private void reply(Message<byte[]> message, String eventsDestination) {
+        inputDestination.send(message, eventsDestination);
+        replies.increment();
+    }
+
+    private static User createdUser(CreateUserCommand command) {
+        User user = command.getUser();
+        user.setUserId(command.getSagaId());
+        return user;
+    }
+
+    private static Account openedAccount(OpenAccountCommand command) {
+        Account account = new Account();
+        account.setAccountNumber("BENCH" + command.getSagaId());
+        account.setAccountType(command.getAccountType());
+        account.setUserName(command.getUser().getUsername());
+        account.setStatus("ACTIVE");
+        account.setCreatedTimestamp(LocalDateTime.now());
+        return account;
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(POLL_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
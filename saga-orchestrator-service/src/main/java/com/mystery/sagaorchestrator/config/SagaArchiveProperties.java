@@ -0,0 +1,31 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the finished-saga archiver, see
+ * {@link com.mystery.sagaorchestrator.service.archive.SagaArchiver}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.archive")
+public class SagaArchiveProperties {
+
+    private boolean enabled = true;
+
+    /** COMPLETED and ROLLED_BACK sagas created longer ago than this are moved to the archive tables. */
+    private Duration minAge = Duration.ofDays(7);
+
+    /** Interval between archiver runs; each run moves every eligible saga. */
+    private Duration interval = Duration.ofMinutes(10);
+
+    /** Sagas moved per transaction, with all of their steps. */
+    private int chunkSize = 500;
+
+    /** Pause between chunks, so a large backlog does not saturate the database. */
+    private Duration chunkPause = Duration.ofMillis(50);
+}
@@ -0,0 +1,26 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of synchronous saga replies ({@code ?await=}), see
+ * {@link com.mystery.sagaorchestrator.service.await.SagaCompletionWaiters}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.await")
+public class SagaAwaitProperties {
+
+    /** Longest {@code await} a client may ask for; longer values are capped. */
+    private Duration maxWait = Duration.ofSeconds(10);
+
+    /** Lock stripes of the waiter map; rounded up to a power of two. */
+    private int stripes = 16;
+
+    /** Most requests waiting at the same time on this instance; further requests get 202 straight away. */
+    private int maxPending = 10_000;
+}
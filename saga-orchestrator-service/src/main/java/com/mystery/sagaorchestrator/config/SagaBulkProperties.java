@@ -0,0 +1,20 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits of the bulk saga start endpoints, e.g. {@code /api/saga/start/payment-processing/bulk}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.bulk")
+public class SagaBulkProperties {
+
+    /** Most sagas accepted in one bulk request. */
+    private int maxItems = 10_000;
+
+    /** Rows per JDBC batch when inserting the sagas and their first steps. */
+    private int insertBatchSize = 1000;
+}
@@ -0,0 +1,23 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Bounds for the in-memory cache of in-flight sagas, see
+ * {@link com.mystery.sagaorchestrator.service.cache.SagaStateCache}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.cache")
+public class SagaCacheProperties {
+
+    /** Maximum number of in-flight sagas kept in memory. */
+    private long maximumSize = 100_000;
+
+    /** Sagas not touched for this long are evicted. */
+    private Duration ttl = Duration.ofMinutes(30);
+}
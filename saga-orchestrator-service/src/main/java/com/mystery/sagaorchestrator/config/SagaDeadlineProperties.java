@@ -0,0 +1,53 @@
+package com.mystery.sagaorchestrator.config;
+
+import com.mystery.sagaorchestrator.saga.StepDeadline;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration of the stuck-saga detector, see
+ * {@link com.mystery.sagaorchestrator.service.deadline.StepDeadlineScheduler}.
+ *
+ * Step deadlines default to the values declared on the step enums and can be overridden per step name.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.deadline")
+public class SagaDeadlineProperties {
+
+    private boolean enabled = true;
+
+    /** Resolution of the timing wheel; deadlines fire at most one tick late. */
+    private Duration tick = Duration.ofMillis(100);
+
+    /** Buckets per timing wheel level. */
+    private int wheelSize = 512;
+
+    /** Rows read per query when reloading persisted deadlines on startup. */
+    private int recoveryBatchSize = 1000;
+
+    /** Overrides keyed by step name, e.g. {@code saga.deadline.steps[process-payment].timeout=2m}. */
+    private Map<String, StepOverride> steps = new HashMap<>();
+
+    @Data
+    public static class StepOverride {
+
+        private Duration timeout;
+
+        private StepDeadline.Action action;
+
+        private Integer maxRetries;
+
+        public StepDeadline applyTo(StepDeadline defaults) {
+            return new StepDeadline(
+                    timeout != null ? timeout : defaults.timeout(),
+                    action != null ? action : defaults.action(),
+                    maxRetries != null ? maxRetries : defaults.maxRetries());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of saga event deduplication, see
+ * {@link com.mystery.sagaorchestrator.service.dedupe.SagaEventDeduplicator}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.dedupe")
+public class SagaDedupeProperties {
+
+    private boolean enabled = true;
+
+    /** Most recently processed event ids kept exactly in memory. */
+    private int recentSize = 100_000;
+
+    /** Event ids each Bloom filter generation is sized for. */
+    private long expectedEvents = 1_000_000;
+
+    /** Target false positive rate of the Bloom filter; each false positive costs one database read. */
+    private double falsePositiveRate = 0.01;
+
+    /** How long processed event ids are remembered; in memory they survive at least half of it. */
+    private Duration ttl = Duration.ofDays(7);
+
+    /** Interval at which processed event ids are written to the database in one batch. */
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    /** Interval at which ids processed by other instances are loaded into the Bloom filter. */
+    private Duration syncInterval = Duration.ofSeconds(1);
+
+    /** Rows per query when loading, writing or deleting processed event ids. */
+    private int batchSize = 1000;
+
+    /** Interval at which ids older than {@code ttl} are deleted from the database. */
+    private Duration cleanupInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,29 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the saga event dispatcher, see
+ * {@link com.mystery.sagaorchestrator.service.dispatch.SagaEventDispatcher}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.dispatcher")
+public class SagaDispatcherProperties {
+
+    /** When disabled, events are handled inline on the binder consumer thread. */
+    private boolean enabled = true;
+
+    /** Number of lanes, i.e. sagas processed concurrently. */
+    private int lanes = 64;
+
+    /** Events queued per lane before the binder consumer thread blocks. */
+    private int laneCapacity = 1000;
+
+    /** How long shutdown waits for queued events to be processed. */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
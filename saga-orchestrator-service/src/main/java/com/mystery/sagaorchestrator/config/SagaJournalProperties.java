@@ -0,0 +1,50 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for how saga step transitions are persisted.
+ *
+ * In {@code DIRECT} mode every transition is written through JPA in its own transaction.
+ * In {@code WRITE_BEHIND} mode transitions are buffered in memory and flushed in JDBC batches
+ * once {@link #batchSize} entries are pending or {@link #flushInterval} has elapsed.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.journal")
+public class SagaJournalProperties {
+
+    public enum Mode {
+        DIRECT,
+        WRITE_BEHIND
+    }
+
+    public enum Durability {
+        /** Caller flushes the journal itself and returns once its entry is committed. */
+        SYNC,
+        /** Caller waits until the background flusher commits the batch containing its entry. */
+        GROUP_COMMIT,
+        /**
+         * Caller returns immediately; entries are committed by the next flush, or before their saga is read.
+         * Transitions are announced to waiters, watchers and statistics only once committed.
+         */
+        ASYNC
+    }
+
+    private Mode mode = Mode.DIRECT;
+
+    private Durability durability = Durability.GROUP_COMMIT;
+
+    /** Number of pending entries that triggers an immediate flush. */
+    private int batchSize = 200;
+
+    /** Maximum time an entry waits in the buffer before being flushed. */
+    private Duration flushInterval = Duration.ofMillis(5);
+
+    /** Upper bound on buffered entries; appenders block when the buffer is full. */
+    private int capacity = 10_000;
+}
@@ -0,0 +1,35 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the saga command outbox, see
+ * {@link com.mystery.sagaorchestrator.service.outbox.SagaOutboxRelay}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.outbox")
+public class SagaOutboxProperties {
+
+    /** When disabled, commands are sent with StreamBridge right after their step is recorded. */
+    private boolean enabled = true;
+
+    /** Maximum outbox rows relayed per transaction. */
+    private int batchSize = 500;
+
+    /** How long the relay waits after being woken so that concurrent commits share a batch. */
+    private Duration linger = Duration.ofMillis(5);
+
+    /** Polling interval when idle, picking up rows committed by other instances. */
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    /** Maximum time to wait for Kafka to acknowledge a batch before it is retried. */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    /** How long a relay keeps the rows it claimed; rows of a relay that died are sent again after it. */
+    private Duration claimTimeout = Duration.ofSeconds(30);
+}
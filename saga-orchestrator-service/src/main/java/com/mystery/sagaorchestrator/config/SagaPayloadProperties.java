@@ -0,0 +1,39 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Encoding of saga step payloads stored in {@code saga_step_instance.payload_data}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.payload")
+public class SagaPayloadProperties {
+
+    // Ordinals of Format and Compression are written into every encoded payload; only append new constants
+
+    public enum Format {
+        JSON,
+        SMILE
+    }
+
+    public enum Compression {
+        NONE,
+        DEFLATE,
+        LZ4
+    }
+
+    private Format format = Format.SMILE;
+
+    private Compression compression = Compression.LZ4;
+
+    /** Encoded payloads smaller than this many bytes are stored uncompressed. */
+    private int compressionThreshold = 512;
+
+    /** Convert rows still holding the legacy TEXT payload on startup. */
+    private boolean migrateLegacy = false;
+
+    private int migrationBatchSize = 500;
+}
@@ -0,0 +1,24 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits for saga instance listings served by {@code /api/saga/instances}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.query")
+public class SagaQueryProperties {
+
+    private int defaultLimit = 50;
+
+    private int maxLimit = 500;
+
+    /**
+     * JDBC fetch size for NDJSON streaming. {@code Integer.MIN_VALUE} makes MySQL Connector/J
+     * stream rows one at a time instead of buffering the whole result set.
+     */
+    private int streamFetchSize = Integer.MIN_VALUE;
+}
@@ -0,0 +1,34 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the startup recovery of in-flight sagas, see
+ * {@link com.mystery.sagaorchestrator.service.recovery.SagaRecoveryService}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.recovery")
+public class SagaRecoveryProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Wait after startup before recovering. Sagas that made progress within this window are
+     * left alone, as another instance is still driving them.
+     */
+    private Duration delay = Duration.ofMinutes(1);
+
+    /** In-progress sagas read per query. */
+    private int chunkSize = 500;
+
+    /** Chunks being recovered at the same time on the dispatcher lanes. */
+    private int parallelChunks = 4;
+
+    /** Upper bound on commands re-sent per second, so a restart does not flood Kafka. */
+    private int maxResendsPerSecond = 100;
+}
@@ -0,0 +1,29 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of the saga statistics behind {@code /api/saga/stats}, see
+ * {@link com.mystery.sagaorchestrator.service.stats.SagaStatistics}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.stats")
+public class SagaStatsProperties {
+
+    private boolean enabled = true;
+
+    /** How often local counts are added to {@code saga_stats_counter} and the cluster-wide totals reloaded. */
+    private Duration checkpointInterval = Duration.ofSeconds(10);
+
+    /** Resolution of the rolling windows. */
+    private Duration bucket = Duration.ofSeconds(10);
+
+    /** Rolling windows reported next to the totals; each must be a multiple of the bucket. */
+    private List<Duration> windows = List.of(Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofHours(1));
+}
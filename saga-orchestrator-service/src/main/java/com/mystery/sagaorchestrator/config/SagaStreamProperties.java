@@ -0,0 +1,29 @@
+package com.mystery.sagaorchestrator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the saga transition stream, see
+ * {@link com.mystery.sagaorchestrator.service.stream.SagaTransitionHub}.
+ *
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "saga.stream")
+public class SagaStreamProperties {
+
+    /** Transitions buffered per subscriber; a subscriber whose buffer overflows is disconnected. */
+    private int bufferSize = 64;
+
+    /** Most concurrent subscribers on this instance; further subscriptions are rejected. */
+    private int maxSubscribers = 10_000;
+
+    /** Streams still open after this long are closed; clients reconnect if the saga is still running. */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /** Interval of keep-alive comments, which also detect disconnected clients. */
+    private Duration heartbeat = Duration.ofSeconds(15);
+}
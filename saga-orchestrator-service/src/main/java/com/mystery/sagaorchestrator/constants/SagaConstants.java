@@ -28,6 +28,21 @@ public final class SagaConstants {
      */
     public static final String PAYMENT_PROCESSING_SAGA = "payment-processing-saga";
 
+    /**
+     * Table holding the next free id of each saga entity, shared by Hibernate's pooled-lo
+     * table generators and {@link com.mystery.sagaorchestrator.service.id.SagaIdAllocator}.
+     */
+    public static final String ID_SEQUENCE_TABLE = "saga_id_sequence";
+
+    public static final String SAGA_INSTANCE_ID_SEQUENCE = "saga_instance";
+
+    public static final String SAGA_STEP_INSTANCE_ID_SEQUENCE = "saga_step_instance";
+
+    /**
+     * Ids reserved per round trip to {@link #ID_SEQUENCE_TABLE}.
+     */
+    public static final int ID_ALLOCATION_SIZE = 1000;
+
     public enum SagaStepStatus {
         STARTED,
         COMPLETED,
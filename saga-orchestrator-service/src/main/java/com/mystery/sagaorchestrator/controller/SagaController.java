@@ -2,26 +2,58 @@ package com.mystery.sagaorchestrator.controller;
 
 import com.mystery.common.entity.Payment;
 import com.mystery.common.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mystery.common.util.SecurityUtil;
+import com.mystery.sagaorchestrator.config.SagaAwaitProperties;
+import com.mystery.sagaorchestrator.config.SagaBulkProperties;
+import com.mystery.sagaorchestrator.config.SagaQueryProperties;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.dto.SagaBatchStart;
+import com.mystery.sagaorchestrator.dto.SagaBatchStatus;
+import com.mystery.sagaorchestrator.dto.SagaInstanceFilter;
+import com.mystery.sagaorchestrator.dto.SagaInstancePage;
+import com.mystery.sagaorchestrator.dto.SagaInstanceView;
+import com.mystery.sagaorchestrator.dto.SagaReply;
+import com.mystery.sagaorchestrator.dto.SagaStats;
+import com.mystery.sagaorchestrator.dto.SagaStepView;
 import com.mystery.sagaorchestrator.entity.SagaInstance;
 import com.mystery.sagaorchestrator.saga.payment.PaymentProcessingSaga;
 import com.mystery.sagaorchestrator.saga.payment.PaymentRequest;
 import com.mystery.sagaorchestrator.saga.useronboarding.UserOnboardingSaga;
 import com.mystery.sagaorchestrator.service.SagaStateManager;
+import com.mystery.sagaorchestrator.service.await.SagaCompletionWaiters;
+import com.mystery.sagaorchestrator.service.stats.SagaStatistics;
+import com.mystery.sagaorchestrator.service.stream.SagaTransitionHub;
 import com.mystery.sagaorchestrator.util.SecurityUserUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -32,16 +64,52 @@ public class SagaController {
     private final UserOnboardingSaga userOnboardingSaga;
     private final PaymentProcessingSaga paymentProcessingSaga;
     private final SagaStateManager sagaStateManager;
+    private final SagaTransitionHub sagaTransitionHub;
+    private final SagaQueryProperties sagaQueryProperties;
+    private final SagaBulkProperties sagaBulkProperties;
+    private final SagaAwaitProperties sagaAwaitProperties;
+    private final SagaCompletionWaiters sagaCompletionWaiters;
+    private final SagaStatistics sagaStatistics;
+    private final ObjectMapper objectMapper;
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // Newest first; pass the returned nextCursor back as cursor to fetch the following page
     @GetMapping("/instances")
     @PreAuthorize("hasRole(T(com.mystery.common.AppConstants).ROLE_BAAS_ADMIN)")
-    public ResponseEntity<List<SagaInstance>> getAllSagaInstances() {
-        log.info("Fetching all saga instances");
+    public ResponseEntity<SagaInstancePage> getSagaInstances(
+            @RequestParam(required = false) String sagaName,
+            @RequestParam(required = false) SagaConstants.SagaStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeSteps) {
+        log.info("Fetching saga instances sagaName={} status={} from={} to={} cursor={}", sagaName, status, from, to, cursor);
 
-        List<SagaInstance> sagaInstances = sagaStateManager.getAllSagaInstances();
+        SagaInstancePage page = sagaStateManager.findSagaInstances(
+                new SagaInstanceFilter(sagaName, status, from, to), cursor,
+                limit != null ? limit : sagaQueryProperties.getDefaultLimit(), includeSteps);
 
-        log.info("Returning {} saga instances", sagaInstances.size());
-        return ResponseEntity.ok(sagaInstances);
+        log.info("Returning {} saga instances, hasMore={}", page.items().size(), page.nextCursor() != null);
+        return ResponseEntity.ok(page);
+    }
+
+    // Same filters as /instances, written as one JSON object per line over a single database cursor
+    @GetMapping(value = "/instances/stream", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole(T(com.mystery.common.AppConstants).ROLE_BAAS_ADMIN)")
+    public ResponseEntity<StreamingResponseBody> streamSagaInstances(
+            @RequestParam(required = false) String sagaName,
+            @RequestParam(required = false) SagaConstants.SagaStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean includeSteps) {
+        log.info("Streaming saga instances sagaName={} status={} from={} to={}", sagaName, status, from, to);
+
+        SagaInstanceFilter filter = new SagaInstanceFilter(sagaName, status, from, to);
+        StreamingResponseBody body = outputStream -> sagaStateManager.streamSagaInstances(filter, includeSteps,
+                saga -> writeLine(outputStream, saga));
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/instances/{id}")
@@ -57,6 +125,40 @@ public class SagaController {
                 });
     }
 
+    // Server-Sent Events: a "snapshot" of the saga, then one "transition" per step or status change until it finishes
+    @GetMapping(value = "/instances/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole(T(com.mystery.common.AppConstants).ROLE_BAAS_ADMIN) or isAuthenticated()")
+    public ResponseEntity<SseEmitter> streamSagaTransitions(@PathVariable Long id) {
+        log.info("Streaming transitions of saga instance id={}", id);
+
+        Optional<SagaInstance> opt = sagaStateManager.getSagaInstanceById(id);
+        if (opt.isEmpty()) {
+            log.warn("Saga instance with id={} not found", id);
+            return ResponseEntity.notFound().build();
+        }
+        // Read again once subscribed, so a transition recorded in between is either in the snapshot or streamed
+        SseEmitter emitter = sagaTransitionHub.subscribe(id, () -> {
+            SagaInstance sagaInstance = sagaStateManager.getSagaInstanceById(id).orElse(opt.get());
+            return new SagaTransitionHub.Snapshot(toView(sagaInstance),
+                    sagaInstance.getStatus() != SagaConstants.SagaStatus.IN_PROGRESS);
+        });
+        if (emitter == null) {
+            log.warn("Rejecting transition stream of saga id={}: subscriber limit reached", id);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/instances/{id}/steps/{stepId}/payload")
+    @PreAuthorize("hasRole(T(com.mystery.common.AppConstants).ROLE_BAAS_ADMIN)")
+    public ResponseEntity<String> getStepPayload(@PathVariable Long id, @PathVariable Long stepId) {
+        log.info("Fetching payload of step {} for saga instance id={}", stepId, id);
+
+        return sagaStateManager.getStepPayload(id, stepId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/instances/{id}/fail")
     @PreAuthorize("hasRole(T(com.mystery.common.AppConstants).ROLE_BAAS_ADMIN)")
     public ResponseEntity<String> failSagaInstance(@PathVariable Long id) {
@@ -87,23 +189,137 @@ public class SagaController {
         return ResponseEntity.accepted().body("User onboarding process started with saga ID: " + sagaInstance.getId());
     }
 
-    // Endpoint to start payment processing saga
+    // Endpoint to start payment processing saga; with await (e.g. ?await=2s) the response waits for the
+    // final status, without holding a thread, and falls back to 202 with the status URL when the saga runs longer
     @PostMapping("/start/payment-processing")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<String> startPaymentProcessingSaga(@RequestBody PaymentRequest paymentRequest) {
+    public CompletableFuture<ResponseEntity<?>> startPaymentProcessingSaga(@RequestBody PaymentRequest paymentRequest,
+                                                                          @RequestParam(required = false) String await) {
         log.info("Starting payment processing saga for from={} to={} amount={}", paymentRequest.getSourceAccountNumber(), paymentRequest.getDestinationAccountNumber(), paymentRequest.getAmount());
 
+        Duration wait = toWait(await);
+        SagaInstance sagaInstance = paymentProcessingSaga.startSaga(toPayment(paymentRequest, SecurityUtil.getCurrentUsername()));
+        Long sagaId = sagaInstance.getId();
+
+        log.info("Payment processing saga started id={}", sagaId);
+        if (wait == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.accepted().body("Payment processing started with saga ID: " + sagaId));
+        }
+        CompletableFuture<SagaConstants.SagaStatus> waiter = sagaCompletionWaiters.await(sagaId, wait);
+        if (waiter == null) {
+            log.warn("Not waiting for saga id={}: too many pending requests", sagaId);
+            return CompletableFuture.completedFuture(inProgress(sagaId));
+        }
+        // The saga may have finished before the waiter was registered
+        sagaStateManager.getSagaStatus(sagaId)
+                .filter(status -> status != SagaConstants.SagaStatus.IN_PROGRESS)
+                .ifPresent(status -> sagaCompletionWaiters.complete(sagaId, status));
+        return waiter.thenApply(status -> status != null
+                ? ResponseEntity.ok(new SagaReply(sagaId, status, null))
+                : inProgress(sagaId));
+    }
+
+    // One payment processing saga per request, created in one transaction; poll /batches/{batchId} for progress
+    @PostMapping("/start/payment-processing/bulk")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<SagaBatchStart> startPaymentProcessingSagas(@RequestBody List<PaymentRequest> paymentRequests) {
+        if (paymentRequests == null || paymentRequests.isEmpty()) {
+            throw new IllegalArgumentException("At least one payment is required");
+        }
+        if (paymentRequests.size() > sagaBulkProperties.getMaxItems()) {
+            throw new IllegalArgumentException("At most " + sagaBulkProperties.getMaxItems() + " payments are accepted per request");
+        }
+        String batchId = UUID.randomUUID().toString();
+        log.info("Starting {} payment processing sagas in batch {}", paymentRequests.size(), batchId);
+
+        String username = SecurityUtil.getCurrentUsername();
+        List<Payment> payments = paymentRequests.stream()
+                .map(paymentRequest -> toPayment(paymentRequest, username))
+                .toList();
+        List<Long> sagaIds = paymentProcessingSaga.startSagas(payments, batchId).stream()
+                .map(SagaInstance::getId)
+                .toList();
+
+        log.info("Payment processing batch {} started with {} sagas", batchId, sagaIds.size());
+        return ResponseEntity.accepted().body(new SagaBatchStart(batchId, sagaIds));
+    }
+
+    @GetMapping("/batches/{batchId}")
+    @PreAuthorize("hasRole(T(com.mystery.common.AppConstants).ROLE_BAAS_ADMIN) or isAuthenticated()")
+    public ResponseEntity<SagaBatchStatus> getBatchStatus(@PathVariable String batchId) {
+        log.info("Fetching status of saga batch {}", batchId);
+
+        SagaBatchStatus status = sagaStateManager.getBatchStatus(batchId);
+        if (status.total() == 0) {
+            log.warn("Saga batch {} not found", batchId);
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    // Counts by saga name and status, step failure rates and recent windows, served from memory
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole(T(com.mystery.common.AppConstants).ROLE_BAAS_ADMIN)")
+    public ResponseEntity<SagaStats> getSagaStats() {
+        return ResponseEntity.ok(sagaStatistics.snapshot());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidArgument(IllegalArgumentException e) {
+        log.warn("Rejected saga request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    // Private helper methods
+
+    private Duration toWait(String await) {
+        if (await == null || await.isBlank()) {
+            return null;
+        }
+        Duration wait;
+        try {
+            wait = DurationStyle.detectAndParse(await);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid await duration: " + await);
+        }
+        if (wait.isNegative() || wait.isZero()) {
+            throw new IllegalArgumentException("await must be positive");
+        }
+        return wait.compareTo(sagaAwaitProperties.getMaxWait()) > 0 ? sagaAwaitProperties.getMaxWait() : wait;
+    }
+
+    private ResponseEntity<?> inProgress(Long sagaId) {
+        String statusUrl = "/api/saga/instances/" + sagaId;
+        return ResponseEntity.accepted()
+                .location(URI.create(statusUrl))
+                .body(new SagaReply(sagaId, SagaConstants.SagaStatus.IN_PROGRESS, statusUrl));
+    }
+
+    private Payment toPayment(PaymentRequest paymentRequest, String username) {
         Payment payment = new Payment();
         payment.setSourceAccountNumber(paymentRequest.getSourceAccountNumber());
         payment.setDestinationAccountNumber(paymentRequest.getDestinationAccountNumber());
         payment.setAmount(paymentRequest.getAmount());
         payment.setDescription(paymentRequest.getDescription());
-        payment.setCreatedBy(SecurityUtil.getCurrentUsername());
-
-        SagaInstance sagaInstance = paymentProcessingSaga.startSaga(payment);
+        payment.setCreatedBy(username);
+        return payment;
+    }
 
-        log.info("Payment processing saga started id={}", sagaInstance.getId());
-        return ResponseEntity.accepted().body("Payment processing started with saga ID: " + sagaInstance.getId());
+    private SagaInstanceView toView(SagaInstance sagaInstance) {
+        List<SagaStepView> steps = sagaInstance.getStepInstances() == null ? List.of() : sagaInstance.getStepInstances().stream()
+                .map(step -> new SagaStepView(step.getId(), step.getStepName(), step.getStatus(), step.getCreatedAt(), step.getUpdatedAt()))
+                .toList();
+        return new SagaInstanceView(sagaInstance.getId(), sagaInstance.getSagaName(), sagaInstance.getCurrentStep(),
+                sagaInstance.getStatus(), sagaInstance.getCreatedAt(), sagaInstance.getUpdatedAt(), steps);
     }
 
+    private void writeLine(OutputStream outputStream, Object value) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(value));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,9 @@
+package com.mystery.sagaorchestrator.dto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk saga start: the batch id and the saga id of every item, in request order.
+ */
+public record SagaBatchStart(String batchId, List<Long> sagaIds) {
+}
@@ -0,0 +1,15 @@
+package com.mystery.sagaorchestrator.dto;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+
+import java.util.Map;
+
+/**
+ * Progress of a bulk saga start, aggregated over every saga of the batch (archived ones included).
+ * {@code finished} is {@code true} once no saga of the batch is in progress any more.
+ */
+public record SagaBatchStatus(String batchId,
+                              long total,
+                              Map<SagaConstants.SagaStatus, Long> counts,
+                              boolean finished) {
+}
@@ -0,0 +1,17 @@
+package com.mystery.sagaorchestrator.dto;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for saga instance listings; {@code null} fields are not applied.
+ *
+ * @param from inclusive lower bound on {@code createdAt}
+ * @param to exclusive upper bound on {@code createdAt}
+ */
+public record SagaInstanceFilter(String sagaName,
+                                 SagaConstants.SagaStatus status,
+                                 LocalDateTime from,
+                                 LocalDateTime to) {
+}
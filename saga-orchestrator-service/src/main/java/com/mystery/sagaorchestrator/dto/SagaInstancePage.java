@@ -0,0 +1,10 @@
+package com.mystery.sagaorchestrator.dto;
+
+import java.util.List;
+
+/**
+ * One page of saga instances; pass {@code nextCursor} back as {@code cursor} to fetch the next page.
+ * {@code nextCursor} is {@code null} on the last page.
+ */
+public record SagaInstancePage(List<SagaInstanceView> items, String nextCursor) {
+}
@@ -0,0 +1,24 @@
+package com.mystery.sagaorchestrator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Saga row as returned by saga listings. {@code stepInstances} is only present when steps were requested.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SagaInstanceView(Long id,
+                               String sagaName,
+                               int currentStep,
+                               SagaConstants.SagaStatus status,
+                               LocalDateTime createdAt,
+                               LocalDateTime updatedAt,
+                               List<SagaStepView> stepInstances) {
+
+    public SagaInstanceView withSteps(List<SagaStepView> steps) {
+        return new SagaInstanceView(id, sagaName, currentStep, status, createdAt, updatedAt, steps);
+    }
+}
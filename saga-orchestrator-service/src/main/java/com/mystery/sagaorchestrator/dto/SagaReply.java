@@ -0,0 +1,14 @@
+package com.mystery.sagaorchestrator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+
+/**
+ * Answer to a saga start request: the final status if the saga finished within the requested
+ * wait, otherwise {@code IN_PROGRESS} and the URL to poll.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SagaReply(Long sagaId,
+                        SagaConstants.SagaStatus status,
+                        String statusUrl) {
+}
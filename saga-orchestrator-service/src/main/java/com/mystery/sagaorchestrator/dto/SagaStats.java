@@ -0,0 +1,38 @@
+package com.mystery.sagaorchestrator.dto;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Saga counts by saga name and status, and per-step failure rates, as served by {@code /api/saga/stats}.
+ *
+ * Totals are cluster-wide as of {@code checkpointedAt} plus everything this instance recorded
+ * since; rolling windows (keyed like {@code 5m}) only cover transitions recorded on this instance.
+ */
+public record SagaStats(LocalDateTime checkpointedAt, Map<String, Saga> sagas) {
+
+    /**
+     * @param counts sagas per current status; {@code IN_PROGRESS} is started minus finished
+     */
+    public record Saga(Map<SagaConstants.SagaStatus, Long> counts,
+                       Map<String, Window> windows,
+                       Map<String, Step> steps) {
+    }
+
+    /**
+     * @param counts transitions into each step status
+     * @param failureRate failed / (completed + failed), {@code 0} before any step finished
+     */
+    public record Step(Map<SagaConstants.SagaStepStatus, Long> counts,
+                       double failureRate,
+                       Map<String, Window> windows) {
+    }
+
+    /**
+     * @param failed failed steps, or sagas that ended {@code FAILED} or {@code ROLLED_BACK}
+     */
+    public record Window(long started, long completed, long failed, double failureRate) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.mystery.sagaorchestrator.dto;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+
+import java.time.LocalDateTime;
+
+/**
+ * Step row as returned by saga listings; the payload is fetched separately on demand.
+ */
+public record SagaStepView(Long id,
+                           String stepName,
+                           SagaConstants.SagaStepStatus status,
+                           LocalDateTime createdAt,
+                           LocalDateTime updatedAt) {
+}
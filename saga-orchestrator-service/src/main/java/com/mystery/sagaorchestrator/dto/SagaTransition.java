@@ -0,0 +1,19 @@
+package com.mystery.sagaorchestrator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * A saga or step state change as pushed to watchers of a saga. {@code stepName} is absent for
+ * saga status changes; {@code terminal} marks the last transition of the saga. {@code sagaName}
+ * is absent when it was not at hand without a lookup.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SagaTransition(Long sagaId,
+                             String sagaName,
+                             String stepName,
+                             String status,
+                             boolean terminal,
+                             LocalDateTime at) {
+}
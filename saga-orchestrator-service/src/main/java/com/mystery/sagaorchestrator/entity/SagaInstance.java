@@ -13,15 +13,23 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "saga_instance")
+@Table(name = "saga_instance", indexes = {
+        @Index(name = "idx_saga_instance_created", columnList = "created_at, id"),
+        @Index(name = "idx_saga_instance_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_saga_instance_batch", columnList = "batch_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class SagaInstance {
 
+    // Pooled ids instead of IDENTITY, so Hibernate can batch inserts; see SagaConstants.ID_SEQUENCE_TABLE
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "saga_instance_id")
+    @TableGenerator(name = "saga_instance_id", table = SagaConstants.ID_SEQUENCE_TABLE,
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = SagaConstants.SAGA_INSTANCE_ID_SEQUENCE, allocationSize = SagaConstants.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "saga_name", nullable = false)
@@ -34,6 +42,10 @@ public class SagaInstance {
     @Column(name = "status", nullable = false)
     private SagaConstants.SagaStatus status;
 
+    // Set on sagas started through a bulk endpoint
+    @Column(name = "batch_id", length = 36)
+    private String batchId;
+
     @OneToMany(mappedBy = "sagaInstance", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @OrderBy("createdAt ASC")
     private List<SagaStepInstance> stepInstances;
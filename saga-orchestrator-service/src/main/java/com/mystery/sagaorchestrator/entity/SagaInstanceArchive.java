@@ -0,0 +1,52 @@
+package com.mystery.sagaorchestrator.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished saga moved out of {@code saga_instance}, keeping its original id.
+ *
+ * Rows are written and read through {@link com.mystery.sagaorchestrator.repository.SagaArchiveRepository};
+ * the entity only declares the table.
+ */
+@Entity
+@Table(name = "saga_instance_archive",
+        indexes = {
+                @Index(name = "idx_saga_instance_archive_created", columnList = "created_at, id"),
+                @Index(name = "idx_saga_instance_archive_batch", columnList = "batch_id")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaInstanceArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "saga_name", nullable = false)
+    private String sagaName;
+
+    @Column(name = "current_step")
+    private int currentStep;
+
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    @Column(name = "batch_id", length = 36)
+    private String batchId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,48 @@
+package com.mystery.sagaorchestrator.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Saga command waiting to be published, written in the same transaction as its STARTED step.
+ *
+ * Rows are written, relayed and deleted through
+ * {@link com.mystery.sagaorchestrator.repository.SagaOutboxRepository}; the entity only
+ * declares the table.
+ */
+@Entity
+@Table(name = "saga_outbox", indexes = @Index(name = "idx_saga_outbox_saga", columnList = "saga_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "saga_id", nullable = false)
+    private Long sagaId;
+
+    @Column(name = "binding_name", nullable = false)
+    private String bindingName;
+
+    @Lob
+    @Column(name = "payload", nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] payload;
+
+    @Column(name = "correlation_id")
+    private String correlationId;
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime createdAt;
+
+    @Column(name = "claimed_until", columnDefinition = "DATETIME(3)")
+    private LocalDateTime claimedUntil;
+}
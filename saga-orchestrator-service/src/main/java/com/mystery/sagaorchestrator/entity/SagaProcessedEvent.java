@@ -0,0 +1,40 @@
+package com.mystery.sagaorchestrator.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id of a saga event that was already handled, kept for {@code saga.dedupe.ttl}.
+ *
+ * Rows are written, read and expired through
+ * {@link com.mystery.sagaorchestrator.repository.SagaProcessedEventRepository}; the entity only
+ * declares the table.
+ */
+@Entity
+@Table(name = "saga_processed_event",
+        uniqueConstraints = @UniqueConstraint(name = "uk_saga_processed_event_event_id", columnNames = "event_id"),
+        indexes = @Index(name = "idx_saga_processed_event_processed", columnList = "processed_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaProcessedEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false, length = 64)
+    private String eventId;
+
+    @Column(name = "saga_id", nullable = false)
+    private Long sagaId;
+
+    @Column(name = "processed_at", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,50 @@
+package com.mystery.sagaorchestrator.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Checkpointed cluster-wide saga statistics, one row per counter: saga starts and finishes by
+ * status (empty {@code stepName}) and step transitions by status.
+ *
+ * Rows are incremented and read through
+ * {@link com.mystery.sagaorchestrator.repository.SagaStatsRepository}; the entity only declares the table.
+ */
+@Entity
+@Table(name = "saga_stats_counter")
+@IdClass(SagaStatsCounter.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaStatsCounter {
+
+    @Id
+    @Column(name = "saga_name", length = 100)
+    private String sagaName;
+
+    @Id
+    @Column(name = "step_name", length = 100)
+    private String stepName;
+
+    @Id
+    @Column(name = "counter", length = 32)
+    private String counter;
+
+    @Column(name = "total", nullable = false)
+    private long total;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String sagaName;
+        private String stepName;
+        private String counter;
+    }
+}
@@ -0,0 +1,52 @@
+package com.mystery.sagaorchestrator.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted deadline of a STARTED saga step, one row per (saga, step) while the step awaits a reply.
+ *
+ * Rows are written and claimed through
+ * {@link com.mystery.sagaorchestrator.repository.SagaStepDeadlineRepository}; the entity only
+ * declares the table.
+ */
+@Entity
+@Table(name = "saga_step_deadline")
+@IdClass(SagaStepDeadline.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaStepDeadline {
+
+    @Id
+    @Column(name = "saga_id")
+    private Long sagaId;
+
+    @Id
+    @Column(name = "step_name")
+    private String stepName;
+
+    @Column(name = "saga_name", nullable = false)
+    private String sagaName;
+
+    @Column(name = "deadline_at", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime deadlineAt;
+
+    @Column(name = "attempt", nullable = false)
+    private int attempt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long sagaId;
+        private String stepName;
+    }
+}
@@ -6,7 +6,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -20,8 +22,12 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class SagaStepInstance {
 
+    // Pooled ids instead of IDENTITY, so Hibernate can batch inserts; see SagaConstants.ID_SEQUENCE_TABLE
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "saga_step_instance_id")
+    @TableGenerator(name = "saga_step_instance_id", table = SagaConstants.ID_SEQUENCE_TABLE,
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = SagaConstants.SAGA_STEP_INSTANCE_ID_SEQUENCE, allocationSize = SagaConstants.ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,9 +42,28 @@ public class SagaStepInstance {
     @Column(name = "status", nullable = false)
     private SagaConstants.SagaStepStatus status;
 
+    /**
+     * Encoded payload, see {@link com.mystery.sagaorchestrator.service.payload.StepPayloadCodec}.
+     * Lazily loaded (bytecode enhancement) so saga and step listings never fetch it.
+     */
     @Lob
-    @Column(name = "payload", columnDefinition = "TEXT")
-    private String payload;
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "payload_data", columnDefinition = "MEDIUMBLOB")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private byte[] payloadData;
+
+    /**
+     * Pre-codec {@code toString()} payload; only read for rows that have not been migrated yet.
+     */
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "payload", columnDefinition = "TEXT", insertable = false, updatable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String legacyPayload;
 
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
@@ -0,0 +1,54 @@
+package com.mystery.sagaorchestrator.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A step of an archived saga, moved out of {@code saga_step_instance} with its original id and payload.
+ *
+ * Rows are written and read through {@link com.mystery.sagaorchestrator.repository.SagaArchiveRepository};
+ * the entity only declares the table.
+ */
+@Entity
+@Table(name = "saga_step_instance_archive",
+        indexes = @Index(name = "idx_saga_step_instance_archive_saga", columnList = "saga_instance_id, id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaStepInstanceArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "saga_instance_id", nullable = false)
+    private Long sagaInstanceId;
+
+    @Column(name = "step_name", nullable = false)
+    private String stepName;
+
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    @Lob
+    @Column(name = "payload_data", columnDefinition = "MEDIUMBLOB")
+    @ToString.Exclude
+    private byte[] payloadData;
+
+    @Lob
+    @Column(name = "payload", columnDefinition = "TEXT")
+    @ToString.Exclude
+    private String payload;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
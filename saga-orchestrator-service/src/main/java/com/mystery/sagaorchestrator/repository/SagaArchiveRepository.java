@@ -0,0 +1,132 @@
+package com.mystery.sagaorchestrator.repository;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.entity.SagaInstance;
+import com.mystery.sagaorchestrator.entity.SagaStepInstance;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Plain JDBC access to {@code saga_instance_archive} and {@code saga_step_instance_archive}.
+ *
+ * Sagas are moved with {@code INSERT ... SELECT} followed by deletes of the hot rows, so neither
+ * the sagas nor their payloads pass through the application. Archived sagas are read back as
+ * detached {@link SagaInstance} entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SagaArchiveRepository {
+
+    // Served by idx_saga_instance_status_created; rows locked by a concurrent archiver are skipped
+    private static final String LOCK_ARCHIVABLE_SQL =
+            "SELECT id FROM saga_instance WHERE status IN ('COMPLETED', 'ROLLED_BACK') AND created_at < ? " +
+            "LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String COPY_SAGAS_SQL =
+            "INSERT INTO saga_instance_archive (id, saga_name, current_step, status, batch_id, created_at, updated_at, archived_at) " +
+            "SELECT id, saga_name, current_step, status, batch_id, created_at, updated_at, ? FROM saga_instance WHERE id IN (%s)";
+
+    private static final String COPY_STEPS_SQL =
+            "INSERT INTO saga_step_instance_archive " +
+            "(id, saga_instance_id, step_name, status, payload_data, payload, created_at, updated_at) " +
+            "SELECT id, saga_instance_id, step_name, status, payload_data, payload, created_at, updated_at " +
+            "FROM saga_step_instance WHERE saga_instance_id IN (%s)";
+
+    private static final String DELETE_STEPS_SQL =
+            "DELETE FROM saga_step_instance WHERE saga_instance_id IN (%s)";
+
+    private static final String DELETE_SAGAS_SQL =
+            "DELETE FROM saga_instance WHERE id IN (%s)";
+
+    private static final String FIND_SAGA_SQL =
+            "SELECT id, saga_name, current_step, status, batch_id, created_at, updated_at FROM saga_instance_archive WHERE id = ?";
+
+    private static final String FIND_STEPS_SQL =
+            "SELECT id, step_name, status, created_at, updated_at FROM saga_step_instance_archive " +
+            "WHERE saga_instance_id = ? ORDER BY created_at, id";
+
+    private static final String FIND_STEP_PAYLOAD_SQL =
+            "SELECT id, step_name, status, payload_data, payload, created_at, updated_at FROM saga_step_instance_archive " +
+            "WHERE id = ? AND saga_instance_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lock up to {@code limit} finished sagas created before {@code cutoffMillis}; must run in a transaction.
+     */
+    public List<Long> lockArchivable(long cutoffMillis, int limit) {
+        return jdbcTemplate.queryForList(LOCK_ARCHIVABLE_SQL, Long.class, new Timestamp(cutoffMillis), limit);
+    }
+
+    /**
+     * Copy the given sagas and their steps to the archive and delete them from the hot tables;
+     * must run in the transaction that locked them.
+     */
+    public void moveToArchive(List<Long> sagaIds) {
+        String placeholders = sagaIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        Object[] ids = sagaIds.toArray();
+        Object[] copyArgs = new Object[ids.length + 1];
+        copyArgs[0] = Timestamp.valueOf(LocalDateTime.now());
+        System.arraycopy(ids, 0, copyArgs, 1, ids.length);
+
+        jdbcTemplate.update(COPY_SAGAS_SQL.formatted(placeholders), copyArgs);
+        jdbcTemplate.update(COPY_STEPS_SQL.formatted(placeholders), ids);
+        jdbcTemplate.update(DELETE_STEPS_SQL.formatted(placeholders), ids);
+        jdbcTemplate.update(DELETE_SAGAS_SQL.formatted(placeholders), ids);
+    }
+
+    /**
+     * Load an archived saga with its steps (without payloads).
+     */
+    public Optional<SagaInstance> findById(Long sagaId) {
+        List<SagaInstance> sagas = jdbcTemplate.query(FIND_SAGA_SQL, (rs, rowNum) -> SagaInstance.builder()
+                .id(rs.getLong("id"))
+                .sagaName(rs.getString("saga_name"))
+                .currentStep(rs.getInt("current_step"))
+                .status(SagaConstants.SagaStatus.valueOf(rs.getString("status")))
+                .batchId(rs.getString("batch_id"))
+                .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+                .build(), sagaId);
+        if (sagas.isEmpty()) {
+            return Optional.empty();
+        }
+        SagaInstance saga = sagas.get(0);
+        saga.setStepInstances(jdbcTemplate.query(FIND_STEPS_SQL,
+                (rs, rowNum) -> mapStep(rs, saga).build(), sagaId));
+        return Optional.of(saga);
+    }
+
+    /**
+     * Load one archived step with its payload columns.
+     */
+    public Optional<SagaStepInstance> findStep(Long sagaId, Long stepId) {
+        return jdbcTemplate.query(FIND_STEP_PAYLOAD_SQL, (rs, rowNum) -> mapStep(rs, null)
+                        .payloadData(rs.getBytes("payload_data"))
+                        .legacyPayload(rs.getString("payload"))
+                        .build(), stepId, sagaId)
+                .stream()
+                .findFirst();
+    }
+
+    // Private helper methods
+
+    private static SagaStepInstance.SagaStepInstanceBuilder mapStep(ResultSet rs, SagaInstance saga) throws SQLException {
+        return SagaStepInstance.builder()
+                .id(rs.getLong("id"))
+                .sagaInstance(saga)
+                .stepName(rs.getString("step_name"))
+                .status(SagaConstants.SagaStepStatus.valueOf(rs.getString("status")))
+                .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                .updatedAt(rs.getObject("updated_at", LocalDateTime.class));
+    }
+}
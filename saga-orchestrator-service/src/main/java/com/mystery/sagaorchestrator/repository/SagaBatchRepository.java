@@ -0,0 +1,84 @@
+package com.mystery.sagaorchestrator.repository;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Plain JDBC writes and reads of sagas started in bulk. Writes join the caller's transaction.
+ *
+ * Sagas and their first steps are inserted with ids reserved up front by
+ * {@link com.mystery.sagaorchestrator.service.id.SagaIdAllocator}, in JDBC batches that the driver
+ * rewrites into multi-row inserts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SagaBatchRepository {
+
+    private static final String INSERT_SAGA_SQL =
+            "INSERT INTO saga_instance (id, saga_name, current_step, status, batch_id, created_at, updated_at) " +
+            "VALUES (?, ?, 0, ?, ?, ?, ?)";
+
+    private static final String INSERT_STEP_SQL =
+            "INSERT INTO saga_step_instance (id, saga_instance_id, step_name, status, payload_data, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Served by idx_saga_instance_batch and idx_saga_instance_archive_batch
+    private static final String COUNT_BY_STATUS_SQL =
+            "SELECT status, COUNT(*) AS saga_count FROM (" +
+            "SELECT status FROM saga_instance WHERE batch_id = ? " +
+            "UNION ALL SELECT status FROM saga_instance_archive WHERE batch_id = ?" +
+            ") batch GROUP BY status";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert one IN_PROGRESS saga tagged with {@code batchId} per id.
+     */
+    public void insertSagas(List<Long> sagaIds, String sagaName, String batchId, int batchSize) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(INSERT_SAGA_SQL, sagaIds, batchSize, (ps, sagaId) -> {
+            ps.setLong(1, sagaId);
+            ps.setString(2, sagaName);
+            ps.setString(3, SagaConstants.SagaStatus.IN_PROGRESS.name());
+            ps.setString(4, batchId);
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+    }
+
+    /**
+     * Insert one STARTED step named {@code stepName} per saga, with the matching step id and encoded payload.
+     */
+    public void insertSteps(List<Long> stepIds, List<Long> sagaIds, String stepName, List<byte[]> payloads, int batchSize) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Integer> rows = IntStream.range(0, stepIds.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_STEP_SQL, rows, batchSize, (ps, row) -> {
+            ps.setLong(1, stepIds.get(row));
+            ps.setLong(2, sagaIds.get(row));
+            ps.setString(3, stepName);
+            ps.setString(4, SagaConstants.SagaStepStatus.STARTED.name());
+            ps.setBytes(5, payloads.get(row));
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+    }
+
+    /**
+     * Count the sagas of a batch by status in one query.
+     */
+    public Map<SagaConstants.SagaStatus, Long> countByStatus(String batchId) {
+        Map<SagaConstants.SagaStatus, Long> counts = new EnumMap<>(SagaConstants.SagaStatus.class);
+        jdbcTemplate.query(COUNT_BY_STATUS_SQL, rs -> {
+            counts.put(SagaConstants.SagaStatus.valueOf(rs.getString("status")), rs.getLong("saga_count"));
+        }, batchId, batchId);
+        return counts;
+    }
+}
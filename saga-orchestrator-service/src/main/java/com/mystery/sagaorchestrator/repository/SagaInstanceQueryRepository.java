@@ -0,0 +1,186 @@
+package com.mystery.sagaorchestrator.repository;
+
+import com.mystery.sagaorchestrator.config.SagaQueryProperties;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.dto.SagaCursor;
+import com.mystery.sagaorchestrator.dto.SagaInstanceFilter;
+import com.mystery.sagaorchestrator.dto.SagaInstanceView;
+import com.mystery.sagaorchestrator.dto.SagaStepView;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only saga listings built on plain JDBC.
+ *
+ * Pages are keyset-paginated on {@code (created_at DESC, id DESC)}, so every page costs one
+ * index range scan regardless of how deep the client has paged. Payload columns are never selected.
+ */
+@Repository
+public class SagaInstanceQueryRepository {
+
+    private static final String SAGA_COLUMNS =
+            "s.id, s.saga_name, s.current_step, s.status, s.created_at, s.updated_at";
+
+    private static final String STEP_COLUMNS =
+            "st.id AS step_id, st.saga_instance_id, st.step_name, st.status AS step_status, " +
+            "st.created_at AS step_created_at, st.updated_at AS step_updated_at";
+
+    private static final String ORDER_BY = " ORDER BY s.created_at DESC, s.id DESC";
+
+    private static final RowMapper<SagaInstanceView> SAGA_ROW_MAPPER = (rs, rowNum) -> mapSaga(rs);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public SagaInstanceQueryRepository(JdbcTemplate jdbcTemplate, DataSource dataSource, SagaQueryProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(properties.getStreamFetchSize());
+    }
+
+    /**
+     * Fetch up to {@code limit} sagas after {@code cursor} (or from the newest when {@code null}).
+     */
+    public List<SagaInstanceView> findPage(SagaInstanceFilter filter, SagaCursor cursor, int limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT " + SAGA_COLUMNS + " FROM saga_instance s" + where(filter, cursor, args) + ORDER_BY + " LIMIT ?";
+        args.add(limit);
+        return jdbcTemplate.query(sql, SAGA_ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * Load the steps of the given sagas in one query, grouped by saga id and ordered by creation.
+     */
+    public Map<Long, List<SagaStepView>> findStepsBySagaIds(List<Long> sagaIds) {
+        if (sagaIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String placeholders = sagaIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        String sql = "SELECT " + STEP_COLUMNS + " FROM saga_step_instance st WHERE st.saga_instance_id IN (" + placeholders + ")" +
+                " ORDER BY st.saga_instance_id, st.id";
+
+        Map<Long, List<SagaStepView>> steps = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            steps.computeIfAbsent(rs.getLong("saga_instance_id"), id -> new ArrayList<>()).add(mapStep(rs));
+        }, sagaIds.toArray());
+        return steps;
+    }
+
+    /**
+     * Stream every matching saga to {@code consumer} over a server-side cursor, so memory stays
+     * constant however many rows match. With steps, rows of one saga are collected before it is emitted.
+     */
+    public void stream(SagaInstanceFilter filter, boolean includeSteps, Consumer<SagaInstanceView> consumer) {
+        List<Object> args = new ArrayList<>();
+        if (!includeSteps) {
+            String sql = "SELECT " + SAGA_COLUMNS + " FROM saga_instance s" + where(filter, null, args) + ORDER_BY;
+            streamingJdbcTemplate.query(sql, rs -> {
+                consumer.accept(mapSaga(rs));
+            }, args.toArray());
+            return;
+        }
+
+        String sql = "SELECT " + SAGA_COLUMNS + ", " + STEP_COLUMNS +
+                " FROM saga_instance s LEFT JOIN saga_step_instance st ON st.saga_instance_id = s.id" +
+                where(filter, null, args) + ORDER_BY + ", st.id";
+        SagaAccumulator accumulator = new SagaAccumulator(consumer);
+        streamingJdbcTemplate.query(sql, accumulator::accept, args.toArray());
+        accumulator.flush();
+    }
+
+    // Private helper methods
+
+    private static String where(SagaInstanceFilter filter, SagaCursor cursor, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.sagaName() != null) {
+            conditions.add("s.saga_name = ?");
+            args.add(filter.sagaName());
+        }
+        if (filter.status() != null) {
+            conditions.add("s.status = ?");
+            args.add(filter.status().name());
+        }
+        if (filter.from() != null) {
+            conditions.add("s.created_at >= ?");
+            args.add(filter.from());
+        }
+        if (filter.to() != null) {
+            conditions.add("s.created_at < ?");
+            args.add(filter.to());
+        }
+        if (cursor != null) {
+            conditions.add("(s.created_at < ? OR (s.created_at = ? AND s.id < ?))");
+            args.add(cursor.createdAt());
+            args.add(cursor.createdAt());
+            args.add(cursor.id());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static SagaInstanceView mapSaga(ResultSet rs) throws SQLException {
+        return new SagaInstanceView(
+                rs.getLong("id"),
+                rs.getString("saga_name"),
+                rs.getInt("current_step"),
+                SagaConstants.SagaStatus.valueOf(rs.getString("status")),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("updated_at", LocalDateTime.class),
+                null);
+    }
+
+    private static SagaStepView mapStep(ResultSet rs) throws SQLException {
+        return new SagaStepView(
+                rs.getLong("step_id"),
+                rs.getString("step_name"),
+                SagaConstants.SagaStepStatus.valueOf(rs.getString("step_status")),
+                rs.getObject("step_created_at", LocalDateTime.class),
+                rs.getObject("step_updated_at", LocalDateTime.class));
+    }
+
+    /**
+     * Folds the saga/step join back into one view per saga while streaming.
+     */
+    private static final class SagaAccumulator {
+
+        private final Consumer<SagaInstanceView> consumer;
+        private SagaInstanceView current;
+        private List<SagaStepView> steps;
+
+        private SagaAccumulator(Consumer<SagaInstanceView> consumer) {
+            this.consumer = consumer;
+        }
+
+        private void accept(ResultSet rs) throws SQLException {
+            long sagaId = rs.getLong("id");
+            if (current == null || current.id() != sagaId) {
+                flush();
+                current = mapSaga(rs);
+                steps = new ArrayList<>();
+            }
+            rs.getLong("step_id");
+            if (!rs.wasNull()) {
+                steps.add(mapStep(rs));
+            }
+        }
+
+        private void flush() {
+            if (current != null) {
+                consumer.accept(current.withSteps(steps));
+                current = null;
+            }
+        }
+    }
+}
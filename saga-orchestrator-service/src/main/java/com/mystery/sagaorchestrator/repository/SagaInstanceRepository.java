@@ -1,14 +1,27 @@
 package com.mystery.sagaorchestrator.repository;
 
+import com.mystery.sagaorchestrator.constants.SagaConstants;
 import com.mystery.sagaorchestrator.entity.SagaInstance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Optional;
 
 @Repository
 public interface SagaInstanceRepository extends JpaRepository<SagaInstance, Long> {
-    @Query("SELECT DISTINCT s FROM SagaInstance s LEFT JOIN FETCH s.stepInstances ORDER BY s.createdAt DESC")
-    List<SagaInstance> findAllWithStepInstances();
+    @Modifying
+    @Query("UPDATE SagaInstance s SET s.status = :status, s.updatedAt = :updatedAt WHERE s.id = :id")
+    int updateStatusById(@Param("id") Long id,
+                         @Param("status") SagaConstants.SagaStatus status,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("SELECT s.status FROM SagaInstance s WHERE s.id = :id")
+    Optional<SagaConstants.SagaStatus> findStatusById(@Param("id") Long id);
+
+    @Query("SELECT s.sagaName FROM SagaInstance s WHERE s.id = :id")
+    Optional<String> findSagaNameById(@Param("id") Long id);
 }
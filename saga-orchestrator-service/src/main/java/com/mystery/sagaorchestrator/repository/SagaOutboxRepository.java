@@ -0,0 +1,88 @@
+package com.mystery.sagaorchestrator.repository;
+
+import com.mystery.sagaorchestrator.service.outbox.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Plain JDBC access to {@code saga_outbox}. Writes join the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SagaOutboxRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO saga_outbox (saga_id, binding_name, payload, correlation_id, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    // Rows claimed by another relay are skipped until their claim expires
+    private static final String CLAIMABLE_BATCH_SQL =
+            "SELECT id, saga_id, binding_name, payload, correlation_id, created_at FROM saga_outbox " +
+            "WHERE claimed_until IS NULL OR claimed_until < NOW(3) ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String CLAIM_SQL =
+            "UPDATE saga_outbox SET claimed_until = TIMESTAMPADD(MICROSECOND, ?, NOW(3)) WHERE id IN (%s)";
+
+    private static final String RELEASE_SQL = "UPDATE saga_outbox SET claimed_until = NULL WHERE id IN (%s)";
+
+    private static final String DELETE_SQL = "DELETE FROM saga_outbox WHERE id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(Collection<OutboxMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, message) -> {
+            ps.setLong(1, message.sagaId());
+            ps.setString(2, message.bindingName());
+            ps.setBytes(3, message.payload());
+            ps.setString(4, message.correlationId());
+            ps.setTimestamp(5, new Timestamp(message.createdMillis()));
+        });
+    }
+
+    /**
+     * Claim the oldest {@code limit} rows that are not claimed by another relay for {@code claimTimeout};
+     * must run inside a transaction, which only holds row locks until it commits the claim.
+     */
+    public List<OutboxMessage> claimOldest(int limit, Duration claimTimeout) {
+        List<OutboxMessage> messages = jdbcTemplate.query(CLAIMABLE_BATCH_SQL,
+                (rs, rowNum) -> new OutboxMessage(
+                        rs.getLong("id"),
+                        rs.getLong("saga_id"),
+                        rs.getString("binding_name"),
+                        rs.getBytes("payload"),
+                        rs.getString("correlation_id"),
+                        rs.getTimestamp("created_at").getTime()),
+                limit);
+        if (!messages.isEmpty()) {
+            jdbcTemplate.update(CLAIM_SQL.formatted(ids(messages)), claimTimeout.toNanos() / 1000);
+        }
+        return messages;
+    }
+
+    /**
+     * Make claimed rows available to the next relay at once.
+     */
+    public void releaseAll(List<OutboxMessage> messages) {
+        if (!messages.isEmpty()) {
+            jdbcTemplate.update(RELEASE_SQL.formatted(ids(messages)));
+        }
+    }
+
+    public void deleteAll(List<OutboxMessage> messages) {
+        if (!messages.isEmpty()) {
+            jdbcTemplate.update(DELETE_SQL.formatted(ids(messages)));
+        }
+    }
+
+    // Private helper methods
+
+    private static String ids(List<OutboxMessage> messages) {
+        return messages.stream().map(message -> message.id().toString()).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,69 @@
+package com.mystery.sagaorchestrator.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to {@code saga_processed_event}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SagaProcessedEventRepository {
+
+    // Ids may already have been written by another instance that handled a redelivery
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO saga_processed_event (event_id, saga_id, processed_at) VALUES (?, ?, ?)";
+
+    private static final String EXISTS_SQL =
+            "SELECT COUNT(*) FROM saga_processed_event WHERE event_id = ?";
+
+    private static final String FIND_AFTER_SQL =
+            "SELECT id, event_id FROM saga_processed_event WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM saga_processed_event WHERE processed_at < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record ProcessedEvent(String eventId, Long sagaId, long processedMillis) {
+    }
+
+    public void insertAll(Collection<ProcessedEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.eventId());
+            ps.setLong(2, event.sagaId());
+            ps.setTimestamp(3, new Timestamp(event.processedMillis()));
+        });
+    }
+
+    public boolean exists(String eventId) {
+        Integer count = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, eventId);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Hand up to {@code limit} event ids with a row id above {@code afterId} to {@code consumer}, in row id order.
+     *
+     * @return the highest row id read, or {@code afterId} if there were none
+     */
+    public long findAfter(long afterId, int limit, Consumer<String> consumer) {
+        long[] lastId = {afterId};
+        jdbcTemplate.query(FIND_AFTER_SQL, rs -> {
+            lastId[0] = rs.getLong("id");
+            consumer.accept(rs.getString("event_id"));
+        }, afterId, limit);
+        return lastId[0];
+    }
+
+    /**
+     * @return the number of rows deleted, at most {@code limit}
+     */
+    public int deleteProcessedBefore(long cutoffMillis, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED_SQL, new Timestamp(cutoffMillis), limit);
+    }
+}
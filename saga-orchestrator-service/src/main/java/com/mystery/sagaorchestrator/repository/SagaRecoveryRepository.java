@@ -0,0 +1,71 @@
+package com.mystery.sagaorchestrator.repository;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.service.recovery.InFlightSaga;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads IN_PROGRESS sagas for startup recovery, one keyset page at a time.
+ *
+ * Each row carries everything recovery decides on, so a page costs one query: the latest step
+ * (by creation time, as pooled ids are not ordered across instances), whether that step still
+ * has a deadline or an unsent command, and how many steps failed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SagaRecoveryRepository {
+
+    private static final String FIND_IN_FLIGHT_SQL =
+            "SELECT s.id, s.saga_name, s.created_at, s.updated_at, " +
+            "st.id AS step_id, st.step_name, st.status AS step_status, st.updated_at AS step_updated_at, " +
+            "(EXISTS (SELECT 1 FROM saga_step_deadline d WHERE d.saga_id = s.id AND d.step_name = st.step_name) " +
+            "OR EXISTS (SELECT 1 FROM saga_outbox o WHERE o.saga_id = s.id)) AS awaiting, " +
+            "(SELECT COUNT(*) FROM saga_step_instance f WHERE f.saga_instance_id = s.id AND f.status = 'FAILED') AS failed_steps " +
+            "FROM saga_instance s " +
+            "LEFT JOIN saga_step_instance st ON st.id = (SELECT l.id FROM saga_step_instance l " +
+            "WHERE l.saga_instance_id = s.id ORDER BY l.created_at DESC, l.id DESC LIMIT 1) " +
+            "WHERE s.status = 'IN_PROGRESS' AND s.id > ? ORDER BY s.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Fetch up to {@code limit} in-progress sagas with an id above {@code afterId}, in id order.
+     */
+    public List<InFlightSaga> findInFlight(long afterId, int limit) {
+        return jdbcTemplate.query(FIND_IN_FLIGHT_SQL, (rs, rowNum) -> map(rs), afterId, limit);
+    }
+
+    // Private helper methods
+
+    private static InFlightSaga map(ResultSet rs) throws SQLException {
+        LocalDateTime sagaUpdatedAt = rs.getObject("updated_at", LocalDateTime.class);
+        LocalDateTime stepUpdatedAt = rs.getObject("step_updated_at", LocalDateTime.class);
+        String stepStatus = rs.getString("step_status");
+        long stepId = rs.getLong("step_id");
+        boolean hasStep = !rs.wasNull();
+        return new InFlightSaga(
+                rs.getLong("id"),
+                rs.getString("saga_name"),
+                rs.getObject("created_at", LocalDateTime.class),
+                hasStep ? stepId : null,
+                rs.getString("step_name"),
+                stepStatus != null ? SagaConstants.SagaStepStatus.valueOf(stepStatus) : null,
+                rs.getBoolean("awaiting"),
+                rs.getInt("failed_steps"),
+                latest(sagaUpdatedAt, stepUpdatedAt));
+    }
+
+    private static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        if (first == null || (second != null && second.isAfter(first))) {
+            return second;
+        }
+        return first;
+    }
+}
@@ -0,0 +1,75 @@
+package com.mystery.sagaorchestrator.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cluster-wide saga statistics counters. Instances only ever add their local deltas, so
+ * checkpoints of several instances never overwrite each other.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SagaStatsRepository {
+
+    private static final String ADD_SQL =
+            "INSERT INTO saga_stats_counter (saga_name, step_name, counter, total) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total = total + VALUES(total)";
+
+    // Saga-level counters of the sagas that existed before statistics were kept, archived ones included
+    private static final String SEED_STARTED_SQL =
+            "INSERT IGNORE INTO saga_stats_counter (saga_name, step_name, counter, total) " +
+            "SELECT saga_name, '', 'STARTED', COUNT(*) FROM (" +
+            "SELECT saga_name FROM saga_instance UNION ALL SELECT saga_name FROM saga_instance_archive) s " +
+            "GROUP BY saga_name";
+
+    private static final String SEED_FINISHED_SQL =
+            "INSERT IGNORE INTO saga_stats_counter (saga_name, step_name, counter, total) " +
+            "SELECT saga_name, '', status, COUNT(*) FROM (" +
+            "SELECT saga_name, status FROM saga_instance UNION ALL SELECT saga_name, status FROM saga_instance_archive) s " +
+            "WHERE status <> 'IN_PROGRESS' GROUP BY saga_name, status";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record CounterKey(String sagaName, String stepName, String counter) {
+    }
+
+    public void add(Map<CounterKey, Long> deltas) {
+        List<Map.Entry<CounterKey, Long>> rows = List.copyOf(deltas.entrySet());
+        jdbcTemplate.batchUpdate(ADD_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.getKey().sagaName());
+            ps.setString(2, row.getKey().stepName());
+            ps.setString(3, row.getKey().counter());
+            ps.setLong(4, row.getValue());
+        });
+    }
+
+    public Map<CounterKey, Long> findAll() {
+        Map<CounterKey, Long> counters = new HashMap<>();
+        jdbcTemplate.query("SELECT saga_name, step_name, counter, total FROM saga_stats_counter", rs -> {
+            counters.put(new CounterKey(rs.getString("saga_name"), rs.getString("step_name"), rs.getString("counter")),
+                    rs.getLong("total"));
+        });
+        return counters;
+    }
+
+    /**
+     * Count the sagas already in the database once, when no statistics have been kept yet.
+     *
+     * @return {@code true} if the counters were seeded
+     */
+    public boolean seedIfEmpty() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM saga_stats_counter LIMIT 1) c",
+                Integer.class);
+        if (existing != null && existing > 0) {
+            return false;
+        }
+        jdbcTemplate.update(SEED_STARTED_SQL);
+        jdbcTemplate.update(SEED_FINISHED_SQL);
+        return true;
+    }
+}
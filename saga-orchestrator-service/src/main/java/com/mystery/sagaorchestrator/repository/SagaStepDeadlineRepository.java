@@ -0,0 +1,78 @@
+package com.mystery.sagaorchestrator.repository;
+
+import com.mystery.sagaorchestrator.service.deadline.PendingDeadline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persisted index of step deadlines, so pending deadlines survive a restart.
+ *
+ * Every statement is a single primary-key write (or a batch of them). A deadline is acted upon only by whoever deletes
+ * its row first ({@link #claim}), which keeps expiry exactly-once across orchestrator instances.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SagaStepDeadlineRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO saga_step_deadline (saga_id, step_name, saga_name, deadline_at, attempt) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE saga_name = VALUES(saga_name), deadline_at = VALUES(deadline_at), attempt = VALUES(attempt)";
+
+    private static final String SELECT_PAGE_SQL =
+            "SELECT saga_id, step_name, saga_name, deadline_at, attempt FROM saga_step_deadline " +
+            "WHERE saga_id > ? OR (saga_id = ? AND step_name > ?) ORDER BY saga_id, step_name LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void save(PendingDeadline deadline) {
+        jdbcTemplate.update(UPSERT_SQL, deadline.sagaId(), deadline.stepName(), deadline.sagaName(),
+                new Timestamp(deadline.deadlineMillis()), deadline.attempt());
+    }
+
+    public void saveAll(Collection<PendingDeadline> deadlines) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deadlines, deadlines.size(), (ps, deadline) -> {
+            ps.setLong(1, deadline.sagaId());
+            ps.setString(2, deadline.stepName());
+            ps.setString(3, deadline.sagaName());
+            ps.setTimestamp(4, new Timestamp(deadline.deadlineMillis()));
+            ps.setInt(5, deadline.attempt());
+        });
+    }
+
+    public void delete(Long sagaId, String stepName) {
+        jdbcTemplate.update("DELETE FROM saga_step_deadline WHERE saga_id = ? AND step_name = ?", sagaId, stepName);
+    }
+
+    public void deleteBySagaId(Long sagaId) {
+        jdbcTemplate.update("DELETE FROM saga_step_deadline WHERE saga_id = ?", sagaId);
+    }
+
+    /**
+     * Remove the row of an expired deadline if it is still the same attempt.
+     *
+     * @return {@code true} if the caller owns the expiry and must act on it
+     */
+    public boolean claim(PendingDeadline deadline) {
+        return jdbcTemplate.update("DELETE FROM saga_step_deadline WHERE saga_id = ? AND step_name = ? AND attempt = ?",
+                deadline.sagaId(), deadline.stepName(), deadline.attempt()) == 1;
+    }
+
+    /**
+     * Page through all deadlines in primary-key order, starting after ({@code sagaId}, {@code stepName}).
+     */
+    public List<PendingDeadline> findAfter(long sagaId, String stepName, int limit) {
+        return jdbcTemplate.query(SELECT_PAGE_SQL,
+                (rs, rowNum) -> new PendingDeadline(
+                        rs.getLong("saga_id"),
+                        rs.getString("saga_name"),
+                        rs.getString("step_name"),
+                        rs.getTimestamp("deadline_at").getTime(),
+                        rs.getInt("attempt")),
+                sagaId, sagaId, stepName, limit);
+    }
+}
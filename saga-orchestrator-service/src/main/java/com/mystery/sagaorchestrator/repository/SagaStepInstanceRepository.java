@@ -4,8 +4,14 @@ import com.mystery.sagaorchestrator.constants.SagaConstants;
 import com.mystery.sagaorchestrator.entity.SagaInstance;
 import com.mystery.sagaorchestrator.entity.SagaStepInstance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +21,31 @@ public interface SagaStepInstanceRepository extends JpaRepository<SagaStepInstan
     
     Optional<SagaStepInstance> findFirstBySagaInstanceAndStepNameOrderByCreatedAtDesc(
             SagaInstance sagaInstance, String stepName);
+
+    Optional<SagaStepInstance> findByIdAndSagaInstanceId(Long id, Long sagaInstanceId);
+
+    /**
+     * Step name and status only, oldest first.
+     */
+    interface StepStatus {
+        String getStepName();
+        SagaConstants.SagaStepStatus getStatus();
+    }
+
+    @Query("SELECT s.stepName AS stepName, s.status AS status FROM SagaStepInstance s " +
+            "WHERE s.sagaInstance.id = :sagaId AND s.stepName IN :stepNames ORDER BY s.createdAt, s.id")
+    List<StepStatus> findStepStatuses(@Param("sagaId") Long sagaId, @Param("stepNames") Collection<String> stepNames);
+
+    /**
+     * When the latest step named {@code stepName} was recorded, for steps whose start time is not cached.
+     */
+    @Query("SELECT MAX(s.createdAt) FROM SagaStepInstance s WHERE s.sagaInstance.id = :sagaId AND s.stepName = :stepName")
+    Optional<LocalDateTime> findLatestCreatedAt(@Param("sagaId") Long sagaId, @Param("stepName") String stepName);
+
+    @Modifying
+    @Query("UPDATE SagaStepInstance s SET s.status = :status, s.payloadData = :payloadData, s.updatedAt = :updatedAt WHERE s.id = :id")
+    int updateStatusById(@Param("id") Long id,
+                         @Param("status") SagaConstants.SagaStepStatus status,
+                         @Param("payloadData") byte[] payloadData,
+                         @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -1,12 +1,32 @@
 package com.mystery.sagaorchestrator.saga;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mystery.common.AppConstants;
+import com.mystery.common.saga.event.BaseEvent;
 import com.mystery.common.saga.notification.commands.SendNotificationCommand;
+import com.mystery.common.util.CorrelationIdMessageUtils;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
 import com.mystery.sagaorchestrator.entity.SagaInstance;
-import com.mystery.sagaorchestrator.saga.payment.PaymentProcessingSteps;
 import com.mystery.sagaorchestrator.service.SagaStateManager;
+import com.mystery.sagaorchestrator.service.dedupe.SagaEventDeduplicator;
+import com.mystery.sagaorchestrator.service.deadline.StepDeadlineScheduler;
+import com.mystery.sagaorchestrator.service.deadline.StepTimeoutHandler;
+import com.mystery.sagaorchestrator.service.dispatch.SagaEventDispatcher;
+import com.mystery.sagaorchestrator.service.recovery.InFlightSaga;
+import com.mystery.sagaorchestrator.service.recovery.SagaRecoveryHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Abstract base class defining the core saga lifecycle operations.
@@ -14,14 +34,39 @@ import org.springframework.cloud.stream.function.StreamBridge;
  * This abstract class provides common fields and default implementations for saga operations
  * and delegates to the SagaStateManager for state management.
  * 
+ * Steps with a {@link StepDeadline} are armed when they start and disarmed when they complete or
+ * fail; a step that stays STARTED past its deadline is retried or compensated through
+ * {@link #onStepTimeout(Long, String, int)}.
+ * 
+ * Each saga declares its steps, commands and events in a {@link SagaDefinition} and listens to a
+ * single topic through {@link #sagaEvents()}, which routes every event on its type header and
+ * handles the events of one saga one at a time and in order, while different sagas are handled
+ * in parallel. Redelivered events are dropped by {@link SagaEventDeduplicator} before they can
+ * send a step command twice.
+ * 
+ * Step commands are published through the transactional outbox with
+ * {@link #startStep(Long, String, Object, String)}, so a command goes out if and only if its
+ * STARTED step was stored. Starting a saga is a single transaction covering the saga row,
+ * its first step and that step's command; {@link #startSagas(List, String)} does the same for a
+ * whole batch with batched inserts.
+ * 
+ * Independent steps can be started together with {@link #fanOut(Long, SagaStep, Object, Map)}; the
+ * events ending them are joined as declared by the group in the saga definition.
+ * 
+ * After a restart, sagas left IN_PROGRESS are moved on by {@link #recover(InFlightSaga)}.
+ * 
  * @since 1.0.0
  */
 @RequiredArgsConstructor
 @Slf4j
-public abstract class Saga {
+public abstract class Saga implements StepTimeoutHandler, SagaRecoveryHandler {
     
     protected final SagaStateManager sagaStateManager;
-    protected final StreamBridge streamBridge;
+    protected final StepDeadlineScheduler stepDeadlineScheduler;
+    protected final SagaEventDispatcher sagaEventDispatcher;
+    protected final ObjectMapper objectMapper;
+    protected final SagaEventDeduplicator sagaEventDeduplicator;
+    private volatile SagaDefinition definition;
     
     /**
      * Get the name of this saga type.
@@ -29,6 +74,28 @@ public abstract class Saga {
      * @return the saga name
      */
     public abstract String getSagaName();
+
+    /**
+     * Declare the steps, commands, events and compensations of this saga type.
+     * Called once, the result is cached by {@link #getDefinition()}.
+     * 
+     * @return the saga definition
+     */
+    protected abstract SagaDefinition defineSaga();
+
+    /**
+     * Get the compiled definition of this saga type.
+     * 
+     * @return the saga definition
+     */
+    public SagaDefinition getDefinition() {
+        SagaDefinition compiled = definition;
+        if (compiled == null) {
+            compiled = defineSaga();
+            definition = compiled;
+        }
+        return compiled;
+    }
     
     /**
      * Start the saga business logic after the saga instance is created.
@@ -62,12 +129,41 @@ public abstract class Saga {
      * @param payload the initial payload to start the saga
      * @return the created SagaInstance with generated saga ID
      */
+    @Transactional
     public SagaInstance startSaga(Object payload) {
         SagaInstance sagaInstance = startSaga();
         startSagaFlow(sagaInstance.getId(), payload);
         return sagaInstance;
     }
     
+    /**
+     * Start one saga per payload in a single transaction, tagged with {@code batchId}, and begin
+     * their flows through {@link #startSagaFlows(List, List)}.
+     * 
+     * @param payloads the initial payload of each saga
+     * @param batchId the batch the sagas belong to
+     * @return the created SagaInstances, in payload order
+     */
+    @Transactional
+    public List<SagaInstance> startSagas(List<?> payloads, String batchId) {
+        List<SagaInstance> sagaInstances = sagaStateManager.startSagas(getSagaName(), payloads.size(), batchId);
+        startSagaFlows(sagaInstances.stream().map(SagaInstance::getId).toList(), payloads);
+        return sagaInstances;
+    }
+    
+    /**
+     * Start the flows of sagas created together. Defaults to {@link #startSagaFlow(Long, Object)}
+     * per saga; sagas override it to send their first commands with {@link #sendCommands(SagaStep, List, List)}.
+     * 
+     * @param sagaIds the saga IDs
+     * @param payloads the initial payload of each saga, in the same order
+     */
+    protected void startSagaFlows(List<Long> sagaIds, List<?> payloads) {
+        for (int i = 0; i < sagaIds.size(); i++) {
+            startSagaFlow(sagaIds.get(i), payloads.get(i));
+        }
+    }
+    
     /**
      * Complete a saga instance successfully.
      * 
@@ -76,6 +172,7 @@ public abstract class Saga {
     public void completeSaga(Long sagaId) {
         completeSagaFlow(sagaId);
         sagaStateManager.completeSaga(sagaId);
+        stepDeadlineScheduler.disarmAll(sagaId);
     }
     
     /**
@@ -85,6 +182,7 @@ public abstract class Saga {
      */
     public void failSaga(Long sagaId) {
         sagaStateManager.failSaga(sagaId);
+        stepDeadlineScheduler.disarmAll(sagaId);
     }
     
     /**
@@ -96,6 +194,79 @@ public abstract class Saga {
      */
     public void startStep(Long sagaId, String stepName, Object payload) {
         sagaStateManager.startStep(sagaId, stepName, payload);
+        stepDeadlineScheduler.arm(getSagaName(), sagaId, stepName, getStepDeadline(stepName), 0);
+    }
+    
+    /**
+     * Record the start of a saga step and publish its command once the step is committed.
+     * 
+     * @param sagaId the saga ID
+     * @param stepName the step name
+     * @param command the step command, also stored as the step payload
+     * @param bindingName the output binding to publish the command on
+     */
+    public void startStep(Long sagaId, String stepName, Object command, String bindingName) {
+        sagaStateManager.startStep(sagaId, stepName, command, bindingName);
+        stepDeadlineScheduler.arm(getSagaName(), sagaId, stepName, getStepDeadline(stepName), 0);
+    }
+    
+    /**
+     * Start a step by sending the command declared for it in the saga definition.
+     * 
+     * @param sagaId the saga ID
+     * @param step the step to start
+     * @param command the step command
+     */
+    protected void sendCommand(Long sagaId, SagaStep step, Object command) {
+        SagaDefinition.StepDefinition definition = getDefinition().getStep(step.getStepName());
+        if (definition == null || definition.bindingName() == null) {
+            throw new IllegalStateException("No command declared for step '" + step.getStepName() + "' of " + getSagaName());
+        }
+        if (!definition.acknowledged()) {
+            sagaStateManager.sendUnacknowledgedStep(sagaId, step.getStepName(), command, definition.bindingName());
+            return;
+        }
+        startStep(sagaId, step.getStepName(), command, definition.bindingName());
+    }
+    
+    /**
+     * Start the same step of many sagas, writing the steps, their commands and deadlines in batches.
+     * 
+     * @param step the step to start
+     * @param sagaIds the saga IDs
+     * @param commands the step command of each saga, in the same order
+     */
+    protected void sendCommands(SagaStep step, List<Long> sagaIds, List<?> commands) {
+        SagaDefinition.StepDefinition definition = getDefinition().getStep(step.getStepName());
+        if (definition == null || definition.bindingName() == null) {
+            throw new IllegalStateException("No command declared for step '" + step.getStepName() + "' of " + getSagaName());
+        }
+        sagaStateManager.startSteps(sagaIds, step.getStepName(), commands, definition.bindingName());
+        stepDeadlineScheduler.armAll(getSagaName(), sagaIds, step.getStepName(), getStepDeadline(step.getStepName()));
+    }
+    
+    /**
+     * Start every branch of a fan-out group at once: the group is recorded as a STARTED step
+     * holding {@code payload}, then the command of each branch is sent as by {@link #sendCommand(Long, SagaStep, Object)}.
+     * 
+     * @param sagaId the saga ID
+     * @param group the fan-out group, as declared in the saga definition
+     * @param payload the payload handed to the join handler
+     * @param commands the command of each branch
+     */
+    protected void fanOut(Long sagaId, SagaStep group, Object payload, Map<? extends SagaStep, ?> commands) {
+        SagaDefinition.FanOut<?> fanOut = getDefinition().getFanOut(group.getStepName());
+        if (fanOut == null) {
+            throw new IllegalStateException("No fan-out group '" + group.getStepName() + "' declared in " + getSagaName());
+        }
+        List<String> branches = commands.keySet().stream().map(SagaStep::getStepName).toList();
+        if (branches.size() != fanOut.branches().size() || !branches.containsAll(fanOut.branches())) {
+            throw new IllegalStateException("Fan-out group '" + group.getStepName() + "' of " + getSagaName()
+                    + " needs a command for each of " + fanOut.branches());
+        }
+        log.info("Fanning out '{}' for saga {} to {}", group.getStepName(), sagaId, branches);
+        startStep(sagaId, group.getStepName(), payload);
+        commands.forEach((step, command) -> sendCommand(sagaId, step, command));
     }
     
     /**
@@ -107,6 +278,7 @@ public abstract class Saga {
      */
     public void completeStep(Long sagaId, String stepName, Object payload) {
         sagaStateManager.completeStep(sagaId, stepName, payload);
+        stepDeadlineScheduler.disarm(sagaId, stepName, getStepDeadline(stepName));
     }
     
     /**
@@ -118,8 +290,293 @@ public abstract class Saga {
      */
     public void failStep(Long sagaId, String stepName, Object errorMessage) {
         sagaStateManager.failStep(sagaId, stepName, errorMessage);
+        stepDeadlineScheduler.disarm(sagaId, stepName, getStepDeadline(stepName));
+    }
+
+    /**
+     * Handle a step that stayed STARTED past its deadline.
+     * 
+     * RETRY re-sends the step command until {@code maxRetries} is reached and then compensates,
+     * COMPENSATE fails the step and runs {@link #compensateStep(Long, String)} (or, for a branch of an open
+     * fan-out group, its join), FAIL fails the step and the saga, ALERT only reports the stuck step.
+     */
+    @Override
+    public StepDeadline.Action onStepTimeout(Long sagaId, String stepName, int attempt) {
+        StepDeadline deadline = getStepDeadline(stepName);
+        log.warn("Step '{}' of saga {} timed out after {} (attempt {}), action: {}",
+                stepName, sagaId, deadline.timeout(), attempt + 1, deadline.action());
+
+        if (deadline.action() == StepDeadline.Action.ALERT) {
+            log.error("Step '{}' of saga {} is still awaiting its reply - manual intervention may be required",
+                    stepName, sagaId);
+            return StepDeadline.Action.ALERT;
+        }
+        if (deadline.action() == StepDeadline.Action.RETRY && attempt < deadline.maxRetries()
+                && retryStep(sagaId, stepName)) {
+            stepDeadlineScheduler.arm(getSagaName(), sagaId, stepName, deadline, attempt + 1);
+            return StepDeadline.Action.RETRY;
+        }
+
+        failStep(sagaId, stepName, "Step timed out after " + deadline.timeout());
+        if (deadline.action() == StepDeadline.Action.FAIL) {
+            failSaga(sagaId);
+            return StepDeadline.Action.FAIL;
+        }
+        // A timed-out branch counts as failed towards its group's join
+        if (!join(sagaId, stepName)) {
+            compensateStep(sagaId, stepName);
+        }
+        return StepDeadline.Action.COMPENSATE;
+    }
+
+    /**
+     * Move on a saga found IN_PROGRESS after a restart, from its latest step.
+     * 
+     * A STARTED step with an armed deadline or a pending outbox command is left alone; otherwise its
+     * command is re-sent (throttled by the caller) and its deadline re-armed, or the step is compensated. A finished
+     * step has its stored reply handed to the route handler again, so the saga continues where it
+     * stopped; a saga whose final step completed is completed or failed.
+     */
+    @Override
+    public Action recover(InFlightSaga saga) {
+        Long sagaId = saga.sagaId();
+        String stepName = saga.stepName();
+        if (stepName == null) {
+            log.warn("Saga {} has no steps, failing it", sagaId);
+            failSaga(sagaId);
+            return Action.COMPENSATE;
+        }
+
+        if (saga.stepStatus() == SagaConstants.SagaStepStatus.STARTED) {
+            if (saga.awaiting()) {
+                return Action.WAIT;
+            }
+            if (retryStep(sagaId, stepName)) {
+                stepDeadlineScheduler.arm(getSagaName(), sagaId, stepName, getStepDeadline(stepName), 0);
+                return Action.RESEND;
+            }
+            failStep(sagaId, stepName, "Step command could not be re-sent on recovery");
+            compensateStep(sagaId, stepName);
+            return Action.COMPENSATE;
+        }
+
+        if (saga.stepStatus() == SagaConstants.SagaStepStatus.COMPLETED && isFinalStep(stepName)) {
+            if (saga.failedSteps() == 0) {
+                completeSaga(sagaId);
+                return Action.RESUME;
+            }
+            failSaga(sagaId);
+            return Action.COMPENSATE;
+        }
+
+        SagaDefinition.EventRoute<?> route = getDefinition().getRoute(stepName, saga.stepStatus());
+        if (route != null && replay(route, sagaId)) {
+            return Action.RESUME;
+        }
+        log.warn("Cannot resume saga {} after step '{}' {}, compensating", sagaId, stepName, saga.stepStatus());
+        compensateStep(sagaId, stepName);
+        return Action.COMPENSATE;
+    }
+
+    /**
+     * Re-send the command of a timed-out step, as declared in the saga definition.
+     * 
+     * @return {@code false} if the step cannot be retried
+     */
+    protected boolean retryStep(Long sagaId, String stepName) {
+        SagaDefinition.StepDefinition step = getDefinition().getStep(stepName);
+        return step != null && step.commandType() != null
+                && resendStepCommand(sagaId, stepName, step.commandType(), step.bindingName());
+    }
+
+    /**
+     * Compensate a timed-out step that was already marked as failed, as declared in the saga
+     * definition. Defaults to failing the saga.
+     */
+    protected void compensateStep(Long sagaId, String stepName) {
+        SagaDefinition.StepDefinition step = getDefinition().getStep(stepName);
+        if (step != null && step.compensation() != null) {
+            step.compensation().accept(sagaId);
+        } else {
+            failSaga(sagaId);
+        }
+    }
+
+    /**
+     * Re-publish the command stored as the payload of the latest step with this name.
+     * 
+     * @return {@code false} if no decodable command was stored
+     */
+    protected <T> boolean resendStepCommand(Long sagaId, String stepName, Class<T> commandType, String bindingName) {
+        Optional<T> command = sagaStateManager.getLatestStepPayload(sagaId, stepName, commandType);
+        command.ifPresent(c -> {
+            log.info("Re-sending {} for saga {}", commandType.getSimpleName(), sagaId);
+            sagaStateManager.resendCommand(sagaId, c, bindingName);
+        });
+        return command.isPresent();
+    }
+
+    /**
+     * Listener of the saga topic. Each event is looked up in the dispatch table of the saga
+     * definition by its {@link AppConstants#EVENT_TYPE_HEADER} header (or, for producers that do not
+     * set it yet, its {@code eventType} field), decoded as the routed type, and handled on the
+     * dispatcher lane of its saga with the correlation ID of the incoming message. The binder thread
+     * waits for the event to be handled, so its offset is only committed afterwards.
+     * 
+     * @return the consumer to register as the binding function
+     */
+    protected Consumer<Message<byte[]>> sagaEvents() {
+        SagaDefinition sagaDefinition = getDefinition();
+        return message -> {
+            String eventType = getEventType(message);
+            SagaDefinition.EventRoute<?> route = eventType != null ? sagaDefinition.getRoute(eventType) : null;
+            if (route == null) {
+                log.warn("Dropping event of unknown type '{}' on {} topic", eventType, getSagaName());
+                return;
+            }
+            BaseEvent event = decode(message.getPayload(), route.eventType());
+            String correlationId = CorrelationIdMessageUtils.getCorrelationIdFromMessage(message);
+            sagaEventDispatcher.dispatchAndWait(event.getSagaId(), correlationId == null
+                    ? () -> handle(route, event)
+                    : () -> CorrelationIdMessageUtils.withCorrelationId(correlationId, () -> handle(route, event)));
+        };
     }
 
+    private <E extends BaseEvent> void handle(SagaDefinition.EventRoute<E> route, BaseEvent event) {
+        E typedEvent = route.eventType().cast(event);
+        Long sagaId = typedEvent.getSagaId();
+        if (sagaEventDeduplicator.isDuplicate(getSagaName(), typedEvent)) {
+            return;
+        }
+        // A late reply, e.g. to a timed-out step, must not move a finished saga on
+        if (!sagaStateManager.isInProgress(sagaId)) {
+            log.warn("Ignoring {} for saga {}: saga is no longer in progress", route.eventType().getSimpleName(), sagaId);
+            return;
+        }
+        log.info("Received {} for saga {}, step '{}' {}", route.eventType().getSimpleName(), sagaId,
+                route.stepName(), route.outcome());
+        try {
+            if (route.outcome() == SagaConstants.SagaStepStatus.COMPLETED) {
+                completeStep(sagaId, route.stepName(), typedEvent);
+            } else {
+                failStep(sagaId, route.stepName(), typedEvent);
+            }
+            proceed(route, sagaId, typedEvent);
+        } catch (Exception e) {
+            log.error("Error processing {} for saga {}: {}", route.eventType().getSimpleName(), sagaId, e.getMessage(), e);
+            failSaga(sagaId);
+        }
+        sagaEventDeduplicator.markProcessed(typedEvent);
+    }
+
+    private String getEventType(Message<byte[]> message) {
+        Object header = message.getHeaders().get(AppConstants.EVENT_TYPE_HEADER);
+        if (header instanceof String type) {
+            return type;
+        }
+        if (header instanceof byte[] type) {
+            return new String(type, StandardCharsets.UTF_8);
+        }
+        try {
+            return objectMapper.readTree(message.getPayload()).path("eventType").textValue();
+        } catch (IOException e) {
+            log.warn("Cannot read event type of {} message: {}", getSagaName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private <E extends BaseEvent> E decode(byte[] payload, Class<E> eventType) {
+        try {
+            return objectMapper.readValue(payload, eventType);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot decode " + eventType.getSimpleName() + " for " + getSagaName(), e);
+        }
+    }
+
+    private <E extends BaseEvent> boolean replay(SagaDefinition.EventRoute<E> route, Long sagaId) {
+        Optional<E> event;
+        try {
+            event = sagaStateManager.getLatestStepPayload(sagaId, route.stepName(), route.eventType());
+        } catch (RuntimeException e) {
+            log.warn("Cannot decode stored {} of saga {}: {}", route.eventType().getSimpleName(), sagaId, e.getMessage());
+            return false;
+        }
+        if (event.isEmpty()) {
+            return false;
+        }
+        log.info("Resuming saga {} from stored {}", sagaId, route.eventType().getSimpleName());
+        try {
+            proceed(route, sagaId, event.get());
+        } catch (Exception e) {
+            log.error("Error resuming saga {} from {}: {}", sagaId, route.eventType().getSimpleName(), e.getMessage(), e);
+            failSaga(sagaId);
+        }
+        return true;
+    }
+
+    private <E extends BaseEvent> void proceed(SagaDefinition.EventRoute<E> route, Long sagaId, E event) {
+        if (!join(sagaId, route.stepName())) {
+            route.handler().handle(sagaId, event);
+        }
+    }
+
+    /**
+     * Join the fan-out group of a finished step, if the step is a branch of a group that is still open.
+     * Once the join is reached the group step is completed or failed and the join handler runs.
+     * 
+     * @return {@code false} if the step is not a branch of an open group
+     */
+    private boolean join(Long sagaId, String stepName) {
+        SagaDefinition.FanOut<?> fanOut = getDefinition().getFanOutOf(stepName);
+        return fanOut != null && join(sagaId, fanOut);
+    }
+
+    private <P> boolean join(Long sagaId, SagaDefinition.FanOut<P> fanOut) {
+        String groupName = fanOut.group().getStepName();
+        List<String> stepNames = new ArrayList<>(fanOut.branches());
+        stepNames.add(groupName);
+        // Reads flush any buffered transitions of the saga first, so the branch that just finished is seen
+        Map<String, SagaConstants.SagaStepStatus> statuses = sagaStateManager.getLatestStepStatuses(sagaId, stepNames);
+        if (statuses.get(groupName) != SagaConstants.SagaStepStatus.STARTED) {
+            return false;
+        }
+
+        Map<String, SagaConstants.SagaStepStatus> outcomes = new LinkedHashMap<>();
+        fanOut.branches().forEach(branch -> outcomes.put(branch, statuses.get(branch)));
+        if (!fanOut.join().isReached(outcomes.values())) {
+            log.info("Waiting for the other branches of '{}' for saga {}: {}", groupName, sagaId, outcomes);
+            return true;
+        }
+
+        // Read the group payload before it is replaced by the outcomes
+        P payload = sagaStateManager.getLatestStepPayload(sagaId, groupName, fanOut.payloadType()).orElse(null);
+        log.info("Joined '{}' ({}) for saga {}: {}", groupName, fanOut.join(), sagaId, outcomes);
+        if (fanOut.join().isCompleted(outcomes.values())) {
+            completeStep(sagaId, groupName, outcomes);
+        } else {
+            failStep(sagaId, groupName, outcomes);
+        }
+        fanOut.handler().onJoin(sagaId, payload, outcomes);
+        return true;
+    }
+
+    private boolean isFinalStep(String stepName) {
+        SagaDefinition.StepDefinition last = null;
+        for (SagaDefinition.StepDefinition step : getDefinition().getSteps()) {
+            last = step;
+        }
+        return last != null && last.step().getStepName().equals(stepName);
+    }
+
+    private StepDeadline getStepDeadline(String stepName) {
+        SagaDefinition.StepDefinition step = getDefinition().getStep(stepName);
+        return step != null ? stepDeadlineScheduler.resolve(step.step()) : StepDeadline.NONE;
+    }
+
+    /**
+     * Send a notification through the fire-and-forget step declared with {@link SendNotificationCommand}.
+     * Nothing waits for it, so sagas call this after completing or failing, off their critical path.
+     */
     protected void triggerSendNotificationCommand(Long sagaId, String userName, String subject, String message) {
 
         log.info("Triggering SendNotificationCommand for saga {} and payment: {}", sagaId, subject);
@@ -131,11 +588,20 @@ public abstract class Saga {
                 message
         );
 
-        // Record step as STARTED before publishing command
-        startStep(sagaId, PaymentProcessingSteps.SEND_NOTIFICATION.getStepName(), command);
-
-        streamBridge.send("sendNotificationCommand-out-0", command);
+        // Record step as COMPLETED in one write; the command is published from the outbox once it commits.
+        // The saga is already finished, so a failure here must not fail it again.
+        try {
+            sendCommand(sagaId, getNotificationStep(), command);
+        } catch (RuntimeException e) {
+            log.error("Error sending notification for saga {}: {}", sagaId, e.getMessage(), e);
+        }
+    }
 
-        completeStep(sagaId, PaymentProcessingSteps.SEND_NOTIFICATION.getStepName(), command);
+    private SagaStep getNotificationStep() {
+        return getDefinition().getSteps().stream()
+                .filter(step -> step.commandType() == SendNotificationCommand.class)
+                .map(SagaDefinition.StepDefinition::step)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No SendNotificationCommand step declared in " + getSagaName()));
     }
 }
@@ -0,0 +1,316 @@
+package com.mystery.sagaorchestrator.saga;
+
+import com.mystery.common.saga.event.BaseEvent;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Declarative definition of a saga: its steps, the command each step sends, the success and
+ * failure events that end a step and what happens next, and how a stuck step is compensated.
+ *
+ * Built once per saga with {@link #builder(String)} and compiled into a dispatch table keyed by
+ * event type, so routing an incoming event is a single hash lookup however many steps a saga has.
+ *
+ * Steps that do not depend on each other can be declared as the branches of a fan-out group with
+ * {@link Builder#fanOut(SagaStep, Class, Join, JoinHandler, SagaStep...)}: their commands are sent
+ * together, and the group's {@link JoinHandler} runs once the {@link Join} condition is met.
+ *
+ * <pre>
+ * SagaDefinition.builder("payment-processing-saga")
+ *     .step(PaymentProcessingSteps.VALIDATE_PAYMENT)
+ *         .command(ValidatePaymentCommand.class, "validatePaymentCommand-out-0")
+ *         .onSuccess(PaymentValidatedEvent.class, this::onPaymentValidated)
+ *         .onFailure(PaymentValidationFailedEvent.class, this::onPaymentValidationFailed)
+ *     .step(...)
+ *     .build();
+ * </pre>
+ *
+ * @since 1.0.0
+ */
+public final class SagaDefinition {
+
+    private final String sagaName;
+    private final Map<String, StepDefinition> steps;
+    private final Map<String, EventRoute<?>> routes;
+    private final Map<String, EventRoute<?>> routesByOutcome = new HashMap<>();
+    private final Map<String, FanOut<?>> fanOuts;
+    private final Map<String, FanOut<?>> fanOutsByBranch = new HashMap<>();
+
+    private SagaDefinition(String sagaName, Map<String, StepDefinition> steps, Map<String, EventRoute<?>> routes,
+                           Map<String, FanOut<?>> fanOuts) {
+        this.sagaName = sagaName;
+        this.steps = steps;
+        this.routes = routes;
+        this.fanOuts = fanOuts;
+        routes.values().forEach(route -> routesByOutcome.putIfAbsent(outcomeKey(route.stepName(), route.outcome()), route));
+        fanOuts.values().forEach(fanOut -> fanOut.branches().forEach(branch -> fanOutsByBranch.put(branch, fanOut)));
+    }
+
+    public static Builder builder(String sagaName) {
+        return new Builder(sagaName);
+    }
+
+    /**
+     * Reaction to one event type of a saga.
+     */
+    @FunctionalInterface
+    public interface EventHandler<E extends BaseEvent> {
+        void handle(Long sagaId, E event);
+    }
+
+    /**
+     * A step with its command and timeout compensation; both may be {@code null}. A step that is
+     * not {@code acknowledged} gets no reply: it is recorded as COMPLETED when its command is sent.
+     */
+    public record StepDefinition(SagaStep step,
+                                 Class<?> commandType,
+                                 String bindingName,
+                                 Consumer<Long> compensation,
+                                 boolean acknowledged) {
+    }
+
+    /**
+     * Entry of the dispatch table: the event ends {@code stepName} with {@code outcome},
+     * then {@code handler} moves the saga on.
+     */
+    public record EventRoute<E extends BaseEvent>(Class<E> eventType,
+                                                  String stepName,
+                                                  SagaConstants.SagaStepStatus outcome,
+                                                  EventHandler<E> handler) {
+    }
+
+    /**
+     * When the branches of a fan-out group are joined. Branches not started yet count as pending.
+     */
+    public enum Join {
+        /** Once every branch finished; the group completes only if all of them completed. */
+        ALL,
+        /** Once any branch completed, or every branch failed. */
+        ANY;
+
+        public boolean isReached(Collection<SagaConstants.SagaStepStatus> outcomes) {
+            return this == ALL
+                    ? outcomes.stream().allMatch(Join::isFinished)
+                    : isCompleted(outcomes) || outcomes.stream().allMatch(outcome -> outcome == SagaConstants.SagaStepStatus.FAILED);
+        }
+
+        public boolean isCompleted(Collection<SagaConstants.SagaStepStatus> outcomes) {
+            return this == ALL
+                    ? outcomes.stream().allMatch(outcome -> outcome == SagaConstants.SagaStepStatus.COMPLETED)
+                    : outcomes.contains(SagaConstants.SagaStepStatus.COMPLETED);
+        }
+
+        private static boolean isFinished(SagaConstants.SagaStepStatus outcome) {
+            return outcome == SagaConstants.SagaStepStatus.COMPLETED || outcome == SagaConstants.SagaStepStatus.FAILED;
+        }
+    }
+
+    /**
+     * Reaction to a joined fan-out group.
+     *
+     * @param <P> the payload the group was started with
+     */
+    @FunctionalInterface
+    public interface JoinHandler<P> {
+        void onJoin(Long sagaId, P payload, Map<String, SagaConstants.SagaStepStatus> outcomes);
+    }
+
+    /**
+     * A fan-out group: {@code group} is recorded as a step of its own, STARTED with a payload of
+     * {@code payloadType} when the branches are sent and finished when they are joined.
+     */
+    public record FanOut<P>(SagaStep group,
+                            Class<P> payloadType,
+                            Join join,
+                            JoinHandler<P> handler,
+                            List<String> branches) {
+    }
+
+    public String getSagaName() {
+        return sagaName;
+    }
+
+    public Collection<StepDefinition> getSteps() {
+        return steps.values();
+    }
+
+    /**
+     * @return the step with this name, or {@code null} if the saga has no such step
+     */
+    public StepDefinition getStep(String stepName) {
+        return steps.get(stepName);
+    }
+
+    /**
+     * @return the route of this event type, or {@code null} if the saga does not handle it
+     */
+    public EventRoute<?> getRoute(String eventType) {
+        return routes.get(eventType);
+    }
+
+    /**
+     * @return the route of the event that ends {@code stepName} with {@code outcome}, or {@code null} if there is none
+     */
+    public EventRoute<?> getRoute(String stepName, SagaConstants.SagaStepStatus outcome) {
+        return routesByOutcome.get(outcomeKey(stepName, outcome));
+    }
+
+    /**
+     * @return the fan-out group named {@code groupName}, or {@code null} if the saga has no such group
+     */
+    public FanOut<?> getFanOut(String groupName) {
+        return fanOuts.get(groupName);
+    }
+
+    /**
+     * @return the fan-out group {@code stepName} is a branch of, or {@code null} if it is not a branch
+     */
+    public FanOut<?> getFanOutOf(String stepName) {
+        return fanOutsByBranch.get(stepName);
+    }
+
+    private static String outcomeKey(String stepName, SagaConstants.SagaStepStatus outcome) {
+        return stepName + '/' + outcome;
+    }
+
+    public static final class Builder {
+
+        private final String sagaName;
+        private final Map<String, StepDefinition> steps = new LinkedHashMap<>();
+        private final Map<String, EventRoute<?>> routes = new HashMap<>();
+        private final Map<String, FanOut<?>> fanOuts = new LinkedHashMap<>();
+        private StepDefinition current;
+
+        private Builder(String sagaName) {
+            this.sagaName = sagaName;
+        }
+
+        /**
+         * Start declaring {@code step}; the following calls apply to it.
+         */
+        public Builder step(SagaStep step) {
+            current = new StepDefinition(step, null, null, null, true);
+            if (steps.putIfAbsent(step.getStepName(), current) != null) {
+                throw new IllegalStateException("Step '" + step.getStepName() + "' declared twice in " + sagaName);
+            }
+            return this;
+        }
+
+        /**
+         * The command sent when the step starts, re-sent when a RETRY deadline expires.
+         */
+        public Builder command(Class<?> commandType, String bindingName) {
+            return replace(new StepDefinition(current().step(), commandType, bindingName, current.compensation(), true));
+        }
+
+        /**
+         * A command sent without waiting for a reply, e.g. a notification. The step is written once,
+         * already COMPLETED, together with its command; it has no events, deadline or compensation.
+         */
+        public Builder fireAndForget(Class<?> commandType, String bindingName) {
+            return replace(new StepDefinition(current().step(), commandType, bindingName, null, false));
+        }
+
+        /**
+         * Event that completes the step.
+         */
+        public <E extends BaseEvent> Builder onSuccess(Class<E> eventType, EventHandler<E> handler) {
+            return route(eventType, SagaConstants.SagaStepStatus.COMPLETED, handler);
+        }
+
+        /**
+         * Event that fails the step.
+         */
+        public <E extends BaseEvent> Builder onFailure(Class<E> eventType, EventHandler<E> handler) {
+            return route(eventType, SagaConstants.SagaStepStatus.FAILED, handler);
+        }
+
+        /**
+         * Event that completes a fan-out branch, which moves the saga on only through its group's join.
+         */
+        public <E extends BaseEvent> Builder onSuccess(Class<E> eventType) {
+            return onSuccess(eventType, (sagaId, event) -> { });
+        }
+
+        /**
+         * Event that fails a fan-out branch, which moves the saga on only through its group's join.
+         */
+        public <E extends BaseEvent> Builder onFailure(Class<E> eventType) {
+            return onFailure(eventType, (sagaId, event) -> { });
+        }
+
+        /**
+         * Group already declared steps as branches sent together by
+         * {@link Saga#fanOut(Long, SagaStep, Object, Map)}. While the group is open, events ending a
+         * branch go to the join instead of their own handler, and {@code handler} runs once when
+         * {@code join} is reached.
+         */
+        public <P> Builder fanOut(SagaStep group, Class<P> payloadType, Join join, JoinHandler<P> handler,
+                                  SagaStep... branches) {
+            String groupName = group.getStepName();
+            if (steps.containsKey(groupName) || fanOuts.containsKey(groupName)) {
+                throw new IllegalStateException("Fan-out group '" + groupName + "' clashes with a step of " + sagaName);
+            }
+            List<String> branchNames = Arrays.stream(branches).map(SagaStep::getStepName).toList();
+            if (branchNames.size() < 2) {
+                throw new IllegalStateException("Fan-out group '" + groupName + "' needs at least two branches in " + sagaName);
+            }
+            for (String branchName : branchNames) {
+                StepDefinition branch = steps.get(branchName);
+                if (branch == null || branch.bindingName() == null) {
+                    throw new IllegalStateException("Branch '" + branchName + "' of '" + groupName + "' needs a command in " + sagaName);
+                }
+                if (fanOuts.values().stream().anyMatch(fanOut -> fanOut.branches().contains(branchName))) {
+                    throw new IllegalStateException("Step '" + branchName + "' is a branch of two groups in " + sagaName);
+                }
+            }
+            fanOuts.put(groupName, new FanOut<>(group, payloadType, join, handler, branchNames));
+            current = null;
+            return this;
+        }
+
+        /**
+         * What to do once the step timed out and was marked as failed. Defaults to failing the saga.
+         */
+        public Builder compensateWith(Consumer<Long> compensation) {
+            return replace(new StepDefinition(current().step(), current.commandType(), current.bindingName(), compensation,
+                    current.acknowledged()));
+        }
+
+        public SagaDefinition build() {
+            return new SagaDefinition(sagaName, Collections.unmodifiableMap(new LinkedHashMap<>(steps)), Map.copyOf(routes),
+                    Map.copyOf(fanOuts));
+        }
+
+        private <E extends BaseEvent> Builder route(Class<E> eventType, SagaConstants.SagaStepStatus outcome,
+                                                    EventHandler<E> handler) {
+            // Events are routed on BaseEvent#getEventType(), the simple class name
+            EventRoute<E> route = new EventRoute<>(eventType, current().step().getStepName(), outcome, handler);
+            if (routes.putIfAbsent(eventType.getSimpleName(), route) != null) {
+                throw new IllegalStateException(eventType.getSimpleName() + " routed twice in " + sagaName);
+            }
+            return this;
+        }
+
+        private Builder replace(StepDefinition step) {
+            current = step;
+            steps.put(step.step().getStepName(), step);
+            return this;
+        }
+
+        private StepDefinition current() {
+            if (current == null) {
+                throw new IllegalStateException("Declare a step before its command, events or compensation in " + sagaName);
+            }
+            return current;
+        }
+    }
+}
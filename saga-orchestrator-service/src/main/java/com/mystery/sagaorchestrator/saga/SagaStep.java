@@ -0,0 +1,19 @@
+package com.mystery.sagaorchestrator.saga;
+
+/**
+ * Common contract of the per-saga step enums.
+ *
+ * @since 1.0.0
+ */
+public interface SagaStep {
+
+    /**
+     * The step name used in the database and logs.
+     */
+    String getStepName();
+
+    /**
+     * How long the step may stay STARTED before it is considered stuck, and what to do then.
+     */
+    StepDeadline getDeadline();
+}
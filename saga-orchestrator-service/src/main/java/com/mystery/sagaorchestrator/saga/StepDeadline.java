@@ -0,0 +1,48 @@
+package com.mystery.sagaorchestrator.saga;
+
+import java.time.Duration;
+
+/**
+ * Deadline of a saga step: once the step has been STARTED for {@code timeout} without a reply,
+ * {@code action} is applied. {@code RETRY} re-sends the step command up to {@code maxRetries}
+ * times before falling back to compensation. {@code ALERT} is for steps whose effect cannot be
+ * checked from the saga, such as a transfer that may have been applied.
+ *
+ * @since 1.0.0
+ */
+public record StepDeadline(Duration timeout, Action action, int maxRetries) {
+
+    /** Steps that complete synchronously and never wait for a reply. */
+    public static final StepDeadline NONE = new StepDeadline(Duration.ZERO, Action.FAIL, 0);
+
+    public enum Action {
+        /** Re-send the command of the step, then compensate once retries are exhausted. */
+        RETRY,
+        /** Run the saga-specific compensation for the step. */
+        COMPENSATE,
+        /** Fail the step and the saga without compensation. */
+        FAIL,
+        /** Report the step as stuck and leave it STARTED, so a late reply still moves the saga on. */
+        ALERT
+    }
+
+    public static StepDeadline retry(Duration timeout, int maxRetries) {
+        return new StepDeadline(timeout, Action.RETRY, maxRetries);
+    }
+
+    public static StepDeadline compensate(Duration timeout) {
+        return new StepDeadline(timeout, Action.COMPENSATE, 0);
+    }
+
+    public static StepDeadline fail(Duration timeout) {
+        return new StepDeadline(timeout, Action.FAIL, 0);
+    }
+
+    public static StepDeadline alert(Duration timeout) {
+        return new StepDeadline(timeout, Action.ALERT, 0);
+    }
+
+    public boolean isEnabled() {
+        return timeout.isPositive();
+    }
+}
@@ -1,6 +1,8 @@
 package com.mystery.sagaorchestrator.saga.payment;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mystery.common.entity.Payment;
+import com.mystery.common.saga.notification.commands.SendNotificationCommand;
 import com.mystery.common.saga.payment.commands.ProcessPaymentCommand;
 import com.mystery.common.saga.payment.commands.RecordTransactionCommand;
 import com.mystery.common.saga.payment.commands.UpdatePaymentStatusCommand;
@@ -8,13 +10,20 @@ import com.mystery.common.saga.payment.commands.ValidatePaymentCommand;
 import com.mystery.common.saga.payment.events.*;
 import com.mystery.sagaorchestrator.constants.SagaConstants;
 import com.mystery.sagaorchestrator.saga.Saga;
+import com.mystery.sagaorchestrator.saga.SagaDefinition;
 import com.mystery.sagaorchestrator.service.SagaStateManager;
+import com.mystery.sagaorchestrator.service.dedupe.SagaEventDeduplicator;
+import com.mystery.sagaorchestrator.service.deadline.StepDeadlineScheduler;
+import com.mystery.sagaorchestrator.service.dispatch.SagaEventDispatcher;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
 import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 /**
@@ -23,21 +32,33 @@ import java.util.function.Consumer;
  * Happy Path Flow:
  * 1. Produces ValidatePaymentCommand → Listens for PaymentValidatedEvent/PaymentValidationFailedEvent
  * 2. Produces ProcessPaymentCommand → Listens for PaymentProcessedEvent/PaymentFailedEvent
- * 3. Produces RecordTransactionCommand → Listens for TransactionRecordedEvent/TransactionFailedEvent
- * 4. Produces UpdatePaymentStatusCommand → Listens for PaymentStatusUpdatedEvent
- * 5. Produces SendNotificationCommand → Completes saga
+ * 3. Fans out (settle-payment, joined on all branches):
+ *    - RecordTransactionCommand → Listens for TransactionRecordedEvent/TransactionFailedEvent
+ *    - UpdatePaymentStatusCommand (COMPLETED) → Listens for PaymentStatusUpdatedEvent
+ * 4. Completes saga → Produces SendNotificationCommand (fire-and-forget)
  *
  * Failure Flows:
  * - If validation fails → Fails saga immediately
  * - If payment processing fails → Updates payment status to FAILED → Sends failure notification → Fails saga
- * - If transaction recording fails → Sends failure notification directly (no status update needed)
+ * - If transaction recording fails → Updates payment status back to FAILED → Sends failure notification → Fails saga
+ * - If the status update fails → Sends failure notification → Fails saga
+ *
+ * The flow is declared in {@link #defineSaga()}; all events arrive on the
+ * {@code payment-processing-saga-events} topic and are routed by type.
+ *
+ * Timeouts (see {@link PaymentProcessingSteps} for deadlines):
+ * - Validation and payment status update are retried by re-sending their command
+ * - A stuck payment processing step is only reported, since the transfer may still complete
+ * - A stuck transaction recording step counts as failed towards the settle-payment join
  */
 @Component
 @Slf4j
 public class PaymentProcessingSaga extends Saga {
 
-    public PaymentProcessingSaga(SagaStateManager sagaStateManager, StreamBridge streamBridge) {
-        super(sagaStateManager, streamBridge);
+    public PaymentProcessingSaga(SagaStateManager sagaStateManager, StepDeadlineScheduler stepDeadlineScheduler,
+                                 SagaEventDispatcher sagaEventDispatcher, ObjectMapper objectMapper,
+                                 SagaEventDeduplicator sagaEventDeduplicator) {
+        super(sagaStateManager, stepDeadlineScheduler, sagaEventDispatcher, objectMapper, sagaEventDeduplicator);
     }
 
     @Override
@@ -45,6 +66,39 @@ public class PaymentProcessingSaga extends Saga {
         return SagaConstants.PAYMENT_PROCESSING_SAGA;
     }
 
+    @Override
+    protected SagaDefinition defineSaga() {
+        return SagaDefinition.builder(getSagaName())
+                .step(PaymentProcessingSteps.VALIDATE_PAYMENT)
+                    .command(ValidatePaymentCommand.class, "validatePaymentCommand-out-0")
+                    .onSuccess(PaymentValidatedEvent.class, this::onPaymentValidated)
+                    .onFailure(PaymentValidationFailedEvent.class, this::onPaymentValidationFailed)
+                .step(PaymentProcessingSteps.PROCESS_PAYMENT)
+                    .command(ProcessPaymentCommand.class, "processPaymentCommand-out-0")
+                    .onSuccess(PaymentProcessedEvent.class, this::onPaymentProcessed)
+                    .onFailure(PaymentFailedEvent.class, this::onPaymentFailed)
+                .step(PaymentProcessingSteps.RECORD_TRANSACTION)
+                    .command(RecordTransactionCommand.class, "recordTransactionCommand-out-0")
+                    .onSuccess(TransactionRecordedEvent.class)
+                    .onFailure(TransactionFailedEvent.class)
+                .step(PaymentProcessingSteps.UPDATE_PAYMENT_STATUS)
+                    .command(UpdatePaymentStatusCommand.class, "updatePaymentStatusCommand-out-0")
+                    .onSuccess(PaymentStatusUpdatedEvent.class, this::onPaymentStatusUpdated)
+                .fanOut(PaymentProcessingSteps.SETTLE_PAYMENT, Payment.class, SagaDefinition.Join.ALL, this::onPaymentSettled,
+                        PaymentProcessingSteps.RECORD_TRANSACTION, PaymentProcessingSteps.UPDATE_PAYMENT_STATUS)
+                .step(PaymentProcessingSteps.SEND_NOTIFICATION)
+                    .fireAndForget(SendNotificationCommand.class, "sendNotificationCommand-out-0")
+                .build();
+    }
+
+    /**
+     * Single listener of the payment processing saga topic.
+     */
+    @Bean
+    public Consumer<Message<byte[]>> paymentProcessingSagaEvents() {
+        return sagaEvents();
+    }
+
     @Override
     public void startSagaFlow(Long sagaId, Object payload) {
         if (payload instanceof Payment payment) {
@@ -56,6 +110,21 @@ public class PaymentProcessingSaga extends Saga {
         }
     }
 
+    @Override
+    protected void startSagaFlows(List<Long> sagaIds, List<?> payloads) {
+        log.info("Starting {} payment processing saga flows", sagaIds.size());
+        List<ValidatePaymentCommand> commands = new ArrayList<>(sagaIds.size());
+        for (int i = 0; i < sagaIds.size(); i++) {
+            if (!(payloads.get(i) instanceof Payment payment)) {
+                throw new IllegalArgumentException("PaymentProcessingSaga requires Payment payloads");
+            }
+            commands.add(ValidatePaymentCommand.create(sagaIds.get(i), payment));
+        }
+
+        // Record all steps as STARTED; the commands are published from the outbox once they commit
+        sendCommands(PaymentProcessingSteps.VALIDATE_PAYMENT, sagaIds, commands);
+    }
+
     @Override
     public void completeSagaFlow(Long sagaId) {
         log.info("Payment processing saga {} completed successfully", sagaId);
@@ -71,10 +140,8 @@ public class PaymentProcessingSaga extends Saga {
             payment
         );
 
-        // Record step as STARTED before publishing command
-        startStep(sagaId, PaymentProcessingSteps.VALIDATE_PAYMENT.getStepName(), command);
-
-        streamBridge.send("validatePaymentCommand-out-0", command);
+        // Record step as STARTED; the command is published from the outbox once it commits
+        sendCommand(sagaId, PaymentProcessingSteps.VALIDATE_PAYMENT, command);
     }
 
     private void triggerProcessPaymentCommand(Long sagaId, Payment payment) {
@@ -85,24 +152,22 @@ public class PaymentProcessingSaga extends Saga {
             payment
         );
 
-        // Record step as STARTED before publishing command
-        startStep(sagaId, PaymentProcessingSteps.PROCESS_PAYMENT.getStepName(), command);
-
-        streamBridge.send("processPaymentCommand-out-0", command);
+        // Record step as STARTED; the command is published from the outbox once it commits
+        sendCommand(sagaId, PaymentProcessingSteps.PROCESS_PAYMENT, command);
     }
 
-    private void triggerRecordTransactionCommand(Long sagaId, Payment payment) {
-        log.info("Triggering RecordTransactionCommand for saga {} and payment: {}", sagaId, payment);
+    private void triggerSettlePaymentCommands(Long sagaId, Payment payment) {
+        log.info("Triggering RecordTransactionCommand and UpdatePaymentStatusCommand for saga {} and payment: {}", sagaId, payment);
 
-        RecordTransactionCommand command = RecordTransactionCommand.create(
-            sagaId,
-            payment
-        );
+        Payment completedPayment = objectMapper.convertValue(payment, Payment.class);
+        completedPayment.setStatus("COMPLETED");
 
-        // Record step as STARTED before publishing command
-        startStep(sagaId, PaymentProcessingSteps.RECORD_TRANSACTION.getStepName(), command);
+        Map<PaymentProcessingSteps, Object> commands = new LinkedHashMap<>();
+        commands.put(PaymentProcessingSteps.RECORD_TRANSACTION, RecordTransactionCommand.create(sagaId, payment));
+        commands.put(PaymentProcessingSteps.UPDATE_PAYMENT_STATUS, UpdatePaymentStatusCommand.create(sagaId, completedPayment));
 
-        streamBridge.send("recordTransactionCommand-out-0", command);
+        // Record the group and both steps as STARTED; the commands are published from the outbox once they commit
+        fanOut(sagaId, PaymentProcessingSteps.SETTLE_PAYMENT, completedPayment, commands);
     }
 
     private void triggerUpdatePaymentStatusCommand(Long sagaId, Payment payment, String status) {
@@ -116,227 +181,101 @@ public class PaymentProcessingSaga extends Saga {
             payment
         );
 
-        // Record step as STARTED before publishing command
-        startStep(sagaId, PaymentProcessingSteps.UPDATE_PAYMENT_STATUS.getStepName(), command);
-
-        streamBridge.send("updatePaymentStatusCommand-out-0", command);
+        // Record step as STARTED; the command is published from the outbox once it commits
+        sendCommand(sagaId, PaymentProcessingSteps.UPDATE_PAYMENT_STATUS, command);
     }
 
-
-
-    // === EVENT LISTENERS (Responds to events from other services) ===
+    // === EVENT HANDLERS (Routed from the saga topic after the step is completed or failed) ===
 
     /**
-     * Listens for PaymentValidatedEvent to proceed to next step or PaymentValidationFailedEvent to handle failure.
+     * PaymentValidatedEvent: proceed to payment processing.
      */
-    @Bean
-    public Consumer<Message<PaymentValidatedEvent>> paymentValidatedEvent() {
-        return message -> {
-            PaymentValidatedEvent event = message.getPayload();
-            Payment payment = event.getPayment();
-            Long sagaId = event.getSagaId();
-
-            log.info("Received PaymentValidatedEvent for saga {}, payment: {}", sagaId, payment.getId());
-
-            try {
-                // Complete current step
-                completeStep(sagaId, PaymentProcessingSteps.VALIDATE_PAYMENT.getStepName(), event);
-
-                // Proceed to next step: Process Payment
-                triggerProcessPaymentCommand(sagaId, payment);
-
-            } catch (Exception e) {
-                log.error("Error processing PaymentValidatedEvent for saga {}: {}", sagaId, e.getMessage(), e);
-                failSaga(sagaId);
-            }
-        };
+    private void onPaymentValidated(Long sagaId, PaymentValidatedEvent event) {
+        triggerProcessPaymentCommand(sagaId, event.getPayment());
     }
 
     /**
-     * Listens for PaymentValidationFailedEvent to handle payment validation failure.
+     * PaymentValidationFailedEvent: no compensation needed for validation failure.
      */
-    @Bean
-    public Consumer<Message<PaymentValidationFailedEvent>> paymentValidationFailedEvent() {
-        return message -> {
-            PaymentValidationFailedEvent event = message.getPayload();
-            Long sagaId = event.getSagaId();
-
-            log.error("Received PaymentValidationFailedEvent for saga {}, payment: {}, reason: {}",
-                sagaId, event.getPayment().getId(), event.getReason());
-
-            try {
-                // Mark step as failed
-                failStep(sagaId, PaymentProcessingSteps.VALIDATE_PAYMENT.getStepName(), event);
-
-                // Handle saga failure (no compensation needed for validation failure)
-                failSaga(sagaId);
-
-            } catch (Exception e) {
-                log.error("Error processing PaymentValidationFailedEvent for saga {}: {}", sagaId, e.getMessage(), e);
-            }
-        };
+    private void onPaymentValidationFailed(Long sagaId, PaymentValidationFailedEvent event) {
+        log.error("Payment validation failed for saga {}, payment: {}, reason: {}",
+            sagaId, event.getPayment().getId(), event.getReason());
+        failSaga(sagaId);
     }
 
     /**
-     * Listens for PaymentProcessedEvent to proceed to next step or PaymentFailedEvent to handle failure.
+     * PaymentProcessedEvent: record the transaction and mark the payment COMPLETED in parallel
+     * (skip UpdateAccountBalanceCommand).
      */
-    @Bean
-    public Consumer<Message<PaymentProcessedEvent>> paymentProcessedEvent() {
-        return message -> {
-            PaymentProcessedEvent event = message.getPayload();
-            Payment payment = event.getPayment();
-            Long sagaId = event.getSagaId();
-
-            log.info("Received PaymentProcessedEvent for saga {}, payment: {}", sagaId, payment);
-
-            try {
-                // Complete current step
-                completeStep(sagaId, PaymentProcessingSteps.PROCESS_PAYMENT.getStepName(), event);
-
-                // Proceed to next step: Record Transaction (skip UpdateAccountBalanceCommand)
-                triggerRecordTransactionCommand(sagaId, payment);
-
-            } catch (Exception e) {
-                log.error("Error processing PaymentProcessedEvent for saga {}: {}", sagaId, e.getMessage(), e);
-                failSaga(sagaId);
-            }
-        };
+    private void onPaymentProcessed(Long sagaId, PaymentProcessedEvent event) {
+        triggerSettlePaymentCommands(sagaId, event.getPayment());
     }
 
     /**
-     * Listens for PaymentFailedEvent to handle payment processing failure.
+     * PaymentFailedEvent: update payment status to FAILED before failing the saga.
      */
-    @Bean
-    public Consumer<Message<PaymentFailedEvent>> paymentFailedEvent() {
-        return message -> {
-            PaymentFailedEvent event = message.getPayload();
-            Payment payment = event.getPayment();
-            Long sagaId = event.getSagaId();
-
-            log.error("Received PaymentFailedEvent for saga {}, payment: {}, reason: {}",
-                sagaId, payment.getId(), event.getReason());
-
-            try {
-                // Mark step as failed
-                failStep(sagaId, PaymentProcessingSteps.PROCESS_PAYMENT.getStepName(), event);
-
-                // Update payment status to FAILED before failing the saga
-                triggerUpdatePaymentStatusCommand(sagaId, payment, "FAILED");
-
-            } catch (Exception e) {
-                log.error("Error processing PaymentFailedEvent for saga {}: {}", sagaId, e.getMessage(), e);
-                failSaga(sagaId);
-            }
-        };
+    private void onPaymentFailed(Long sagaId, PaymentFailedEvent event) {
+        Payment payment = event.getPayment();
+        log.error("Payment processing failed for saga {}, payment: {}, reason: {}",
+            sagaId, payment.getId(), event.getReason());
+        triggerUpdatePaymentStatusCommand(sagaId, payment, "FAILED");
     }
 
+    // === JOIN HANDLERS (Invoked once the branches of a fan-out group are joined) ===
+
     /**
-     * Listens for TransactionRecordedEvent to proceed to next step or TransactionFailedEvent to handle failure.
+     * settle-payment joined: complete the saga if both branches completed. A payment already marked
+     * COMPLETED whose transaction was not recorded is set back to FAILED, and that update fails the saga.
      */
-    @Bean
-    public Consumer<Message<TransactionRecordedEvent>> transactionRecordedEvent() {
-        return message -> {
-            TransactionRecordedEvent event = message.getPayload();
-            Payment payment = event.getPayment();
-            Long sagaId = event.getSagaId();
-
-            log.info("Received TransactionRecordedEvent for saga {}, payment: {}", sagaId, payment);
-
-            try {
-                // Complete current step
-                completeStep(sagaId, PaymentProcessingSteps.RECORD_TRANSACTION.getStepName(), event);
-
-                // Trigger payment status update to COMPLETED
-                triggerUpdatePaymentStatusCommand(sagaId, payment, "COMPLETED");
-
-            } catch (Exception e) {
-                log.error("Error processing TransactionRecordedEvent for saga {}: {}", sagaId, e.getMessage(), e);
-                failSaga(sagaId);
-            }
-        };
+    private void onPaymentSettled(Long sagaId, Payment payment, Map<String, SagaConstants.SagaStepStatus> outcomes) {
+        boolean recorded = outcomes.get(PaymentProcessingSteps.RECORD_TRANSACTION.getStepName()) == SagaConstants.SagaStepStatus.COMPLETED;
+        boolean marked = outcomes.get(PaymentProcessingSteps.UPDATE_PAYMENT_STATUS.getStepName()) == SagaConstants.SagaStepStatus.COMPLETED;
+        if (payment == null) {
+            log.error("No payment stored for settle-payment of saga {}", sagaId);
+            failSaga(sagaId);
+        } else if (recorded && marked) {
+            completeSaga(sagaId);
+            triggerSendNotificationCommand(sagaId, payment.getCreatedBy(), "Payment Processed Successfully", successMessage(payment));
+        } else if (marked) {
+            log.error("Transaction recording failed for saga {}, payment: {}", sagaId, payment.getId());
+            triggerUpdatePaymentStatusCommand(sagaId, payment, "FAILED");
+        } else {
+            log.error("Payment status update failed for saga {}, payment: {}", sagaId, payment.getId());
+            failSaga(sagaId);
+            triggerSendNotificationCommand(sagaId, payment.getCreatedBy(), "Payment Processing Failed", failureMessage(payment));
+        }
     }
 
     /**
-     * Listens for TransactionFailedEvent to handle transaction recording failure.
+     * PaymentStatusUpdatedEvent: notify the user and complete or fail the saga.
      */
-    @Bean
-    public Consumer<Message<TransactionFailedEvent>> transactionFailedEvent() {
-        return message -> {
-            TransactionFailedEvent event = message.getPayload();
-            Payment payment = event.getPayment();
-            Long sagaId = event.getSagaId();
-
-            log.error("Received TransactionFailedEvent for saga {}, payment: {}, reason: {}",
-                sagaId, payment.getId(), event.getReason());
-
-            try {
-                // Mark step as failed
-                failStep(sagaId, PaymentProcessingSteps.RECORD_TRANSACTION.getStepName(), event);
-
-
-                String subject = "Payment Processing Failed";
-                String notificationMessage = String.format(
-                        "Your payment of $%.2f from account %s to account %s failed to process. Payment ID: %s",
-                        payment.getAmount(), payment.getSourceAccountNumber(), payment.getDestinationAccountNumber(), payment.getId()
-                );
-
-                triggerSendNotificationCommand(sagaId, payment.getCreatedBy(), subject, notificationMessage);
+    private void onPaymentStatusUpdated(Long sagaId, PaymentStatusUpdatedEvent event) {
+        Payment payment = event.getPayment();
+        log.info("Payment {} of saga {} updated to status: {}", payment.getId(), sagaId, payment.getStatus());
+
+        if ("FAILED".equals(payment.getStatus())) {
+            // Fail saga, then notify off the critical path
+            failSaga(sagaId);
+            triggerSendNotificationCommand(sagaId, payment.getCreatedBy(), "Payment Processing Failed", failureMessage(payment));
+        } else {
+            // Complete saga, then notify off the critical path
+            completeSaga(sagaId);
+            triggerSendNotificationCommand(sagaId, payment.getCreatedBy(), "Payment Processed Successfully", successMessage(payment));
+        }
+    }
 
-            } catch (Exception e) {
-                log.error("Error processing TransactionFailedEvent for saga {}: {}", sagaId, e.getMessage(), e);
-            }
-        };
+    private static String successMessage(Payment payment) {
+        return String.format(
+                "Your payment of $%s from account %s to account %s has been processed successfully and marked as %s. Payment ID: %s",
+                payment.getAmount().toPlainString(), payment.getSourceAccountNumber(), payment.getDestinationAccountNumber(),
+                payment.getStatus(), payment.getId()
+        );
     }
 
-    /**
-     * Listens for PaymentStatusUpdatedEvent to proceed to final step.
-     */
-    @Bean
-    public Consumer<Message<PaymentStatusUpdatedEvent>> paymentStatusUpdatedEvent() {
-        return message -> {
-            PaymentStatusUpdatedEvent event = message.getPayload();
-            Payment payment = event.getPayment();
-            Long sagaId = event.getSagaId();
-
-            log.info("Received PaymentStatusUpdatedEvent for saga {}, payment: {} with status: {}", 
-                    sagaId, payment.getId(), payment.getStatus());
-
-            try {
-                // Complete the update payment status step
-                completeStep(sagaId, PaymentProcessingSteps.UPDATE_PAYMENT_STATUS.getStepName(), event);
-
-                String subject;
-                String notificationMessage;
-                
-                if ("FAILED".equals(payment.getStatus())) {
-                    // Handle failed payment notification
-                    subject = "Payment Processing Failed";
-                    notificationMessage = String.format(
-                            "Your payment of $%.2f from account %s to account %s failed to process. Payment ID: %s",
-                            payment.getAmount(), payment.getSourceAccountNumber(), payment.getDestinationAccountNumber(), payment.getId()
-                    );
-                    
-                    // Trigger notification and fail saga
-                    triggerSendNotificationCommand(sagaId, payment.getCreatedBy(), subject, notificationMessage);
-                    failSaga(sagaId);
-                } else {
-                    // Handle successful payment notification
-                    subject = "Payment Processed Successfully";
-                    notificationMessage = String.format(
-                            "Your payment of $%.2f from account %s to account %s has been processed successfully and marked as %s. Payment ID: %s",
-                            payment.getAmount(), payment.getSourceAccountNumber(), payment.getDestinationAccountNumber(), 
-                            payment.getStatus(), payment.getId()
-                    );
-                    
-                    // Trigger notification and complete saga
-                    triggerSendNotificationCommand(sagaId, payment.getCreatedBy(), subject, notificationMessage);
-                    completeSaga(sagaId);
-                }
-
-            } catch (Exception e) {
-                log.error("Error processing PaymentStatusUpdatedEvent for saga {}: {}", sagaId, e.getMessage(), e);
-                failSaga(sagaId);
-            }
-        };
+    private static String failureMessage(Payment payment) {
+        return String.format(
+                "Your payment of $%s from account %s to account %s failed to process. Payment ID: %s",
+                payment.getAmount().toPlainString(), payment.getSourceAccountNumber(), payment.getDestinationAccountNumber(), payment.getId()
+        );
     }
 }
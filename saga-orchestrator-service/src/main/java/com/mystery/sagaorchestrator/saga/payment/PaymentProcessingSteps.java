@@ -1,43 +1,75 @@
 package com.mystery.sagaorchestrator.saga.payment;
 
-public enum PaymentProcessingSteps {
+import com.mystery.sagaorchestrator.saga.SagaStep;
+import com.mystery.sagaorchestrator.saga.StepDeadline;
+
+import java.time.Duration;
+
+public enum PaymentProcessingSteps implements SagaStep {
 
     /**
      * First step: Validate payment details including account verification,
      * balance checks, and business rule validation.
      */
-    VALIDATE_PAYMENT("validate-payment"),
+    VALIDATE_PAYMENT("validate-payment", StepDeadline.retry(Duration.ofSeconds(30), 2)),
 
     /**
-     * Second step: Process the validated payment transaction.
+     * Second step: Process the validated payment transaction. A late reply may still report a
+     * completed transfer, so a missed deadline is only reported.
      */
-    PROCESS_PAYMENT("process-payment"),
+    PROCESS_PAYMENT("process-payment", StepDeadline.alert(Duration.ofSeconds(60))),
+
+    /**
+     * Fan-out group of the next two steps, which run in parallel once the payment is processed.
+     */
+    SETTLE_PAYMENT("settle-payment", StepDeadline.NONE),
 
     /**
      * Third step: Record transaction details in the transaction service for audit trail.
      */
-    RECORD_TRANSACTION("record-transaction"),
+    RECORD_TRANSACTION("record-transaction", StepDeadline.compensate(Duration.ofSeconds(60))),
 
     /**
-     * Fourth step: Update payment status to COMPLETED.
+     * Fourth step, in parallel with the third: Update payment status to COMPLETED.
      */
-    UPDATE_PAYMENT_STATUS("update-payment-status"),
+    UPDATE_PAYMENT_STATUS("update-payment-status", StepDeadline.retry(Duration.ofSeconds(30), 3)),
 
     /**
      * Final step: Send payment confirmation notification to the user.
      */
-    SEND_NOTIFICATION("send-notification");
+    SEND_NOTIFICATION("send-notification", StepDeadline.NONE);
 
     private final String stepName;
 
-    PaymentProcessingSteps(String stepName) {
+    private final StepDeadline deadline;
+
+    PaymentProcessingSteps(String stepName, StepDeadline deadline) {
         this.stepName = stepName;
+        this.deadline = deadline;
     }
 
+    @Override
     public String getStepName() {
         return stepName;
     }
 
+    @Override
+    public StepDeadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Look up a step by its step name.
+     */
+    public static PaymentProcessingSteps fromStepName(String stepName) {
+        for (PaymentProcessingSteps step : values()) {
+            if (step.stepName.equals(stepName)) {
+                return step;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payment processing step: " + stepName);
+    }
+
     /**
      * Get the next step in the payment processing flow.
      * Returns null if this is the last step.
@@ -1,5 +1,6 @@
 package com.mystery.sagaorchestrator.saga.payment;
 
+import com.mystery.common.money.Money;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
@@ -19,6 +20,6 @@ public class PaymentRequest {
 
     private String sourceAccountNumber;
     private String destinationAccountNumber;
-    private double amount;
+    private Money amount;
     private String description;
 }
@@ -1,16 +1,21 @@
 package com.mystery.sagaorchestrator.saga.useronboarding;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mystery.common.AppConstants;
 import com.mystery.common.entity.User;
+import com.mystery.common.saga.notification.commands.SendNotificationCommand;
 import com.mystery.common.saga.useronboarding.commands.CreateUserCommand;
 import com.mystery.common.saga.useronboarding.commands.DeleteUserCommand;
 import com.mystery.common.saga.useronboarding.commands.OpenAccountCommand;
 import com.mystery.common.saga.useronboarding.events.*;
 import com.mystery.sagaorchestrator.constants.SagaConstants;
 import com.mystery.sagaorchestrator.saga.Saga;
+import com.mystery.sagaorchestrator.saga.SagaDefinition;
 import com.mystery.sagaorchestrator.service.SagaStateManager;
+import com.mystery.sagaorchestrator.service.dedupe.SagaEventDeduplicator;
+import com.mystery.sagaorchestrator.service.deadline.StepDeadlineScheduler;
+import com.mystery.sagaorchestrator.service.dispatch.SagaEventDispatcher;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
 import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
@@ -32,19 +37,59 @@ import java.util.function.Consumer;
  * 
  * Compensation Flow:
  * - If account opening fails → Produces DeleteUserCommand
+ * 
+ * The flow is declared in {@link #defineSaga()}; all events arrive on the
+ * {@code user-onboarding-saga-events} topic and are routed by type.
+ * 
+ * Timeouts (see {@link UserOnboardingSteps} for deadlines):
+ * - A stuck user creation or account opening step produces DeleteUserCommand
+ * - A stuck user deletion is retried, then the saga fails for manual intervention
  */
 @Component
 @Slf4j
 public class UserOnboardingSaga extends Saga {
     
-    public UserOnboardingSaga(SagaStateManager sagaStateManager, StreamBridge streamBridge) {
-        super(sagaStateManager, streamBridge);
+    public UserOnboardingSaga(SagaStateManager sagaStateManager, StepDeadlineScheduler stepDeadlineScheduler,
+                              SagaEventDispatcher sagaEventDispatcher, ObjectMapper objectMapper,
+                              SagaEventDeduplicator sagaEventDeduplicator) {
+        super(sagaStateManager, stepDeadlineScheduler, sagaEventDispatcher, objectMapper, sagaEventDeduplicator);
     }
     
     @Override
     public String getSagaName() {
         return SagaConstants.USER_ONBOARDING_SAGA;
     }
+
+    @Override
+    protected SagaDefinition defineSaga() {
+        return SagaDefinition.builder(getSagaName())
+                .step(UserOnboardingSteps.SAGA_INITIATED)
+                .step(UserOnboardingSteps.CREATE_USER)
+                    .command(CreateUserCommand.class, "createUserCommand-out-0")
+                    .onSuccess(UserCreatedEvent.class, this::onUserCreated)
+                    .onFailure(UserCreationFailedEvent.class, this::onUserCreationFailed)
+                    .compensateWith(this::compensateCreateUser)
+                .step(UserOnboardingSteps.OPEN_ACCOUNT)
+                    .command(OpenAccountCommand.class, "accountOpenCommand-out-0")
+                    .onSuccess(AccountOpenedEvent.class, this::onAccountOpened)
+                    .onFailure(AccountOpenFailedEvent.class, this::onAccountOpenFailed)
+                    .compensateWith(this::compensateOpenAccount)
+                .step(UserOnboardingSteps.SEND_NOTIFICATION)
+                    .fireAndForget(SendNotificationCommand.class, "sendNotificationCommand-out-0")
+                .step(UserOnboardingSteps.DELETE_USER)
+                    .command(DeleteUserCommand.class, "deleteUserCommand-out-0")
+                    .onSuccess(UserDeletedEvent.class, this::onUserDeleted)
+                    .onFailure(UserDeletionFailedEvent.class, this::onUserDeletionFailed)
+                .build();
+    }
+
+    /**
+     * Single listener of the user onboarding saga topic.
+     */
+    @Bean
+    public Consumer<Message<byte[]>> userOnboardingSagaEvents() {
+        return sagaEvents();
+    }
     
     @Override
     public void startSagaFlow(Long sagaId, Object payload) {
@@ -73,10 +118,8 @@ public class UserOnboardingSaga extends Saga {
             user
         );
 
-        // Record step as STARTED before publishing command
-        startStep(sagaId, UserOnboardingSteps.CREATE_USER.getStepName(), command);
-        
-        streamBridge.send("createUserCommand-out-0", command);
+        // Record step as STARTED; the command is published from the outbox once it commits
+        sendCommand(sagaId, UserOnboardingSteps.CREATE_USER, command);
     }
     
     private void triggerOpenAccountCommand(Long sagaId, User user) {
@@ -88,10 +131,8 @@ public class UserOnboardingSaga extends Saga {
             user
         );
 
-        // Record step as STARTED before publishing command
-        startStep(sagaId, UserOnboardingSteps.OPEN_ACCOUNT.getStepName(), command);
-
-        streamBridge.send("accountOpenCommand-out-0", command);
+        // Record step as STARTED; the command is published from the outbox once it commits
+        sendCommand(sagaId, UserOnboardingSteps.OPEN_ACCOUNT, command);
     }
     
     private void triggerDeleteUserCommand(Long sagaId, String username) {
@@ -102,112 +143,87 @@ public class UserOnboardingSaga extends Saga {
             username
         );
 
-        // Record step as STARTED before publishing command
-        startStep(sagaId, UserOnboardingSteps.DELETE_USER.getStepName(), command);
-        
-        streamBridge.send("deleteUserCommand-out-0", command);
+        // Record step as STARTED; the command is published from the outbox once it commits
+        sendCommand(sagaId, UserOnboardingSteps.DELETE_USER, command);
     }
     
-    // === EVENT LISTENERS (Consumes events from other services) ===
-     @Bean
-    public Consumer<Message<UserCreatedEvent>> userCreatedEvent() {
-        return message -> {
-
-            UserCreatedEvent event = message.getPayload();
+    // === TIMEOUT COMPENSATION (Invoked when a step misses its deadline) ===
+
+    private void compensateCreateUser(Long sagaId) {
+        // The user may have been created even if the reply never arrived
+        sagaStateManager.getLatestStepPayload(sagaId, UserOnboardingSteps.CREATE_USER.getStepName(), CreateUserCommand.class)
+                .map(command -> command.getUser().getUsername())
+                .ifPresentOrElse(
+                        username -> triggerDeleteUserCommand(sagaId, username),
+                        () -> failForManualIntervention(sagaId, UserOnboardingSteps.CREATE_USER));
+    }
 
-            log.info("User created successfully for saga {}, event: {}", event.getSagaId(), event);
-            
-            completeStep(event.getSagaId(), UserOnboardingSteps.CREATE_USER.getStepName(), event);
-            
-            User user = event.getUser();
-            
-            // Check if user has admin role
-            if (user.getRoles() != null && user.getRoles().contains(AppConstants.ROLE_BAAS_ADMIN)) {
-                log.info("User {} has admin role, skipping account opening and proceeding to notification", user.getUsername());
-                
-                // Send admin welcome notification
-                String subject = "Welcome to BaaS Banking Service - Admin Access";
-                String notificationMessage = String.format("Hello %s,\n\nWelcome to BaaS Banking service! You have been granted admin access.\n\nBest regards,\nYour Company", user.getFullName());
-                
-                triggerSendNotificationCommand(event.getSagaId(), user.getUsername(), subject, notificationMessage);
-                
-                // Complete saga after notification is sent
-                completeSaga(event.getSagaId());
-            } else {
-                // Proceed to next step: Open Account for regular users
-                triggerOpenAccountCommand(event.getSagaId(), user);
-            }
-        };
+    private void compensateOpenAccount(Long sagaId) {
+        sagaStateManager.getLatestStepPayload(sagaId, UserOnboardingSteps.OPEN_ACCOUNT.getStepName(), OpenAccountCommand.class)
+                .map(command -> command.getUser().getUsername())
+                .ifPresentOrElse(
+                        username -> triggerDeleteUserCommand(sagaId, username),
+                        () -> failForManualIntervention(sagaId, UserOnboardingSteps.OPEN_ACCOUNT));
     }
 
-    @Bean
-    public Consumer<Message<UserCreationFailedEvent>> userCreationFailedEvent() {
-        return message -> {
-            UserCreationFailedEvent event = message.getPayload();
-            log.error("User creation failed for saga {}: {}", event.getSagaId(), event.getErrorMessage());
-            
-            failStep(event.getSagaId(), UserOnboardingSteps.CREATE_USER.getStepName(), event);
-            failSaga(event.getSagaId());
-        };
+    private void failForManualIntervention(Long sagaId, UserOnboardingSteps step) {
+        failSaga(sagaId);
+        log.error("User onboarding saga {} timed out at step '{}' - manual intervention required", sagaId, step.getStepName());
     }
-     @Bean
-    public Consumer<Message<AccountOpenedEvent>> accountOpenedEvent() {
-        return message -> {
-            AccountOpenedEvent event = message.getPayload();
+    
+    // === EVENT HANDLERS (Routed from the saga topic after the step is completed or failed) ===
 
-            log.info("Account opened successfully for saga {}, event: {}", event.getSagaId(), event);
+    private void onUserCreated(Long sagaId, UserCreatedEvent event) {
+        User user = event.getUser();
+        
+        // Check if user has admin role
+        if (user.getRoles() != null && user.getRoles().contains(AppConstants.ROLE_BAAS_ADMIN)) {
+            log.info("User {} has admin role, skipping account opening and proceeding to notification", user.getUsername());
             
-            completeStep(event.getSagaId(), UserOnboardingSteps.OPEN_ACCOUNT.getStepName(), event);
+            // Send admin welcome notification
+            String subject = "Welcome to BaaS Banking Service - Admin Access";
+            String notificationMessage = String.format("Hello %s,\n\nWelcome to BaaS Banking service! You have been granted admin access.\n\nBest regards,\nYour Company", user.getFullName());
             
-            // Proceed to next step: Send Welcome Notification
-            // We need email and fullName, but they're not in AccountOpenedEvent, so we'll use userId for now
-            User user = event.getUser();
+            // Complete saga, then notify off the critical path
+            completeSaga(sagaId);
+            triggerSendNotificationCommand(sagaId, user.getUsername(), subject, notificationMessage);
+        } else {
+            // Proceed to next step: Open Account for regular users
+            triggerOpenAccountCommand(sagaId, user);
+        }
+    }
 
-            String subject = "Welcome to BaaS Banking Service";
-            String notificationMessage = String.format("Hello %s,\n\nWelcome to  BaaS Banking service! Your account number is %s.\n\nBest regards,\nYour Company", user.getFullName(), event.getAccount().getAccountNumber());
+    private void onUserCreationFailed(Long sagaId, UserCreationFailedEvent event) {
+        log.error("User creation failed for saga {}: {}", sagaId, event.getErrorMessage());
+        failSaga(sagaId);
+    }
 
-            triggerSendNotificationCommand(event.getSagaId(), user.getUsername(), subject, notificationMessage);
+    private void onAccountOpened(Long sagaId, AccountOpenedEvent event) {
+        // Proceed to next step: Send Welcome Notification
+        User user = event.getUser();
 
-            // Record step as STARTED before publishing command
-            completeSaga(event.getSagaId());
+        String subject = "Welcome to BaaS Banking Service";
+        String notificationMessage = String.format("Hello %s,\n\nWelcome to  BaaS Banking service! Your account number is %s.\n\nBest regards,\nYour Company", user.getFullName(), event.getAccount().getAccountNumber());
 
-        };
+        completeSaga(sagaId);
+        triggerSendNotificationCommand(sagaId, user.getUsername(), subject, notificationMessage);
     }
 
-    @Bean
-    public Consumer<Message<AccountOpenFailedEvent>> accountOpenFailedEvent() {
-        return message -> {
-            AccountOpenFailedEvent event = message.getPayload();
-            log.error("Account opening failed for saga {}: {}", event.getSagaId(), event.getErrorMessage());
-            
-            failStep(event.getSagaId(), UserOnboardingSteps.OPEN_ACCOUNT.getStepName(), event);
-            
-            // Trigger compensation: Delete the user that was created earlier using username
-            triggerDeleteUserCommand(event.getSagaId(), event.getUsername());
-        };
+    private void onAccountOpenFailed(Long sagaId, AccountOpenFailedEvent event) {
+        log.error("Account opening failed for saga {}: {}", sagaId, event.getErrorMessage());
+        
+        // Trigger compensation: Delete the user that was created earlier using username
+        triggerDeleteUserCommand(sagaId, event.getUsername());
     }
 
-    @Bean
-    public Consumer<Message<UserDeletedEvent>> userDeletedEvent() {
-        return message -> {
-            UserDeletedEvent event = message.getPayload();
-            log.info("User deleted successfully for saga {} (compensation completed)", event.getSagaId());
-            
-            completeStep(event.getSagaId(), UserOnboardingSteps.DELETE_USER.getStepName(), event);
-            failSaga(event.getSagaId());
-            log.info("User onboarding saga {} failed and compensation completed", event.getSagaId());
-        };
+    private void onUserDeleted(Long sagaId, UserDeletedEvent event) {
+        failSaga(sagaId);
+        log.info("User onboarding saga {} failed and compensation completed", sagaId);
     }
 
-    @Bean
-    public Consumer<Message<UserDeletionFailedEvent>> userDeletionFailedEvent() {
-        return message -> {
-            UserDeletionFailedEvent event = message.getPayload();
-            log.error("User deletion failed for saga {} (compensation failed): {}", event.getSagaId(), event.getErrorMessage());
-            
-            failStep(event.getSagaId(), UserOnboardingSteps.DELETE_USER.getStepName(), event);
-            failSaga(event.getSagaId());
-            log.error("User onboarding saga {} failed and compensation also failed - manual intervention required", event.getSagaId());
-        };
+    private void onUserDeletionFailed(Long sagaId, UserDeletionFailedEvent event) {
+        log.error("User deletion failed for saga {} (compensation failed): {}", sagaId, event.getErrorMessage());
+        failSaga(sagaId);
+        log.error("User onboarding saga {} failed and compensation also failed - manual intervention required", sagaId);
     }
 }
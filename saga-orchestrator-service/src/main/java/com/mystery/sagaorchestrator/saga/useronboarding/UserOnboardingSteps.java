@@ -1,8 +1,12 @@
 package com.mystery.sagaorchestrator.saga.useronboarding;
 
+import com.mystery.sagaorchestrator.saga.SagaStep;
+import com.mystery.sagaorchestrator.saga.StepDeadline;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.time.Duration;
+
 /**
  * Enum defining all steps in the user onboarding saga.
  * 
@@ -13,36 +17,53 @@ import lombok.RequiredArgsConstructor;
  */
 @Getter
 @RequiredArgsConstructor
-public enum UserOnboardingSteps {
+public enum UserOnboardingSteps implements SagaStep {
     
     /**
      * Initial step that records the start of the saga with user details.
      */
-    SAGA_INITIATED("SagaInitiated"),
+    SAGA_INITIATED("SagaInitiated", StepDeadline.NONE),
     
     /**
      * Step for creating user account in the user service.
      */
-    CREATE_USER("CreateUser"),
+    CREATE_USER("CreateUser", StepDeadline.compensate(Duration.ofSeconds(60))),
     
     /**
      * Step for opening bank account in the account service.
      */
-    OPEN_ACCOUNT("OpenAccount"),
+    OPEN_ACCOUNT("OpenAccount", StepDeadline.compensate(Duration.ofSeconds(60))),
     
     /**
      * Step for sending welcome notification to the user.
      */
-    SEND_NOTIFICATION("SendNotification"),
+    SEND_NOTIFICATION("SendNotification", StepDeadline.NONE),
     
     /**
      * Compensation step for deleting user when account opening fails.
      */
-    DELETE_USER("DeleteUser");
+    DELETE_USER("DeleteUser", StepDeadline.retry(Duration.ofSeconds(60), 3));
     
     /**
      * The actual step name used in the database and logs.
      */
     private final String stepName;
+
+    /**
+     * Deadline of the step, overridable per step name under {@code saga.deadline.steps}.
+     */
+    private final StepDeadline deadline;
+
+    /**
+     * Look up a step by its step name.
+     */
+    public static UserOnboardingSteps fromStepName(String stepName) {
+        for (UserOnboardingSteps step : values()) {
+            if (step.stepName.equals(stepName)) {
+                return step;
+            }
+        }
+        throw new IllegalArgumentException("Unknown user onboarding step: " + stepName);
+    }
     
 }
@@ -0,0 +1,81 @@
+package com.mystery.sagaorchestrator.service;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.entity.SagaInstance;
+import com.mystery.sagaorchestrator.entity.SagaStepInstance;
+import com.mystery.sagaorchestrator.repository.SagaInstanceRepository;
+import com.mystery.sagaorchestrator.repository.SagaStepInstanceRepository;
+import com.mystery.sagaorchestrator.service.outbox.OutboxMessage;
+import com.mystery.sagaorchestrator.service.outbox.SagaOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes every saga transition through JPA in its own transaction (journal mode {@code direct}).
+ *
+ * Inserts reference the saga by id without loading it, and updates with a known step id are
+ * single primary-key updates, so the common path issues no SELECTs. A step's outbox row joins
+ * the transaction of its insert, or of the caller when one is active.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "saga.journal.mode", havingValue = "direct", matchIfMissing = true)
+public class JpaSagaStepWriter implements SagaStepWriter {
+
+    private final SagaInstanceRepository sagaInstanceRepository;
+    private final SagaStepInstanceRepository sagaStepInstanceRepository;
+    private final SagaOutbox sagaOutbox;
+
+    @Override
+    @Transactional
+    public Long insertStep(Long sagaId, String stepName, SagaConstants.SagaStepStatus status, byte[] payload, OutboxMessage command) {
+        // A missing saga surfaces as a foreign key violation on insert
+        SagaInstance sagaInstance = sagaInstanceRepository.getReferenceById(sagaId);
+
+        SagaStepInstance stepInstance = SagaStepInstance.builder()
+                .sagaInstance(sagaInstance)
+                .stepName(stepName)
+                .status(status)
+                .payloadData(payload)
+                .build();
+
+        Long stepId = sagaStepInstanceRepository.save(stepInstance).getId();
+        if (command != null) {
+            sagaOutbox.append(List.of(command));
+        }
+        return stepId;
+    }
+
+    @Override
+    @Transactional
+    public void updateStep(Long sagaId, String stepName, Long stepId, SagaConstants.SagaStepStatus status, byte[] payload) {
+        if (stepId != null
+                && sagaStepInstanceRepository.updateStatusById(stepId, status, payload, LocalDateTime.now()) == 1) {
+            return;
+        }
+
+        SagaInstance sagaInstance = sagaInstanceRepository.findById(sagaId)
+                .orElseThrow(() -> new RuntimeException("Saga instance not found: " + sagaId));
+
+        // Find the most recent step with the given name
+        SagaStepInstance stepInstance = sagaStepInstanceRepository.findFirstBySagaInstanceAndStepNameOrderByCreatedAtDesc(sagaInstance, stepName)
+                .orElseThrow(() -> new RuntimeException("Step instance not found for saga " + sagaId + " and step: " + stepName));
+
+        stepInstance.setStatus(status);
+        stepInstance.setPayloadData(payload);
+        sagaStepInstanceRepository.save(stepInstance);
+    }
+
+    @Override
+    @Transactional
+    public void updateSagaStatus(Long sagaId, SagaConstants.SagaStatus status) {
+        if (sagaInstanceRepository.updateStatusById(sagaId, status, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Saga instance not found: " + sagaId);
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.mystery.sagaorchestrator.service;
 
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.dto.SagaBatchStatus;
+import com.mystery.sagaorchestrator.dto.SagaInstanceFilter;
+import com.mystery.sagaorchestrator.dto.SagaInstancePage;
+import com.mystery.sagaorchestrator.dto.SagaInstanceView;
 import com.mystery.sagaorchestrator.entity.SagaInstance;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface SagaStateManager {
 
@@ -11,16 +19,47 @@ public interface SagaStateManager {
     SagaInstance startSaga(String sagaName);
     void completeSaga(Long sagaId);
     void failSaga(Long sagaId);
+    // Insert count sagas tagged with batchId in JDBC batches, joining the caller's transaction
+    List<SagaInstance> startSagas(String sagaName, int count, String batchId);
     
     // Step lifecycle (with mandatory payload for audit trail)
     void startStep(Long sagaId, String stepName, Object payload);
+    // Record the step and publish its command on bindingName through the outbox, in one transaction
+    void startStep(Long sagaId, String stepName, Object command, String bindingName);
     void completeStep(Long sagaId, String stepName, Object payload);
     void failStep(Long sagaId, String stepName, Object errorMessage);
+    // Record a step that gets no reply as COMPLETED and publish its command, in a single write
+    void sendUnacknowledgedStep(Long sagaId, String stepName, Object command, String bindingName);
+    // Bulk form of startStep(sagaId, stepName, command, bindingName): one command per saga, batched writes
+    void startSteps(List<Long> sagaIds, String stepName, List<?> commands, String bindingName);
+    // Publish the command of an already recorded step again, through the outbox like its first send
+    void resendCommand(Long sagaId, Object command, String bindingName);
 
-    // Saga query operations
-    List<SagaInstance> getAllSagaInstances();
+    // Saga query operations (keyset-paginated by createdAt DESC, id DESC)
+    SagaInstancePage findSagaInstances(SagaInstanceFilter filter, String cursor, int limit, boolean includeSteps);
 
-    // Get single saga instance by id
+    // Stream every matching saga without buffering the result set
+    void streamSagaInstances(SagaInstanceFilter filter, boolean includeSteps, Consumer<SagaInstanceView> consumer);
+
+    // Get single saga instance by id, including archived ones
     Optional<SagaInstance> getSagaInstanceById(Long sagaId);
 
+    // Current status of a hot saga read from the database, bypassing the persistence context
+    Optional<SagaConstants.SagaStatus> getSagaStatus(Long sagaId);
+
+    // Whether the saga still takes events; sagas cached as in flight are, others are looked up
+    boolean isInProgress(Long sagaId);
+
+    // Saga counts by status of a bulk start, including archived sagas
+    SagaBatchStatus getBatchStatus(String batchId);
+
+    // Decoded payload of a single step, loaded on demand
+    Optional<String> getStepPayload(Long sagaId, Long stepId);
+
+    // Payload of the latest step with this name decoded as the given type, e.g. to re-send its command
+    <T> Optional<T> getLatestStepPayload(Long sagaId, String stepName, Class<T> type);
+
+    // Status of the latest step of each name, e.g. to join fan-out branches; names never started are absent
+    Map<String, SagaConstants.SagaStepStatus> getLatestStepStatuses(Long sagaId, Collection<String> stepNames);
+
 }
@@ -1,17 +1,50 @@
 package com.mystery.sagaorchestrator.service;
 
+import com.mystery.sagaorchestrator.config.SagaBulkProperties;
+import com.mystery.sagaorchestrator.config.SagaQueryProperties;
 import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.dto.SagaBatchStatus;
+import com.mystery.sagaorchestrator.dto.SagaCursor;
+import com.mystery.sagaorchestrator.dto.SagaInstanceFilter;
+import com.mystery.sagaorchestrator.dto.SagaInstancePage;
+import com.mystery.sagaorchestrator.dto.SagaInstanceView;
+import com.mystery.sagaorchestrator.dto.SagaStepView;
+import com.mystery.sagaorchestrator.dto.SagaTransition;
 import com.mystery.sagaorchestrator.entity.SagaInstance;
 import com.mystery.sagaorchestrator.entity.SagaStepInstance;
+import com.mystery.sagaorchestrator.repository.SagaArchiveRepository;
+import com.mystery.sagaorchestrator.repository.SagaBatchRepository;
+import com.mystery.sagaorchestrator.repository.SagaInstanceQueryRepository;
 import com.mystery.sagaorchestrator.repository.SagaInstanceRepository;
 import com.mystery.sagaorchestrator.repository.SagaStepInstanceRepository;
+import com.mystery.sagaorchestrator.service.await.SagaCompletionWaiters;
+import com.mystery.sagaorchestrator.service.cache.CachedSaga;
+import com.mystery.sagaorchestrator.service.cache.SagaStateCache;
+import com.mystery.sagaorchestrator.service.id.SagaIdAllocator;
+import com.mystery.sagaorchestrator.service.metrics.SagaMetrics;
+import com.mystery.sagaorchestrator.service.outbox.OutboxMessage;
+import com.mystery.sagaorchestrator.service.outbox.SagaOutbox;
+import com.mystery.sagaorchestrator.service.payload.StepPayloadCodec;
+import com.mystery.sagaorchestrator.service.stats.SagaStatistics;
+import com.mystery.sagaorchestrator.service.stream.SagaTransitionHub;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +53,21 @@ public class SagaStateManagerImpl implements SagaStateManager {
 
     private final SagaInstanceRepository sagaInstanceRepository;
     private final SagaStepInstanceRepository sagaStepInstanceRepository;
+    private final SagaInstanceQueryRepository sagaInstanceQueryRepository;
+    private final SagaArchiveRepository sagaArchiveRepository;
+    private final SagaBatchRepository sagaBatchRepository;
+    private final SagaIdAllocator sagaIdAllocator;
+    private final SagaQueryProperties sagaQueryProperties;
+    private final SagaBulkProperties sagaBulkProperties;
+    private final SagaStepWriter sagaStepWriter;
+    private final SagaStateCache sagaStateCache;
+    private final StepPayloadCodec stepPayloadCodec;
+    private final SagaOutbox sagaOutbox;
+    private final StreamBridge streamBridge;
+    private final SagaMetrics sagaMetrics;
+    private final SagaTransitionHub sagaTransitionHub;
+    private final SagaCompletionWaiters sagaCompletionWaiters;
+    private final SagaStatistics sagaStatistics;
 
     @Override
     @Transactional
@@ -32,6 +80,8 @@ public class SagaStateManagerImpl implements SagaStateManager {
                 .currentStep(0)
                 .build();
         SagaInstance savedInstance = sagaInstanceRepository.save(sagaInstance);
+        sagaStateCache.put(savedInstance);
+        publishTransition(savedInstance.getId(), sagaName, null, SagaConstants.SagaStatus.IN_PROGRESS.name(), false);
 
         log.info("Saga {} created successfully with ID: {}", sagaName, savedInstance.getId());
         return savedInstance;
@@ -39,87 +89,314 @@ public class SagaStateManagerImpl implements SagaStateManager {
 
     @Override
     @Transactional
+    public List<SagaInstance> startSagas(String sagaName, int count, String batchId) {
+        log.info("Starting {} sagas {} in batch {}", count, sagaName, batchId);
+
+        List<Long> sagaIds = Arrays.stream(sagaIdAllocator.next(SagaConstants.SAGA_INSTANCE_ID_SEQUENCE, count)).boxed().toList();
+        sagaBatchRepository.insertSagas(sagaIds, sagaName, batchId, sagaBulkProperties.getInsertBatchSize());
+        LocalDateTime now = LocalDateTime.now();
+        List<SagaInstance> instances = new ArrayList<>(sagaIds.size());
+        List<SagaTransition> transitions = new ArrayList<>(sagaIds.size());
+        for (Long sagaId : sagaIds) {
+            SagaInstance sagaInstance = SagaInstance.builder()
+                    .id(sagaId)
+                    .sagaName(sagaName)
+                    .status(SagaConstants.SagaStatus.IN_PROGRESS)
+                    .currentStep(0)
+                    .batchId(batchId)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build();
+            sagaStateCache.put(sagaInstance);
+            instances.add(sagaInstance);
+            transitions.add(new SagaTransition(sagaId, sagaName, null, SagaConstants.SagaStatus.IN_PROGRESS.name(), false, now));
+        }
+        publishAfterCommit(transitions);
+
+        log.info("Batch {} created with {} sagas {}", batchId, instances.size(), sagaName);
+        return instances;
+    }
+
+    @Override
     public void completeSaga(Long sagaId) {
         log.info("Completing saga {}", sagaId);
         updateSagaStatus(sagaId, SagaConstants.SagaStatus.COMPLETED);
     }
 
     @Override
-    @Transactional
     public void failSaga(Long sagaId) {
         log.info("Failing saga {}", sagaId);
         updateSagaStatus(sagaId, SagaConstants.SagaStatus.ROLLED_BACK);
     }
 
     @Override
-    @Transactional
     public void startStep(Long sagaId, String stepName, Object payload) {
         log.info("Starting step '{}' for saga {}", stepName, sagaId);
-        recordStep(sagaId, stepName, SagaConstants.SagaStepStatus.STARTED, payload != null ? payload.toString() : "");
+        recordStep(sagaId, stepName, SagaConstants.SagaStepStatus.STARTED, encode(payload), null);
+    }
+
+    @Override
+    public void startStep(Long sagaId, String stepName, Object command, String bindingName) {
+        log.info("Starting step '{}' for saga {} with command for {}", stepName, sagaId, bindingName);
+        if (!sagaOutbox.isEnabled()) {
+            recordStep(sagaId, stepName, SagaConstants.SagaStepStatus.STARTED, encode(command), null);
+            streamBridge.send(bindingName, command);
+            return;
+        }
+        recordStep(sagaId, stepName, SagaConstants.SagaStepStatus.STARTED, encode(command),
+                sagaOutbox.message(sagaId, bindingName, command));
+    }
+
+    @Override
+    public void sendUnacknowledgedStep(Long sagaId, String stepName, Object command, String bindingName) {
+        log.info("Sending unacknowledged step '{}' for saga {} with command for {}", stepName, sagaId, bindingName);
+        // Nothing will update the step, so it is neither cached nor timed
+        if (!sagaOutbox.isEnabled()) {
+            sagaStepWriter.insertStep(sagaId, stepName, SagaConstants.SagaStepStatus.COMPLETED, encode(command), null);
+            streamBridge.send(bindingName, command);
+        } else {
+            sagaStepWriter.insertStep(sagaId, stepName, SagaConstants.SagaStepStatus.COMPLETED, encode(command),
+                    sagaOutbox.message(sagaId, bindingName, command));
+        }
+        publishTransition(sagaId, cachedSagaName(sagaId), stepName, SagaConstants.SagaStepStatus.COMPLETED.name(), false);
     }
 
     @Override
     @Transactional
+    public void startSteps(List<Long> sagaIds, String stepName, List<?> commands, String bindingName) {
+        log.info("Starting step '{}' for {} sagas with commands for {}", stepName, sagaIds.size(), bindingName);
+        List<byte[]> payloads = commands.stream().map(this::encode).toList();
+        List<Long> stepIds = Arrays.stream(sagaIdAllocator.next(SagaConstants.SAGA_STEP_INSTANCE_ID_SEQUENCE, sagaIds.size()))
+                .boxed()
+                .toList();
+        sagaBatchRepository.insertSteps(stepIds, sagaIds, stepName, payloads, sagaBulkProperties.getInsertBatchSize());
+        for (int i = 0; i < sagaIds.size(); i++) {
+            sagaStateCache.recordStep(sagaIds.get(i), stepName, stepIds.get(i));
+            sagaStateCache.markStepStarted(sagaIds.get(i), stepName);
+            publishTransition(sagaIds.get(i), cachedSagaName(sagaIds.get(i)), stepName, SagaConstants.SagaStepStatus.STARTED.name(), false);
+        }
+
+        if (!sagaOutbox.isEnabled()) {
+            // The producer pipelines the sends into as few batches as its linger allows
+            commands.forEach(command -> streamBridge.send(bindingName, command));
+            return;
+        }
+        List<OutboxMessage> messages = new ArrayList<>(sagaIds.size());
+        for (int i = 0; i < sagaIds.size(); i++) {
+            messages.add(sagaOutbox.message(sagaIds.get(i), bindingName, commands.get(i)));
+        }
+        sagaOutbox.append(messages);
+    }
+
+    @Override
+    @Transactional
+    public void resendCommand(Long sagaId, Object command, String bindingName) {
+        log.info("Re-sending command for {} of saga {}", bindingName, sagaId);
+        if (!sagaOutbox.isEnabled()) {
+            streamBridge.send(bindingName, command);
+            return;
+        }
+        sagaOutbox.append(List.of(sagaOutbox.message(sagaId, bindingName, command)));
+    }
+
+    @Override
     public void completeStep(Long sagaId, String stepName, Object payload) {
         log.info("Completing step '{}' for saga {}", stepName, sagaId);
-        updateStepStatus(sagaId, stepName, SagaConstants.SagaStepStatus.COMPLETED, payload != null ? payload.toString() : "");
+        updateStepStatus(sagaId, stepName, SagaConstants.SagaStepStatus.COMPLETED, encode(payload));
+        recordStepDuration(sagaId, stepName, SagaConstants.SagaStepStatus.COMPLETED);
     }
 
     @Override
-    @Transactional
     public void failStep(Long sagaId, String stepName, Object errorMessage) {
         log.info("Failing step '{}' for saga {} with error: {}", stepName, sagaId, errorMessage);
-        updateStepStatus(sagaId, stepName, SagaConstants.SagaStepStatus.FAILED, errorMessage != null ? errorMessage.toString() : "");
+        updateStepStatus(sagaId, stepName, SagaConstants.SagaStepStatus.FAILED, encode(errorMessage));
+        recordStepDuration(sagaId, stepName, SagaConstants.SagaStepStatus.FAILED);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<SagaInstance> getAllSagaInstances() {
-        log.info("Retrieving all saga instances with step instances");
-        return sagaInstanceRepository.findAllWithStepInstances();
+    public SagaInstancePage findSagaInstances(SagaInstanceFilter filter, String cursor, int limit, boolean includeSteps) {
+        int pageSize = Math.clamp(limit, 1, sagaQueryProperties.getMaxLimit());
+        log.info("Retrieving saga instances filter={} cursor={} limit={} includeSteps={}", filter, cursor, pageSize, includeSteps);
+
+        // Fetch one extra row to learn whether another page exists
+        List<SagaInstanceView> items = sagaInstanceQueryRepository.findPage(
+                filter, cursor != null ? SagaCursor.decode(cursor) : null, pageSize + 1);
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            SagaInstanceView last = items.get(pageSize - 1);
+            nextCursor = new SagaCursor(last.createdAt(), last.id()).encode();
+        }
+
+        if (includeSteps) {
+            Map<Long, List<SagaStepView>> steps = sagaInstanceQueryRepository.findStepsBySagaIds(
+                    items.stream().map(SagaInstanceView::id).toList());
+            items = items.stream()
+                    .map(saga -> saga.withSteps(steps.getOrDefault(saga.id(), List.of())))
+                    .toList();
+        }
+        return new SagaInstancePage(items, nextCursor);
+    }
+
+    @Override
+    public void streamSagaInstances(SagaInstanceFilter filter, boolean includeSteps, Consumer<SagaInstanceView> consumer) {
+        log.info("Streaming saga instances filter={} includeSteps={}", filter, includeSteps);
+        sagaInstanceQueryRepository.stream(filter, includeSteps, consumer);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<SagaInstance> getSagaInstanceById(Long sagaId) {
         log.info("Retrieving saga instance by id={}", sagaId);
-        return sagaInstanceRepository.findById(sagaId);
+        // Finished sagas may have been moved to the archive tables
+        return sagaInstanceRepository.findById(sagaId)
+                .or(() -> sagaArchiveRepository.findById(sagaId));
+    }
+
+    @Override
+    public Optional<SagaConstants.SagaStatus> getSagaStatus(Long sagaId) {
+        sagaStepWriter.awaitWritten(sagaId);
+        return sagaInstanceRepository.findStatusById(sagaId);
+    }
+
+    @Override
+    public boolean isInProgress(Long sagaId) {
+        // Finishing a saga evicts it from the cache, so a cached saga is still in progress
+        return sagaStateCache.get(sagaId).isPresent()
+                || getSagaStatus(sagaId).filter(status -> status == SagaConstants.SagaStatus.IN_PROGRESS).isPresent();
+    }
+
+    @Override
+    public SagaBatchStatus getBatchStatus(String batchId) {
+        log.info("Retrieving status of saga batch {}", batchId);
+        Map<SagaConstants.SagaStatus, Long> counts = sagaBatchRepository.countByStatus(batchId);
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        return new SagaBatchStatus(batchId, total, counts,
+                total > 0 && !counts.containsKey(SagaConstants.SagaStatus.IN_PROGRESS));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> getStepPayload(Long sagaId, Long stepId) {
+        log.info("Retrieving payload of step {} for saga {}", stepId, sagaId);
+        return sagaStepInstanceRepository.findByIdAndSagaInstanceId(stepId, sagaId)
+                .or(() -> sagaArchiveRepository.findStep(sagaId, stepId))
+                .map(step -> step.getPayloadData() != null
+                        ? stepPayloadCodec.decode(step.getPayloadData())
+                        : step.getLegacyPayload());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <T> Optional<T> getLatestStepPayload(Long sagaId, String stepName, Class<T> type) {
+        log.info("Retrieving latest payload of step '{}' for saga {}", stepName, sagaId);
+        sagaStepWriter.awaitWritten(sagaId);
+        Long stepId = sagaStateCache.findStepId(sagaId, stepName);
+        Optional<SagaStepInstance> step = stepId != null
+                ? sagaStepInstanceRepository.findByIdAndSagaInstanceId(stepId, sagaId)
+                : sagaStepInstanceRepository.findFirstBySagaInstanceAndStepNameOrderByCreatedAtDesc(
+                        sagaInstanceRepository.getReferenceById(sagaId), stepName);
+        // Legacy toString() payloads cannot be turned back into objects
+        return step.map(SagaStepInstance::getPayloadData)
+                .map(data -> stepPayloadCodec.decode(data, type));
+    }
+
+    @Override
+    public Map<String, SagaConstants.SagaStepStatus> getLatestStepStatuses(Long sagaId, Collection<String> stepNames) {
+        log.info("Retrieving latest status of steps {} for saga {}", stepNames, sagaId);
+        sagaStepWriter.awaitWritten(sagaId);
+        Map<String, SagaConstants.SagaStepStatus> statuses = new HashMap<>();
+        // Oldest first, so later rows of a step name replace earlier ones
+        sagaStepInstanceRepository.findStepStatuses(sagaId, stepNames)
+                .forEach(step -> statuses.put(step.getStepName(), step.getStatus()));
+        return statuses;
     }
 
     // Private helper methods
     
     private void updateSagaStatus(Long sagaId, SagaConstants.SagaStatus status) {
-        SagaInstance sagaInstance = sagaInstanceRepository.findById(sagaId)
-                .orElseThrow(() -> new RuntimeException("Saga instance not found: " + sagaId));
-        
-        sagaInstance.setStatus(status);
-        sagaInstanceRepository.save(sagaInstance);
-    }
-
-    private void recordStep(Long sagaId, String stepName, SagaConstants.SagaStepStatus status, String payload) {
-        SagaInstance sagaInstance = sagaInstanceRepository.findById(sagaId)
-                .orElseThrow(() -> new RuntimeException("Saga instance not found: " + sagaId));
-        
-        SagaStepInstance stepInstance = SagaStepInstance.builder()
-                .sagaInstance(sagaInstance)
-                .stepName(stepName)
-                .status(status)
-                .payload(payload != null ? payload : "")
-                .build();
-        
-        sagaStepInstanceRepository.save(stepInstance);
+        sagaStepWriter.updateSagaStatus(sagaId, status);
+        Optional<CachedSaga> saga = sagaStateCache.get(sagaId);
+        saga.ifPresent(cached -> sagaMetrics.sagaFinished(cached, status));
+        sagaStateCache.invalidate(sagaId);
+        // Saga statistics count finished sagas by name; only a saga evicted from the cache costs a lookup
+        String sagaName = saga.map(CachedSaga::getSagaName)
+                .orElseGet(() -> sagaInstanceRepository.findSagaNameById(sagaId).orElse(null));
+        publishTransition(sagaId, sagaName, null, status.name(), status != SagaConstants.SagaStatus.IN_PROGRESS);
+    }
+
+    private byte[] encode(Object payload) {
+        return payload != null ? stepPayloadCodec.encode(payload) : null;
+    }
+
+    private void recordStep(Long sagaId, String stepName, SagaConstants.SagaStepStatus status, byte[] payload,
+                            OutboxMessage command) {
+        Long stepId = sagaStepWriter.insertStep(sagaId, stepName, status, payload, command);
+        sagaStateCache.recordStep(sagaId, stepName, stepId);
+        sagaStateCache.markStepStarted(sagaId, stepName);
+        publishTransition(sagaId, cachedSagaName(sagaId), stepName, status.name(), false);
     }
     
-    private void updateStepStatus(Long sagaId, String stepName, SagaConstants.SagaStepStatus status, String payload) {
-        SagaInstance sagaInstance = sagaInstanceRepository.findById(sagaId)
-                .orElseThrow(() -> new RuntimeException("Saga instance not found: " + sagaId));
-        
-        // Find the most recent step with the given name
-        SagaStepInstance stepInstance = sagaStepInstanceRepository.findFirstBySagaInstanceAndStepNameOrderByCreatedAtDesc(sagaInstance, stepName)
-                .orElseThrow(() -> new RuntimeException("Step instance not found for saga " + sagaId + " and step: " + stepName));
-        
-        stepInstance.setStatus(status);
-        stepInstance.setPayload(payload != null ? payload : "");
-        sagaStepInstanceRepository.save(stepInstance);
+    private void updateStepStatus(Long sagaId, String stepName, SagaConstants.SagaStepStatus status, byte[] payload) {
+        // On a cache miss the writer falls back to looking the step up in the repository
+        Long stepId = sagaStateCache.findStepId(sagaId, stepName);
+        sagaStepWriter.updateStep(sagaId, stepName, stepId, status, payload);
+        publishTransition(sagaId, cachedSagaName(sagaId), stepName, status.name(), false);
+    }
+
+    private void recordStepDuration(Long sagaId, String stepName, SagaConstants.SagaStepStatus outcome) {
+        Optional<CachedSaga> saga = sagaStateCache.get(sagaId);
+        Long startedNanos = saga.map(cached -> cached.takeStepStartedNanos(stepName)).orElse(null);
+        if (startedNanos != null) {
+            sagaMetrics.stepFinished(saga.get().getSagaName(), stepName, outcome, System.nanoTime() - startedNanos);
+            return;
+        }
+        // Evicted, or cached again after a restart: leaving these out would bias the percentiles low under load
+        String sagaName = saga.map(CachedSaga::getSagaName)
+                .orElseGet(() -> sagaInstanceRepository.findSagaNameById(sagaId).orElse(null));
+        Optional<Duration> elapsed = sagaStepInstanceRepository.findLatestCreatedAt(sagaId, stepName)
+                .map(startedAt -> Duration.between(startedAt, LocalDateTime.now()));
+        // A row not flushed yet by the write-behind journal, or written by an instance with a clock ahead of ours
+        if (sagaName == null || elapsed.isEmpty() || elapsed.get().isNegative()) {
+            sagaMetrics.stepUnmeasured(stepName, outcome);
+            return;
+        }
+        sagaMetrics.stepFinished(sagaName, stepName, outcome, elapsed.get().toNanos());
+    }
+
+    private String cachedSagaName(Long sagaId) {
+        return sagaStateCache.get(sagaId).map(CachedSaga::getSagaName).orElse(null);
+    }
+
+    private void publishTransition(Long sagaId, String sagaName, String stepName, String status, boolean terminal) {
+        publishAfterCommit(List.of(new SagaTransition(sagaId, sagaName, stepName, status, terminal, LocalDateTime.now())));
+    }
+
+    private void publishAfterCommit(List<SagaTransition> transitions) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transitions.forEach(this::publishWhenWritten);
+            return;
+        }
+        // Watchers and statistics only see transitions that were committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                transitions.forEach(SagaStateManagerImpl.this::publishWhenWritten);
+            }
+        });
+    }
+
+    private void publishWhenWritten(SagaTransition transition) {
+        // A write-behind journal may not have written the transition yet, and must never be seen to lose it
+        sagaStepWriter.afterWritten(transition.sagaId(), () -> publish(transition));
+    }
+
+    private void publish(SagaTransition transition) {
+        sagaStatistics.record(transition);
+        sagaTransitionHub.publish(transition);
+        if (transition.terminal()) {
+            sagaCompletionWaiters.complete(transition.sagaId(), SagaConstants.SagaStatus.valueOf(transition.status()));
+        }
     }
 }
@@ -0,0 +1,49 @@
+package com.mystery.sagaorchestrator.service;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.service.outbox.OutboxMessage;
+
+/**
+ * Persistence strategy for saga and step state transitions used by {@link SagaStateManagerImpl}.
+ *
+ * Payloads arrive already encoded by the
+ * {@link com.mystery.sagaorchestrator.service.payload.StepPayloadCodec}.
+ * Implementations decide whether a transition is written immediately or buffered,
+ * see {@link com.mystery.sagaorchestrator.config.SagaJournalProperties.Mode}.
+ *
+ * @since 1.0.0
+ */
+public interface SagaStepWriter {
+
+    /**
+     * Insert a step row, together with the outbox row of its command in the same transaction.
+     *
+     * @param command the command to publish once the step is committed, or {@code null}
+     * @return the id of the inserted step row, or {@code null} if the row is not written yet
+     */
+    Long insertStep(Long sagaId, String stepName, SagaConstants.SagaStepStatus status, byte[] payload, OutboxMessage command);
+
+    /**
+     * Update the latest step named {@code stepName}. When {@code stepId} is known the row is
+     * updated by primary key, otherwise it is looked up by saga and step name.
+     */
+    void updateStep(Long sagaId, String stepName, Long stepId, SagaConstants.SagaStepStatus status, byte[] payload);
+
+    void updateSagaStatus(Long sagaId, SagaConstants.SagaStatus status);
+
+    /**
+     * Wait until every transition appended for the saga can be read back from the database.
+     * Writers that return only once a transition is committed have nothing to wait for.
+     */
+    default void awaitWritten(Long sagaId) {
+    }
+
+    /**
+     * Run {@code action} once every transition appended for the saga can be read back from the
+     * database, and not at all if writing one of them failed. Writers that return only once a
+     * transition is committed run it right away.
+     */
+    default void afterWritten(Long sagaId, Runnable action) {
+        action.run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.mystery.sagaorchestrator.service.archive;
+
+import com.mystery.sagaorchestrator.config.SagaArchiveProperties;
+import com.mystery.sagaorchestrator.repository.SagaArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves finished sagas out of the hot tables.
+ *
+ * Every {@code saga.archive.interval}, COMPLETED and ROLLED_BACK sagas created more than
+ * {@code saga.archive.min-age} ago are moved with their steps to {@code saga_instance_archive} and
+ * {@code saga_step_instance_archive}, {@code saga.archive.chunk-size} sagas per transaction, so
+ * {@code saga_instance} and {@code saga_step_instance} stay sized by in-flight and recent sagas.
+ * Chunks are locked with {@code SKIP LOCKED}, so several instances can archive concurrently.
+ *
+ * Archived sagas keep their ids and remain readable through
+ * {@link com.mystery.sagaorchestrator.service.SagaStateManager#getSagaInstanceById(Long)}.
+ * Moved sagas are counted as {@code saga.archive.archived}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "saga.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class SagaArchiver {
+
+    private final SagaArchiveProperties properties;
+    private final SagaArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archived;
+    private final ScheduledExecutorService scheduler;
+
+    public SagaArchiver(SagaArchiveProperties properties,
+                        SagaArchiveRepository archiveRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archived = Counter.builder("saga.archive.archived")
+                .description("Finished sagas moved to the archive tables")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saga-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void start() {
+        long intervalMillis = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::run, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Saga archiver started: minAge={}, interval={}, chunkSize={}",
+                properties.getMinAge(), properties.getInterval(), properties.getChunkSize());
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // Private helper methods
+
+    private void run() {
+        try {
+            long cutoff = System.currentTimeMillis() - properties.getMinAge().toMillis();
+            long moved = 0;
+            int count;
+            do {
+                count = archiveChunk(cutoff);
+                moved += count;
+                if (count == properties.getChunkSize()) {
+                    Thread.sleep(properties.getChunkPause().toMillis());
+                }
+            } while (count == properties.getChunkSize());
+            if (moved > 0) {
+                log.info("Archived {} finished sagas older than {}", moved, properties.getMinAge());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic task; the remaining sagas are picked up next run
+            log.error("Saga archiver run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private int archiveChunk(long cutoffMillis) {
+        Integer count = transactionTemplate.execute(status -> {
+            List<Long> sagaIds = archiveRepository.lockArchivable(cutoffMillis, properties.getChunkSize());
+            if (!sagaIds.isEmpty()) {
+                archiveRepository.moveToArchive(sagaIds);
+            }
+            return sagaIds.size();
+        });
+        archived.increment(count);
+        return count;
+    }
+}
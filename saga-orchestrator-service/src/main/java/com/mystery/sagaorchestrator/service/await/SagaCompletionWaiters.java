@@ -0,0 +1,123 @@
+package com.mystery.sagaorchestrator.service.await;
+
+import com.mystery.sagaorchestrator.config.SagaAwaitProperties;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Requests waiting for a saga to finish, keyed by saga id.
+ *
+ * A waiter is a {@link CompletableFuture} completed with the final status when the terminal
+ * transition of its saga commits on this instance, or with {@code null} once its wait runs out.
+ * Nothing blocks a thread while waiting. Either way the waiter leaves the map, and at most
+ * {@code saga.await.max-pending} waiters are held, so abandoned requests cannot pile up.
+ *
+ * The map is split into {@code saga.await.stripes} {@link ReentrantLock}-guarded stripes, which
+ * keeps lock hold times short and does not pin virtual threads. Pending waiters are exposed as
+ * {@code saga.await.pending}, waits that ran out as {@code saga.await.timeouts}.
+ */
+@Component
+public class SagaCompletionWaiters {
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Counter timeouts;
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, CompletableFuture<SagaConstants.SagaStatus>> waiters = new HashMap<>();
+    }
+
+    public SagaCompletionWaiters(SagaAwaitProperties properties, MeterRegistry meterRegistry) {
+        int count = Integer.highestOneBit(Math.max(1, properties.getStripes() - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+        this.maxPending = properties.getMaxPending();
+        this.timeouts = Counter.builder("saga.await.timeouts")
+                .description("Synchronous saga requests answered with 202 because the saga outlived the wait")
+                .register(meterRegistry);
+        Gauge.builder("saga.await.pending", pending, AtomicInteger::get)
+                .description("Requests waiting for their saga to finish")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start waiting for {@code sagaId} to finish.
+     *
+     * @return a future completed with the final status, or with {@code null} after {@code timeout};
+     *         {@code null} if too many requests are already waiting
+     */
+    public CompletableFuture<SagaConstants.SagaStatus> await(Long sagaId, Duration timeout) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            return null;
+        }
+        CompletableFuture<SagaConstants.SagaStatus> waiter = new CompletableFuture<>();
+        Stripe stripe = stripeOf(sagaId);
+        stripe.lock.lock();
+        try {
+            CompletableFuture<SagaConstants.SagaStatus> previous = stripe.waiters.put(sagaId, waiter);
+            if (previous != null) {
+                previous.complete(null);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        waiter.whenComplete((status, error) -> remove(sagaId, waiter, status == null));
+        return waiter.completeOnTimeout(null, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hand the final status of a saga to its waiter, if any.
+     */
+    public void complete(Long sagaId, SagaConstants.SagaStatus status) {
+        Stripe stripe = stripeOf(sagaId);
+        CompletableFuture<SagaConstants.SagaStatus> waiter;
+        stripe.lock.lock();
+        try {
+            waiter = stripe.waiters.get(sagaId);
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (waiter != null) {
+            waiter.complete(status);
+        }
+    }
+
+    // Private helper methods
+
+    private void remove(Long sagaId, CompletableFuture<SagaConstants.SagaStatus> waiter, boolean timedOut) {
+        Stripe stripe = stripeOf(sagaId);
+        stripe.lock.lock();
+        try {
+            stripe.waiters.remove(sagaId, waiter);
+        } finally {
+            stripe.lock.unlock();
+        }
+        pending.decrementAndGet();
+        if (timedOut) {
+            timeouts.increment();
+        }
+    }
+
+    private Stripe stripeOf(Long sagaId) {
+        long h = sagaId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 32) & mask];
+    }
+}
@@ -0,0 +1,54 @@
+package com.mystery.sagaorchestrator.service.cache;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lightweight in-memory view of an in-flight saga.
+ *
+ * Holds the row id of the most recent step recorded under each step name, so a step
+ * transition can be written as a primary-key update without looking the step up first.
+ * Also remembers when the saga and each pending step started, for
+ * {@link com.mystery.sagaorchestrator.service.metrics.SagaMetrics}.
+ */
+@Getter
+public class CachedSaga {
+
+    private final Long sagaId;
+    private final String sagaName;
+    private final long startedNanos;
+
+    private final Map<String, Long> stepIds = new ConcurrentHashMap<>(8);
+    private final Map<String, Long> stepStartedNanos = new ConcurrentHashMap<>(4);
+
+    public CachedSaga(Long sagaId, String sagaName) {
+        this(sagaId, sagaName, System.nanoTime());
+    }
+
+    public CachedSaga(Long sagaId, String sagaName, long startedNanos) {
+        this.sagaId = sagaId;
+        this.sagaName = sagaName;
+        this.startedNanos = startedNanos;
+    }
+
+    public Long getStepId(String stepName) {
+        return stepIds.get(stepName);
+    }
+
+    void putStepId(String stepName, Long stepId) {
+        stepIds.put(stepName, stepId);
+    }
+
+    void markStepStarted(String stepName) {
+        stepStartedNanos.put(stepName, System.nanoTime());
+    }
+
+    /**
+     * @return when the step started, or {@code null} if it was not started on this instance
+     */
+    public Long takeStepStartedNanos(String stepName) {
+        return stepStartedNanos.remove(stepName);
+    }
+}
@@ -0,0 +1,123 @@
+package com.mystery.sagaorchestrator.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mystery.sagaorchestrator.config.SagaCacheProperties;
+import com.mystery.sagaorchestrator.entity.SagaInstance;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, size- and TTL-evicting cache of in-flight sagas owned by this orchestrator.
+ *
+ * Entries are created when a saga starts, carry a step-name to step-row-id index, and are
+ * dropped as soon as the saga reaches a terminal status. A miss is never an error: callers
+ * fall back to the repository. Hit, miss and eviction counts are published as
+ * {@code cache.*} metrics with tag {@code cache=saga.state}.
+ *
+ * The number of cached sagas per saga name is published as the {@code saga.inflight} gauge.
+ * It counts sagas started on this instance that have not finished; a saga finished by another
+ * instance is counted until its entry expires.
+ */
+@Component
+public class SagaStateCache {
+
+    private final Cache<Long, CachedSaga> cache;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicLong> inFlightBySagaName = new ConcurrentHashMap<>();
+
+    public SagaStateCache(SagaCacheProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterAccess(properties.getTtl())
+                .<Long, CachedSaga>removalListener((sagaId, cachedSaga, cause) -> {
+                    if (cachedSaga != null) {
+                        inFlight(cachedSaga.getSagaName()).decrementAndGet();
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "saga.state");
+    }
+
+    public void put(SagaInstance sagaInstance) {
+        inFlight(sagaInstance.getSagaName()).incrementAndGet();
+        cache.put(sagaInstance.getId(),
+                new CachedSaga(sagaInstance.getId(), sagaInstance.getSagaName()));
+    }
+
+    /**
+     * Re-create the entry of a saga found in flight after a restart, unless it is cached already.
+     * Its start time is estimated from {@code createdAt}; the latest step's id is remembered.
+     */
+    public void restore(Long sagaId, String sagaName, LocalDateTime createdAt, String stepName, Long stepId) {
+        long ageNanos = createdAt != null ? Duration.between(createdAt, LocalDateTime.now()).toNanos() : 0;
+        CachedSaga restored = new CachedSaga(sagaId, sagaName, System.nanoTime() - Math.max(0, ageNanos));
+        if (cache.asMap().putIfAbsent(sagaId, restored) == null) {
+            inFlight(sagaName).incrementAndGet();
+            if (stepName != null && stepId != null) {
+                restored.putStepId(stepName, stepId);
+            }
+        }
+    }
+
+    public Optional<CachedSaga> get(Long sagaId) {
+        return Optional.ofNullable(cache.getIfPresent(sagaId));
+    }
+
+    /**
+     * Remember the row id of the latest step recorded under {@code stepName}.
+     */
+    public void recordStep(Long sagaId, String stepName, Long stepId) {
+        CachedSaga cachedSaga = cache.getIfPresent(sagaId);
+        if (cachedSaga != null && stepId != null) {
+            cachedSaga.putStepId(stepName, stepId);
+        }
+    }
+
+    /**
+     * Remember when the step was started, so its latency can be measured when the reply arrives.
+     */
+    public void markStepStarted(Long sagaId, String stepName) {
+        CachedSaga cachedSaga = cache.getIfPresent(sagaId);
+        if (cachedSaga != null) {
+            cachedSaga.markStepStarted(stepName);
+        }
+    }
+
+    /**
+     * @return the row id of the latest step with this name, or {@code null} on a miss
+     */
+    public Long findStepId(Long sagaId, String stepName) {
+        CachedSaga cachedSaga = cache.getIfPresent(sagaId);
+        return cachedSaga != null ? cachedSaga.getStepId(stepName) : null;
+    }
+
+    /**
+     * Drop a saga that reached a terminal status; only in-flight sagas are hot.
+     */
+    public void invalidate(Long sagaId) {
+        cache.invalidate(sagaId);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // Private helper methods
+
+    private AtomicLong inFlight(String sagaName) {
+        return inFlightBySagaName.computeIfAbsent(sagaName, name -> meterRegistry.gauge("saga.inflight",
+                Tags.of("saga", name), new AtomicLong()));
+    }
+}
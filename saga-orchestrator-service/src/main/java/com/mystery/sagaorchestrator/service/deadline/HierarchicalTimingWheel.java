@@ -0,0 +1,211 @@
+package com.mystery.sagaorchestrator.service.deadline;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical hashed timing wheel.
+ *
+ * Level 0 has {@code wheelSize} buckets of {@code tickMillis} each; every further level is created
+ * on demand with a tick equal to the full span of the level below, so any deadline is accepted
+ * with O(1) schedule and cancel. Timers of an upper level cascade down one level each time the
+ * clock reaches their bucket, so a timer is moved at most once per level before it fires.
+ *
+ * Timers fire no earlier than their deadline and at most one tick after it, measured against the
+ * time passed to {@link #advance(long, Consumer)}. Not thread-safe; callers serialize access.
+ *
+ * @param <T> the task carried by each timer
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final Level<T> root;
+    private final Bucket<T> due = new Bucket<>();
+    private long pending;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMillis must be positive and wheelSize greater than 1");
+        }
+        this.root = new Level<>(tickMillis, wheelSize, startMillis);
+    }
+
+    /**
+     * A scheduled task; pass it to {@link #cancel(Timeout)} to drop it before it fires.
+     */
+    public static final class Timeout<T> {
+
+        private final long expiration;
+        private final T task;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(long expiration, T task) {
+            this.expiration = expiration;
+            this.task = task;
+        }
+
+        public T task() {
+            return task;
+        }
+
+        public boolean isPending() {
+            return bucket != null;
+        }
+    }
+
+    /**
+     * Schedule {@code task} to fire once the clock passes {@code deadlineMillis}. Deadlines that
+     * are already due fire on the next {@link #advance(long, Consumer)}.
+     */
+    public Timeout<T> schedule(long deadlineMillis, T task) {
+        // Shift by one tick so rounding down to a bucket can never fire a timer early
+        Timeout<T> timeout = new Timeout<>(deadlineMillis + root.tickMillis, task);
+        if (!root.add(timeout)) {
+            due.add(timeout);
+        }
+        pending++;
+        return timeout;
+    }
+
+    /**
+     * @return {@code true} if the timer was still pending and will no longer fire
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        pending--;
+        return true;
+    }
+
+    /**
+     * Move the clock to {@code nowMillis}, handing the task of every timer that became due to {@code expired}.
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        Consumer<Timeout<T>> reinsert = timeout -> {
+            if (!root.add(timeout)) {
+                pending--;
+                expired.accept(timeout.task);
+            }
+        };
+        due.drainTo(reinsert);
+
+        if (pending == 0) {
+            // Nothing to cascade, jump straight to the current time
+            root.advanceClock(nowMillis);
+            return;
+        }
+        for (long time = root.currentTime + root.tickMillis; time <= nowMillis; time += root.tickMillis) {
+            root.advanceClock(time);
+            // Every level whose tick boundary was reached hands its current bucket one level down
+            for (Level<T> level = root; level != null && time % level.tickMillis == 0; level = level.overflow) {
+                level.bucketFor(time).drainTo(reinsert);
+            }
+        }
+    }
+
+    public long size() {
+        return pending;
+    }
+
+    // Private helper classes
+
+    private static final class Level<T> {
+
+        private final long tickMillis;
+        private final int wheelSize;
+        private final long intervalMillis;
+        private final Bucket<T>[] buckets;
+        private long currentTime;
+        private Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMillis, int wheelSize, long startMillis) {
+            this.tickMillis = tickMillis;
+            this.wheelSize = wheelSize;
+            this.intervalMillis = tickMillis * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket<>();
+            }
+            this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+        }
+
+        /**
+         * @return {@code false} if the timer expires within the current tick of this level
+         */
+        private boolean add(Timeout<T> timeout) {
+            long expiration = timeout.expiration;
+            if (expiration < currentTime + tickMillis) {
+                return false;
+            }
+            if (expiration < currentTime + intervalMillis) {
+                bucketFor(expiration).add(timeout);
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level<>(intervalMillis, wheelSize, currentTime);
+            }
+            return overflow.add(timeout);
+        }
+
+        private void advanceClock(long timeMillis) {
+            if (timeMillis >= currentTime + tickMillis) {
+                currentTime = timeMillis - Math.floorMod(timeMillis, tickMillis);
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+
+        private Bucket<T> bucketFor(long timeMillis) {
+            return buckets[(int) Math.floorMod(Math.floorDiv(timeMillis, tickMillis), (long) wheelSize)];
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list of timers around a sentinel node.
+     */
+    private static final class Bucket<T> {
+
+        private final Timeout<T> head = new Timeout<>(0, null);
+
+        private Bucket() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        private void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = head.prev;
+            timeout.next = head;
+            head.prev.next = timeout;
+            head.prev = timeout;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            timeout.prev.next = timeout.next;
+            timeout.next.prev = timeout.prev;
+            unlink(timeout);
+        }
+
+        private void drainTo(Consumer<Timeout<T>> consumer) {
+            Timeout<T> timeout = head.next;
+            head.prev = head;
+            head.next = head;
+            while (timeout != head) {
+                Timeout<T> next = timeout.next;
+                unlink(timeout);
+                consumer.accept(timeout);
+                timeout = next;
+            }
+        }
+
+        private static <T> void unlink(Timeout<T> timeout) {
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
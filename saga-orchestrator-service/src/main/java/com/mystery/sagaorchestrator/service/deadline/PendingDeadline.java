@@ -0,0 +1,11 @@
+package com.mystery.sagaorchestrator.service.deadline;
+
+/**
+ * A deadline armed for a STARTED step; {@code attempt} counts retries already sent.
+ */
+public record PendingDeadline(Long sagaId,
+                              String sagaName,
+                              String stepName,
+                              long deadlineMillis,
+                              int attempt) {
+}
@@ -0,0 +1,271 @@
+package com.mystery.sagaorchestrator.service.deadline;
+
+import com.mystery.sagaorchestrator.config.SagaDeadlineProperties;
+import com.mystery.sagaorchestrator.repository.SagaStepDeadlineRepository;
+import com.mystery.sagaorchestrator.saga.SagaStep;
+import com.mystery.sagaorchestrator.saga.StepDeadline;
+import com.mystery.sagaorchestrator.service.dispatch.SagaEventDispatcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stuck-saga detector.
+ *
+ * Each STARTED step with a deadline gets a timer in an in-memory {@link HierarchicalTimingWheel}
+ * and a row in {@code saga_step_deadline}; both are dropped when the step completes or fails.
+ * On startup the rows are reloaded into the wheel, so deadlines survive restarts.
+ *
+ * A single ticker thread advances the wheel every {@code saga.deadline.tick}. Expired deadlines
+ * are claimed in the database and handed to the {@link StepTimeoutHandler} of their saga on the
+ * saga's dispatcher lane, so they never race with events of the same saga. Timed-out steps are
+ * counted as {@code saga.step.timeouts}, tagged by saga, step and action taken.
+ */
+@Slf4j
+@Component
+public class StepDeadlineScheduler {
+
+    private final SagaDeadlineProperties properties;
+    private final SagaStepDeadlineRepository deadlineRepository;
+    private final ObjectProvider<StepTimeoutHandler> timeoutHandlers;
+    private final SagaEventDispatcher sagaEventDispatcher;
+    private final MeterRegistry meterRegistry;
+    private final HierarchicalTimingWheel<PendingDeadline> wheel;
+    // Timers by saga id and step name, guarded by the wheel
+    private final Map<Long, Map<String, HierarchicalTimingWheel.Timeout<PendingDeadline>>> timers = new HashMap<>();
+    private final ScheduledExecutorService ticker;
+    private volatile Map<String, StepTimeoutHandler> handlersBySagaName;
+
+    public StepDeadlineScheduler(SagaDeadlineProperties properties,
+                                 SagaStepDeadlineRepository deadlineRepository,
+                                 ObjectProvider<StepTimeoutHandler> timeoutHandlers,
+                                 SagaEventDispatcher sagaEventDispatcher,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.deadlineRepository = deadlineRepository;
+        this.timeoutHandlers = timeoutHandlers;
+        this.sagaEventDispatcher = sagaEventDispatcher;
+        this.meterRegistry = meterRegistry;
+        this.wheel = new HierarchicalTimingWheel<>(
+                properties.getTick().toMillis(), properties.getWheelSize(), System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saga-deadline-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("saga.deadline.pending", this, StepDeadlineScheduler::pendingCount)
+                .description("Saga step deadlines currently armed on this instance")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            log.info("Saga step deadlines are disabled");
+            return;
+        }
+        long recovered = recover();
+        long tickMillis = properties.getTick().toMillis();
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        log.info("Saga step deadline scheduler started: tick={}, wheelSize={}, recovered={}",
+                properties.getTick(), properties.getWheelSize(), recovered);
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Effective deadline of a step: the enum default with any {@code saga.deadline.steps} override applied.
+     */
+    public StepDeadline resolve(SagaStep step) {
+        SagaDeadlineProperties.StepOverride override = properties.getSteps().get(step.getStepName());
+        return override != null ? override.applyTo(step.getDeadline()) : step.getDeadline();
+    }
+
+    /**
+     * Start (or restart) the deadline of a step that was just STARTED or retried.
+     */
+    public void arm(String sagaName, Long sagaId, String stepName, StepDeadline deadline, int attempt) {
+        if (!properties.isEnabled() || !deadline.isEnabled()) {
+            return;
+        }
+        PendingDeadline pending = new PendingDeadline(sagaId, sagaName, stepName,
+                System.currentTimeMillis() + deadline.timeout().toMillis(), attempt);
+        deadlineRepository.save(pending);
+        schedule(pending);
+    }
+
+    /**
+     * Start the deadline of the same step for many sagas at once, with one batched write.
+     */
+    public void armAll(String sagaName, List<Long> sagaIds, String stepName, StepDeadline deadline) {
+        if (!properties.isEnabled() || !deadline.isEnabled() || sagaIds.isEmpty()) {
+            return;
+        }
+        long deadlineMillis = System.currentTimeMillis() + deadline.timeout().toMillis();
+        List<PendingDeadline> pending = sagaIds.stream()
+                .map(sagaId -> new PendingDeadline(sagaId, sagaName, stepName, deadlineMillis, 0))
+                .toList();
+        deadlineRepository.saveAll(pending);
+        pending.forEach(this::schedule);
+    }
+
+    /**
+     * Drop the deadline of a step that received its reply.
+     */
+    public void disarm(Long sagaId, String stepName, StepDeadline deadline) {
+        if (!properties.isEnabled() || !deadline.isEnabled()) {
+            return;
+        }
+        synchronized (wheel) {
+            Map<String, HierarchicalTimingWheel.Timeout<PendingDeadline>> sagaTimers = timers.get(sagaId);
+            if (sagaTimers != null) {
+                cancel(sagaTimers.remove(stepName));
+                if (sagaTimers.isEmpty()) {
+                    timers.remove(sagaId);
+                }
+            }
+        }
+        // Always delete: the step may have been armed by another instance
+        deadlineRepository.delete(sagaId, stepName);
+    }
+
+    /**
+     * Drop every deadline of a saga that reached a terminal status.
+     */
+    public void disarmAll(Long sagaId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        synchronized (wheel) {
+            Map<String, HierarchicalTimingWheel.Timeout<PendingDeadline>> sagaTimers = timers.remove(sagaId);
+            if (sagaTimers != null) {
+                sagaTimers.values().forEach(this::cancel);
+            }
+        }
+        deadlineRepository.deleteBySagaId(sagaId);
+    }
+
+    // Private helper methods
+
+    private long recover() {
+        long recovered = 0;
+        long lastSagaId = 0;
+        String lastStepName = "";
+        List<PendingDeadline> page;
+        do {
+            page = deadlineRepository.findAfter(lastSagaId, lastStepName, properties.getRecoveryBatchSize());
+            page.forEach(this::schedule);
+            recovered += page.size();
+            if (!page.isEmpty()) {
+                PendingDeadline last = page.get(page.size() - 1);
+                lastSagaId = last.sagaId();
+                lastStepName = last.stepName();
+            }
+        } while (page.size() == properties.getRecoveryBatchSize());
+        return recovered;
+    }
+
+    private void schedule(PendingDeadline pending) {
+        synchronized (wheel) {
+            HierarchicalTimingWheel.Timeout<PendingDeadline> timeout = wheel.schedule(pending.deadlineMillis(), pending);
+            cancel(timers.computeIfAbsent(pending.sagaId(), id -> new HashMap<>()).put(pending.stepName(), timeout));
+        }
+    }
+
+    private void cancel(HierarchicalTimingWheel.Timeout<PendingDeadline> timeout) {
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    private void forget(PendingDeadline pending) {
+        Map<String, HierarchicalTimingWheel.Timeout<PendingDeadline>> sagaTimers = timers.get(pending.sagaId());
+        HierarchicalTimingWheel.Timeout<PendingDeadline> current = sagaTimers != null ? sagaTimers.get(pending.stepName()) : null;
+        if (current != null && current.task() == pending) {
+            sagaTimers.remove(pending.stepName());
+            if (sagaTimers.isEmpty()) {
+                timers.remove(pending.sagaId());
+            }
+        }
+    }
+
+    private void tick() {
+        List<PendingDeadline> expired = new ArrayList<>();
+        try {
+            synchronized (wheel) {
+                wheel.advance(System.currentTimeMillis(), pending -> {
+                    expired.add(pending);
+                    forget(pending);
+                });
+            }
+            expired.forEach(pending -> sagaEventDispatcher.dispatch(pending.sagaId(), () -> expire(pending)));
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic task; unhandled rows are picked up again on restart
+            log.error("Saga deadline tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void expire(PendingDeadline pending) {
+        try {
+            if (!deadlineRepository.claim(pending)) {
+                log.debug("Deadline of step '{}' for saga {} already handled", pending.stepName(), pending.sagaId());
+                return;
+            }
+            StepTimeoutHandler handler = handlers().get(pending.sagaName());
+            if (handler == null) {
+                log.error("No timeout handler for saga {} ({}), dropping deadline of step '{}'",
+                        pending.sagaId(), pending.sagaName(), pending.stepName());
+                return;
+            }
+            StepDeadline.Action action = handler.onStepTimeout(pending.sagaId(), pending.stepName(), pending.attempt());
+            timeoutCounter(pending, action).increment();
+        } catch (Exception e) {
+            log.error("Error handling deadline of step '{}' for saga {}: {}",
+                    pending.stepName(), pending.sagaId(), e.getMessage(), e);
+        }
+    }
+
+    private Map<String, StepTimeoutHandler> handlers() {
+        // Resolved lazily: the sagas themselves depend on this scheduler
+        Map<String, StepTimeoutHandler> handlers = handlersBySagaName;
+        if (handlers == null) {
+            handlers = timeoutHandlers.orderedStream()
+                    .collect(Collectors.toMap(StepTimeoutHandler::getSagaName, Function.identity()));
+            handlersBySagaName = handlers;
+        }
+        return handlers;
+    }
+
+    private Counter timeoutCounter(PendingDeadline pending, StepDeadline.Action action) {
+        return Counter.builder("saga.step.timeouts")
+                .description("Saga steps whose deadline expired, by action taken")
+                .tag("saga", pending.sagaName())
+                .tag("step", pending.stepName())
+                .tag("action", action.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    private long pendingCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mystery.sagaorchestrator.service.deadline;
+
+import com.mystery.sagaorchestrator.saga.StepDeadline;
+
+/**
+ * Reacts to a saga step whose deadline expired; implemented by every saga.
+ *
+ * @since 1.0.0
+ */
+public interface StepTimeoutHandler {
+
+    String getSagaName();
+
+    /**
+     * Retry or compensate the stuck step.
+     *
+     * @param attempt number of retries already sent for this step
+     * @return the action that was taken
+     */
+    StepDeadline.Action onStepTimeout(Long sagaId, String stepName, int attempt);
+}
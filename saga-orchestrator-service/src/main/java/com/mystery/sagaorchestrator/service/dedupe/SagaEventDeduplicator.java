@@ -0,0 +1,186 @@
+package com.mystery.sagaorchestrator.service.dedupe;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mystery.common.saga.event.BaseEvent;
+import com.mystery.sagaorchestrator.config.SagaDedupeProperties;
+import com.mystery.sagaorchestrator.repository.SagaProcessedEventRepository;
+import com.mystery.sagaorchestrator.repository.SagaProcessedEventRepository.ProcessedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drops redelivered saga events by {@link BaseEvent#getEventId()}.
+ *
+ * The check never reads the database for an event seen for the first time: ids processed
+ * recently are held exactly in a bounded LRU, and older ones in a Bloom filter, so only a Bloom
+ * filter hit (a real duplicate or a rare false positive) is confirmed against
+ * {@code saga_processed_event}. Processed ids are written to that table in batches every
+ * {@code saga.dedupe.flush-interval}; rows written by other instances are loaded into the Bloom
+ * filter every {@code saga.dedupe.sync-interval}, so redeliveries after a partition moves are
+ * caught too.
+ *
+ * The Bloom filter cannot forget, so it is kept as two generations rotated every half
+ * {@code saga.dedupe.ttl}; rows older than the TTL are deleted. Dropped events are counted as
+ * {@code saga.events.duplicates} (tag {@code saga}).
+ */
+@Slf4j
+@Component
+public class SagaEventDeduplicator {
+
+    private final SagaDedupeProperties properties;
+    private final SagaProcessedEventRepository processedEventRepository;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Boolean> recent;
+    private final Queue<ProcessedEvent> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile StringBloomFilter current;
+    private volatile StringBloomFilter previous;
+    // Highest saga_processed_event id loaded into the Bloom filter, only touched by the scheduler
+    private long lastSyncedId;
+
+    public SagaEventDeduplicator(SagaDedupeProperties properties,
+                                 SagaProcessedEventRepository processedEventRepository,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.processedEventRepository = processedEventRepository;
+        this.meterRegistry = meterRegistry;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(properties.getRecentSize())
+                .build();
+        this.current = newBloomFilter();
+        this.previous = newBloomFilter();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saga-dedupe");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            log.info("Saga event deduplication is disabled");
+            return;
+        }
+        long loaded = sync();
+        schedule(this::flush, properties.getFlushInterval().toMillis());
+        schedule(this::sync, properties.getSyncInterval().toMillis());
+        schedule(this::rotate, properties.getTtl().toMillis() / 2);
+        schedule(this::cleanup, properties.getCleanupInterval().toMillis());
+        log.info("Saga event deduplication started: ttl={}, recentSize={}, expectedEvents={}, loaded={}",
+                properties.getTtl(), properties.getRecentSize(), properties.getExpectedEvents(), loaded);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    /**
+     * @return {@code true} if this event was already handled and must be dropped
+     */
+    public boolean isDuplicate(String sagaName, BaseEvent event) {
+        String eventId = event.getEventId();
+        if (!properties.isEnabled() || eventId == null) {
+            return false;
+        }
+        boolean duplicate = recent.getIfPresent(eventId) != null
+                || ((current.mightContain(eventId) || previous.mightContain(eventId))
+                        && processedEventRepository.exists(eventId));
+        if (duplicate) {
+            log.warn("Dropping duplicate {} {} for saga {}", event.getEventType(), eventId, event.getSagaId());
+            meterRegistry.counter("saga.events.duplicates", "saga", sagaName).increment();
+        }
+        return duplicate;
+    }
+
+    /**
+     * Remember a handled event; it is written to the database with the next flush.
+     */
+    public void markProcessed(BaseEvent event) {
+        String eventId = event.getEventId();
+        if (!properties.isEnabled() || eventId == null) {
+            return;
+        }
+        recent.put(eventId, Boolean.TRUE);
+        current.put(eventId);
+        pending.add(new ProcessedEvent(eventId, event.getSagaId(), System.currentTimeMillis()));
+    }
+
+    // Private helper methods
+
+    private StringBloomFilter newBloomFilter() {
+        return new StringBloomFilter(properties.getExpectedEvents(), properties.getFalsePositiveRate());
+    }
+
+    private void schedule(Runnable task, long periodMillis) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // Never let an exception cancel the periodic task
+                log.error("Saga event deduplication task failed: {}", e.getMessage(), e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        List<ProcessedEvent> batch = new ArrayList<>(properties.getBatchSize());
+        ProcessedEvent event;
+        while ((event = pending.poll()) != null) {
+            batch.add(event);
+            if (batch.size() == properties.getBatchSize()) {
+                processedEventRepository.insertAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            processedEventRepository.insertAll(batch);
+        }
+    }
+
+    private long sync() {
+        long[] loaded = {0};
+        long lastId;
+        do {
+            lastId = lastSyncedId;
+            StringBloomFilter filter = current;
+            lastSyncedId = processedEventRepository.findAfter(lastId, properties.getBatchSize(), eventId -> {
+                filter.put(eventId);
+                loaded[0]++;
+            });
+        } while (lastSyncedId > lastId);
+        return loaded[0];
+    }
+
+    private void rotate() {
+        previous = current;
+        current = newBloomFilter();
+    }
+
+    private void cleanup() {
+        long cutoff = System.currentTimeMillis() - properties.getTtl().toMillis();
+        long deleted = 0;
+        int count;
+        do {
+            count = processedEventRepository.deleteProcessedBefore(cutoff, properties.getBatchSize());
+            deleted += count;
+        } while (count == properties.getBatchSize());
+        if (deleted > 0) {
+            log.info("Deleted {} processed saga event ids older than {}", deleted, properties.getTtl());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.mystery.sagaorchestrator.service.dispatch;
+
+import com.mystery.sagaorchestrator.config.SagaDispatcherProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs saga work on a fixed set of lanes, each drained by its own virtual thread.
+ *
+ * A saga always maps to the same lane, so everything submitted for one saga runs strictly in
+ * submission order, while different sagas run in parallel across lanes. A full lane blocks the
+ * submitting thread, which pushes back on the binder instead of buffering without bound.
+ *
+ * Binder threads hand events over with {@link #dispatchAndWait(Long, Runnable)} and only return,
+ * letting the binder commit the offset, once the event was handled; events are thus never
+ * acknowledged while they sit on a lane. Parallelism across sagas comes from the binder consumer
+ * concurrency, while the lanes keep the events, deadlines and recoveries of one saga in order.
+ *
+ * The dispatcher stops after the input bindings, see {@link #getPhase()}, so no event arrives
+ * once it started to drain its lanes.
+ *
+ * Lane depth is published as {@code saga.dispatcher.lane.depth} (tag {@code lane}) and time spent
+ * queued as {@code saga.dispatcher.queue.wait}.
+ */
+@Slf4j
+@Component
+public class SagaEventDispatcher implements SmartLifecycle {
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    // Below the phase of Spring Cloud Stream input bindings (Integer.MAX_VALUE - 2048), which therefore stop first
+    private static final int PHASE = Integer.MAX_VALUE - 4096;
+
+    private final SagaDispatcherProperties properties;
+    private final BlockingQueue<QueuedTask>[] lanes;
+    private final CountDownLatch stopped;
+    private final Timer queueWaitTimer;
+    private volatile boolean running = true;
+
+    private record QueuedTask(Long sagaId, Runnable task, long enqueuedNanos) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public SagaEventDispatcher(SagaDispatcherProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        int laneCount = properties.isEnabled() ? properties.getLanes() : 0;
+        this.lanes = new BlockingQueue[laneCount];
+        this.stopped = new CountDownLatch(laneCount);
+        this.queueWaitTimer = Timer.builder("saga.dispatcher.queue.wait")
+                .description("Time saga events spend queued on their lane")
+                .register(meterRegistry);
+
+        for (int i = 0; i < laneCount; i++) {
+            BlockingQueue<QueuedTask> lane = new LinkedBlockingQueue<>(properties.getLaneCapacity());
+            lanes[i] = lane;
+            Gauge.builder("saga.dispatcher.lane.depth", lane, BlockingQueue::size)
+                    .description("Saga events waiting on a dispatcher lane")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+            Thread.ofVirtual().name("saga-lane-" + i).start(() -> drain(lane));
+        }
+        log.info("Saga event dispatcher started: enabled={}, lanes={}, laneCapacity={}",
+                properties.isEnabled(), laneCount, properties.getLaneCapacity());
+    }
+
+    /**
+     * Queue {@code task} behind everything already submitted for the same saga.
+     */
+    public void dispatch(Long sagaId, Runnable task) {
+        if (lanes.length == 0 || sagaId == null) {
+            task.run();
+            return;
+        }
+        if (!running) {
+            throw new IllegalStateException("Saga event dispatcher is shut down, rejecting work for saga " + sagaId);
+        }
+        try {
+            lanes[laneOf(sagaId)].put(new QueuedTask(sagaId, task, System.nanoTime()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing work for saga " + sagaId, e);
+        }
+    }
+
+    /**
+     * Queue {@code task} as by {@link #dispatch(Long, Runnable)} and wait until it has run.
+     *
+     * @throws RuntimeException the exception thrown by {@code task}, so the binder redelivers the event
+     */
+    public void dispatchAndWait(Long sagaId, Runnable task) {
+        if (lanes.length == 0 || sagaId == null) {
+            task.run();
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        dispatch(sagaId, () -> {
+            try {
+                task.run();
+                done.complete(null);
+            } catch (RuntimeException e) {
+                // Rethrown on the waiting binder thread, not logged by the lane
+                done.completeExceptionally(e);
+            }
+        });
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for work of saga " + sagaId, e);
+        } catch (ExecutionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    @Override
+    public void start() {
+        // Lanes are draining from construction on, so deadlines and recovery can dispatch before the bindings start
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            if (!stopped.await(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Saga event dispatcher stopped with events still queued");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    // Private helper methods
+
+    private int laneOf(Long sagaId) {
+        // Spread sequential ids so neighbouring sagas do not share a lane
+        return Math.floorMod(Long.hashCode(sagaId * 0x9E3779B97F4A7C15L), lanes.length);
+    }
+
+    private void drain(BlockingQueue<QueuedTask> lane) {
+        try {
+            // On shutdown, keep going until what is already queued has been processed
+            while (running || !lane.isEmpty()) {
+                QueuedTask queued = lane.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (queued != null) {
+                    run(queued);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stopped.countDown();
+        }
+    }
+
+    private void run(QueuedTask queued) {
+        queueWaitTimer.record(System.nanoTime() - queued.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        try {
+            queued.task().run();
+        } catch (Exception e) {
+            // A failing event must not stop the lane; handlers log and fail their saga themselves
+            log.error("Unhandled error processing event for saga {}: {}", queued.sagaId(), e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.mystery.sagaorchestrator.service.id;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out ids of saga rows written through plain JDBC, from the same
+ * {@link SagaConstants#ID_SEQUENCE_TABLE} rows the entities' pooled-lo table generators use.
+ *
+ * Ids are reserved {@link SagaConstants#ID_ALLOCATION_SIZE} at a time (or all at once for a
+ * larger bulk request) with one autocommitted {@code UPDATE}, outside of any caller transaction,
+ * so reservations never hold the sequence row locked. Ids are unique across instances but only
+ * roughly ordered; listings order by {@code created_at} first.
+ *
+ * On startup each sequence row is created if missing, starting after the highest id already in
+ * use (archived rows included), so it takes over from the former AUTO_INCREMENT ids.
+ *
+ * Databases other than MySQL (H2 in the benchmark) have no {@code LAST_INSERT_ID(expr)}; there the
+ * sequence row is read with {@code SELECT ... FOR UPDATE} and advanced in a short transaction instead.
+ */
+@Slf4j
+@Component
+// Seeding needs the tables, which Hibernate creates or updates on startup
+@DependsOn("entityManagerFactory")
+public class SagaIdAllocator {
+
+    // LAST_INSERT_ID(expr) makes the new value readable on this connection without another lock
+    private static final String RESERVE_SQL =
+            "UPDATE " + SagaConstants.ID_SEQUENCE_TABLE + " SET next_val = LAST_INSERT_ID(next_val + ?) WHERE sequence_name = ?";
+
+    private static final String LOCK_SQL =
+            "SELECT next_val FROM " + SagaConstants.ID_SEQUENCE_TABLE + " WHERE sequence_name = ? FOR UPDATE";
+
+    private static final String ADVANCE_SQL =
+            "UPDATE " + SagaConstants.ID_SEQUENCE_TABLE + " SET next_val = next_val + ? WHERE sequence_name = ?";
+
+    private static final String SEED_SQL =
+            "INSERT IGNORE INTO " + SagaConstants.ID_SEQUENCE_TABLE + " (sequence_name, next_val) " +
+            "SELECT ?, GREATEST((SELECT COALESCE(MAX(id), 0) FROM %s), (SELECT COALESCE(MAX(id), 0) FROM %s)) + 1";
+
+    private final DataSource dataSource;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+    private boolean lastInsertIdSupported;
+
+    public SagaIdAllocator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    void seed() {
+        lastInsertIdSupported = supportsLastInsertId();
+        seed(SagaConstants.SAGA_INSTANCE_ID_SEQUENCE, "saga_instance", "saga_instance_archive");
+        seed(SagaConstants.SAGA_STEP_INSTANCE_ID_SEQUENCE, "saga_step_instance", "saga_step_instance_archive");
+    }
+
+    /**
+     * @return the next id of {@code sequence}
+     */
+    public long next(String sequence) {
+        return blocks.computeIfAbsent(sequence, Block::new).next();
+    }
+
+    /**
+     * Reserve {@code count} ids of {@code sequence} at once.
+     *
+     * @return the ids, in ascending order
+     */
+    public long[] next(String sequence, int count) {
+        long[] ids = new long[count];
+        if (count < SagaConstants.ID_ALLOCATION_SIZE) {
+            Block block = blocks.computeIfAbsent(sequence, Block::new);
+            for (int i = 0; i < count; i++) {
+                ids[i] = block.next();
+            }
+            return ids;
+        }
+        long first = reserve(sequence, count);
+        for (int i = 0; i < count; i++) {
+            ids[i] = first + i;
+        }
+        return ids;
+    }
+
+    // Private helper methods
+
+    /**
+     * @return the first of {@code count} consecutive ids now owned by the caller
+     */
+    private long reserve(String sequence, int count) {
+        // A connection of its own, so the reservation commits even if the caller's transaction rolls back
+        try (Connection connection = dataSource.getConnection()) {
+            if (!lastInsertIdSupported) {
+                return reserveLocked(connection, sequence, count);
+            }
+            connection.setAutoCommit(true);
+            try (PreparedStatement reserve = connection.prepareStatement(RESERVE_SQL)) {
+                reserve.setInt(1, count);
+                reserve.setString(2, sequence);
+                if (reserve.executeUpdate() != 1) {
+                    throw new IllegalStateException("Id sequence not found: " + sequence);
+                }
+            }
+            try (PreparedStatement select = connection.prepareStatement("SELECT LAST_INSERT_ID()");
+                 ResultSet rs = select.executeQuery()) {
+                rs.next();
+                return rs.getLong(1) - count;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot reserve ids of " + sequence, e);
+        }
+    }
+
+    private long reserveLocked(Connection connection, String sequence, int count) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            long first;
+            try (PreparedStatement lock = connection.prepareStatement(LOCK_SQL)) {
+                lock.setString(1, sequence);
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new IllegalStateException("Id sequence not found: " + sequence);
+                    }
+                    first = rs.getLong(1);
+                }
+            }
+            try (PreparedStatement advance = connection.prepareStatement(ADVANCE_SQL)) {
+                advance.setInt(1, count);
+                advance.setString(2, sequence);
+                advance.executeUpdate();
+            }
+            connection.commit();
+            return first;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private boolean supportsLastInsertId() {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            return "MySQL".equalsIgnoreCase(product) || "MariaDB".equalsIgnoreCase(product);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read database metadata", e);
+        }
+    }
+
+    private void seed(String sequence, String table, String archiveTable) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement seed = connection.prepareStatement(SEED_SQL.formatted(table, archiveTable))) {
+            connection.setAutoCommit(true);
+            seed.setString(1, sequence);
+            if (seed.executeUpdate() == 1) {
+                log.info("Created id sequence {} after the highest id of {}", sequence, table);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot create id sequence " + sequence, e);
+        }
+    }
+
+    /**
+     * The ids of one sequence left in the current reservation.
+     */
+    private final class Block {
+
+        private final String sequence;
+        private long next;
+        private long limit;
+
+        private Block(String sequence) {
+            this.sequence = sequence;
+        }
+
+        private synchronized long next() {
+            if (next == limit) {
+                next = reserve(sequence, SagaConstants.ID_ALLOCATION_SIZE);
+                limit = next + SagaConstants.ID_ALLOCATION_SIZE;
+            }
+            return next++;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.mystery.sagaorchestrator.service.journal;
+
+import com.mystery.sagaorchestrator.service.outbox.OutboxMessage;
+
+import java.sql.Timestamp;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A single buffered saga transition waiting to be flushed by {@link WriteBehindSagaJournal}.
+ *
+ * The timestamp is captured when the transition happens, not when it is flushed,
+ * so that {@code created_at}/{@code updated_at} reflect the real event order.
+ * Step inserts carry the id reserved for the new row and may carry the outbox message of their
+ * command, written in the same flush.
+ */
+record JournalEntry(Kind kind,
+                    Long sagaId,
+                    String stepName,
+                    Long stepId,
+                    String status,
+                    byte[] payload,
+                    OutboxMessage outbox,
+                    Timestamp timestamp,
+                    CompletableFuture<Void> committed) {
+
+    enum Kind {
+        INSERT_STEP,
+        UPDATE_STEP,
+        UPDATE_SAGA
+    }
+}
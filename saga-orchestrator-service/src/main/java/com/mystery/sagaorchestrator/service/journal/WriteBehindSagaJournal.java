@@ -0,0 +1,351 @@
+package com.mystery.sagaorchestrator.service.journal;
+
+import com.mystery.sagaorchestrator.config.SagaJournalProperties;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.service.SagaStepWriter;
+import com.mystery.sagaorchestrator.service.id.SagaIdAllocator;
+import com.mystery.sagaorchestrator.service.outbox.OutboxMessage;
+import com.mystery.sagaorchestrator.service.outbox.SagaOutbox;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind journal for saga transitions (journal mode {@code write-behind}).
+ *
+ * Transitions are appended to a bounded in-memory buffer and flushed by a single flusher thread
+ * when {@code saga.journal.batch-size} entries are pending or every {@code saga.journal.flush-interval}.
+ * Each flush is one database transaction; consecutive entries of the same kind are sent as one
+ * JDBC batch, so ordering between a step insert and its later update is preserved. Outbox rows
+ * of inserted steps are written in the same flush transaction.
+ *
+ * Transitions appended inside a caller's transaction are buffered only once it commits, as the
+ * flush could otherwise block on rows the caller still holds locked.
+ *
+ * How long callers wait is controlled by {@link SagaJournalProperties.Durability}. With
+ * {@code ASYNC} durability the newest unflushed transition of each saga is tracked:
+ * {@link #awaitWritten} flushes the buffer before a saga with pending transitions is read, and
+ * {@link #afterWritten} holds back what is announced about a saga until its transitions are committed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "saga.journal.mode", havingValue = "write-behind")
+public class WriteBehindSagaJournal implements SagaStepWriter {
+
+    private static final String INSERT_STEP_SQL =
+            "INSERT INTO saga_step_instance (id, saga_instance_id, step_name, status, payload_data, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_STEP_BY_ID_SQL =
+            "UPDATE saga_step_instance SET status = ?, payload_data = ?, updated_at = ? WHERE id = ?";
+
+    // Step id not cached: MySQL does not allow a subquery on the updated table, so the latest step is
+    // resolved through a derived table; pooled ids are not ordered across instances, created_at is
+    private static final String UPDATE_STEP_SQL =
+            "UPDATE saga_step_instance s " +
+            "JOIN (SELECT id FROM saga_step_instance WHERE saga_instance_id = ? AND step_name = ? " +
+            "ORDER BY created_at DESC, id DESC LIMIT 1) latest " +
+            "ON s.id = latest.id " +
+            "SET s.status = ?, s.payload_data = ?, s.updated_at = ?";
+
+    private static final String UPDATE_SAGA_SQL =
+            "UPDATE saga_instance SET status = ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SagaOutbox sagaOutbox;
+    private final SagaIdAllocator sagaIdAllocator;
+    private final TransactionTemplate transactionTemplate;
+    private final SagaJournalProperties properties;
+    private final BlockingQueue<JournalEntry> buffer;
+    // Newest buffered entry by saga id, ASYNC durability only
+    private final Map<Long, CompletableFuture<Void>> unflushed = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+
+    public WriteBehindSagaJournal(JdbcTemplate jdbcTemplate,
+                                  SagaOutbox sagaOutbox,
+                                  SagaIdAllocator sagaIdAllocator,
+                                  PlatformTransactionManager transactionManager,
+                                  SagaJournalProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sagaOutbox = sagaOutbox;
+        this.sagaIdAllocator = sagaIdAllocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // SYNC flushes may run from afterCommit of a caller's transaction, which must not be joined
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+        this.buffer = new LinkedBlockingQueue<>(properties.getCapacity());
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saga-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSizeSummary = DistributionSummary.builder("saga.journal.batch.size")
+                .description("Number of saga transitions written per journal flush")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("saga.journal.flush.latency")
+                .description("Time taken to commit one journal flush")
+                .register(meterRegistry);
+        Gauge.builder("saga.journal.pending", buffer, Collection::size)
+                .description("Saga transitions buffered and not yet flushed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startFlusher() {
+        long intervalMicros = properties.getFlushInterval().toNanos() / 1_000;
+        flusher.scheduleWithFixedDelay(this::flush, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+        log.info("Saga journal running in write-behind mode: durability={}, batchSize={}, flushInterval={}",
+                properties.getDurability(), properties.getBatchSize(), properties.getFlushInterval());
+    }
+
+    @PreDestroy
+    void stopFlusher() {
+        flusher.shutdown();
+        flush();
+        log.info("Saga journal flushed and stopped");
+    }
+
+    @Override
+    public Long insertStep(Long sagaId, String stepName, SagaConstants.SagaStepStatus status, byte[] payload, OutboxMessage command) {
+        // The row id is reserved now, so later updates can address the row before it is flushed
+        Long stepId = sagaIdAllocator.next(SagaConstants.SAGA_STEP_INSTANCE_ID_SEQUENCE);
+        append(JournalEntry.Kind.INSERT_STEP, sagaId, stepName, stepId, status.name(), payload, command);
+        return stepId;
+    }
+
+    @Override
+    public void updateStep(Long sagaId, String stepName, Long stepId, SagaConstants.SagaStepStatus status, byte[] payload) {
+        append(JournalEntry.Kind.UPDATE_STEP, sagaId, stepName, stepId, status.name(), payload, null);
+    }
+
+    @Override
+    public void updateSagaStatus(Long sagaId, SagaConstants.SagaStatus status) {
+        append(JournalEntry.Kind.UPDATE_SAGA, sagaId, null, null, status.name(), null, null);
+    }
+
+    @Override
+    public void awaitWritten(Long sagaId) {
+        CompletableFuture<Void> newest = unflushed.get(sagaId);
+        if (newest == null) {
+            return;
+        }
+        flush();
+        try {
+            newest.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Saga journal flush failed for saga " + sagaId, e.getCause());
+        }
+    }
+
+    @Override
+    public void afterWritten(Long sagaId, Runnable action) {
+        CompletableFuture<Void> newest = unflushed.get(sagaId);
+        if (newest == null) {
+            action.run();
+            return;
+        }
+        // Run by the flusher once the saga's transitions are committed, and dropped if the flush failed
+        newest.thenRun(action).exceptionally(e -> {
+            log.warn("Transition of saga {} not announced: {}", sagaId, e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * Drains and writes everything currently buffered. Safe to call from any thread.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<JournalEntry> batch = new ArrayList<>(properties.getBatchSize());
+            while (buffer.drainTo(batch, properties.getBatchSize()) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Private helper methods
+
+    private void append(JournalEntry.Kind kind, Long sagaId, String stepName, Long stepId, String status, byte[] payload,
+                        OutboxMessage outbox) {
+        JournalEntry entry = new JournalEntry(kind, sagaId, stepName, stepId, status, payload, outbox,
+                new Timestamp(System.currentTimeMillis()), new CompletableFuture<>());
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+            return;
+        }
+        enqueue(entry);
+    }
+
+    private void enqueue(JournalEntry entry) {
+        boolean async = properties.getDurability() == SagaJournalProperties.Durability.ASYNC;
+        if (async) {
+            // Tracked before the entry can be flushed, so the flush always removes it again
+            unflushed.put(entry.sagaId(), entry.committed());
+        }
+        try {
+            buffer.put(entry);
+        } catch (InterruptedException e) {
+            if (async) {
+                unflushed.remove(entry.sagaId(), entry.committed());
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while buffering transition for saga " + entry.sagaId(), e);
+        }
+
+        switch (properties.getDurability()) {
+            case SYNC -> {
+                flush();
+                awaitCommit(entry);
+            }
+            case GROUP_COMMIT -> {
+                requestFlushIfFull();
+                awaitCommit(entry);
+            }
+            case ASYNC -> requestFlushIfFull();
+        }
+    }
+
+    private void requestFlushIfFull() {
+        if (buffer.size() >= properties.getBatchSize() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    private void awaitCommit(JournalEntry entry) {
+        try {
+            entry.committed().join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Saga journal flush failed for saga " + entry.sagaId(), e.getCause());
+        }
+    }
+
+    private void write(List<JournalEntry> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int runStart = 0;
+                for (int i = 1; i <= batch.size(); i++) {
+                    if (i == batch.size() || !sameRun(batch.get(runStart), batch.get(i))) {
+                        executeRun(batch.subList(runStart, i));
+                        runStart = i;
+                    }
+                }
+            });
+            batch.forEach(entry -> entry.committed().complete(null));
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} saga journal entries", batch.size(), e);
+            batch.forEach(entry -> entry.committed().completeExceptionally(e));
+        } finally {
+            batch.forEach(entry -> unflushed.remove(entry.sagaId(), entry.committed()));
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizeSummary.record(batch.size());
+        }
+    }
+
+    private void executeRun(List<JournalEntry> run) {
+        switch (run.get(0).kind()) {
+            case INSERT_STEP -> {
+                jdbcTemplate.batchUpdate(INSERT_STEP_SQL, run, run.size(), (ps, entry) -> {
+                    ps.setLong(1, entry.stepId());
+                    ps.setLong(2, entry.sagaId());
+                    ps.setString(3, entry.stepName());
+                    ps.setString(4, entry.status());
+                    ps.setBytes(5, entry.payload());
+                    ps.setTimestamp(6, entry.timestamp());
+                    ps.setTimestamp(7, entry.timestamp());
+                });
+                sagaOutbox.append(run.stream().map(JournalEntry::outbox).filter(Objects::nonNull).toList());
+            }
+            case UPDATE_STEP -> {
+                if (run.get(0).stepId() != null) {
+                    int[][] counts = jdbcTemplate.batchUpdate(UPDATE_STEP_BY_ID_SQL, run, run.size(), (ps, entry) -> {
+                        ps.setString(1, entry.status());
+                        ps.setBytes(2, entry.payload());
+                        ps.setTimestamp(3, entry.timestamp());
+                        ps.setLong(4, entry.stepId());
+                    });
+                    warnOnMissingRows(run, counts);
+                    return;
+                }
+                int[][] counts = jdbcTemplate.batchUpdate(UPDATE_STEP_SQL, run, run.size(), (ps, entry) -> {
+                    ps.setLong(1, entry.sagaId());
+                    ps.setString(2, entry.stepName());
+                    ps.setString(3, entry.status());
+                    ps.setBytes(4, entry.payload());
+                    ps.setTimestamp(5, entry.timestamp());
+                });
+                warnOnMissingRows(run, counts);
+            }
+            case UPDATE_SAGA -> jdbcTemplate.batchUpdate(UPDATE_SAGA_SQL, run, run.size(), (ps, entry) -> {
+                ps.setString(1, entry.status());
+                ps.setTimestamp(2, entry.timestamp());
+                ps.setLong(3, entry.sagaId());
+            });
+        }
+    }
+
+    private static boolean sameRun(JournalEntry first, JournalEntry entry) {
+        // Step updates by id and by name use different statements
+        return entry.kind() == first.kind()
+                && (entry.kind() != JournalEntry.Kind.UPDATE_STEP || (entry.stepId() == null) == (first.stepId() == null));
+    }
+
+    private void warnOnMissingRows(List<JournalEntry> run, int[][] counts) {
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count == 0) {
+                    JournalEntry entry = run.get(index);
+                    log.warn("Step instance not found for saga {} and step: {}", entry.sagaId(), entry.stepName());
+                }
+                index++;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mystery.sagaorchestrator.service.metrics;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.service.cache.CachedSaga;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saga latency timers, fed by {@link com.mystery.sagaorchestrator.service.SagaStateManager} transitions.
+ *
+ * {@code saga.step.duration} (tags saga, step, outcome) measures a step from its command being
+ * recorded to its reply event being handled; {@code saga.duration} (tags saga, status) measures a
+ * saga from start to its final status. Start times live in the
+ * {@link com.mystery.sagaorchestrator.service.cache.SagaStateCache}. Steps of sagas that are no longer
+ * cached, or were cached again after a restart, are timed from the creation of their step row
+ * instead, and steps that cannot be timed either way are counted as {@code saga.step.unmeasured}.
+ * {@code saga.duration} only covers sagas cached on this instance. Histograms and percentiles are
+ * configured under {@code management.metrics.distribution}.
+ */
+@Component
+@RequiredArgsConstructor
+public class SagaMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public void stepFinished(String sagaName, String stepName, SagaConstants.SagaStepStatus outcome, long durationNanos) {
+        Timer.builder("saga.step.duration")
+                .description("Time from a saga step command being sent to its reply being handled")
+                .tag("saga", sagaName)
+                .tag("step", stepName)
+                .tag("outcome", outcome.name().toLowerCase())
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void stepUnmeasured(String stepName, SagaConstants.SagaStepStatus outcome) {
+        Counter.builder("saga.step.unmeasured")
+                .description("Finished saga steps left out of saga.step.duration because their start time was unknown")
+                .tag("step", stepName)
+                .tag("outcome", outcome.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void sagaFinished(CachedSaga saga, SagaConstants.SagaStatus status) {
+        Timer.builder("saga.duration")
+                .description("Time from a saga being started to reaching its final status")
+                .tag("saga", saga.getSagaName())
+                .tag("status", status.name().toLowerCase())
+                .register(meterRegistry)
+                .record(System.nanoTime() - saga.getStartedNanos(), TimeUnit.NANOSECONDS);
+    }
+}
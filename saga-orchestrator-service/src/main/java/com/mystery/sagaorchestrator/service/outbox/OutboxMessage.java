@@ -0,0 +1,14 @@
+package com.mystery.sagaorchestrator.service.outbox;
+
+/**
+ * A command serialized for the outbox, to be published on {@code bindingName} keyed by saga ID.
+ *
+ * @param id assigned by the database; {@code null} until the row is read back by the relay
+ */
+public record OutboxMessage(Long id,
+                            Long sagaId,
+                            String bindingName,
+                            byte[] payload,
+                            String correlationId,
+                            long createdMillis) {
+}
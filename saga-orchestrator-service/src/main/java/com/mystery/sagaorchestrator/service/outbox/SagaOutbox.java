@@ -0,0 +1,84 @@
+package com.mystery.sagaorchestrator.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mystery.common.util.CorrelationIdMessageUtils;
+import com.mystery.sagaorchestrator.config.SagaOutboxProperties;
+import com.mystery.sagaorchestrator.repository.SagaOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write side of the saga command outbox.
+ *
+ * Step writers call {@link #append(Collection)} inside the transaction that records the STARTED
+ * step, so a command is published if and only if its step was committed. Each commit wakes the
+ * {@link SagaOutboxRelay} so relaying does not wait for the next poll.
+ */
+@Component
+@RequiredArgsConstructor
+public class SagaOutbox {
+
+    private final SagaOutboxRepository outboxRepository;
+    private final SagaOutboxProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Semaphore appended = new Semaphore(0);
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Serialize a command for publishing on {@code bindingName}, capturing the current correlation ID.
+     */
+    public OutboxMessage message(Long sagaId, String bindingName, Object command) {
+        try {
+            return new OutboxMessage(null, sagaId, bindingName, objectMapper.writeValueAsBytes(command),
+                    CorrelationIdMessageUtils.getCurrentCorrelationId(), System.currentTimeMillis());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + command.getClass().getSimpleName() + " for the outbox", e);
+        }
+    }
+
+    /**
+     * Insert messages as part of the caller's transaction.
+     */
+    public void append(Collection<OutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        outboxRepository.insertAll(messages);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    appended.release();
+                }
+            });
+        } else {
+            appended.release();
+        }
+    }
+
+    /**
+     * Block until a transaction with outbox messages commits or {@code timeout} elapses.
+     *
+     * @return {@code true} if woken by a commit
+     */
+    boolean awaitAppended(Duration timeout) throws InterruptedException {
+        boolean woken = appended.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        appended.drainPermits();
+        return woken;
+    }
+
+    void wakeUp() {
+        appended.release();
+    }
+}
@@ -0,0 +1,211 @@
+package com.mystery.sagaorchestrator.service.outbox;
+
+import com.mystery.common.AppConstants;
+import com.mystery.sagaorchestrator.config.SagaOutboxProperties;
+import com.mystery.sagaorchestrator.repository.SagaOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes committed outbox rows to Kafka.
+ *
+ * A single relay thread claims the oldest {@code saga.outbox.batch-size} unclaimed rows for
+ * {@code saga.outbox.claim-timeout} in a short READ COMMITTED transaction, which skips rows locked
+ * by other relays and takes no gap locks, so concurrent outbox inserts never wait for Kafka. It then
+ * sends the batch outside of any transaction without waiting in between, flushes the producer and
+ * waits for the acknowledgements; acknowledged rows are deleted, the others released and sent again,
+ * as are the rows of a relay that died before its claim expired, so delivery is at-least-once.
+ *
+ * Rows are sent in id order and keyed by saga ID, so the commands of one saga reach their partition
+ * in the order they were committed. Relays of several instances claim different rows, but a saga
+ * only appends its next command after the reply to the previous one, so its pending commands are
+ * either in one batch or, for fan-out branches, bound for different topics.
+ *
+ * When a batch is not full the relay sleeps until the next commit (plus {@code saga.outbox.linger}
+ * to let concurrent commits join the batch) or {@code saga.outbox.poll-interval}.
+ *
+ * Metrics: {@code saga.outbox.lag} (age of the oldest unsent row at the last relay),
+ * {@code saga.outbox.batch.size}, {@code saga.outbox.relay.latency} and {@code saga.outbox.sent}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "saga.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class SagaOutboxRelay {
+
+    private final SagaOutboxProperties properties;
+    private final SagaOutboxRepository outboxRepository;
+    private final SagaOutbox sagaOutbox;
+    private final KafkaTemplate<byte[], byte[]> kafkaTemplate;
+    private final BindingServiceProperties bindingServiceProperties;
+    private final TransactionTemplate claimTemplate;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final DistributionSummary batchSizeSummary;
+    private final Timer relayTimer;
+    private final Counter sentCounter;
+    private volatile boolean running = true;
+    private Thread relayThread;
+
+    public SagaOutboxRelay(SagaOutboxProperties properties,
+                           SagaOutboxRepository outboxRepository,
+                           SagaOutbox sagaOutbox,
+                           KafkaTemplate<byte[], byte[]> kafkaTemplate,
+                           BindingServiceProperties bindingServiceProperties,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.outboxRepository = outboxRepository;
+        this.sagaOutbox = sagaOutbox;
+        this.kafkaTemplate = kafkaTemplate;
+        this.bindingServiceProperties = bindingServiceProperties;
+        this.claimTemplate = new TransactionTemplate(transactionManager);
+        this.claimTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.batchSizeSummary = DistributionSummary.builder("saga.outbox.batch.size")
+                .description("Number of saga commands relayed per outbox batch")
+                .register(meterRegistry);
+        this.relayTimer = Timer.builder("saga.outbox.relay.latency")
+                .description("Time taken to send, acknowledge and delete one outbox batch")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("saga.outbox.sent")
+                .description("Saga commands published from the outbox")
+                .register(meterRegistry);
+        Gauge.builder("saga.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age in seconds of the oldest unsent outbox row at the last relay")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        relayThread = Thread.ofPlatform().name("saga-outbox-relay").daemon().start(this::run);
+        log.info("Saga outbox relay started: batchSize={}, linger={}, pollInterval={}",
+                properties.getBatchSize(), properties.getLinger(), properties.getPollInterval());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        sagaOutbox.wakeUp();
+        relayThread.join(properties.getSendTimeout().toMillis() * 2);
+        log.info("Saga outbox relay stopped");
+    }
+
+    // Private helper methods
+
+    private void run() {
+        while (running) {
+            try {
+                if (relayBatch() < properties.getBatchSize() && sagaOutbox.awaitAppended(properties.getPollInterval())) {
+                    Thread.sleep(properties.getLinger());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Saga outbox relay failed, retrying: {}", e.getMessage(), e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxMessage> batch = claimTemplate.execute(status ->
+                outboxRepository.claimOldest(properties.getBatchSize(), properties.getClaimTimeout()));
+        if (batch == null || batch.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        lagMillis.set(System.currentTimeMillis() - batch.get(0).createdMillis());
+
+        long start = System.nanoTime();
+        List<CompletableFuture<SendResult<byte[], byte[]>>> acks = new ArrayList<>(batch.size());
+        try {
+            batch.forEach(message -> acks.add(send(message)));
+            kafkaTemplate.flush();
+            awaitAcks(acks);
+        } finally {
+            settle(batch, acks);
+        }
+
+        relayTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(batch.size());
+        sentCounter.increment(batch.size());
+        return batch.size();
+    }
+
+    /**
+     * Delete the rows Kafka acknowledged and release the others, which are sent again.
+     */
+    private void settle(List<OutboxMessage> batch, List<CompletableFuture<SendResult<byte[], byte[]>>> acks) {
+        List<OutboxMessage> acknowledged = new ArrayList<>(batch.size());
+        List<OutboxMessage> unacknowledged = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<?> ack = i < acks.size() ? acks.get(i) : null;
+            if (ack != null && ack.isDone() && !ack.isCompletedExceptionally()) {
+                acknowledged.add(batch.get(i));
+            } else {
+                unacknowledged.add(batch.get(i));
+            }
+        }
+        outboxRepository.deleteAll(acknowledged);
+        outboxRepository.releaseAll(unacknowledged);
+    }
+
+    private CompletableFuture<SendResult<byte[], byte[]>> send(OutboxMessage message) {
+        MessageBuilder<byte[]> builder = MessageBuilder.withPayload(message.payload())
+                .setHeader(KafkaHeaders.TOPIC, bindingServiceProperties.getBindingDestination(message.bindingName()))
+                .setHeader(KafkaHeaders.KEY, message.sagaId().toString().getBytes(StandardCharsets.UTF_8))
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE);
+        if (message.correlationId() != null) {
+            builder.setHeader(AppConstants.CORRELATION_ID_HEADER, message.correlationId());
+        }
+        return kafkaTemplate.send(builder.build());
+    }
+
+    private void awaitAcks(List<? extends CompletableFuture<?>> acks) {
+        try {
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new))
+                    .get(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for outbox batch acknowledgements", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // The unacknowledged rows are released and sent again on the next attempt
+            throw new IllegalStateException("Outbox batch was not acknowledged by Kafka", e);
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(properties.getPollInterval());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
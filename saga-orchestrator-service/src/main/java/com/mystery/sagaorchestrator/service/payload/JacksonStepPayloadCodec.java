@@ -0,0 +1,181 @@
+package com.mystery.sagaorchestrator.service.payload;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.mystery.sagaorchestrator.config.SagaPayloadProperties;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Default {@link StepPayloadCodec} backed by Jackson.
+ *
+ * Layout of an encoded payload:
+ * <pre>
+ * [format:1][compression:1][original length:4, only when compressed][body]
+ * </pre>
+ * The body is JSON or Smile (binary JSON) with null fields omitted. Bodies of at least
+ * {@code saga.payload.compression-threshold} bytes are compressed with Deflate or LZ4.
+ */
+@Slf4j
+@Component
+public class JacksonStepPayloadCodec implements StepPayloadCodec {
+
+    private static final int HEADER_SIZE = 2;
+    private static final int LENGTH_SIZE = Integer.BYTES;
+
+    private final SagaPayloadProperties properties;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final LZ4Compressor lz4Compressor;
+    private final LZ4FastDecompressor lz4Decompressor;
+
+    public JacksonStepPayloadCodec(SagaPayloadProperties properties, Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.properties = properties;
+        objectMapperBuilder.serializationInclusion(JsonInclude.Include.NON_NULL);
+        this.jsonMapper = objectMapperBuilder.build();
+        this.smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        LZ4Factory lz4Factory = LZ4Factory.fastestInstance();
+        this.lz4Compressor = lz4Factory.fastCompressor();
+        this.lz4Decompressor = lz4Factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        SagaPayloadProperties.Format format = properties.getFormat();
+        byte[] body = serialize(format, payload);
+
+        SagaPayloadProperties.Compression compression = body.length >= properties.getCompressionThreshold()
+                ? properties.getCompression()
+                : SagaPayloadProperties.Compression.NONE;
+        byte[] compressed = switch (compression) {
+            case NONE -> body;
+            case DEFLATE -> deflate(body);
+            case LZ4 -> lz4Compressor.compress(body);
+        };
+        if (compression != SagaPayloadProperties.Compression.NONE && compressed.length >= body.length) {
+            // Not worth it, e.g. already compact binary content
+            compression = SagaPayloadProperties.Compression.NONE;
+            compressed = body;
+        }
+
+        int lengthSize = compression == SagaPayloadProperties.Compression.NONE ? 0 : LENGTH_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + lengthSize + compressed.length);
+        buffer.put((byte) format.ordinal());
+        buffer.put((byte) compression.ordinal());
+        if (lengthSize > 0) {
+            buffer.putInt(body.length);
+        }
+        buffer.put(compressed);
+        return buffer.array();
+    }
+
+    @Override
+    public String decode(byte[] data) {
+        if (data == null || data.length < HEADER_SIZE) {
+            return null;
+        }
+        SagaPayloadProperties.Format format = SagaPayloadProperties.Format.values()[data[0]];
+        byte[] body = body(data);
+
+        try {
+            if (format == SagaPayloadProperties.Format.JSON) {
+                return new String(body, StandardCharsets.UTF_8);
+            }
+            return jsonMapper.writeValueAsString(smileMapper.readTree(body));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to decode step payload", e);
+        }
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Class<T> type) {
+        if (data == null || data.length < HEADER_SIZE) {
+            return null;
+        }
+        SagaPayloadProperties.Format format = SagaPayloadProperties.Format.values()[data[0]];
+        ObjectMapper mapper = format == SagaPayloadProperties.Format.SMILE ? smileMapper : jsonMapper;
+        try {
+            return mapper.readValue(body(data), type);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to decode step payload as " + type.getSimpleName(), e);
+        }
+    }
+
+    // Private helper methods
+
+    private byte[] body(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data, 1, data.length - 1);
+        SagaPayloadProperties.Compression compression = SagaPayloadProperties.Compression.values()[buffer.get()];
+        if (compression == SagaPayloadProperties.Compression.NONE) {
+            return Arrays.copyOfRange(data, HEADER_SIZE, data.length);
+        }
+        int originalLength = buffer.getInt();
+        int offset = HEADER_SIZE + LENGTH_SIZE;
+        return compression == SagaPayloadProperties.Compression.LZ4
+                ? lz4Decompressor.decompress(data, offset, originalLength)
+                : inflate(data, offset, originalLength);
+    }
+
+    private byte[] serialize(SagaPayloadProperties.Format format, Object payload) {
+        ObjectMapper mapper = format == SagaPayloadProperties.Format.SMILE ? smileMapper : jsonMapper;
+        try {
+            return mapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Falling back to toString() for step payload of type {}: {}",
+                    payload.getClass().getSimpleName(), e.getMessage());
+            try {
+                return mapper.writeValueAsBytes(payload.toString());
+            } catch (JsonProcessingException fallback) {
+                throw new IllegalStateException("Unable to encode step payload", fallback);
+            }
+        }
+    }
+
+    private static byte[] deflate(byte[] body) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 16);
+            byte[] chunk = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int originalLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, data.length - offset);
+            byte[] body = new byte[originalLength];
+            int read = 0;
+            while (read < originalLength && !inflater.finished()) {
+                read += inflater.inflate(body, read, originalLength - read);
+            }
+            return body;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt deflated step payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
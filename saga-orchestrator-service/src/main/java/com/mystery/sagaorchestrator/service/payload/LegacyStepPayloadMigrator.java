@@ -0,0 +1,64 @@
+package com.mystery.sagaorchestrator.service.payload;
+
+import com.mystery.sagaorchestrator.config.SagaPayloadProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Re-encodes step rows that still carry the legacy {@code toString()} TEXT payload into
+ * {@code payload_data} and clears the TEXT column, in chunks of
+ * {@code saga.payload.migration-batch-size} rows keyed by id.
+ *
+ * Enabled with {@code saga.payload.migrate-legacy=true}; safe to rerun, already migrated
+ * rows are skipped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "saga.payload.migrate-legacy", havingValue = "true")
+public class LegacyStepPayloadMigrator implements ApplicationRunner {
+
+    private static final String SELECT_LEGACY_SQL =
+            "SELECT id, payload FROM saga_step_instance " +
+            "WHERE id > ? AND payload_data IS NULL AND payload IS NOT NULL ORDER BY id LIMIT ?";
+
+    private static final String UPDATE_MIGRATED_SQL =
+            "UPDATE saga_step_instance SET payload_data = ?, payload = NULL WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StepPayloadCodec stepPayloadCodec;
+    private final SagaPayloadProperties properties;
+
+    private record LegacyRow(long id, String payload) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Migrating legacy saga step payloads in batches of {}", properties.getMigrationBatchSize());
+        long lastId = 0;
+        long migrated = 0;
+        List<LegacyRow> rows;
+        do {
+            rows = jdbcTemplate.query(SELECT_LEGACY_SQL,
+                    (rs, rowNum) -> new LegacyRow(rs.getLong("id"), rs.getString("payload")),
+                    lastId, properties.getMigrationBatchSize());
+            if (rows.isEmpty()) {
+                break;
+            }
+            jdbcTemplate.batchUpdate(UPDATE_MIGRATED_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setBytes(1, stepPayloadCodec.encode(row.payload()));
+                ps.setLong(2, row.id());
+            });
+            lastId = rows.get(rows.size() - 1).id();
+            migrated += rows.size();
+        } while (rows.size() == properties.getMigrationBatchSize());
+        log.info("Migrated {} legacy saga step payloads", migrated);
+    }
+}
@@ -0,0 +1,21 @@
+package com.mystery.sagaorchestrator.service.payload;
+
+/**
+ * Encodes step payloads for storage and decodes them back to readable JSON.
+ *
+ * Encoded payloads must be self-describing so rows written under an older
+ * configuration can still be decoded after the format or compression changes.
+ *
+ * @since 1.0.0
+ */
+public interface StepPayloadCodec {
+
+    byte[] encode(Object payload);
+
+    String decode(byte[] data);
+
+    /**
+     * Decode a payload back into the object it was encoded from, e.g. to re-send a stored command.
+     */
+    <T> T decode(byte[] data, Class<T> type);
+}
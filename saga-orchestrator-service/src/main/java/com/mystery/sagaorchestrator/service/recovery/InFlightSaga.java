@@ -0,0 +1,24 @@
+package com.mystery.sagaorchestrator.service.recovery;
+
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+
+import java.time.LocalDateTime;
+
+/**
+ * An IN_PROGRESS saga found on startup, with its latest step.
+ *
+ * @param stepName     latest step, or {@code null} if the saga has no steps
+ * @param awaiting     the latest step still has an armed deadline or an unsent command in the outbox
+ * @param failedSteps  steps of the saga that ended FAILED
+ * @param lastActivity when the saga or its latest step last changed
+ */
+public record InFlightSaga(Long sagaId,
+                           String sagaName,
+                           LocalDateTime createdAt,
+                           Long stepId,
+                           String stepName,
+                           SagaConstants.SagaStepStatus stepStatus,
+                           boolean awaiting,
+                           int failedSteps,
+                           LocalDateTime lastActivity) {
+}
@@ -0,0 +1,30 @@
+package com.mystery.sagaorchestrator.service.recovery;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spaces re-sent commands evenly at no more than {@code permitsPerSecond}; callers block until their slot.
+ */
+class ResendThrottle implements Runnable {
+
+    private final long intervalNanos;
+    private long nextSlotNanos = System.nanoTime();
+
+    ResendThrottle(int permitsPerSecond) {
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, permitsPerSecond);
+    }
+
+    @Override
+    public void run() {
+        long slot;
+        synchronized (this) {
+            slot = Math.max(nextSlotNanos, System.nanoTime());
+            nextSlotNanos = slot + intervalNanos;
+        }
+        long waitNanos;
+        while ((waitNanos = slot - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(waitNanos);
+        }
+    }
+}
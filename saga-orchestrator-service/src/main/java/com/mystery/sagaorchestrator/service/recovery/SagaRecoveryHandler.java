@@ -0,0 +1,30 @@
+package com.mystery.sagaorchestrator.service.recovery;
+
+/**
+ * Resumes in-flight sagas of one type after a restart; implemented by every
+ * {@link com.mystery.sagaorchestrator.saga.Saga}.
+ */
+public interface SagaRecoveryHandler {
+
+    /**
+     * What recovery did with a saga.
+     */
+    enum Action {
+        /** Left alone: a deadline, the outbox or another instance will move it on. */
+        WAIT,
+        /** The command of the latest STARTED step was re-sent. */
+        RESEND,
+        /** The handler of the latest finished step was run again from its stored event. */
+        RESUME,
+        /** The saga was compensated or failed. */
+        COMPENSATE
+    }
+
+    String getSagaName();
+
+    /**
+     * Decide and apply the recovery of one saga; runs on the saga's dispatcher lane and must not
+     * block it. Re-sent commands are throttled by the caller before the saga is dispatched.
+     */
+    Action recover(InFlightSaga saga);
+}
@@ -0,0 +1,228 @@
+package com.mystery.sagaorchestrator.service.recovery;
+
+import com.mystery.sagaorchestrator.config.SagaRecoveryProperties;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.repository.SagaRecoveryRepository;
+import com.mystery.sagaorchestrator.service.cache.SagaStateCache;
+import com.mystery.sagaorchestrator.service.dispatch.SagaEventDispatcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves on the sagas that were IN_PROGRESS when the orchestrator last stopped.
+ *
+ * {@code saga.recovery.delay} after startup, in-progress sagas are read in id order,
+ * {@code saga.recovery.chunk-size} at a time, with up to {@code saga.recovery.parallel-chunks}
+ * chunks in flight. Each saga gets its cache entry back and is handed to the
+ * {@link SagaRecoveryHandler} of its type on its dispatcher lane, so recovery never races with
+ * live events of the same saga. Sagas that changed within the delay are left alone, as some
+ * instance is still driving them. Sagas whose stalled command will be re-sent are held back by a
+ * shared throttle of {@code saga.recovery.max-resends-per-second} before they are dispatched, so
+ * the lanes never wait for it.
+ *
+ * Only one instance recovers at a time: the run holds the MySQL named lock {@code saga-recovery}
+ * and is skipped when another instance has it. Recovered sagas are counted as
+ * {@code saga.recovery.sagas} (tag {@code action}) and the run is timed as {@code saga.recovery.duration}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "saga.recovery.enabled", havingValue = "true", matchIfMissing = true)
+public class SagaRecoveryService {
+
+    private static final String LOCK_NAME = "saga-recovery";
+    private static final String GET_LOCK_SQL = "SELECT GET_LOCK(?, 0)";
+    private static final String RELEASE_LOCK_SQL = "SELECT RELEASE_LOCK(?)";
+
+    private final SagaRecoveryProperties properties;
+    private final SagaRecoveryRepository recoveryRepository;
+    private final SagaStateCache sagaStateCache;
+    private final SagaEventDispatcher sagaEventDispatcher;
+    private final ObjectProvider<SagaRecoveryHandler> recoveryHandlers;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final Timer duration;
+    private final ScheduledExecutorService scheduler;
+    private volatile Map<String, SagaRecoveryHandler> handlersBySagaName;
+
+    public SagaRecoveryService(SagaRecoveryProperties properties,
+                               SagaRecoveryRepository recoveryRepository,
+                               SagaStateCache sagaStateCache,
+                               SagaEventDispatcher sagaEventDispatcher,
+                               ObjectProvider<SagaRecoveryHandler> recoveryHandlers,
+                               DataSource dataSource,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.recoveryRepository = recoveryRepository;
+        this.sagaStateCache = sagaStateCache;
+        this.sagaEventDispatcher = sagaEventDispatcher;
+        this.recoveryHandlers = recoveryHandlers;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.duration = Timer.builder("saga.recovery.duration")
+                .description("Time taken to recover in-flight sagas after startup")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saga-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        scheduler.schedule(this::run, properties.getDelay().toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Saga recovery scheduled in {}: chunkSize={}, parallelChunks={}, maxResendsPerSecond={}",
+                properties.getDelay(), properties.getChunkSize(), properties.getParallelChunks(),
+                properties.getMaxResendsPerSecond());
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // Private helper methods
+
+    private void run() {
+        try (Connection lockConnection = dataSource.getConnection()) {
+            if (!lock(lockConnection, GET_LOCK_SQL)) {
+                log.info("Saga recovery is running on another instance, skipping");
+                return;
+            }
+            try {
+                long startNanos = System.nanoTime();
+                Map<SagaRecoveryHandler.Action, LongAdder> counts = recoverAll();
+                long elapsedNanos = System.nanoTime() - startNanos;
+                duration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+                log.info("Recovered in-flight sagas in {} ms: {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), counts);
+            } finally {
+                lock(lockConnection, RELEASE_LOCK_SQL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SQLException | RuntimeException e) {
+            // Sagas left over are still moved on by their deadlines or the next restart
+            log.error("Saga recovery failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private Map<SagaRecoveryHandler.Action, LongAdder> recoverAll() throws InterruptedException {
+        Map<SagaRecoveryHandler.Action, LongAdder> counts = new EnumMap<>(SagaRecoveryHandler.Action.class);
+        for (SagaRecoveryHandler.Action action : SagaRecoveryHandler.Action.values()) {
+            counts.put(action, new LongAdder());
+        }
+        int parallelChunks = Math.max(1, properties.getParallelChunks());
+        Semaphore chunkPermits = new Semaphore(parallelChunks);
+        ResendThrottle throttle = new ResendThrottle(properties.getMaxResendsPerSecond());
+        LocalDateTime staleBefore = LocalDateTime.now().minus(properties.getDelay());
+
+        long lastId = 0;
+        List<InFlightSaga> chunk;
+        do {
+            chunk = recoveryRepository.findInFlight(lastId, properties.getChunkSize());
+            if (chunk.isEmpty()) {
+                break;
+            }
+            chunkPermits.acquire();
+            AtomicInteger remaining = new AtomicInteger(chunk.size());
+            for (InFlightSaga saga : chunk) {
+                if (isStale(saga, staleBefore) && resendsCommand(saga)) {
+                    throttle.run();
+                }
+                sagaEventDispatcher.dispatch(saga.sagaId(), () -> {
+                    try {
+                        counts.get(recover(saga, staleBefore)).increment();
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            chunkPermits.release();
+                        }
+                    }
+                });
+            }
+            lastId = chunk.get(chunk.size() - 1).sagaId();
+        } while (chunk.size() == properties.getChunkSize());
+
+        // Wait for the chunks still on the lanes
+        chunkPermits.acquire(parallelChunks);
+        return counts;
+    }
+
+    private SagaRecoveryHandler.Action recover(InFlightSaga saga, LocalDateTime staleBefore) {
+        SagaRecoveryHandler.Action action = SagaRecoveryHandler.Action.WAIT;
+        try {
+            sagaStateCache.restore(saga.sagaId(), saga.sagaName(), saga.createdAt(), saga.stepName(), saga.stepId());
+            SagaRecoveryHandler handler = handlers().get(saga.sagaName());
+            if (handler == null) {
+                log.error("No recovery handler for saga {} ({})", saga.sagaId(), saga.sagaName());
+            } else if (isStale(saga, staleBefore)) {
+                action = handler.recover(saga);
+            }
+        } catch (Exception e) {
+            log.error("Error recovering saga {}: {}", saga.sagaId(), e.getMessage(), e);
+        }
+        recoveredCounter(action).increment();
+        return action;
+    }
+
+    private static boolean isStale(InFlightSaga saga, LocalDateTime staleBefore) {
+        return saga.lastActivity() == null || !saga.lastActivity().isAfter(staleBefore);
+    }
+
+    private static boolean resendsCommand(InFlightSaga saga) {
+        // Mirrors the RESEND case of Saga.recover
+        return saga.stepName() != null && saga.stepStatus() == SagaConstants.SagaStepStatus.STARTED && !saga.awaiting();
+    }
+
+    private Map<String, SagaRecoveryHandler> handlers() {
+        // Resolved lazily, like the timeout handlers of StepDeadlineScheduler
+        Map<String, SagaRecoveryHandler> handlers = handlersBySagaName;
+        if (handlers == null) {
+            handlers = recoveryHandlers.orderedStream()
+                    .collect(Collectors.toMap(SagaRecoveryHandler::getSagaName, Function.identity()));
+            handlersBySagaName = handlers;
+        }
+        return handlers;
+    }
+
+    private static boolean lock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private Counter recoveredCounter(SagaRecoveryHandler.Action action) {
+        return Counter.builder("saga.recovery.sagas")
+                .description("In-flight sagas found on startup, by recovery action")
+                .tag("action", action.name().toLowerCase())
+                .register(meterRegistry);
+    }
+}
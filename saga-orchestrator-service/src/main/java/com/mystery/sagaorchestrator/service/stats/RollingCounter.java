@@ -0,0 +1,60 @@
+package com.mystery.sagaorchestrator.service.stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event count over a sliding time window, kept as a ring of fixed-width buckets.
+ *
+ * Each bucket is a {@link LongAdder} stamped with the bucket period it counts; a bucket is reset
+ * by the first increment of a later period, so updates never block on each other within a bucket.
+ * Sums include the current, partly elapsed bucket. An increment racing with the reset of its
+ * bucket may be lost, so counts are approximate.
+ */
+final class RollingCounter {
+
+    private final long bucketMillis;
+    private final Bucket[] buckets;
+
+    RollingCounter(long bucketMillis, int bucketCount) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    void increment(long nowMillis) {
+        long period = nowMillis / bucketMillis;
+        Bucket bucket = buckets[(int) (period % buckets.length)];
+        if (bucket.period != period) {
+            synchronized (bucket) {
+                if (bucket.period != period) {
+                    bucket.count.reset();
+                    bucket.period = period;
+                }
+            }
+        }
+        bucket.count.increment();
+    }
+
+    /**
+     * @return events counted in the last {@code periods} buckets, the current one included
+     */
+    long sum(long nowMillis, int periods) {
+        long current = nowMillis / bucketMillis;
+        long sum = 0;
+        for (int i = 0; i < Math.min(periods, buckets.length); i++) {
+            Bucket bucket = buckets[(int) ((current - i) % buckets.length)];
+            if (bucket.period == current - i) {
+                sum += bucket.count.sum();
+            }
+        }
+        return sum;
+    }
+
+    private static final class Bucket {
+
+        private final LongAdder count = new LongAdder();
+        private volatile long period = -1;
+    }
+}
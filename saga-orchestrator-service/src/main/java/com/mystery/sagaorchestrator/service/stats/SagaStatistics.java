@@ -0,0 +1,310 @@
+package com.mystery.sagaorchestrator.service.stats;
+
+import com.mystery.sagaorchestrator.config.SagaStatsProperties;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.dto.SagaStats;
+import com.mystery.sagaorchestrator.dto.SagaTransition;
+import com.mystery.sagaorchestrator.repository.SagaStatsRepository;
+import com.mystery.sagaorchestrator.repository.SagaStatsRepository.CounterKey;
+import com.mystery.sagaorchestrator.saga.Saga;
+import com.mystery.sagaorchestrator.saga.SagaDefinition;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Incrementally maintained saga statistics behind {@code /api/saga/stats}.
+ *
+ * Every committed transition published by the state manager increments one counter: saga starts
+ * and final statuses per saga name, and step transitions per saga and step. Counters are
+ * {@link LongAdder}s, so concurrent saga lanes never contend, each paired with a
+ * {@link RollingCounter} for the {@code saga.stats.windows}. Reading the statistics sums a fixed
+ * number of counters and never touches the saga tables.
+ *
+ * Every {@code saga.stats.checkpoint-interval} the counts recorded since the last checkpoint are
+ * added to {@code saga_stats_counter} and the cluster-wide totals reloaded, in one transaction; a
+ * failed checkpoint is retried with the next one. Totals therefore survive restarts and include
+ * other instances as of their last checkpoint; rolling windows are local to this instance. The
+ * first instance to start seeds the saga-level counters from the sagas already stored; step
+ * counters start from zero.
+ */
+@Slf4j
+@Component
+// Seeding needs the tables, which Hibernate creates or updates on startup
+@DependsOn("entityManagerFactory")
+public class SagaStatistics {
+
+    // Saga-level counters have no step name; saga starts are counted under STARTED
+    private static final String SAGA_LEVEL = "";
+    private static final String STARTED = "STARTED";
+
+    private final SagaStatsProperties properties;
+    private final SagaStatsRepository statsRepository;
+    private final ObjectProvider<Saga> sagas;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<CounterKey, Tally> tallies = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private volatile Checkpoint checkpoint = new Checkpoint(Map.of(), Map.of(), null);
+    private volatile Map<String, String> sagaNamesByStep;
+
+    /**
+     * Cluster-wide totals as of the last checkpoint, and local counts being written by the current one.
+     */
+    private record Checkpoint(Map<CounterKey, Long> totals, Map<CounterKey, Long> unconfirmed, LocalDateTime at) {
+    }
+
+    /**
+     * Local counts of one counter: not yet checkpointed, and per rolling window bucket.
+     */
+    private final class Tally {
+
+        private final LongAdder unflushed = new LongAdder();
+        private final RollingCounter window = new RollingCounter(bucketMillis, bucketCount);
+
+        private void increment(long nowMillis) {
+            unflushed.increment();
+            window.increment(nowMillis);
+        }
+    }
+
+    public SagaStatistics(SagaStatsProperties properties,
+                          SagaStatsRepository statsRepository,
+                          ObjectProvider<Saga> sagas,
+                          PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.statsRepository = statsRepository;
+        this.sagas = sagas;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bucketMillis = properties.getBucket().toMillis();
+        long longestWindow = properties.getWindows().stream().mapToLong(Duration::toMillis).max().orElse(bucketMillis);
+        this.bucketCount = (int) Math.ceilDiv(longestWindow, bucketMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saga-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            log.info("Saga statistics are disabled");
+            return;
+        }
+        if (statsRepository.seedIfEmpty()) {
+            log.info("Seeded saga statistics from the stored sagas");
+        }
+        checkpoint();
+        long intervalMillis = properties.getCheckpointInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (RuntimeException e) {
+                // Never let an exception cancel the periodic task; the counts are added with the next checkpoint
+                log.error("Saga statistics checkpoint failed: {}", e.getMessage(), e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Saga statistics started: checkpointInterval={}, windows={}",
+                properties.getCheckpointInterval(), properties.getWindows());
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdown();
+        if (properties.isEnabled()) {
+            try {
+                checkpoint();
+            } catch (RuntimeException e) {
+                log.warn("Final saga statistics checkpoint failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Count a committed saga or step transition.
+     */
+    public void record(SagaTransition transition) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String sagaName = transition.sagaName() != null ? transition.sagaName() : sagaNameOfStep(transition.stepName());
+        if (sagaName == null) {
+            log.debug("Not counting transition of saga {} with unknown saga name", transition.sagaId());
+            return;
+        }
+        CounterKey key = transition.stepName() == null
+                ? new CounterKey(sagaName, SAGA_LEVEL, isStart(transition) ? STARTED : transition.status())
+                : new CounterKey(sagaName, transition.stepName(), transition.status());
+        tallies.computeIfAbsent(key, k -> new Tally()).increment(System.currentTimeMillis());
+    }
+
+    /**
+     * @return the current statistics, computed from the counters alone
+     */
+    public SagaStats snapshot() {
+        long nowMillis = System.currentTimeMillis();
+        Checkpoint current = checkpoint;
+        Set<CounterKey> keys = new HashSet<>(current.totals().keySet());
+        keys.addAll(current.unconfirmed().keySet());
+        keys.addAll(tallies.keySet());
+
+        // Totals by saga name, step name and counter
+        Map<String, Map<String, Map<String, Long>>> totals = new TreeMap<>();
+        for (CounterKey key : keys) {
+            Tally tally = tallies.get(key);
+            long total = current.totals().getOrDefault(key, 0L)
+                    + current.unconfirmed().getOrDefault(key, 0L)
+                    + (tally != null ? tally.unflushed.sum() : 0);
+            totals.computeIfAbsent(key.sagaName(), name -> new TreeMap<>())
+                    .computeIfAbsent(key.stepName(), name -> new HashMap<>())
+                    .put(key.counter(), total);
+        }
+
+        Map<String, SagaStats.Saga> sagaStats = new LinkedHashMap<>();
+        totals.forEach((sagaName, steps) -> {
+            Map<String, SagaStats.Step> stepStats = new LinkedHashMap<>();
+            steps.forEach((stepName, counters) -> {
+                if (!SAGA_LEVEL.equals(stepName)) {
+                    stepStats.put(stepName, stepStats(sagaName, stepName, counters, nowMillis));
+                }
+            });
+            Map<String, Long> sagaCounters = steps.getOrDefault(SAGA_LEVEL, Map.of());
+            sagaStats.put(sagaName, new SagaStats.Saga(sagaCounts(sagaCounters),
+                    windows(sagaName, SAGA_LEVEL, STARTED, SagaConstants.SagaStatus.COMPLETED.name(), nowMillis,
+                            SagaConstants.SagaStatus.FAILED.name(), SagaConstants.SagaStatus.ROLLED_BACK.name()),
+                    stepStats));
+        });
+        return new SagaStats(current.at(), sagaStats);
+    }
+
+    // Private helper methods
+
+    private void checkpoint() {
+        Map<CounterKey, Long> deltas = new HashMap<>(checkpoint.unconfirmed());
+        tallies.forEach((key, tally) -> {
+            long delta = tally.unflushed.sumThenReset();
+            if (delta != 0) {
+                deltas.merge(key, delta, Long::sum);
+            }
+        });
+        // Keep the drained counts visible until the reloaded totals include them
+        checkpoint = new Checkpoint(checkpoint.totals(), deltas, checkpoint.at());
+        Map<CounterKey, Long> totals = transactionTemplate.execute(status -> {
+            if (!deltas.isEmpty()) {
+                statsRepository.add(deltas);
+            }
+            return statsRepository.findAll();
+        });
+        checkpoint = new Checkpoint(totals, Map.of(), LocalDateTime.now());
+    }
+
+    private static boolean isStart(SagaTransition transition) {
+        return SagaConstants.SagaStatus.IN_PROGRESS.name().equals(transition.status());
+    }
+
+    private static Map<SagaConstants.SagaStatus, Long> sagaCounts(Map<String, Long> counters) {
+        Map<SagaConstants.SagaStatus, Long> counts = new EnumMap<>(SagaConstants.SagaStatus.class);
+        long finished = 0;
+        for (SagaConstants.SagaStatus status : SagaConstants.SagaStatus.values()) {
+            if (status != SagaConstants.SagaStatus.IN_PROGRESS) {
+                long count = counters.getOrDefault(status.name(), 0L);
+                counts.put(status, count);
+                finished += count;
+            }
+        }
+        // Starts and finishes of other instances may be checkpointed at different times
+        counts.put(SagaConstants.SagaStatus.IN_PROGRESS, Math.max(counters.getOrDefault(STARTED, 0L) - finished, 0));
+        return counts;
+    }
+
+    private SagaStats.Step stepStats(String sagaName, String stepName, Map<String, Long> counters, long nowMillis) {
+        Map<SagaConstants.SagaStepStatus, Long> counts = new EnumMap<>(SagaConstants.SagaStepStatus.class);
+        for (SagaConstants.SagaStepStatus status : SagaConstants.SagaStepStatus.values()) {
+            counts.put(status, counters.getOrDefault(status.name(), 0L));
+        }
+        double failureRate = failureRate(counts.get(SagaConstants.SagaStepStatus.COMPLETED),
+                counts.get(SagaConstants.SagaStepStatus.FAILED));
+        return new SagaStats.Step(counts, failureRate,
+                windows(sagaName, stepName, SagaConstants.SagaStepStatus.STARTED.name(),
+                        SagaConstants.SagaStepStatus.COMPLETED.name(), nowMillis, SagaConstants.SagaStepStatus.FAILED.name()));
+    }
+
+    private Map<String, SagaStats.Window> windows(String sagaName, String stepName, String startedCounter,
+                                                  String completedCounter, long nowMillis, String... failedCounters) {
+        Map<String, SagaStats.Window> windows = new LinkedHashMap<>();
+        for (Duration window : properties.getWindows()) {
+            int periods = (int) Math.ceilDiv(window.toMillis(), bucketMillis);
+            long started = windowSum(sagaName, stepName, startedCounter, nowMillis, periods);
+            long completed = windowSum(sagaName, stepName, completedCounter, nowMillis, periods);
+            long failed = 0;
+            for (String failedCounter : failedCounters) {
+                failed += windowSum(sagaName, stepName, failedCounter, nowMillis, periods);
+            }
+            windows.put(label(window), new SagaStats.Window(started, completed, failed, failureRate(completed, failed)));
+        }
+        return windows;
+    }
+
+    private long windowSum(String sagaName, String stepName, String counter, long nowMillis, int periods) {
+        Tally tally = tallies.get(new CounterKey(sagaName, stepName, counter));
+        return tally != null ? tally.window.sum(nowMillis, periods) : 0;
+    }
+
+    private static double failureRate(long completed, long failed) {
+        return completed + failed > 0 ? (double) failed / (completed + failed) : 0;
+    }
+
+    private static String label(Duration window) {
+        long seconds = window.toSeconds();
+        if (seconds % 3600 == 0) {
+            return seconds / 3600 + "h";
+        }
+        return seconds % 60 == 0 ? seconds / 60 + "m" : seconds + "s";
+    }
+
+    private String sagaNameOfStep(String stepName) {
+        if (stepName == null) {
+            return null;
+        }
+        // Resolved lazily: the sagas depend on the state manager, which depends on these statistics
+        Map<String, String> names = sagaNamesByStep;
+        if (names == null) {
+            Map<String, String> index = new HashMap<>();
+            Set<String> ambiguous = new HashSet<>();
+            sagas.orderedStream().map(Saga::getDefinition).forEach(definition -> {
+                for (SagaDefinition.StepDefinition step : definition.getSteps()) {
+                    String stepNameOf = step.step().getStepName();
+                    if (index.putIfAbsent(stepNameOf, definition.getSagaName()) != null) {
+                        ambiguous.add(stepNameOf);
+                    }
+                }
+            });
+            ambiguous.forEach(index::remove);
+            names = Map.copyOf(index);
+            sagaNamesByStep = names;
+        }
+        return names.get(stepName);
+    }
+}
@@ -0,0 +1,234 @@
+package com.mystery.sagaorchestrator.service.stream;
+
+import com.mystery.sagaorchestrator.config.SagaStreamProperties;
+import com.mystery.sagaorchestrator.dto.SagaTransition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * In-process fan-out of saga transitions to Server-Sent Events subscribers.
+ *
+ * {@link #publish(SagaTransition)} is called on the saga's dispatcher lane and never blocks: a
+ * saga nobody watches costs one map lookup, and each subscriber only gets the transition offered
+ * to its bounded buffer. Buffers are written to the client by a virtual thread per subscriber
+ * while there is something to send, so idle subscribers hold no thread. A subscriber whose
+ * buffer overflows is a slow consumer and is disconnected instead of slowing the saga down;
+ * clients reconnect and start again from a fresh snapshot. Streams end after the terminal
+ * transition of their saga.
+ *
+ * Only transitions recorded by this instance are seen, i.e. those of sagas whose events are
+ * consumed here. Subscribers are exposed as {@code saga.stream.subscribers}, disconnected slow
+ * consumers are counted as {@code saga.stream.evictions}.
+ */
+@Slf4j
+@Component
+public class SagaTransitionHub {
+
+    private static final Item HEARTBEAT = new Item(null, null, false);
+
+    private final SagaStreamProperties properties;
+    private final Map<Long, List<Subscriber>> subscribersBySaga = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter evictions;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeat;
+
+    public SagaTransitionHub(SagaStreamProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.evictions = Counter.builder("saga.stream.evictions")
+                .description("Saga stream subscribers disconnected because their buffer overflowed")
+                .register(meterRegistry);
+        Gauge.builder("saga.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open saga transition streams on this instance")
+                .register(meterRegistry);
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saga-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void start() {
+        long intervalMillis = properties.getHeartbeat().toMillis();
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        heartbeat.shutdownNow();
+        subscribersBySaga.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    /**
+     * Open a stream of the transitions of one saga, starting with a snapshot of its current state.
+     * The subscriber is registered before {@code snapshot} is read, so a transition recorded while
+     * it is read is not lost but may be sent again after the snapshot. A snapshot of a finished saga
+     * is sent alone and ends the stream.
+     *
+     * @return the emitter to return from the controller, or {@code null} if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Long sagaId, Supplier<Snapshot> snapshot) {
+        if (subscriberCount.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(sagaId, emitter, properties.getBufferSize());
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        // Held as sending until the snapshot is buffered, so transitions published meanwhile wait behind it
+        subscriber.sending.set(true);
+        // Added inside compute so a concurrent remove cannot drop the list it is added to
+        subscribersBySaga.compute(sagaId, (id, subscribers) -> {
+            List<Subscriber> updated = subscribers != null ? subscribers : new CopyOnWriteArrayList<>();
+            updated.add(subscriber);
+            return updated;
+        });
+        Snapshot current;
+        try {
+            current = snapshot.get();
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            throw e;
+        }
+        if (current.finished()) {
+            remove(subscriber);
+        }
+        subscriber.buffer.offerFirst(new Item("snapshot", current.data(), current.finished()));
+        senders.execute(() -> send(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Offer a transition to every subscriber of its saga.
+     */
+    public void publish(SagaTransition transition) {
+        List<Subscriber> subscribers = subscribersBySaga.get(transition.sagaId());
+        if (subscribers == null) {
+            return;
+        }
+        Item item = new Item("transition", transition, transition.terminal());
+        for (Subscriber subscriber : subscribers) {
+            offer(subscriber, item);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    // Private helper methods
+
+    private void offer(Subscriber subscriber, Item item) {
+        if (subscriber.buffer.offerLast(item)) {
+            schedule(subscriber);
+            return;
+        }
+        log.warn("Disconnecting slow saga stream subscriber of saga {}", subscriber.sagaId);
+        evictions.increment();
+        remove(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        do {
+            Item item;
+            while ((item = subscriber.buffer.pollFirst()) != null) {
+                try {
+                    if (item == HEARTBEAT) {
+                        subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                        continue;
+                    }
+                    subscriber.emitter.send(SseEmitter.event().name(item.name()).data(item.data(), MediaType.APPLICATION_JSON));
+                    if (item.last()) {
+                        subscriber.emitter.complete();
+                        return;
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away; the emitter callbacks remove the subscriber
+                    log.debug("Saga stream of saga {} closed: {}", subscriber.sagaId, e.getMessage());
+                    subscriber.emitter.completeWithError(e);
+                    return;
+                }
+            }
+            subscriber.sending.set(false);
+            // Recheck: an item offered after the last poll may have seen sending still set
+        } while (!subscriber.buffer.isEmpty() && subscriber.sending.compareAndSet(false, true));
+    }
+
+    private void sendHeartbeats() {
+        try {
+            subscribersBySaga.values().forEach(subscribers -> subscribers.forEach(subscriber -> offer(subscriber, HEARTBEAT)));
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic task
+            log.error("Saga stream heartbeat failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.removed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscribersBySaga.computeIfPresent(subscriber.sagaId, (sagaId, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * State of a saga sent first on its stream; {@code finished} ends the stream after it.
+     */
+    public record Snapshot(Object data, boolean finished) {
+    }
+
+    private record Item(String name, Object data, boolean last) {
+    }
+
+    private static final class Subscriber {
+
+        private final Long sagaId;
+        private final SseEmitter emitter;
+        private final LinkedBlockingDeque<Item> buffer;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+
+        private Subscriber(Long sagaId, SseEmitter emitter, int bufferSize) {
+            this.sagaId = sagaId;
+            this.emitter = emitter;
+            // One extra slot so the snapshot always fits
+            this.buffer = new LinkedBlockingDeque<>(bufferSize + 1);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.mystery.sagaorchestrator.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SagaCursorTest {
+
+    @Test
+    void roundTripsThroughTheToken() {
+        SagaCursor cursor = new SagaCursor(LocalDateTime.of(2026, 10, 17, 9, 30, 5, 123_456_789), 42L);
+
+        assertThat(SagaCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void keepsTimesWithoutSecondsOrFractions() {
+        SagaCursor cursor = new SagaCursor(LocalDateTime.of(2026, 1, 1, 0, 0), Long.MAX_VALUE);
+
+        assertThat(SagaCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodesUrlSafeWithoutPadding() {
+        for (long id = 1; id < 200; id++) {
+            String token = new SagaCursor(LocalDateTime.of(2026, 10, 17, 23, 59, 59, 999_000_000), id).encode();
+            assertThat(token).doesNotContain("+", "/", "=");
+        }
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        for (String token : new String[]{"", "not base64!", "bm8tc2VwYXJhdG9y", "MjAyNi0xMC0xN3w0Mg"}) {
+            assertThatThrownBy(() -> SagaCursor.decode(token))
+                    .as(token)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Invalid saga cursor");
+        }
+    }
+}
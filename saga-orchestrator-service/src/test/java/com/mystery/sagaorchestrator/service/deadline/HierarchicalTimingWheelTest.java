@@ -0,0 +1,144 @@
+package com.mystery.sagaorchestrator.service.deadline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final int WHEEL_SIZE = 8;
+    private static final long START = 1_003;
+
+    private final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, START);
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void firesNoEarlierThanTheDeadlineAndWithinOneTick() {
+        wheel.schedule(START + 25, "a");
+
+        wheel.advance(START + 20, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(START + 25, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(START + 25 + TICK, fired::add);
+        assertThat(fired).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void firesDueDeadlinesOnTheNextAdvance() {
+        wheel.schedule(START - 500, "overdue");
+        assertThat(wheel.size()).isEqualTo(1);
+
+        wheel.advance(START, fired::add);
+        assertThat(fired).containsExactly("overdue");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadesDeadlinesBeyondTheFirstLevel() {
+        // Level 0 spans 80 ms, level 1 640 ms and level 2 5120 ms
+        wheel.schedule(START + 100, "level1");
+        wheel.schedule(START + 3_000, "level2");
+        wheel.schedule(START + 40_000, "level3");
+
+        wheel.advance(START + 99, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(START + 100 + TICK, fired::add);
+        assertThat(fired).containsExactly("level1");
+        wheel.advance(START + 2_999, fired::add);
+        assertThat(fired).containsExactly("level1");
+        wheel.advance(START + 3_000 + TICK, fired::add);
+        assertThat(fired).containsExactly("level1", "level2");
+        wheel.advance(START + 39_999, fired::add);
+        assertThat(fired).containsExactly("level1", "level2");
+        wheel.advance(START + 40_000 + TICK, fired::add);
+        assertThat(fired).containsExactly("level1", "level2", "level3");
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        HierarchicalTimingWheel.Timeout<String> near = wheel.schedule(START + 30, "near");
+        HierarchicalTimingWheel.Timeout<String> far = wheel.schedule(START + 10_000, "far");
+        wheel.schedule(START + 40, "kept");
+
+        assertThat(wheel.cancel(near)).isTrue();
+        assertThat(wheel.cancel(far)).isTrue();
+        assertThat(wheel.cancel(far)).isFalse();
+        assertThat(near.isPending()).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        wheel.advance(START + 20_000, fired::add);
+        assertThat(fired).containsExactly("kept");
+    }
+
+    @Test
+    void jumpsTheClockWhenNothingIsPending() {
+        wheel.advance(START + 1_000_000, fired::add);
+        wheel.schedule(START + 1_000_050, "after-jump");
+
+        wheel.advance(START + 1_000_049, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(START + 1_000_050 + TICK, fired::add);
+        assertThat(fired).containsExactly("after-jump");
+    }
+
+    @Test
+    void firesEveryTimerWithinOneTickOfItsDeadline() {
+        Random random = new Random(42);
+        Map<String, Long> deadlines = new HashMap<>();
+        Set<String> cancelled = new HashSet<>();
+        List<HierarchicalTimingWheel.Timeout<String>> timeouts = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            long deadline = START + random.nextInt(50_000);
+            String task = "t" + i;
+            deadlines.put(task, deadline);
+            timeouts.add(wheel.schedule(deadline, task));
+        }
+        for (int i = 0; i < 500; i++) {
+            HierarchicalTimingWheel.Timeout<String> timeout = timeouts.get(random.nextInt(timeouts.size()));
+            if (wheel.cancel(timeout)) {
+                cancelled.add(timeout.task());
+            }
+        }
+
+        List<String> byDeadline = new ArrayList<>(deadlines.keySet());
+        byDeadline.removeAll(cancelled);
+        byDeadline.sort(Comparator.comparing(deadlines::get));
+        Set<String> done = new HashSet<>();
+        int due = 0;
+        for (long now = START; now < START + 60_000; now += 1 + random.nextInt(3 * (int) TICK)) {
+            long time = now;
+            wheel.advance(time, task -> {
+                assertThat(deadlines.get(task)).as(task).isLessThanOrEqualTo(time);
+                assertThat(cancelled).doesNotContain(task);
+                assertThat(done.add(task)).as(task).isTrue();
+            });
+            for (; due < byDeadline.size() && deadlines.get(byDeadline.get(due)) + TICK <= time; due++) {
+                String task = byDeadline.get(due);
+                assertThat(done).as("%s due at %d, now %d", task, deadlines.get(task), time).contains(task);
+            }
+        }
+        assertThat(done).hasSize(deadlines.size() - cancelled.size());
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidGeometry() {
+        assertThatThrownBy(() -> new HierarchicalTimingWheel<>(0, WHEEL_SIZE, START))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HierarchicalTimingWheel<>(TICK, 1, START))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
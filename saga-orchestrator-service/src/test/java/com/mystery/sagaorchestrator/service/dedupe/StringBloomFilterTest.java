@@ -0,0 +1,54 @@
+package com.mystery.sagaorchestrator.service.dedupe;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StringBloomFilterTest {
+
+    @Test
+    void neverReportsAnAddedValueAsAbsent() {
+        StringBloomFilter filter = new StringBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("payment-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("payment-" + i)).as("payment-%d", i).isTrue();
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheTargetRate() {
+        StringBloomFilter filter = new StringBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    @Test
+    void treatsContentNotIdentity() {
+        StringBloomFilter filter = new StringBloomFilter(100, 0.01);
+        filter.put(new StringBuilder("saga-").append(7));
+
+        assertThat(filter.mightContain("saga-7")).isTrue();
+        assertThat(filter.mightContain("")).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidSizing() {
+        assertThatThrownBy(() -> new StringBloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StringBloomFilter(100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StringBloomFilter(100, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
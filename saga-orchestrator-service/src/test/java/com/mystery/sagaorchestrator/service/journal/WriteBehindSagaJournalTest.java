@@ -0,0 +1,76 @@
+package com.mystery.sagaorchestrator.service.journal;
+
+import com.mystery.sagaorchestrator.config.SagaJournalProperties;
+import com.mystery.sagaorchestrator.constants.SagaConstants;
+import com.mystery.sagaorchestrator.service.id.SagaIdAllocator;
+import com.mystery.sagaorchestrator.service.outbox.SagaOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WriteBehindSagaJournalTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<String> announced = new ArrayList<>();
+    private WriteBehindSagaJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        SagaJournalProperties properties = new SagaJournalProperties();
+        properties.setMode(SagaJournalProperties.Mode.WRITE_BEHIND);
+        properties.setDurability(SagaJournalProperties.Durability.ASYNC);
+        // The flusher is never started, so entries are written only by the explicit flushes below
+        journal = new WriteBehindSagaJournal(jdbcTemplate, mock(SagaOutbox.class), mock(SagaIdAllocator.class),
+                transactionManager, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void announcesTransitionsOnlyOnceTheyAreWritten() {
+        journal.updateSagaStatus(1L, SagaConstants.SagaStatus.COMPLETED);
+        journal.afterWritten(1L, () -> announced.add("saga 1 completed"));
+        journal.afterWritten(2L, () -> announced.add("saga 2 has nothing pending"));
+
+        assertThat(announced).containsExactly("saga 2 has nothing pending");
+        journal.flush();
+        assertThat(announced).containsExactly("saga 2 has nothing pending", "saga 1 completed");
+    }
+
+    @Test
+    void keepsTheOrderOfASagasTransitions() {
+        journal.updateSagaStatus(1L, SagaConstants.SagaStatus.IN_PROGRESS);
+        journal.afterWritten(1L, () -> announced.add("in progress"));
+        journal.updateSagaStatus(1L, SagaConstants.SagaStatus.COMPLETED);
+        journal.afterWritten(1L, () -> announced.add("completed"));
+
+        journal.flush();
+        assertThat(announced).containsExactly("in progress", "completed");
+    }
+
+    @Test
+    void neverAnnouncesATransitionWhoseWriteFailed() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new DataAccessResourceFailureException("Connection lost"));
+        journal.updateSagaStatus(1L, SagaConstants.SagaStatus.COMPLETED);
+        journal.afterWritten(1L, () -> announced.add("saga 1 completed"));
+
+        journal.flush();
+        assertThat(announced).isEmpty();
+    }
+}